@@ -0,0 +1,85 @@
+package com.creditos.dto;
+
+import com.creditos.util.DecimalFixo;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark da serialização JSON de CreditoResponseDTO com Jackson
+ * ObjectMapper configurado como o da aplicação (JavaTimeModule, datas como texto)
+ *
+ * @author Ednilton Curt Rauh
+ * @version 1.0.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SerializacaoJsonBenchmark {
+
+    /**
+     * Quantidade de créditos na resposta (1 = consulta unitária)
+     */
+    @Param({"1", "100", "1000"})
+    private int quantidade;
+
+    private ObjectWriter writerLista;
+    private ObjectWriter writerItem;
+    private CreditoResponseDTO credito;
+    private List<CreditoResponseDTO> creditos;
+
+    @Setup
+    public void preparar() {
+        JsonMapper mapper = JsonMapper.builder()
+                .addModule(new JavaTimeModule())
+                .build();
+        writerItem = mapper.writerFor(CreditoResponseDTO.class);
+        writerLista = mapper.writerFor(mapper.getTypeFactory().constructCollectionType(List.class, CreditoResponseDTO.class));
+
+        creditos = new ArrayList<>(quantidade);
+        for (int i = 0; i < quantidade; i++) {
+            creditos.add(new CreditoResponseDTO(
+                    String.valueOf(123456 + i),
+                    String.valueOf(7891011 + i / 3),
+                    LocalDate.of(2024, 2, 25).minusDays(i % 365),
+                    DecimalFixo.parse("1500.75"),
+                    i % 2 == 0 ? "ISSQN" : "Outros",
+                    i % 2 == 0,
+                    DecimalFixo.parse("5.00"),
+                    DecimalFixo.parse("30000.00"),
+                    DecimalFixo.parse("5000.00"),
+                    DecimalFixo.parse("25000.00")));
+        }
+        credito = creditos.get(0);
+    }
+
+    @Benchmark
+    public byte[] serializarCredito() throws JsonProcessingException {
+        return writerItem.writeValueAsBytes(credito);
+    }
+
+    @Benchmark
+    public byte[] serializarLista() throws JsonProcessingException {
+        return writerLista.writeValueAsBytes(creditos);
+    }
+}
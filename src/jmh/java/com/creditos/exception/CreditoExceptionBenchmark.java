@@ -0,0 +1,89 @@
+package com.creditos.exception;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark da criação e do lançamento de CreditoException
+ * A profundidade simula a pilha de chamadas até o ponto do lançamento (controller -> service -> repository)
+ * Erros de negócio são criados sem stack trace; erroInterno mantém a pilha e serve de referência
+ *
+ * @author Ednilton Curt Rauh
+ * @version 1.0.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CreditoExceptionBenchmark {
+
+    /**
+     * Quantidade de frames adicionais na pilha no momento da criação
+     */
+    @Param({"0", "50", "150"})
+    private int profundidade;
+
+    @Benchmark
+    public CreditoException criarNfseSemCreditos() {
+        return criarEmProfundidade(profundidade);
+    }
+
+    @Benchmark
+    public Object lancarECapturar() {
+        try {
+            throw criarEmProfundidade(profundidade);
+        } catch (CreditoException ex) {
+            return ex.getCodigoErro();
+        }
+    }
+
+    @Benchmark
+    public CreditoException criarErroInternoComPilha() {
+        return criarErroInternoEmProfundidade(profundidade);
+    }
+
+    /**
+     * Fluxo de consulta sem resultado: lança no ponto mais profundo, o service captura e
+     * relança, e o controller lê os dados da exceção para montar a resposta 404
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public Object consultaSemResultado() {
+        try {
+            try {
+                throw criarEmProfundidade(profundidade);
+            } catch (CreditoException ex) {
+                throw ex;
+            }
+        } catch (CreditoException ex) {
+            return ex.getHttpStatus() + ex.getCodigoErro() + ex.getMensagemUsuario();
+        }
+    }
+
+    private static CreditoException criarErroInternoEmProfundidade(int restante) {
+        if (restante > 0) {
+            return criarErroInternoEmProfundidade(restante - 1);
+        }
+        return CreditoException.erroInterno("falha simulada");
+    }
+
+    private static CreditoException criarEmProfundidade(int restante) {
+        if (restante > 0) {
+            return criarEmProfundidade(restante - 1);
+        }
+        return CreditoException.nfseSemCreditos("7891011");
+    }
+}
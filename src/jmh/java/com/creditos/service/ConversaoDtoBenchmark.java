@@ -0,0 +1,81 @@
+package com.creditos.service;
+
+import com.creditos.dto.CreditoResponseDTO;
+import com.creditos.entity.Credito;
+import com.creditos.util.DecimalFixo;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark da conversão entidade -> DTO feita pelo CreditoService
+ * No mesmo pacote do service para acessar os métodos de conversão
+ *
+ * @author Ednilton Curt Rauh
+ * @version 1.0.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ConversaoDtoBenchmark {
+
+    /**
+     * Quantidade de créditos convertidos por chamada (1 = consulta unitária)
+     */
+    @Param({"1", "100", "1000"})
+    private int quantidade;
+
+    private Credito credito;
+    private List<Credito> creditos;
+
+    @Setup
+    public void preparar() {
+        creditos = new ArrayList<>(quantidade);
+        for (int i = 0; i < quantidade; i++) {
+            creditos.add(novoCredito(i));
+        }
+        credito = creditos.get(0);
+    }
+
+    @Benchmark
+    public CreditoResponseDTO convertToDTO() {
+        return CreditoService.convertToDTO(credito);
+    }
+
+    @Benchmark
+    public List<CreditoResponseDTO> convertToDTOList() {
+        return CreditoService.convertToDTOList(creditos);
+    }
+
+    private static Credito novoCredito(int indice) {
+        Credito credito = new Credito();
+        credito.setId((long) indice + 1);
+        credito.setNumeroCredito(String.valueOf(123456 + indice));
+        credito.setNumeroNfse(String.valueOf(7891011 + indice / 3));
+        credito.setDataConstituicao(LocalDate.of(2024, 2, 25).minusDays(indice % 365));
+        credito.setValorIssqn(DecimalFixo.parse("1500.75"));
+        credito.setTipoCredito(indice % 2 == 0 ? "ISSQN" : "Outros");
+        credito.setSimplesNacional(indice % 2 == 0);
+        credito.setAliquota(DecimalFixo.parse("5.00"));
+        credito.setValorFaturado(DecimalFixo.parse("30000.00"));
+        credito.setValorDeducao(DecimalFixo.parse("5000.00"));
+        credito.setBaseCalculo(DecimalFixo.parse("25000.00"));
+        return credito;
+    }
+}
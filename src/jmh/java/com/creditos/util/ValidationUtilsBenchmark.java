@@ -0,0 +1,104 @@
+package com.creditos.util;
+
+import com.creditos.exception.CreditoException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Benchmark das validações de número de NFS-e e de crédito
+ * Executadas em toda requisição dos endpoints de consulta
+ * Os benchmarks "regex*" reproduzem a implementação anterior (trim + Pattern) para comparação
+ *
+ * @author Ednilton Curt Rauh
+ * @version 1.0.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ValidationUtilsBenchmark {
+
+    /**
+     * Quantidade de dígitos do número (50 é o limite aceito)
+     */
+    @Param({"7", "20", "50"})
+    private int tamanho;
+
+    private static final Pattern REGEX_ANTERIOR = Pattern.compile("^[0-9]{1,50}$");
+
+    private String numeroValido;
+    private String numeroInvalido;
+
+    @Setup
+    public void preparar() {
+        StringBuilder digitos = new StringBuilder(tamanho);
+        for (int i = 0; i < tamanho; i++) {
+            digitos.append((char) ('0' + (i * 7 + 3) % 10));
+        }
+        numeroValido = digitos.toString();
+        // Caractere inválido no final: obriga a varrer o número inteiro
+        numeroInvalido = numeroValido.substring(0, tamanho - 1) + "A";
+    }
+
+    @Benchmark
+    public String validateNumeroNfseValido() {
+        ValidationUtils.validateNumeroNfse(numeroValido);
+        return numeroValido;
+    }
+
+    @Benchmark
+    public Object validateNumeroNfseInvalido() {
+        try {
+            ValidationUtils.validateNumeroNfse(numeroInvalido);
+            return numeroInvalido;
+        } catch (CreditoException ex) {
+            return ex;
+        }
+    }
+
+    @Benchmark
+    public boolean isValidNumeroCreditoValido() {
+        return ValidationUtils.isValidNumeroCredito(numeroValido);
+    }
+
+    @Benchmark
+    public boolean isValidNumeroCreditoInvalido() {
+        return ValidationUtils.isValidNumeroCredito(numeroInvalido);
+    }
+
+    @Benchmark
+    public boolean regexValido() {
+        return validarComRegex(numeroValido);
+    }
+
+    @Benchmark
+    public boolean regexInvalido() {
+        return validarComRegex(numeroInvalido);
+    }
+
+    /**
+     * Implementação anterior de ValidationUtils.isValidNumeroCredito
+     */
+    private static boolean validarComRegex(String numero) {
+        if (numero == null || numero.trim().isEmpty()) {
+            return false;
+        }
+
+        String numeroLimpo = numero.trim();
+        return numeroLimpo.length() <= 50 && REGEX_ANTERIOR.matcher(numeroLimpo).matches();
+    }
+}
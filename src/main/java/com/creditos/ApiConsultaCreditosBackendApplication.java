@@ -2,8 +2,9 @@ package com.creditos;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.kafka.annotation.EnableKafka;
 
-//@EnableKafka
+@EnableKafka
 @SpringBootApplication
 public class ApiConsultaCreditosBackendApplication {
     public static void main(String[] args) {
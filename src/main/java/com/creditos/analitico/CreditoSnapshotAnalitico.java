@@ -0,0 +1,248 @@
+package com.creditos.analitico;
+
+import com.creditos.entity.DecimalFixoType;
+import com.creditos.exception.CreditoException;
+import com.creditos.util.LoggingUtils;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mantém o {@link SnapshotColunar} da tabela credito usado pelas consultas analíticas
+ *
+ * Desabilitado por padrão (app.analitico.habilitado): cada réplica guarda uma cópia da tabela no heap.
+ * Quando habilitado, a primeira carga lê a tabela inteira com um cursor JDBC somente-avanço, como a
+ * exportação, e monta as colunas sem materializar entidades. Enquanto ela não termina, as consultas
+ * respondem 503.
+ *
+ * As atualizações periódicas são incrementais: leem apenas as linhas com id acima do maior id já
+ * carregado e as acrescentam a uma cópia do snapshot anterior, substituída atomicamente. Alterações e
+ * exclusões de linhas já carregadas, e linhas gravadas por outra réplica com id abaixo da marca, só
+ * aparecem na recarga completa, feita no intervalo longo (app.analitico.intervalo-recarga-completa).
+ *
+ * O snapshot nunca passa de app.analitico.maximo-linhas: se a tabela exceder o limite, a carga é
+ * interrompida, o snapshot é descartado e as consultas respondem 503 até uma recarga completa caber.
+ *
+ * Métricas expostas:
+ * - creditos.analitico.atualizacao: duração de cada carga (completa ou incremental)
+ * - creditos.analitico.linhas: linhas no snapshot atual
+ * - creditos.analitico.idade: segundos desde a última atualização bem-sucedida
+ *
+ * @author Ednilton Curt Rauh
+ * @version 1.0.0
+ */
+@Component
+public class CreditoSnapshotAnalitico {
+
+    private static final Logger logger = LoggerFactory.getLogger(CreditoSnapshotAnalitico.class);
+
+    private static final String SQL_CARGA = "SELECT id, numero_credito, numero_nfse, data_constituicao, valor_issqn, " +
+            "tipo_credito, simples_nacional, aliquota, valor_faturado, valor_deducao, base_calculo FROM credito";
+
+    private static final String SQL_INCREMENTO = SQL_CARGA + " WHERE id > ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean habilitado;
+    private final int fetchSize;
+    private final int maximoLinhas;
+    private final long intervaloRecargaCompletaNanos;
+
+    private final Timer timerAtualizacao;
+
+    private volatile SnapshotColunar atual;
+    private volatile long atualizadoEm;
+
+    // Alterados apenas pela thread do agendador (fixedDelay não sobrepõe execuções)
+    private long ultimoId;
+    private long proximaRecargaCompleta;
+
+    @Autowired
+    public CreditoSnapshotAnalitico(JdbcTemplate jdbcTemplate,
+                                    PlatformTransactionManager transactionManager,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${app.analitico.habilitado:false}") boolean habilitado,
+                                    @Value("${app.analitico.fetch-size:5000}") int fetchSize,
+                                    @Value("${app.analitico.maximo-linhas:5000000}") int maximoLinhas,
+                                    @Value("${app.analitico.intervalo-recarga-completa:PT6H}") Duration intervaloRecargaCompleta) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.habilitado = habilitado;
+        this.fetchSize = fetchSize;
+        this.maximoLinhas = maximoLinhas;
+        this.intervaloRecargaCompletaNanos = intervaloRecargaCompleta.toNanos();
+        this.proximaRecargaCompleta = System.nanoTime();
+
+        this.timerAtualizacao = Timer.builder("creditos.analitico.atualizacao")
+                .description("Duração da carga do snapshot colunar analítico")
+                .register(meterRegistry);
+
+        Gauge.builder("creditos.analitico.linhas", this, s -> s.atual != null ? s.atual.getQuantidade() : Double.NaN)
+                .description("Linhas no snapshot colunar analítico")
+                .register(meterRegistry);
+        Gauge.builder("creditos.analitico.idade", this, CreditoSnapshotAnalitico::idadeSegundos)
+                .description("Segundos desde a última atualização do snapshot colunar analítico")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Snapshot atual
+     *
+     * @return Snapshot mais recente
+     * @throws CreditoException se não houver snapshot: desabilitado, carregando ou acima do limite de linhas (503)
+     */
+    public SnapshotColunar obter() {
+        SnapshotColunar snapshot = atual;
+        if (snapshot == null) {
+            throw CreditoException.indiceIndisponivel("analitico");
+        }
+        return snapshot;
+    }
+
+    /**
+     * Atualiza o snapshot e substitui o atual atomicamente
+     * Recarga completa na inicialização e a cada intervalo longo; nas demais execuções, só as linhas novas
+     */
+    @Scheduled(initialDelay = 0, fixedDelayString = "${app.analitico.intervalo-atualizacao:PT5M}")
+    public void atualizar() {
+        if (!habilitado) {
+            return;
+        }
+
+        long inicio = System.nanoTime();
+        SnapshotColunar anterior = atual;
+        boolean completa = inicio - proximaRecargaCompleta >= 0;
+        if (!completa && anterior == null) {
+            // Descartado por exceder o limite: só tenta de novo na próxima recarga completa
+            return;
+        }
+
+        try {
+            Carga carga;
+            if (completa) {
+                int capacidade = anterior != null ? anterior.getQuantidade() + anterior.getQuantidade() / 8 : 1024;
+                carga = new Carga(new SnapshotColunar.Construtor(Math.min(capacidade, maximoLinhas)), null, 0L);
+            } else {
+                carga = new Carga(null, anterior, ultimoId);
+            }
+
+            transactionTemplate.execute(status -> {
+                jdbcTemplate.query(con -> {
+                    PreparedStatement ps = con.prepareStatement(completa ? SQL_CARGA : SQL_INCREMENTO,
+                            ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                    ps.setFetchSize(fetchSize);
+                    if (!completa) {
+                        ps.setLong(1, carga.maiorId);
+                    }
+                    return ps;
+                }, carga);
+                return null;
+            });
+
+            SnapshotColunar novo = carga.construtor != null ? carga.construtor.construir() : anterior;
+            atual = novo;
+            ultimoId = carga.maiorId;
+            atualizadoEm = System.currentTimeMillis();
+            if (completa) {
+                proximaRecargaCompleta = inicio + intervaloRecargaCompletaNanos;
+            }
+
+            long duracao = System.nanoTime() - inicio;
+            timerAtualizacao.record(duracao, TimeUnit.NANOSECONDS);
+            LoggingUtils.logPerformance(logger, completa ? "Recarga completa do snapshot analítico"
+                            : "Atualização incremental do snapshot analítico",
+                    TimeUnit.NANOSECONDS.toMillis(duracao), novo.getQuantidade());
+
+        } catch (LimiteExcedido ex) {
+            // Descarta o snapshot para não manter uma cópia parcial ou crescente no heap
+            atual = null;
+            ultimoId = 0L;
+            proximaRecargaCompleta = inicio + intervaloRecargaCompletaNanos;
+            LoggingUtils.logErro(logger, "atualização do snapshot analítico",
+                    "tabela credito excede o limite de linhas do snapshot", String.valueOf(maximoLinhas));
+
+        } catch (Exception ex) {
+            // Mantém o snapshot anterior; sem snapshot as consultas respondem 503 até a próxima tentativa
+            LoggingUtils.logErroInterno(logger, "atualização do snapshot analítico", ex, null);
+        }
+    }
+
+    // ================================================
+    // MÉTODOS PRIVADOS AUXILIARES
+    // ================================================
+
+    private double idadeSegundos() {
+        if (atual == null) {
+            return Double.NaN;
+        }
+        return (System.currentTimeMillis() - atualizadoEm) / 1000.0;
+    }
+
+    /**
+     * Acumula as linhas lidas; na carga incremental só copia o snapshot anterior se houver linha nova
+     */
+    private final class Carga implements RowCallbackHandler {
+
+        private final SnapshotColunar base;
+        private SnapshotColunar.Construtor construtor;
+        private long maiorId;
+
+        Carga(SnapshotColunar.Construtor construtor, SnapshotColunar base, long maiorId) {
+            this.construtor = construtor;
+            this.base = base;
+            this.maiorId = maiorId;
+        }
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            if (construtor == null) {
+                construtor = new SnapshotColunar.Construtor(base, 1024);
+            }
+            if (construtor.getQuantidade() >= maximoLinhas) {
+                throw new LimiteExcedido();
+            }
+
+            maiorId = Math.max(maiorId, rs.getLong(1));
+            construtor.adicionar(
+                    rs.getString(2),
+                    rs.getString(3),
+                    rs.getDate(4).toLocalDate(),
+                    DecimalFixoType.ler(rs, 5),
+                    rs.getString(6),
+                    rs.getBoolean(7),
+                    DecimalFixoType.ler(rs, 8),
+                    DecimalFixoType.ler(rs, 9),
+                    DecimalFixoType.ler(rs, 10),
+                    DecimalFixoType.ler(rs, 11));
+        }
+    }
+
+    /**
+     * Interrompe a carga quando a tabela excede app.analitico.maximo-linhas
+     */
+    private static final class LimiteExcedido extends RuntimeException {
+
+        private static final long serialVersionUID = 1L;
+
+        LimiteExcedido() {
+            super(null, null, false, false);
+        }
+    }
+}
@@ -0,0 +1,571 @@
+package com.creditos.analitico;
+
+import com.creditos.dto.CreditoResponseDTO;
+import com.creditos.dto.EstatisticasDTO;
+import com.creditos.util.ConsistenciaIssqn;
+import com.creditos.util.DecimalFixo;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Cópia colunar e imutável da tabela credito para consultas analíticas em memória
+ *
+ * Cada coluna é um array de primitivos indexado pela linha:
+ * - valores monetários em centavos (long), exatos para NUMERIC(15, 2)
+ * - alíquota em pontos-base (short): 5,00% = 500, no máximo 10000
+ * - data de constituição em dias desde 1970-01-01 (int)
+ * - tipo de crédito codificado por dicionário (short) e Simples Nacional em um BitSet
+ *
+ * Cada consulta roda em duas fases: {@link #selecionar(Filtro)} percorre as colunas filtradas
+ * em um laço simples e devolve o vetor de linhas aceitas; a agregação ou listagem percorre
+ * apenas esse vetor. Nenhum objeto é criado por linha: DecimalFixo, BigDecimal e DTOs só aparecem
+ * no resultado. Construído por {@link Construtor} e nunca alterado depois, pode ser lido por várias
+ * threads sem sincronização.
+ *
+ * @author Ednilton Curt Rauh
+ * @version 1.0.0
+ */
+public final class SnapshotColunar {
+
+    /** Alíquota máxima em pontos-base (100%) */
+    static final int ALIQUOTA_MAXIMA_PONTOS_BASE = 10_000;
+
+    /**
+     * Critério de agrupamento das agregações
+     */
+    public enum Agrupamento {
+        /** Um único grupo com todas as linhas filtradas */
+        NENHUM,
+        /** Por tipo de crédito */
+        TIPO,
+        /** Por mês de constituição (chave yyyy-MM) */
+        MES,
+        /** Por opção pelo Simples Nacional (chave "true" / "false") */
+        SIMPLES_NACIONAL
+    }
+
+    /**
+     * Coluna verificada na busca de duplicidades
+     */
+    public enum Coluna {
+        CREDITO, NFSE
+    }
+
+    private final int quantidade;
+    private final String[] numerosCredito;
+    private final String[] numerosNfse;
+    private final int[] datas;
+    private final long[] valoresIssqn;
+    private final short[] tipos;
+    private final String[] dicionarioTipos;
+    private final BitSet simplesNacional;
+    private final short[] aliquotas;
+    private final long[] valoresFaturados;
+    private final long[] valoresDeducao;
+    private final long[] basesCalculo;
+    private final int diaMinimo;
+    private final int diaMaximo;
+    private final long geradoEm;
+
+    private SnapshotColunar(Construtor construtor) {
+        this.quantidade = construtor.quantidade;
+        this.numerosCredito = Arrays.copyOf(construtor.numerosCredito, quantidade);
+        this.numerosNfse = Arrays.copyOf(construtor.numerosNfse, quantidade);
+        this.datas = Arrays.copyOf(construtor.datas, quantidade);
+        this.valoresIssqn = Arrays.copyOf(construtor.valoresIssqn, quantidade);
+        this.tipos = Arrays.copyOf(construtor.tipos, quantidade);
+        this.dicionarioTipos = construtor.dicionarioTipos.toArray(new String[0]);
+        this.simplesNacional = (BitSet) construtor.simplesNacional.clone();
+        this.aliquotas = Arrays.copyOf(construtor.aliquotas, quantidade);
+        this.valoresFaturados = Arrays.copyOf(construtor.valoresFaturados, quantidade);
+        this.valoresDeducao = Arrays.copyOf(construtor.valoresDeducao, quantidade);
+        this.basesCalculo = Arrays.copyOf(construtor.basesCalculo, quantidade);
+
+        int minimo = Integer.MAX_VALUE;
+        int maximo = Integer.MIN_VALUE;
+        for (int i = 0; i < quantidade; i++) {
+            minimo = Math.min(minimo, datas[i]);
+            maximo = Math.max(maximo, datas[i]);
+        }
+        this.diaMinimo = minimo;
+        this.diaMaximo = maximo;
+        this.geradoEm = System.currentTimeMillis();
+    }
+
+    public int getQuantidade() { return quantidade; }
+    public long getGeradoEm() { return geradoEm; }
+
+    // ================================================
+    // SELEÇÃO
+    // ================================================
+
+    /**
+     * Linhas aceitas pelo filtro, em ordem crescente
+     * Os critérios são lidos uma vez para variáveis locais; o laço só compara primitivos
+     *
+     * @param filtro Filtro das linhas
+     * @return Índices das linhas aceitas
+     */
+    int[] selecionar(Filtro filtro) {
+        int diaInicio = filtro.diaInicio;
+        int diaFim = filtro.diaFim;
+        int aliquotaMinima = filtro.aliquotaMinima;
+        int aliquotaMaxima = filtro.aliquotaMaxima;
+        boolean porTipo = filtro.tipoCredito != null;
+        int tipo = porTipo ? codigoTipo(filtro.tipoCredito) : -1;
+        boolean porSimples = filtro.simplesNacional != null;
+        boolean simples = porSimples && filtro.simplesNacional;
+
+        if (porTipo && tipo < 0) {
+            return new int[0];
+        }
+
+        int[] linhas = new int[quantidade];
+        int aceitas = 0;
+        for (int i = 0; i < quantidade; i++) {
+            int dia = datas[i];
+            short aliquota = aliquotas[i];
+            if (dia < diaInicio || dia > diaFim || aliquota < aliquotaMinima || aliquota > aliquotaMaxima) {
+                continue;
+            }
+            if (porTipo && tipos[i] != tipo) {
+                continue;
+            }
+            if (porSimples && simplesNacional.get(i) != simples) {
+                continue;
+            }
+            linhas[aceitas++] = i;
+        }
+        return aceitas == quantidade ? linhas : Arrays.copyOf(linhas, aceitas);
+    }
+
+    // ================================================
+    // AGREGAÇÕES
+    // ================================================
+
+    /**
+     * Quantidade, soma, média, mínimo e máximo do ISSQN das linhas filtradas, por agrupamento
+     * Grupos sem linhas não aparecem; o resultado vem ordenado pela chave
+     *
+     * @param filtro Filtro das linhas
+     * @param agrupamento Critério de agrupamento
+     * @return Um grupo por chave encontrada
+     * @throws ArithmeticException se a soma de um grupo exceder o intervalo de long (em centavos)
+     */
+    public List<EstatisticasDTO.Grupo> agregar(Filtro filtro, Agrupamento agrupamento) {
+        int diaInicio = Math.max(filtro.diaInicio, diaMinimo);
+        int diaFim = Math.min(filtro.diaFim, diaMaximo);
+        int[] iniciosMes = agrupamento == Agrupamento.MES && diaInicio <= diaFim
+                ? iniciosDeMes(diaInicio, diaFim) : new int[]{Integer.MIN_VALUE};
+
+        int grupos;
+        switch (agrupamento) {
+            case TIPO: grupos = dicionarioTipos.length; break;
+            case MES: grupos = iniciosMes.length; break;
+            case SIMPLES_NACIONAL: grupos = 2; break;
+            default: grupos = 1;
+        }
+
+        long[] quantidades = new long[grupos];
+        long[] somas = new long[grupos];
+        long[] minimos = new long[grupos];
+        long[] maximos = new long[grupos];
+        Arrays.fill(minimos, Long.MAX_VALUE);
+        Arrays.fill(maximos, Long.MIN_VALUE);
+
+        for (int i : selecionar(filtro)) {
+            int grupo;
+            switch (agrupamento) {
+                case TIPO: grupo = tipos[i]; break;
+                case MES: grupo = mesDoDia(iniciosMes, datas[i]); break;
+                case SIMPLES_NACIONAL: grupo = simplesNacional.get(i) ? 1 : 0; break;
+                default: grupo = 0;
+            }
+
+            long valor = valoresIssqn[i];
+            quantidades[grupo]++;
+            somas[grupo] = Math.addExact(somas[grupo], valor);
+            if (valor < minimos[grupo]) {
+                minimos[grupo] = valor;
+            }
+            if (valor > maximos[grupo]) {
+                maximos[grupo] = valor;
+            }
+        }
+
+        List<EstatisticasDTO.Grupo> resultado = new ArrayList<>();
+        for (int grupo = 0; grupo < grupos; grupo++) {
+            if (quantidades[grupo] == 0) {
+                continue;
+            }
+            DecimalFixo total = DecimalFixo.deCentesimos(somas[grupo]);
+            resultado.add(new EstatisticasDTO.Grupo(
+                    chave(agrupamento, iniciosMes, grupo),
+                    quantidades[grupo],
+                    total.paraBigDecimal(),
+                    total.dividir(quantidades[grupo]).paraBigDecimal(),
+                    reais(minimos[grupo]),
+                    reais(maximos[grupo])));
+        }
+
+        if (agrupamento == Agrupamento.TIPO) {
+            resultado.sort((a, b) -> a.getChave().compareTo(b.getChave()));
+        }
+        return resultado;
+    }
+
+    // ================================================
+    // LISTAGENS
+    // ================================================
+
+    /**
+     * Linhas filtradas ordenadas pela alíquota (empates na ordem de carga)
+     *
+     * @param filtro Filtro das linhas
+     * @param limite Quantidade máxima de linhas
+     * @return Créditos em ordem crescente de alíquota
+     */
+    public List<CreditoResponseDTO> listarPorAliquota(Filtro filtro, int limite) {
+        int[] linhas = selecionar(filtro);
+
+        // Alíquota nos 32 bits altos e linha nos baixos: ordenar os longs ordena por (alíquota, linha)
+        long[] chaves = new long[linhas.length];
+        for (int k = 0; k < linhas.length; k++) {
+            chaves[k] = ((long) aliquotas[linhas[k]] << 32) | linhas[k];
+        }
+
+        Arrays.sort(chaves);
+        int tamanho = Math.min(chaves.length, limite);
+        List<CreditoResponseDTO> resultado = new ArrayList<>(tamanho);
+        for (int k = 0; k < tamanho; k++) {
+            resultado.add(linha((int) chaves[k]));
+        }
+        return resultado;
+    }
+
+    /**
+     * Linhas em que o ISSQN difere de base de cálculo x alíquota / 100 por mais de 0,01
+     * Mesmo critério de auditoria do repositório, avaliado em inteiros exatos (ConsistenciaIssqn)
+     *
+     * @param limite Quantidade máxima de linhas
+     * @return Créditos inconsistentes na ordem de carga
+     */
+    public List<CreditoResponseDTO> listarInconsistentes(int limite) {
+        List<CreditoResponseDTO> resultado = new ArrayList<>();
+        for (int i = 0; i < quantidade && resultado.size() < limite; i++) {
+            if (ConsistenciaIssqn.inconsistente(valoresIssqn[i], basesCalculo[i], aliquotas[i])) {
+                resultado.add(linha(i));
+            }
+        }
+        return resultado;
+    }
+
+    /**
+     * Números que aparecem em mais de uma linha, com a quantidade de ocorrências
+     * Ordenados da maior para a menor quantidade, e pelo número em caso de empate
+     *
+     * @param coluna Coluna verificada
+     * @param limite Quantidade máxima de números
+     * @return Mapa ordenado número → ocorrências
+     */
+    public Map<String, Integer> duplicados(Coluna coluna, int limite) {
+        String[] valores = coluna == Coluna.CREDITO ? numerosCredito : numerosNfse;
+
+        Map<String, int[]> contagens = new HashMap<>(Math.max(16, quantidade * 4 / 3));
+        for (int i = 0; i < quantidade; i++) {
+            int[] contagem = contagens.get(valores[i]);
+            if (contagem == null) {
+                contagens.put(valores[i], new int[]{1});
+            } else {
+                contagem[0]++;
+            }
+        }
+
+        List<Map.Entry<String, int[]>> repetidos = new ArrayList<>();
+        for (Map.Entry<String, int[]> entrada : contagens.entrySet()) {
+            if (entrada.getValue()[0] > 1) {
+                repetidos.add(entrada);
+            }
+        }
+        repetidos.sort((a, b) -> a.getValue()[0] != b.getValue()[0]
+                ? Integer.compare(b.getValue()[0], a.getValue()[0])
+                : a.getKey().compareTo(b.getKey()));
+
+        Map<String, Integer> resultado = new LinkedHashMap<>();
+        for (Map.Entry<String, int[]> entrada : repetidos.subList(0, Math.min(limite, repetidos.size()))) {
+            resultado.put(entrada.getKey(), entrada.getValue()[0]);
+        }
+        return resultado;
+    }
+
+    // ================================================
+    // CONVERSÕES
+    // ================================================
+
+    /**
+     * Converte uma alíquota percentual em pontos-base
+     *
+     * @throws IllegalArgumentException se estiver fora de 0..100
+     */
+    static short pontosBase(DecimalFixo aliquota) {
+        long pontos = aliquota.getCentesimos();
+        if (pontos < 0 || pontos > ALIQUOTA_MAXIMA_PONTOS_BASE) {
+            throw new IllegalArgumentException("Alíquota fora do intervalo 0..100: " + aliquota);
+        }
+        return (short) pontos;
+    }
+
+    static BigDecimal reais(long centavos) {
+        return BigDecimal.valueOf(centavos, 2);
+    }
+
+    // ================================================
+    // MÉTODOS PRIVADOS AUXILIARES
+    // ================================================
+
+    private CreditoResponseDTO linha(int i) {
+        return new CreditoResponseDTO(
+                numerosCredito[i],
+                numerosNfse[i],
+                LocalDate.ofEpochDay(datas[i]),
+                DecimalFixo.deCentesimos(valoresIssqn[i]),
+                dicionarioTipos[tipos[i]],
+                simplesNacional.get(i),
+                DecimalFixo.deCentesimos(aliquotas[i]),
+                DecimalFixo.deCentesimos(valoresFaturados[i]),
+                DecimalFixo.deCentesimos(valoresDeducao[i]),
+                DecimalFixo.deCentesimos(basesCalculo[i]));
+    }
+
+    /**
+     * Código do tipo no dicionário, ou -1 se nenhuma linha tiver esse tipo
+     */
+    int codigoTipo(String tipoCredito) {
+        for (int codigo = 0; codigo < dicionarioTipos.length; codigo++) {
+            if (dicionarioTipos[codigo].equalsIgnoreCase(tipoCredito)) {
+                return codigo;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Primeiro dia (epoch) de cada mês que intersecta [diaInicio, diaFim], em ordem crescente
+     */
+    private static int[] iniciosDeMes(int diaInicio, int diaFim) {
+        List<Integer> inicios = new ArrayList<>();
+        LocalDate mes = LocalDate.ofEpochDay(diaInicio).withDayOfMonth(1);
+        while (mes.toEpochDay() <= diaFim) {
+            inicios.add((int) mes.toEpochDay());
+            mes = mes.plusMonths(1);
+        }
+
+        int[] resultado = new int[inicios.size()];
+        for (int k = 0; k < resultado.length; k++) {
+            resultado[k] = inicios.get(k);
+        }
+        return resultado;
+    }
+
+    private static int mesDoDia(int[] iniciosMes, int dia) {
+        int posicao = Arrays.binarySearch(iniciosMes, dia);
+        return posicao >= 0 ? posicao : -posicao - 2;
+    }
+
+    private String chave(Agrupamento agrupamento, int[] iniciosMes, int grupo) {
+        switch (agrupamento) {
+            case TIPO: return dicionarioTipos[grupo];
+            case MES: return LocalDate.ofEpochDay(iniciosMes[grupo]).toString().substring(0, 7);
+            case SIMPLES_NACIONAL: return String.valueOf(grupo == 1);
+            default: return "total";
+        }
+    }
+
+    // ================================================
+    // FILTRO
+    // ================================================
+
+    /**
+     * Filtro de linhas; critérios não informados aceitam qualquer valor
+     * Os limites são convertidos uma única vez para as unidades das colunas
+     */
+    public static final class Filtro {
+
+        private int diaInicio = Integer.MIN_VALUE;
+        private int diaFim = Integer.MAX_VALUE;
+        private int aliquotaMinima = Integer.MIN_VALUE;
+        private int aliquotaMaxima = Integer.MAX_VALUE;
+        private String tipoCredito;
+        private Boolean simplesNacional;
+
+        public static Filtro todos() {
+            return new Filtro();
+        }
+
+        public Filtro periodo(LocalDate inicio, LocalDate fim) {
+            this.diaInicio = inicio != null ? (int) inicio.toEpochDay() : Integer.MIN_VALUE;
+            this.diaFim = fim != null ? (int) fim.toEpochDay() : Integer.MAX_VALUE;
+            return this;
+        }
+
+        public Filtro aliquota(BigDecimal minima, BigDecimal maxima) {
+            // Arredonda para dentro da faixa: limites com mais de duas casas não excluem linhas válidas
+            this.aliquotaMinima = minima != null
+                    ? limitar(minima.movePointRight(2).setScale(0, RoundingMode.CEILING)) : Integer.MIN_VALUE;
+            this.aliquotaMaxima = maxima != null
+                    ? limitar(maxima.movePointRight(2).setScale(0, RoundingMode.FLOOR)) : Integer.MAX_VALUE;
+            return this;
+        }
+
+        public Filtro tipoCredito(String tipoCredito) {
+            this.tipoCredito = tipoCredito;
+            return this;
+        }
+
+        public Filtro simplesNacional(Boolean simplesNacional) {
+            this.simplesNacional = simplesNacional;
+            return this;
+        }
+
+        private static int limitar(BigDecimal pontosBase) {
+            return pontosBase.max(BigDecimal.valueOf(-1)).min(BigDecimal.valueOf(ALIQUOTA_MAXIMA_PONTOS_BASE + 1))
+                    .intValueExact();
+        }
+    }
+
+    // ================================================
+    // CONSTRUÇÃO
+    // ================================================
+
+    /**
+     * Acumula as linhas em arrays que crescem por duplicação; {@link #construir()} recorta e congela
+     * Não é thread-safe: pertence à thread que lê a tabela
+     */
+    public static final class Construtor {
+
+        private int quantidade;
+        private String[] numerosCredito;
+        private String[] numerosNfse;
+        private int[] datas;
+        private long[] valoresIssqn;
+        private short[] tipos;
+        private final List<String> dicionarioTipos = new ArrayList<>();
+        private final Map<String, Short> codigosTipo = new HashMap<>();
+        private final BitSet simplesNacional = new BitSet();
+        private short[] aliquotas;
+        private long[] valoresFaturados;
+        private long[] valoresDeducao;
+        private long[] basesCalculo;
+
+        public Construtor(int capacidadeInicial) {
+            int capacidade = Math.max(16, capacidadeInicial);
+            numerosCredito = new String[capacidade];
+            numerosNfse = new String[capacidade];
+            datas = new int[capacidade];
+            valoresIssqn = new long[capacidade];
+            tipos = new short[capacidade];
+            aliquotas = new short[capacidade];
+            valoresFaturados = new long[capacidade];
+            valoresDeducao = new long[capacidade];
+            basesCalculo = new long[capacidade];
+        }
+
+        /**
+         * Começa com as linhas de um snapshot existente, para acrescentar apenas as novas
+         * As colunas e o dicionário de tipos são copiados; o snapshot base não é alterado
+         *
+         * @param base Snapshot anterior
+         * @param capacidadeExtra Linhas novas esperadas além das do snapshot base
+         */
+        public Construtor(SnapshotColunar base, int capacidadeExtra) {
+            this(base.quantidade + Math.max(0, capacidadeExtra));
+            int n = base.quantidade;
+            System.arraycopy(base.numerosCredito, 0, numerosCredito, 0, n);
+            System.arraycopy(base.numerosNfse, 0, numerosNfse, 0, n);
+            System.arraycopy(base.datas, 0, datas, 0, n);
+            System.arraycopy(base.valoresIssqn, 0, valoresIssqn, 0, n);
+            System.arraycopy(base.tipos, 0, tipos, 0, n);
+            System.arraycopy(base.aliquotas, 0, aliquotas, 0, n);
+            System.arraycopy(base.valoresFaturados, 0, valoresFaturados, 0, n);
+            System.arraycopy(base.valoresDeducao, 0, valoresDeducao, 0, n);
+            System.arraycopy(base.basesCalculo, 0, basesCalculo, 0, n);
+            simplesNacional.or(base.simplesNacional);
+            for (short codigo = 0; codigo < base.dicionarioTipos.length; codigo++) {
+                dicionarioTipos.add(base.dicionarioTipos[codigo]);
+                codigosTipo.put(base.dicionarioTipos[codigo], codigo);
+            }
+            quantidade = n;
+        }
+
+        public int getQuantidade() {
+            return quantidade;
+        }
+
+        /**
+         * Adiciona uma linha da tabela credito
+         *
+         * @throws IllegalArgumentException se a alíquota estiver fora de 0..100
+         */
+        public Construtor adicionar(String numeroCredito, String numeroNfse, LocalDate dataConstituicao,
+                                    DecimalFixo valorIssqn, String tipoCredito, boolean simples,
+                                    DecimalFixo aliquota, DecimalFixo valorFaturado, DecimalFixo valorDeducao,
+                                    DecimalFixo baseCalculo) {
+            if (quantidade == datas.length) {
+                crescer();
+            }
+
+            int i = quantidade;
+            numerosCredito[i] = numeroCredito;
+            numerosNfse[i] = numeroNfse;
+            datas[i] = (int) dataConstituicao.toEpochDay();
+            valoresIssqn[i] = valorIssqn.getCentesimos();
+            tipos[i] = codificar(tipoCredito);
+            simplesNacional.set(i, simples);
+            aliquotas[i] = pontosBase(aliquota);
+            valoresFaturados[i] = valorFaturado.getCentesimos();
+            valoresDeducao[i] = valorDeducao.getCentesimos();
+            basesCalculo[i] = baseCalculo.getCentesimos();
+            quantidade++;
+            return this;
+        }
+
+        public SnapshotColunar construir() {
+            return new SnapshotColunar(this);
+        }
+
+        private short codificar(String tipoCredito) {
+            Short codigo = codigosTipo.get(tipoCredito);
+            if (codigo == null) {
+                if (dicionarioTipos.size() > Short.MAX_VALUE) {
+                    throw new IllegalStateException("Tipos de crédito distintos excedem o dicionário");
+                }
+                codigo = (short) dicionarioTipos.size();
+                dicionarioTipos.add(tipoCredito);
+                codigosTipo.put(tipoCredito, codigo);
+            }
+            return codigo;
+        }
+
+        private void crescer() {
+            int capacidade = datas.length * 2;
+            numerosCredito = Arrays.copyOf(numerosCredito, capacidade);
+            numerosNfse = Arrays.copyOf(numerosNfse, capacidade);
+            datas = Arrays.copyOf(datas, capacidade);
+            valoresIssqn = Arrays.copyOf(valoresIssqn, capacidade);
+            tipos = Arrays.copyOf(tipos, capacidade);
+            aliquotas = Arrays.copyOf(aliquotas, capacidade);
+            valoresFaturados = Arrays.copyOf(valoresFaturados, capacidade);
+            valoresDeducao = Arrays.copyOf(valoresDeducao, capacidade);
+            basesCalculo = Arrays.copyOf(basesCalculo, capacidade);
+        }
+    }
+}
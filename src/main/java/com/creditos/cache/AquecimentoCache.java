@@ -0,0 +1,191 @@
+package com.creditos.cache;
+
+import com.creditos.service.CreditoLoteService;
+import com.creditos.util.LoggingUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Aquecimento do cache "creditos" com as NFS-e mais consultadas, antes de a instância receber tráfego
+ *
+ * - Durante a execução, cada consulta por NFS-e com resultado alimenta um TopKChaves (Space-Saving)
+ * - Periodicamente e no desligamento, as top-K NFS-e são gravadas em arquivo local (numero;contagem)
+ *   e as contagens são envelhecidas, para que o ranking acompanhe o tráfego recente
+ * - Na inicialização (ApplicationRunner), o arquivo é lido e as NFS-e são carregadas no cache com as
+ *   consultas IN em blocos do CreditoLoteService. O Spring Boot só publica a prontidão
+ *   (/actuator/health/readiness = UP) depois que os runners terminam, então a instância entra no
+ *   balanceador já com o cache aquecido. O tempo máximo limita quanto a prontidão pode atrasar.
+ *
+ * @author Ednilton Curt Rauh
+ * @version 1.0.0
+ */
+@Component
+public class AquecimentoCache implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(AquecimentoCache.class);
+
+    private static final int TAMANHO_BUFFER = 65536;
+
+    private final CreditoLoteService creditoLoteService;
+    private final boolean habilitado;
+    private final Path arquivo;
+    private final int topK;
+    private final int tamanhoBloco;
+    private final Duration tempoMaximo;
+    private final TopKChaves nfsesMaisConsultadas;
+
+    @Autowired
+    public AquecimentoCache(CreditoLoteService creditoLoteService,
+                            @Value("${app.aquecimento.habilitado:true}") boolean habilitado,
+                            @Value("${app.aquecimento.arquivo:${java.io.tmpdir}/consulta-creditos-top-nfse.txt}") String arquivo,
+                            @Value("${app.aquecimento.top-k:5000}") int topK,
+                            @Value("${app.aquecimento.tamanho-bloco:1000}") int tamanhoBloco,
+                            @Value("${app.aquecimento.tempo-maximo:PT60S}") Duration tempoMaximo) {
+        this.creditoLoteService = creditoLoteService;
+        this.habilitado = habilitado;
+        this.arquivo = Paths.get(arquivo);
+        this.topK = topK;
+        this.tamanhoBloco = tamanhoBloco;
+        this.tempoMaximo = tempoMaximo;
+        // Contadores extras reduzem o erro das estimativas na fronteira do top-K
+        this.nfsesMaisConsultadas = new TopKChaves(topK * 4, TAMANHO_BUFFER);
+    }
+
+    /**
+     * Registra uma consulta por NFS-e que retornou créditos
+     */
+    public void registrarConsultaNfse(String numeroNfse) {
+        if (habilitado) {
+            nfsesMaisConsultadas.registrar(numeroNfse);
+        }
+    }
+
+    // ================================================
+    // AQUECIMENTO NA INICIALIZAÇÃO
+    // ================================================
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!habilitado) {
+            return;
+        }
+        long inicio = System.currentTimeMillis();
+        long limite = inicio + tempoMaximo.toMillis();
+
+        try {
+            List<String> numeros = lerArquivo();
+            int emCache = 0;
+            for (int i = 0; i < numeros.size(); i += tamanhoBloco) {
+                if (System.currentTimeMillis() > limite) {
+                    LoggingUtils.logCacheOperacao(logger, "aquecimento",
+                            LoggingUtils.formatarMensagem("Tempo máximo atingido",
+                                    "carregadas", String.valueOf(i), "total", String.valueOf(numeros.size())));
+                    break;
+                }
+                emCache += creditoLoteService.aquecerNfses(
+                        numeros.subList(i, Math.min(i + tamanhoBloco, numeros.size())));
+            }
+            LoggingUtils.logPerformance(logger, "Aquecimento do cache de NFS-e",
+                    System.currentTimeMillis() - inicio, emCache);
+
+        } catch (Exception ex) {
+            // Sem aquecimento a instância continua funcional, apenas com cache frio
+            LoggingUtils.logErroInterno(logger, "Aquecimento do cache", ex, arquivo.toString());
+        }
+    }
+
+    private List<String> lerArquivo() throws IOException {
+        List<String> numeros = new ArrayList<>();
+        if (!Files.isReadable(arquivo)) {
+            LoggingUtils.logCacheOperacao(logger, "aquecimento", "Sem ranking salvo em " + arquivo);
+            return numeros;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(arquivo, StandardCharsets.UTF_8)) {
+            String linha;
+            while ((linha = reader.readLine()) != null && numeros.size() < topK) {
+                if (linha.isEmpty() || linha.startsWith("#")) {
+                    continue;
+                }
+                int separador = linha.indexOf(';');
+                String numero = separador < 0 ? linha : linha.substring(0, separador);
+                long contagem = separador < 0 ? 1 : parseContagem(linha.substring(separador + 1));
+                // O ranking anterior continua valendo até ser superado pelo tráfego novo
+                nfsesMaisConsultadas.semear(numero, contagem);
+                numeros.add(numero);
+            }
+        }
+        return numeros;
+    }
+
+    private static long parseContagem(String valor) {
+        try {
+            return Math.max(1, Long.parseLong(valor.trim()));
+        } catch (NumberFormatException ex) {
+            return 1;
+        }
+    }
+
+    // ================================================
+    // PERSISTÊNCIA DO RANKING
+    // ================================================
+
+    @Scheduled(fixedDelayString = "${app.aquecimento.intervalo-persistencia:PT5M}",
+            initialDelayString = "${app.aquecimento.intervalo-persistencia:PT5M}")
+    public void persistir() {
+        if (!habilitado) {
+            return;
+        }
+        List<TopKChaves.Estimativa> ranking = nfsesMaisConsultadas.maisFrequentes(topK);
+        if (ranking.isEmpty()) {
+            return;
+        }
+
+        try {
+            Path diretorio = arquivo.toAbsolutePath().getParent();
+            Files.createDirectories(diretorio);
+            // Gravação em arquivo temporário + rename: um desligamento no meio não corrompe o ranking
+            Path temporario = Files.createTempFile(diretorio, "top-nfse", ".tmp");
+            try (BufferedWriter writer = Files.newBufferedWriter(temporario, StandardCharsets.UTF_8)) {
+                writer.write("# NFS-e mais consultadas (numero;contagem estimada)\n");
+                for (TopKChaves.Estimativa estimativa : ranking) {
+                    writer.write(estimativa.getChave());
+                    writer.write(';');
+                    writer.write(String.valueOf(estimativa.getContagem()));
+                    writer.write('\n');
+                }
+            }
+            Files.move(temporario, arquivo, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            nfsesMaisConsultadas.envelhecer();
+
+            LoggingUtils.logCacheOperacao(logger, "aquecimento",
+                    LoggingUtils.formatarMensagem("Ranking salvo",
+                            "nfse", String.valueOf(ranking.size()), "arquivo", arquivo.toString()));
+        } catch (IOException ex) {
+            LoggingUtils.logErroInterno(logger, "Persistência do ranking de NFS-e", ex, arquivo.toString());
+        }
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        persistir();
+    }
+}
@@ -0,0 +1,48 @@
+package com.creditos.cache;
+
+import java.time.Duration;
+
+/**
+ * Cliente do armazenamento chave-valor compartilhado entre as instâncias (segundo nível de cache)
+ *
+ * Implementações:
+ * - ArmazenamentoCompartilhadoMemoria: em processo, para testes e desenvolvimento
+ * - ArmazenamentoCompartilhadoRedis: protocolo RESP (Redis, Valkey, KeyDB, Dragonfly)
+ *
+ * Falhas são propagadas como RuntimeException; o NivelCompartilhado trata o nível como indisponível
+ * e as consultas seguem para o banco.
+ *
+ * @author Ednilton Curt Rauh
+ * @version 1.0.0
+ */
+public interface ArmazenamentoCompartilhado {
+
+    /**
+     * @return Valor gravado na chave, ou null se ausente ou expirado
+     */
+    byte[] ler(String chave);
+
+    /**
+     * Lê várias chaves em uma só ida ao armazenamento
+     *
+     * @return Valores na ordem das chaves, com null para as ausentes ou expiradas
+     */
+    byte[][] lerVarios(String... chaves);
+
+    void gravar(String chave, byte[] valor, Duration ttl);
+
+    void remover(String chave);
+
+    /**
+     * Incrementa o contador gravado na chave (como texto decimal, criado em zero se ausente)
+     *
+     * @param ttl Expiração renovada a cada incremento, ou null para não expirar
+     * @return Valor do contador após o incremento
+     */
+    long incrementar(String chave, Duration ttl);
+
+    /**
+     * Remove todas as chaves iniciadas pelo prefixo (usado na limpeza de uma região)
+     */
+    void removerPorPrefixo(String prefixo);
+}
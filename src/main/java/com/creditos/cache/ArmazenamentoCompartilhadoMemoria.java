@@ -0,0 +1,88 @@
+package com.creditos.cache;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Armazenamento compartilhado em processo, com expiração por TTL
+ *
+ * Substitui o Redis em testes e em desenvolvimento local. Só é compartilhado entre os caches da
+ * mesma JVM, então não aquece instâncias novas em produção.
+ *
+ * @author Ednilton Curt Rauh
+ * @version 1.0.0
+ */
+public class ArmazenamentoCompartilhadoMemoria implements ArmazenamentoCompartilhado {
+
+    private final ConcurrentMap<String, Valor> valores = new ConcurrentHashMap<>();
+
+    @Override
+    public byte[] ler(String chave) {
+        Valor valor = valores.get(chave);
+        if (valor == null) {
+            return null;
+        }
+        if (valor.expiraEm <= System.nanoTime()) {
+            valores.remove(chave, valor);
+            return null;
+        }
+        return valor.dados.clone();
+    }
+
+    @Override
+    public byte[][] lerVarios(String... chaves) {
+        byte[][] resultado = new byte[chaves.length][];
+        for (int i = 0; i < chaves.length; i++) {
+            resultado[i] = ler(chaves[i]);
+        }
+        return resultado;
+    }
+
+    @Override
+    public void gravar(String chave, byte[] dados, Duration ttl) {
+        valores.put(chave, new Valor(dados.clone(), System.nanoTime() + ttl.toNanos()));
+    }
+
+    @Override
+    public void remover(String chave) {
+        valores.remove(chave);
+    }
+
+    @Override
+    public long incrementar(String chave, Duration ttl) {
+        long[] contador = new long[1];
+        valores.compute(chave, (k, atual) -> {
+            long agora = System.nanoTime();
+            long anterior = atual == null || atual.expiraEm <= agora ? 0L
+                    : Long.parseLong(new String(atual.dados, StandardCharsets.US_ASCII));
+            contador[0] = anterior + 1;
+            return new Valor(Long.toString(contador[0]).getBytes(StandardCharsets.US_ASCII),
+                    ttl == null ? Long.MAX_VALUE : agora + ttl.toNanos());
+        });
+        return contador[0];
+    }
+
+    @Override
+    public void removerPorPrefixo(String prefixo) {
+        valores.keySet().removeIf(chave -> chave.startsWith(prefixo));
+    }
+
+    /**
+     * Quantidade de chaves gravadas, incluindo as expiradas ainda não lidas
+     */
+    public int tamanho() {
+        return valores.size();
+    }
+
+    private static final class Valor {
+        private final byte[] dados;
+        private final long expiraEm;
+
+        private Valor(byte[] dados, long expiraEm) {
+            this.dados = dados;
+            this.expiraEm = expiraEm;
+        }
+    }
+}
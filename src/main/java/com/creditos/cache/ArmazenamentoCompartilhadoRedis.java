@@ -0,0 +1,307 @@
+package com.creditos.cache;
+
+import org.springframework.beans.factory.DisposableBean;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Cliente mínimo do protocolo RESP2 para servidores compatíveis com Redis
+ *
+ * Usa apenas os comandos GET, MGET, SET PX, DEL, INCR, PEXPIRE, SCAN e UNLINK, sobre um pool fixo de conexões TCP
+ * bloqueantes. Não há dependência de biblioteca cliente: o protocolo é simples e estes comandos
+ * bastam para o segundo nível de cache. Uma conexão com erro de E/S é descartada e recriada
+ * no próximo uso.
+ *
+ * @author Ednilton Curt Rauh
+ * @version 1.0.0
+ */
+public class ArmazenamentoCompartilhadoRedis implements ArmazenamentoCompartilhado, DisposableBean {
+
+    private static final byte[] CRLF = {'\r', '\n'};
+    private static final int LOTE_SCAN = 1000;
+
+    private final String host;
+    private final int porta;
+    private final String senha;
+    private final int database;
+    private final int timeoutMs;
+    private final int tamanhoPool;
+
+    private final BlockingQueue<Conexao> livres;
+    private final AtomicInteger abertas = new AtomicInteger();
+
+    public ArmazenamentoCompartilhadoRedis(String host, int porta, String senha, int database,
+                                           Duration timeout, int tamanhoPool) {
+        this.host = host;
+        this.porta = porta;
+        this.senha = senha;
+        this.database = database;
+        this.timeoutMs = (int) timeout.toMillis();
+        this.tamanhoPool = tamanhoPool;
+        this.livres = new ArrayBlockingQueue<>(tamanhoPool);
+    }
+
+    @Override
+    public byte[] ler(String chave) {
+        return (byte[]) executar(texto("GET"), texto(chave));
+    }
+
+    @Override
+    public byte[][] lerVarios(String... chaves) {
+        byte[][] comando = new byte[chaves.length + 1][];
+        comando[0] = texto("MGET");
+        for (int i = 0; i < chaves.length; i++) {
+            comando[i + 1] = texto(chaves[i]);
+        }
+        Object[] resposta = (Object[]) executar(comando);
+        byte[][] valores = new byte[chaves.length][];
+        for (int i = 0; i < chaves.length; i++) {
+            valores[i] = (byte[]) resposta[i];
+        }
+        return valores;
+    }
+
+    @Override
+    public void gravar(String chave, byte[] valor, Duration ttl) {
+        executar(texto("SET"), texto(chave), valor, texto("PX"), texto(String.valueOf(ttl.toMillis())));
+    }
+
+    @Override
+    public void remover(String chave) {
+        executar(texto("DEL"), texto(chave));
+    }
+
+    @Override
+    public long incrementar(String chave, Duration ttl) {
+        long valor = (Long) executar(texto("INCR"), texto(chave));
+        if (ttl != null) {
+            executar(texto("PEXPIRE"), texto(chave), texto(String.valueOf(ttl.toMillis())));
+        }
+        return valor;
+    }
+
+    @Override
+    public void removerPorPrefixo(String prefixo) {
+        String padrao = escaparGlob(prefixo) + "*";
+        String cursor = "0";
+        do {
+            Object[] resposta = (Object[]) executar(texto("SCAN"), texto(cursor),
+                    texto("MATCH"), texto(padrao), texto("COUNT"), texto(String.valueOf(LOTE_SCAN)));
+            cursor = new String((byte[]) resposta[0], StandardCharsets.UTF_8);
+            Object[] chaves = (Object[]) resposta[1];
+            if (chaves.length > 0) {
+                byte[][] comando = new byte[chaves.length + 1][];
+                comando[0] = texto("UNLINK");
+                for (int i = 0; i < chaves.length; i++) {
+                    comando[i + 1] = (byte[]) chaves[i];
+                }
+                executar(comando);
+            }
+        } while (!"0".equals(cursor));
+    }
+
+    @Override
+    public void destroy() {
+        Conexao conexao;
+        while ((conexao = livres.poll()) != null) {
+            conexao.fechar();
+        }
+    }
+
+    // ================================================
+    // CONEXÕES
+    // ================================================
+
+    private Object executar(byte[]... argumentos) {
+        Conexao conexao = obterConexao();
+        try {
+            Object resposta = conexao.executar(argumentos);
+            livres.offer(conexao);
+            return resposta;
+        } catch (IOException ex) {
+            descartar(conexao);
+            throw new UncheckedIOException("Falha no comando " + new String(argumentos[0], StandardCharsets.UTF_8)
+                    + " em " + host + ":" + porta, ex);
+        } catch (RuntimeException ex) {
+            descartar(conexao);
+            throw ex;
+        }
+    }
+
+    private Conexao obterConexao() {
+        Conexao conexao = livres.poll();
+        if (conexao != null) {
+            return conexao;
+        }
+        if (abertas.incrementAndGet() <= tamanhoPool) {
+            try {
+                return abrir();
+            } catch (IOException ex) {
+                abertas.decrementAndGet();
+                throw new UncheckedIOException("Não foi possível conectar em " + host + ":" + porta, ex);
+            }
+        }
+        abertas.decrementAndGet();
+        try {
+            conexao = livres.poll(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrompido aguardando conexão com " + host + ":" + porta, ex);
+        }
+        if (conexao == null) {
+            throw new IllegalStateException("Nenhuma conexão livre com " + host + ":" + porta + " em " + timeoutMs + "ms");
+        }
+        return conexao;
+    }
+
+    private Conexao abrir() throws IOException {
+        Socket socket = new Socket();
+        try {
+            socket.connect(new InetSocketAddress(host, porta), timeoutMs);
+            socket.setSoTimeout(timeoutMs);
+            socket.setTcpNoDelay(true);
+            Conexao conexao = new Conexao(socket);
+            if (senha != null && !senha.isEmpty()) {
+                conexao.executar(texto("AUTH"), texto(senha));
+            }
+            if (database != 0) {
+                conexao.executar(texto("SELECT"), texto(String.valueOf(database)));
+            }
+            return conexao;
+        } catch (IOException | RuntimeException ex) {
+            socket.close();
+            throw ex;
+        }
+    }
+
+    private void descartar(Conexao conexao) {
+        conexao.fechar();
+        abertas.decrementAndGet();
+    }
+
+    private static byte[] texto(String valor) {
+        return valor.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Escapa os caracteres especiais do padrão glob usado pelo SCAN MATCH
+     */
+    static String escaparGlob(String valor) {
+        StringBuilder escapado = new StringBuilder(valor.length() + 8);
+        for (char c : valor.toCharArray()) {
+            if (c == '*' || c == '?' || c == '[' || c == ']' || c == '\\') {
+                escapado.append('\\');
+            }
+            escapado.append(c);
+        }
+        return escapado.toString();
+    }
+
+    /**
+     * Conexão TCP com leitura e escrita do protocolo RESP2
+     */
+    private static final class Conexao {
+        private final Socket socket;
+        private final InputStream in;
+        private final OutputStream out;
+
+        private Conexao(Socket socket) throws IOException {
+            this.socket = socket;
+            this.in = new BufferedInputStream(socket.getInputStream());
+            this.out = new BufferedOutputStream(socket.getOutputStream());
+        }
+
+        private Object executar(byte[]... argumentos) throws IOException {
+            out.write('*');
+            out.write(texto(String.valueOf(argumentos.length)));
+            out.write(CRLF);
+            for (byte[] argumento : argumentos) {
+                out.write('$');
+                out.write(texto(String.valueOf(argumento.length)));
+                out.write(CRLF);
+                out.write(argumento);
+                out.write(CRLF);
+            }
+            out.flush();
+            return lerResposta();
+        }
+
+        private Object lerResposta() throws IOException {
+            int tipo = in.read();
+            switch (tipo) {
+                case '+':
+                    return lerLinha();
+                case '-':
+                    throw new IllegalStateException("Erro do servidor: " + lerLinha());
+                case ':':
+                    return Long.parseLong(lerLinha());
+                case '$':
+                    int tamanho = Integer.parseInt(lerLinha());
+                    if (tamanho < 0) {
+                        return null;
+                    }
+                    byte[] dados = new byte[tamanho];
+                    int lidos = 0;
+                    while (lidos < tamanho) {
+                        int n = in.read(dados, lidos, tamanho - lidos);
+                        if (n < 0) {
+                            throw new EOFException("Conexão encerrada pelo servidor");
+                        }
+                        lidos += n;
+                    }
+                    lerLinha();
+                    return dados;
+                case '*':
+                    int quantidade = Integer.parseInt(lerLinha());
+                    if (quantidade < 0) {
+                        return null;
+                    }
+                    Object[] elementos = new Object[quantidade];
+                    for (int i = 0; i < quantidade; i++) {
+                        elementos[i] = lerResposta();
+                    }
+                    return elementos;
+                case -1:
+                    throw new EOFException("Conexão encerrada pelo servidor");
+                default:
+                    throw new IOException("Resposta RESP inválida: " + (char) tipo);
+            }
+        }
+
+        private String lerLinha() throws IOException {
+            ByteArrayOutputStream linha = new ByteArrayOutputStream(16);
+            int c;
+            while ((c = in.read()) != '\r') {
+                if (c < 0) {
+                    throw new EOFException("Conexão encerrada pelo servidor");
+                }
+                linha.write(c);
+            }
+            in.read();
+            return new String(linha.toByteArray(), StandardCharsets.UTF_8);
+        }
+
+        private void fechar() {
+            try {
+                socket.close();
+            } catch (IOException ignored) {
+                // conexão já descartada
+            }
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.creditos.cache;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Filtro de Bloom para chaves String, seguro para inserções concorrentes
+ *
+ * Responde "definitivamente ausente" (sem falsos negativos) ou "possivelmente presente"
+ * (com taxa de falso positivo configurada). Usa double hashing sobre um hash de 64 bits
+ * para derivar as k posições de cada chave.
+ *
+ * @author Ednilton Curt Rauh
+ * @version 1.0.0
+ */
+public class BloomFilter {
+
+    private static final double LN2 = Math.log(2);
+
+    private final AtomicLongArray bits;
+    private final long quantidadeBits;
+    private final int quantidadeHashes;
+
+    private BloomFilter(long quantidadeBits, int quantidadeHashes) {
+        int palavras = (int) ((quantidadeBits + 63) / 64);
+        this.bits = new AtomicLongArray(palavras);
+        this.quantidadeBits = (long) palavras * 64;
+        this.quantidadeHashes = quantidadeHashes;
+    }
+
+    /**
+     * Cria um filtro dimensionado para a quantidade esperada de chaves
+     *
+     * @param insercoesEsperadas Quantidade esperada de chaves
+     * @param taxaFalsoPositivo Taxa de falso positivo desejada (entre 0 e 1, exclusivo)
+     * @return Filtro vazio
+     */
+    public static BloomFilter criar(long insercoesEsperadas, double taxaFalsoPositivo) {
+        if (taxaFalsoPositivo <= 0.0 || taxaFalsoPositivo >= 1.0) {
+            throw new IllegalArgumentException("Taxa de falso positivo deve estar entre 0 e 1: " + taxaFalsoPositivo);
+        }
+
+        long n = Math.max(1, insercoesEsperadas);
+        long m = Math.max(64, (long) Math.ceil(-n * Math.log(taxaFalsoPositivo) / (LN2 * LN2)));
+        int k = Math.max(1, (int) Math.round((double) m / n * LN2));
+
+        return new BloomFilter(m, k);
+    }
+
+    /**
+     * Adiciona uma chave ao filtro
+     */
+    public void adicionar(String chave) {
+        long hash = hash64(chave);
+        long h1 = hash;
+        long h2 = fmix64(hash ^ 0x9E3779B97F4A7C15L) | 1L;
+
+        for (int i = 0; i < quantidadeHashes; i++) {
+            long posicao = Math.floorMod(h1 + i * h2, quantidadeBits);
+            definirBit(posicao);
+        }
+    }
+
+    /**
+     * Verifica se a chave pode estar presente
+     *
+     * @return false se a chave definitivamente não foi adicionada
+     */
+    public boolean podeConter(String chave) {
+        long hash = hash64(chave);
+        long h1 = hash;
+        long h2 = fmix64(hash ^ 0x9E3779B97F4A7C15L) | 1L;
+
+        for (int i = 0; i < quantidadeHashes; i++) {
+            long posicao = Math.floorMod(h1 + i * h2, quantidadeBits);
+            if ((bits.get((int) (posicao >>> 6)) & (1L << posicao)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Estima a taxa de falso positivo atual a partir da fração de bits ligados
+     */
+    public double taxaFalsoPositivoEstimada() {
+        long ligados = 0;
+        for (int i = 0; i < bits.length(); i++) {
+            ligados += Long.bitCount(bits.get(i));
+        }
+        return Math.pow((double) ligados / quantidadeBits, quantidadeHashes);
+    }
+
+    public long getQuantidadeBits() {
+        return quantidadeBits;
+    }
+
+    public int getQuantidadeHashes() {
+        return quantidadeHashes;
+    }
+
+    // ================================================
+    // MÉTODOS PRIVADOS AUXILIARES
+    // ================================================
+
+    private void definirBit(long posicao) {
+        int indice = (int) (posicao >>> 6);
+        long mascara = 1L << posicao;
+
+        long atual;
+        do {
+            atual = bits.get(indice);
+            if ((atual & mascara) != 0) {
+                return;
+            }
+        } while (!bits.compareAndSet(indice, atual, atual | mascara));
+    }
+
+    /**
+     * FNV-1a de 64 bits sobre os caracteres, seguido da finalização do MurmurHash3
+     */
+    private static long hash64(String chave) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < chave.length(); i++) {
+            h ^= chave.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        return fmix64(h);
+    }
+
+    private static long fmix64(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
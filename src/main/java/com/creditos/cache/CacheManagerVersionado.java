@@ -0,0 +1,57 @@
+package com.creditos.cache;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * CacheManager que entrega as regiões do gerenciador original decoradas com CacheVersionado
+ *
+ * Regiões com NivelCompartilhado registrado passam a ter dois níveis (local e compartilhado).
+ *
+ * @author Ednilton Curt Rauh
+ * @version 1.0.0
+ */
+public class CacheManagerVersionado implements CacheManager {
+
+    private final CacheManager delegate;
+    private final Duration retencaoLapides;
+    private final Map<String, NivelCompartilhado> niveisCompartilhados;
+    private final ConcurrentMap<String, Cache> caches = new ConcurrentHashMap<>();
+
+    public CacheManagerVersionado(CacheManager delegate, Duration retencaoLapides) {
+        this(delegate, retencaoLapides, Collections.<String, NivelCompartilhado>emptyMap());
+    }
+
+    public CacheManagerVersionado(CacheManager delegate, Duration retencaoLapides,
+                                  Map<String, NivelCompartilhado> niveisCompartilhados) {
+        this.delegate = delegate;
+        this.retencaoLapides = retencaoLapides;
+        this.niveisCompartilhados = niveisCompartilhados;
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        Cache cache = caches.get(name);
+        if (cache != null) {
+            return cache;
+        }
+        Cache original = delegate.getCache(name);
+        if (original == null) {
+            return null;
+        }
+        return caches.computeIfAbsent(name, nome ->
+                new CacheVersionado(original, retencaoLapides, niveisCompartilhados.get(nome)));
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return delegate.getCacheNames();
+    }
+}
@@ -0,0 +1,358 @@
+package com.creditos.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Decorador de uma região de cache que impede que dados obsoletos voltem ao cache após uma invalidação
+ *
+ * Problema: a instância lê o banco (valor antigo), o crédito é corrigido, a invalidação chega e remove
+ * a chave, e só então a leitura termina e grava o valor antigo no cache. Com vários eventos em trânsito
+ * a ordem de chegada não é garantida, então a remoção sozinha não basta.
+ *
+ * Solução com versões locais (relógio lógico monotônico da região):
+ * - um cache miss registra a versão corrente como início da carga daquela chave (por thread)
+ * - cada invalidação grava uma lápide com uma versão nova e remove a chave
+ * - o put só é aceito se nenhuma lápide da chave for posterior ao início da carga
+ * - cada entrada guarda a versão da carga; no get, entrada mais antiga que a lápide é descartada,
+ *   o que cobre a corrida entre a verificação e a gravação no put
+ *
+ * O início de cada carga fica registrado na thread entre o miss e o put. Se a carga falhar (ex.: o
+ * método @Cacheable lança creditoNaoEncontrado), o CargaCacheAspect descarta os registros feitos durante
+ * a chamada, para que um put posterior da mesma chave não herde a versão antiga.
+ *
+ * Como a comparação usa apenas o relógio local, não depende da ordem nem do horário dos eventos
+ * recebidos: qualquer invalidação que chegue durante a carga a torna obsoleta. As lápides expiram
+ * após a retenção configurada, que deve ser maior que a duração da carga mais lenta.
+ *
+ * Com um NivelCompartilhado configurado, a leitura segue cache local, nível compartilhado e banco:
+ * um miss local consulta o nível compartilhado antes de devolver o miss, e os puts aceitos e as
+ * invalidações são repetidos nele. A carga registra também a versão do nível compartilhado lida no
+ * miss, e o valor é gravado lá com essa versão: se outra instância invalidar a chave durante a carga,
+ * o valor gravado depois já nasce obsoleto e é ignorado pelas demais instâncias, mesmo antes de a
+ * instância que o gravou processar o evento.
+ *
+ * @author Ednilton Curt Rauh
+ * @version 1.0.0
+ */
+public class CacheVersionado implements Cache {
+
+    // Limite de cargas em andamento por thread; acima disso os registros mais antigos são descartados
+    private static final int LIMITE_CARGAS_POR_THREAD = 4096;
+
+    private final Cache delegate;
+    private final NivelCompartilhado compartilhado;
+    private final AtomicLong relogio = new AtomicLong();
+    // Cargas em andamento da thread, de todas as regiões
+    private static final ThreadLocal<Cargas> CARGAS = ThreadLocal.withInitial(Cargas::new);
+
+    private final com.github.benmanes.caffeine.cache.Cache<Object, Long> lapides;
+
+    // Versão da última limpeza completa: tudo que foi carregado antes dela é obsoleto
+    private volatile long versaoLimpeza;
+
+    public CacheVersionado(Cache delegate, Duration retencaoLapides) {
+        this(delegate, retencaoLapides, null);
+    }
+
+    public CacheVersionado(Cache delegate, Duration retencaoLapides, NivelCompartilhado compartilhado) {
+        this.delegate = delegate;
+        this.compartilhado = compartilhado;
+        this.lapides = Caffeine.newBuilder()
+                .expireAfterWrite(retencaoLapides)
+                .build();
+    }
+
+    /**
+     * Região original, usada para métricas
+     */
+    public Cache getDelegate() {
+        return delegate;
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return delegate.getNativeCache();
+    }
+
+    // ================================================
+    // LEITURA
+    // ================================================
+
+    @Override
+    public ValueWrapper get(Object key) {
+        ValueWrapper existente = delegate.get(key);
+        if (existente != null) {
+            Entrada entrada = (Entrada) existente.get();
+            if (!obsoleta(key, entrada.versao)) {
+                return new SimpleValueWrapper(entrada.valor);
+            }
+            delegate.evict(key);
+        }
+
+        long inicio = relogio.get();
+        NivelCompartilhado.Versao versaoCompartilhada = null;
+        if (compartilhado != null) {
+            NivelCompartilhado.Leitura leitura = compartilhado.ler(key);
+            if (leitura.valor != NivelCompartilhado.AUSENTE) {
+                delegate.put(key, new Entrada(leitura.valor, inicio));
+                return new SimpleValueWrapper(leitura.valor);
+            }
+            versaoCompartilhada = leitura.versao;
+        }
+        CARGAS.get().registrar(new ChaveCarga(this, key), inicio, versaoCompartilhada);
+        return null;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper valor = get(key);
+        if (valor == null) {
+            return null;
+        }
+        if (valor.get() != null && type != null && !type.isInstance(valor.get())) {
+            throw new IllegalStateException("Valor em cache não é do tipo [" + type.getName() + "]: " + valor.get());
+        }
+        return (T) valor.get();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        // A carga roda dentro do delegate (Caffeine bloqueia a chave), preservando o comportamento sync=true
+        long inicio = relogio.get();
+        Entrada entrada = delegate.get(key, () -> new Entrada(carregar(key, valueLoader, inicio), inicio));
+        if (entrada != null && obsoleta(key, entrada.versao)) {
+            // O valor é devolvido a quem o carregou, mas não fica no cache
+            delegate.evict(key);
+        }
+        return entrada == null ? null : (T) entrada.valor;
+    }
+
+    private Object carregar(Object key, Callable<?> valueLoader, long inicio) throws Exception {
+        if (compartilhado == null) {
+            return valueLoader.call();
+        }
+        NivelCompartilhado.Leitura leitura = compartilhado.ler(key);
+        if (leitura.valor != NivelCompartilhado.AUSENTE) {
+            return leitura.valor;
+        }
+        Object valor = valueLoader.call();
+        if (!obsoleta(key, inicio)) {
+            compartilhado.gravar(key, valor, leitura.versao);
+        }
+        return valor;
+    }
+
+    // ================================================
+    // ESCRITA
+    // ================================================
+
+    @Override
+    public void put(Object key, Object value) {
+        Carga carga = carga(key);
+        if (!obsoleta(key, carga.inicio)) {
+            delegate.put(key, new Entrada(value, carga.inicio));
+            if (compartilhado != null) {
+                compartilhado.gravar(key, value, carga.versaoCompartilhada);
+            }
+        }
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        Carga carga = carga(key);
+        if (obsoleta(key, carga.inicio)) {
+            return get(key);
+        }
+        ValueWrapper existente = delegate.putIfAbsent(key, new Entrada(value, carga.inicio));
+        if (existente == null && compartilhado != null) {
+            compartilhado.gravar(key, value, carga.versaoCompartilhada);
+        }
+        return existente == null ? null : new SimpleValueWrapper(((Entrada) existente.get()).valor);
+    }
+
+    // ================================================
+    // INVALIDAÇÃO
+    // ================================================
+
+    @Override
+    public void evict(Object key) {
+        lapides.put(key, relogio.incrementAndGet());
+        delegate.evict(key);
+        if (compartilhado != null) {
+            compartilhado.invalidar(key);
+        }
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        lapides.put(key, relogio.incrementAndGet());
+        if (compartilhado != null) {
+            compartilhado.invalidar(key);
+        }
+        return delegate.evictIfPresent(key);
+    }
+
+    @Override
+    public void clear() {
+        versaoLimpeza = relogio.incrementAndGet();
+        delegate.clear();
+        if (compartilhado != null) {
+            compartilhado.limpar();
+        }
+    }
+
+    @Override
+    public boolean invalidate() {
+        versaoLimpeza = relogio.incrementAndGet();
+        if (compartilhado != null) {
+            compartilhado.limpar();
+        }
+        return delegate.invalidate();
+    }
+
+    // ================================================
+    // CARGAS EM ANDAMENTO
+    // ================================================
+
+    /**
+     * Marca a posição atual das cargas registradas nesta thread
+     *
+     * @return Marca a ser passada para descartarCargas
+     */
+    public static long marcarCargas() {
+        return CARGAS.get().sequencia;
+    }
+
+    /**
+     * Descarta as cargas registradas nesta thread depois da marca (carga que terminou em exceção)
+     */
+    public static void descartarCargas(long marca) {
+        CARGAS.get().descartar(marca);
+    }
+
+    /**
+     * Quantidade de cargas registradas nesta thread (usado nos testes)
+     */
+    static int cargasPendentes() {
+        return CARGAS.get().size();
+    }
+
+    /**
+     * Carga registrada no cache miss desta thread, ou as versões correntes para puts sem leitura prévia
+     */
+    private Carga carga(Object key) {
+        Carga carga = CARGAS.get().remove(new ChaveCarga(this, key));
+        if (carga != null) {
+            return carga;
+        }
+        long inicio = relogio.get();
+        return new Carga(inicio, compartilhado != null ? compartilhado.versao(key) : null, 0L);
+    }
+
+    private boolean obsoleta(Object key, long versao) {
+        if (versao < versaoLimpeza) {
+            return true;
+        }
+        Long lapide = lapides.getIfPresent(key);
+        return lapide != null && lapide > versao;
+    }
+
+    /**
+     * Valor armazenado junto com a versão do relógio no início da sua carga
+     */
+    private static final class Entrada {
+        private final Object valor;
+        private final long versao;
+
+        private Entrada(Object valor, long versao) {
+            this.valor = valor;
+            this.versao = versao;
+        }
+    }
+
+    /**
+     * Cargas de uma thread em ordem de registro; acima do limite os registros mais antigos são descartados
+     */
+    private static final class Cargas extends LinkedHashMap<ChaveCarga, Carga> {
+
+        private static final long serialVersionUID = 1L;
+
+        private long sequencia;
+
+        void registrar(ChaveCarga chave, long inicio, NivelCompartilhado.Versao versaoCompartilhada) {
+            // Remove antes para que a chave vá para o fim da ordem de registro
+            remove(chave);
+            put(chave, new Carga(inicio, versaoCompartilhada, ++sequencia));
+        }
+
+        void descartar(long marca) {
+            values().removeIf(carga -> carga.sequencia > marca);
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<ChaveCarga, Carga> eldest) {
+            return size() > LIMITE_CARGAS_POR_THREAD;
+        }
+    }
+
+    /**
+     * Versões local e compartilhada no início da carga e posição do registro na thread
+     */
+    private static final class Carga {
+        private final long inicio;
+        private final NivelCompartilhado.Versao versaoCompartilhada;
+        private final long sequencia;
+
+        private Carga(long inicio, NivelCompartilhado.Versao versaoCompartilhada, long sequencia) {
+            this.inicio = inicio;
+            this.versaoCompartilhada = versaoCompartilhada;
+            this.sequencia = sequencia;
+        }
+    }
+
+    /**
+     * Chave de uma carga: região (por identidade) e chave do cache
+     */
+    private static final class ChaveCarga {
+        private final CacheVersionado regiao;
+        private final Object chave;
+
+        private ChaveCarga(CacheVersionado regiao, Object chave) {
+            this.regiao = regiao;
+            this.chave = chave;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof ChaveCarga)) {
+                return false;
+            }
+            ChaveCarga outra = (ChaveCarga) o;
+            return regiao == outra.regiao && Objects.equals(chave, outra.chave);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * System.identityHashCode(regiao) + Objects.hashCode(chave);
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.creditos.cache;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Descarta as cargas registradas pelo CacheVersionado quando um método @Cacheable termina em exceção
+ *
+ * No @Cacheable sem sync, o miss é registrado no get e consumido no put feito após o método. Se o método
+ * lança (ex.: 404 de crédito não encontrado), o put não acontece e o registro ficaria na thread do
+ * bulkhead. O aspecto envolve o proxy de cache (precedência maior que a do @EnableCaching) e, em caso de
+ * exceção, remove apenas os registros feitos durante a chamada.
+ *
+ * @author Ednilton Curt Rauh
+ * @version 1.0.0
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+public class CargaCacheAspect {
+
+    @Around("@annotation(org.springframework.cache.annotation.Cacheable)")
+    public Object descartarCargaComFalha(ProceedingJoinPoint joinPoint) throws Throwable {
+        long marca = CacheVersionado.marcarCargas();
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable ex) {
+            CacheVersionado.descartarCargas(marca);
+            throw ex;
+        }
+    }
+}
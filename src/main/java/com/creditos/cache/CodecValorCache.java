@@ -0,0 +1,239 @@
+package com.creditos.cache;
+
+import com.creditos.dto.CreditoResponseDTO;
+import com.creditos.util.DecimalFixo;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Codificação binária compacta dos valores das regiões "creditos" e "existencia" para o nível compartilhado
+ *
+ * Formato: 1 byte de versão, 1 byte de tipo e o conteúdo. Cada CreditoResponseDTO é gravado com um
+ * mapa de bits dos campos presentes, strings em UTF-8 modificado, data como dia epoch e decimais como
+ * centésimos em inteiro de tamanho variável (zigzag, 7 bits por byte: 1500,75 ocupa 3 bytes). Não há
+ * nomes de campos nem metadados de classe, o que deixa o valor bem menor que o JSON equivalente e
+ * independente da serialização Java.
+ *
+ * A versão 1 gravava os decimais como BigDecimal (escala + valor sem escala); valores nesse formato
+ * são recusados na leitura e tratados como ausentes até expirarem.
+ *
+ * Tipos suportados: null, Boolean, CreditoResponseDTO e List de CreditoResponseDTO. Outros valores
+ * não são codificáveis e ficam apenas no cache local.
+ *
+ * @author Ednilton Curt Rauh
+ * @version 1.0.0
+ */
+final class CodecValorCache {
+
+    private static final byte VERSAO_FORMATO = 2;
+
+    private static final byte TIPO_NULO = 0;
+    private static final byte TIPO_FALSO = 1;
+    private static final byte TIPO_VERDADEIRO = 2;
+    private static final byte TIPO_CREDITO = 3;
+    private static final byte TIPO_LISTA_CREDITOS = 4;
+
+    // simplesNacional é "Sim" ou "Não" em quase todos os casos; outros textos são gravados por extenso
+    private static final byte SIMPLES_NAO = 0;
+    private static final byte SIMPLES_SIM = 1;
+    private static final byte SIMPLES_TEXTO = 2;
+
+    private CodecValorCache() {}
+
+    /**
+     * Verifica se o valor pode ser gravado no nível compartilhado
+     */
+    static boolean suportado(Object valor) {
+        if (valor == null || valor instanceof Boolean || valor instanceof CreditoResponseDTO) {
+            return true;
+        }
+        if (!(valor instanceof List)) {
+            return false;
+        }
+        for (Object item : (List<?>) valor) {
+            if (!(item instanceof CreditoResponseDTO)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static byte[] codificar(Object valor) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeByte(VERSAO_FORMATO);
+
+        if (valor == null) {
+            out.writeByte(TIPO_NULO);
+        } else if (valor instanceof Boolean) {
+            out.writeByte((Boolean) valor ? TIPO_VERDADEIRO : TIPO_FALSO);
+        } else if (valor instanceof CreditoResponseDTO) {
+            out.writeByte(TIPO_CREDITO);
+            escreverCredito(out, (CreditoResponseDTO) valor);
+        } else if (valor instanceof List) {
+            List<?> lista = (List<?>) valor;
+            out.writeByte(TIPO_LISTA_CREDITOS);
+            out.writeInt(lista.size());
+            for (Object item : lista) {
+                escreverCredito(out, (CreditoResponseDTO) item);
+            }
+        } else {
+            throw new IllegalArgumentException("Tipo não suportado no cache compartilhado: " + valor.getClass().getName());
+        }
+
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    static Object decodificar(byte[] dados) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(dados));
+        byte versao = in.readByte();
+        if (versao != VERSAO_FORMATO) {
+            throw new IOException("Versão de formato desconhecida: " + versao);
+        }
+
+        byte tipo = in.readByte();
+        switch (tipo) {
+            case TIPO_NULO:
+                return null;
+            case TIPO_FALSO:
+                return Boolean.FALSE;
+            case TIPO_VERDADEIRO:
+                return Boolean.TRUE;
+            case TIPO_CREDITO:
+                return lerCredito(in);
+            case TIPO_LISTA_CREDITOS:
+                int tamanho = in.readInt();
+                List<CreditoResponseDTO> lista = new ArrayList<>(tamanho);
+                for (int i = 0; i < tamanho; i++) {
+                    lista.add(lerCredito(in));
+                }
+                return lista;
+            default:
+                throw new IOException("Tipo de valor desconhecido: " + tipo);
+        }
+    }
+
+    // ================================================
+    // CREDITO
+    // ================================================
+
+    private static void escreverCredito(DataOutputStream out, CreditoResponseDTO credito) throws IOException {
+        Object[] campos = {credito.getNumeroCredito(), credito.getNumeroNfse(), credito.getDataConstituicao(),
+                credito.getValorIssqn(), credito.getTipoCredito(), credito.getSimplesNacional(),
+                credito.getAliquota(), credito.getValorFaturado(), credito.getValorDeducao(),
+                credito.getBaseCalculo()};
+
+        int presentes = 0;
+        for (int i = 0; i < campos.length; i++) {
+            if (campos[i] != null) {
+                presentes |= 1 << i;
+            }
+        }
+        out.writeShort(presentes);
+
+        escreverTexto(out, credito.getNumeroCredito());
+        escreverTexto(out, credito.getNumeroNfse());
+        if (credito.getDataConstituicao() != null) {
+            out.writeInt((int) credito.getDataConstituicao().toEpochDay());
+        }
+        escreverDecimal(out, credito.getValorIssqn());
+        escreverTexto(out, credito.getTipoCredito());
+        escreverSimplesNacional(out, credito.getSimplesNacional());
+        escreverDecimal(out, credito.getAliquota());
+        escreverDecimal(out, credito.getValorFaturado());
+        escreverDecimal(out, credito.getValorDeducao());
+        escreverDecimal(out, credito.getBaseCalculo());
+    }
+
+    private static CreditoResponseDTO lerCredito(DataInputStream in) throws IOException {
+        int presentes = in.readShort() & 0xFFFF;
+        CreditoResponseDTO credito = new CreditoResponseDTO();
+
+        credito.setNumeroCredito(presente(presentes, 0) ? in.readUTF() : null);
+        credito.setNumeroNfse(presente(presentes, 1) ? in.readUTF() : null);
+        credito.setDataConstituicao(presente(presentes, 2) ? LocalDate.ofEpochDay(in.readInt()) : null);
+        credito.setValorIssqn(presente(presentes, 3) ? lerDecimal(in) : null);
+        credito.setTipoCredito(presente(presentes, 4) ? in.readUTF() : null);
+        credito.setSimplesNacional(presente(presentes, 5) ? lerSimplesNacional(in) : null);
+        credito.setAliquota(presente(presentes, 6) ? lerDecimal(in) : null);
+        credito.setValorFaturado(presente(presentes, 7) ? lerDecimal(in) : null);
+        credito.setValorDeducao(presente(presentes, 8) ? lerDecimal(in) : null);
+        credito.setBaseCalculo(presente(presentes, 9) ? lerDecimal(in) : null);
+        return credito;
+    }
+
+    // ================================================
+    // CAMPOS
+    // ================================================
+
+    private static boolean presente(int presentes, int campo) {
+        return (presentes & (1 << campo)) != 0;
+    }
+
+    private static void escreverTexto(DataOutputStream out, String texto) throws IOException {
+        if (texto != null) {
+            out.writeUTF(texto);
+        }
+    }
+
+    private static void escreverDecimal(DataOutputStream out, DecimalFixo valor) throws IOException {
+        if (valor == null) {
+            return;
+        }
+        long zigzag = (valor.getCentesimos() << 1) ^ (valor.getCentesimos() >> 63);
+        while ((zigzag & ~0x7FL) != 0) {
+            out.writeByte((int) (zigzag & 0x7F) | 0x80);
+            zigzag >>>= 7;
+        }
+        out.writeByte((int) zigzag);
+    }
+
+    private static DecimalFixo lerDecimal(DataInputStream in) throws IOException {
+        long zigzag = 0;
+        for (int deslocamento = 0; ; deslocamento += 7) {
+            if (deslocamento > 63) {
+                throw new IOException("Decimal com mais de 10 bytes");
+            }
+            int b = in.readUnsignedByte();
+            zigzag |= (long) (b & 0x7F) << deslocamento;
+            if ((b & 0x80) == 0) {
+                break;
+            }
+        }
+        return DecimalFixo.deCentesimos((zigzag >>> 1) ^ -(zigzag & 1));
+    }
+
+    private static void escreverSimplesNacional(DataOutputStream out, String valor) throws IOException {
+        if (valor == null) {
+            return;
+        }
+        if ("Sim".equals(valor)) {
+            out.writeByte(SIMPLES_SIM);
+        } else if ("Não".equals(valor)) {
+            out.writeByte(SIMPLES_NAO);
+        } else {
+            out.writeByte(SIMPLES_TEXTO);
+            out.writeUTF(valor);
+        }
+    }
+
+    private static String lerSimplesNacional(DataInputStream in) throws IOException {
+        byte codigo = in.readByte();
+        switch (codigo) {
+            case SIMPLES_SIM:
+                return "Sim";
+            case SIMPLES_NAO:
+                return "Não";
+            default:
+                return in.readUTF();
+        }
+    }
+}
@@ -0,0 +1,249 @@
+package com.creditos.cache;
+
+import com.creditos.repository.CreditoRepository;
+import com.creditos.util.LoggingUtils;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Filtros de Bloom sobre numero_credito e numero_nfse para consultas negativas
+ *
+ * Construídos na inicialização a partir de uma leitura apenas das chaves da tabela
+ * credito e reconstruídos periodicamente. Uma resposta AUSENTE permite responder
+ * às verificações de existência sem acessar o banco de dados.
+ *
+ * Métricas expostas:
+ * - creditos.bloom.reconstrucao: duração de cada reconstrução
+ * - creditos.bloom.fpp.estimada: taxa de falso positivo estimada pela ocupação dos bits
+ * - creditos.bloom.fpp.observada: falsos positivos / (falsos positivos + ausentes)
+ *
+ * @author Ednilton Curt Rauh
+ * @version 1.0.0
+ */
+@Component
+public class CreditoBloomFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(CreditoBloomFilter.class);
+
+    /**
+     * Tipo de chave indexada
+     */
+    public enum TipoChave {
+        CREDITO, NFSE
+    }
+
+    /**
+     * Resposta do filtro para uma chave
+     */
+    public enum Resposta {
+        /** A chave definitivamente não existe no banco */
+        AUSENTE,
+        /** A chave pode existir; é necessário consultar o banco */
+        TALVEZ_PRESENTE,
+        /** Filtro ainda não construído ou desabilitado */
+        INDISPONIVEL
+    }
+
+    private final CreditoRepository creditoRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean habilitado;
+    private final double taxaFalsoPositivo;
+
+    private final Timer timerReconstrucao;
+    private final Counter[] ausentes = new Counter[TipoChave.values().length];
+    private final Counter[] falsosPositivos = new Counter[TipoChave.values().length];
+
+    private volatile Filtros atual;
+    private volatile Filtros emConstrucao;
+
+    @Autowired
+    public CreditoBloomFilter(CreditoRepository creditoRepository,
+                              PlatformTransactionManager transactionManager,
+                              MeterRegistry meterRegistry,
+                              @Value("${app.bloom-filter.habilitado:true}") boolean habilitado,
+                              @Value("${app.bloom-filter.taxa-falso-positivo:0.01}") double taxaFalsoPositivo) {
+        this.creditoRepository = creditoRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.habilitado = habilitado;
+        this.taxaFalsoPositivo = taxaFalsoPositivo;
+
+        this.timerReconstrucao = Timer.builder("creditos.bloom.reconstrucao")
+                .description("Duração da reconstrução dos filtros de Bloom")
+                .register(meterRegistry);
+
+        for (TipoChave tipo : TipoChave.values()) {
+            String tag = tipo.name().toLowerCase();
+            ausentes[tipo.ordinal()] = Counter.builder("creditos.bloom.consultas")
+                    .description("Consultas respondidas como ausentes pelo filtro de Bloom")
+                    .tag("filtro", tag)
+                    .tag("resultado", "ausente")
+                    .register(meterRegistry);
+            falsosPositivos[tipo.ordinal()] = Counter.builder("creditos.bloom.consultas")
+                    .description("Consultas em que o filtro indicou presença e o banco não encontrou")
+                    .tag("filtro", tag)
+                    .tag("resultado", "falso_positivo")
+                    .register(meterRegistry);
+
+            Gauge.builder("creditos.bloom.fpp.estimada", this, b -> b.taxaEstimada(tipo))
+                    .description("Taxa de falso positivo estimada pela ocupação dos bits")
+                    .tag("filtro", tag)
+                    .register(meterRegistry);
+            Gauge.builder("creditos.bloom.fpp.observada", this, b -> b.taxaObservada(tipo))
+                    .description("Taxa de falso positivo observada nas consultas")
+                    .tag("filtro", tag)
+                    .register(meterRegistry);
+        }
+    }
+
+    // ================================================
+    // CONSULTAS
+    // ================================================
+
+    /**
+     * Consulta o filtro correspondente ao tipo de chave
+     *
+     * @param tipo Tipo da chave (crédito ou NFS-e)
+     * @param numero Número normalizado
+     * @return Resposta do filtro
+     */
+    public Resposta consultar(TipoChave tipo, String numero) {
+        Filtros filtros = atual;
+        if (filtros == null || numero == null) {
+            return Resposta.INDISPONIVEL;
+        }
+
+        if (filtros.get(tipo).podeConter(numero)) {
+            return Resposta.TALVEZ_PRESENTE;
+        }
+
+        ausentes[tipo.ordinal()].increment();
+        return Resposta.AUSENTE;
+    }
+
+    /**
+     * Registra que o filtro indicou presença mas o banco não encontrou a chave
+     */
+    public void registrarFalsoPositivo(TipoChave tipo) {
+        falsosPositivos[tipo.ordinal()].increment();
+    }
+
+    /**
+     * Adiciona as chaves de um crédito recém-persistido
+     * Também alimenta o filtro em construção, para não perder inserções concorrentes
+     */
+    public void adicionar(String numeroCredito, String numeroNfse) {
+        Filtros filtros = atual;
+        if (filtros != null) {
+            filtros.adicionar(numeroCredito, numeroNfse);
+        }
+
+        Filtros novos = emConstrucao;
+        if (novos != null) {
+            novos.adicionar(numeroCredito, numeroNfse);
+        }
+    }
+
+    // ================================================
+    // CONSTRUÇÃO
+    // ================================================
+
+    /**
+     * Reconstrói os filtros a partir do banco e substitui os atuais atomicamente
+     * Executado na inicialização e periodicamente
+     */
+    @Scheduled(initialDelay = 0, fixedDelayString = "${app.bloom-filter.intervalo-reconstrucao:PT30M}")
+    public void reconstruir() {
+        if (!habilitado) {
+            return;
+        }
+
+        long inicio = System.nanoTime();
+        try {
+            long esperado = Math.max(1000L, (long) (creditoRepository.count() * 1.2));
+            Filtros novos = new Filtros(esperado, taxaFalsoPositivo);
+            emConstrucao = novos;
+
+            long total = transactionTemplate.execute(status -> {
+                long lidos = 0;
+                try (Stream<Object[]> chaves = creditoRepository.streamNumerosIdentificadores()) {
+                    Iterator<Object[]> iterator = chaves.iterator();
+                    while (iterator.hasNext()) {
+                        Object[] linha = iterator.next();
+                        novos.adicionar((String) linha[0], (String) linha[1]);
+                        lidos++;
+                    }
+                }
+                return lidos;
+            });
+
+            atual = novos;
+            long duracao = System.nanoTime() - inicio;
+            timerReconstrucao.record(duracao, TimeUnit.NANOSECONDS);
+
+            LoggingUtils.logPerformance(logger, "Reconstrução do filtro de Bloom",
+                    TimeUnit.NANOSECONDS.toMillis(duracao), (int) Math.min(total, Integer.MAX_VALUE));
+
+        } catch (Exception ex) {
+            // Mantém o filtro anterior; sem filtro as consultas seguem direto para o banco
+            LoggingUtils.logErroInterno(logger, "reconstrução do filtro de Bloom", ex, null);
+        } finally {
+            emConstrucao = null;
+        }
+    }
+
+    // ================================================
+    // MÉTODOS PRIVADOS AUXILIARES
+    // ================================================
+
+    private double taxaEstimada(TipoChave tipo) {
+        Filtros filtros = atual;
+        return filtros != null ? filtros.get(tipo).taxaFalsoPositivoEstimada() : Double.NaN;
+    }
+
+    private double taxaObservada(TipoChave tipo) {
+        double fp = falsosPositivos[tipo.ordinal()].count();
+        double tn = ausentes[tipo.ordinal()].count();
+        return fp + tn > 0 ? fp / (fp + tn) : 0.0;
+    }
+
+    /**
+     * Par de filtros (crédito e NFS-e) substituído como uma unidade
+     */
+    private static final class Filtros {
+        private final BloomFilter credito;
+        private final BloomFilter nfse;
+
+        Filtros(long insercoesEsperadas, double taxaFalsoPositivo) {
+            this.credito = BloomFilter.criar(insercoesEsperadas, taxaFalsoPositivo);
+            this.nfse = BloomFilter.criar(insercoesEsperadas, taxaFalsoPositivo);
+        }
+
+        void adicionar(String numeroCredito, String numeroNfse) {
+            if (numeroCredito != null) {
+                credito.adicionar(numeroCredito);
+            }
+            if (numeroNfse != null) {
+                nfse.adicionar(numeroNfse);
+            }
+        }
+
+        BloomFilter get(TipoChave tipo) {
+            return tipo == TipoChave.CREDITO ? credito : nfse;
+        }
+    }
+}
@@ -0,0 +1,402 @@
+package com.creditos.cache;
+
+import com.creditos.dto.BuscaNumerosDTO;
+import com.creditos.repository.CreditoRepository;
+import com.creditos.util.LoggingUtils;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Índice em memória de numero_credito e numero_nfse para busca parcial (typeahead)
+ *
+ * As consultas LIKE '%termo%' não usam os índices B-tree das colunas e percorrem a tabela
+ * inteira. Este índice guarda os pares (crédito, NFS-e) e um IndiceNgrama por coluna: a busca
+ * intersecta as listas de trigramas do termo e confirma apenas os candidatos, sem acessar o banco.
+ *
+ * Ciclo de vida igual ao do CreditoBloomFilter: construído na inicialização a partir de uma
+ * leitura apenas das chaves, reconstruído periodicamente e após importações em massa, e
+ * alimentado pela ingestão a cada crédito persistido.
+ *
+ * Desabilitado por padrão (app.busca.habilitado): cada réplica guarda os números de todos os
+ * créditos no heap, e durante a reconstrução o índice anterior e o novo coexistem. O índice nunca
+ * passa de app.busca.maximo-documentos pares: se a tabela exceder o limite, a reconstrução é
+ * interrompida, o índice é descartado e a busca responde 503.
+ *
+ * A tabela não tem pares repetidos (índice único de V5), então a leitura da reconstrução é
+ * indexada sem verificação. Só os pares recebidos da ingestão são conferidos contra o próprio
+ * índice de trigramas (reentregas e créditos que a leitura da reconstrução também encontrou),
+ * sem um mapa auxiliar por par.
+ *
+ * Métricas expostas:
+ * - creditos.busca.reconstrucao: duração de cada reconstrução
+ * - creditos.busca.documentos: pares indexados (NaN sem índice)
+ * - creditos.busca.postagens: entradas documento x trigrama (proporcional à memória ocupada)
+ *
+ * @author Ednilton Curt Rauh
+ * @version 1.0.0
+ */
+@Component
+public class CreditoIndiceNumeros {
+
+    private static final Logger logger = LoggerFactory.getLogger(CreditoIndiceNumeros.class);
+
+    /**
+     * Coluna pesquisada
+     */
+    public enum Campo {
+        CREDITO, NFSE, TODOS
+    }
+
+    private final CreditoRepository creditoRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean habilitado;
+    private final int maximoDocumentos;
+
+    private final Timer timerReconstrucao;
+
+    private volatile Indice atual;
+
+    // Pares recebidos durante a reconstrução, aplicados ao novo índice antes da troca (guardados por "trava")
+    private final Object trava = new Object();
+    private List<String[]> pendentes;
+
+    @Autowired
+    public CreditoIndiceNumeros(CreditoRepository creditoRepository,
+                                PlatformTransactionManager transactionManager,
+                                MeterRegistry meterRegistry,
+                                @Value("${app.busca.habilitado:false}") boolean habilitado,
+                                @Value("${app.busca.maximo-documentos:5000000}") int maximoDocumentos) {
+        this.creditoRepository = creditoRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.habilitado = habilitado;
+        this.maximoDocumentos = maximoDocumentos;
+
+        this.timerReconstrucao = Timer.builder("creditos.busca.reconstrucao")
+                .description("Duração da reconstrução do índice de busca parcial")
+                .register(meterRegistry);
+        Gauge.builder("creditos.busca.documentos", this, i -> i.tamanho(false))
+                .description("Pares crédito/NFS-e no índice de busca parcial")
+                .register(meterRegistry);
+        Gauge.builder("creditos.busca.postagens", this, i -> i.tamanho(true))
+                .description("Entradas documento x trigrama no índice de busca parcial")
+                .register(meterRegistry);
+    }
+
+    // ================================================
+    // CONSULTAS
+    // ================================================
+
+    /**
+     * Busca os pares cujo número contém o termo (sem distinção de maiúsculas)
+     *
+     * @param termo Termo com pelo menos IndiceNgrama.TAMANHO_NGRAMA caracteres
+     * @param campo Coluna pesquisada
+     * @param maximo Quantidade máxima de resultados
+     * @return Pares encontrados; null se o índice não estiver disponível (desabilitado, em construção
+     * ou acima do limite de documentos)
+     */
+    public List<BuscaNumerosDTO.Item> buscar(String termo, Campo campo, int maximo) {
+        Indice indice = atual;
+        return indice != null ? indice.buscar(termo, campo, maximo) : null;
+    }
+
+    /**
+     * Adiciona o par de um crédito recém-persistido, se ainda não estiver indexado
+     * Durante a reconstrução também o guarda para o novo índice, para não perder inserções concorrentes
+     */
+    public void adicionar(String numeroCredito, String numeroNfse) {
+        if (numeroCredito == null) {
+            return;
+        }
+        synchronized (trava) {
+            Indice indice = atual;
+            if (indice != null && !indice.adicionarSeAusente(numeroCredito, numeroNfse)) {
+                // Acima do limite: descarta o índice, como na reconstrução
+                atual = null;
+                LoggingUtils.logErro(logger, "indexação da busca parcial",
+                        "índice excede o limite de documentos", String.valueOf(maximoDocumentos));
+            }
+            if (pendentes != null) {
+                pendentes.add(new String[]{numeroCredito, numeroNfse});
+            }
+        }
+    }
+
+    // ================================================
+    // CONSTRUÇÃO
+    // ================================================
+
+    /**
+     * Reconstrói o índice a partir do banco e substitui o atual atomicamente
+     * Executado na inicialização, periodicamente e após importações em massa
+     */
+    @Scheduled(initialDelay = 0, fixedDelayString = "${app.busca.intervalo-reconstrucao:PT30M}")
+    public void reconstruir() {
+        if (!habilitado) {
+            return;
+        }
+
+        long inicio = System.nanoTime();
+        try {
+            synchronized (trava) {
+                pendentes = new ArrayList<>();
+            }
+            Indice novo = new Indice();
+
+            long total = transactionTemplate.execute(status -> {
+                long lidos = 0;
+                try (Stream<Object[]> chaves = creditoRepository.streamNumerosIdentificadores()) {
+                    Iterator<Object[]> iterator = chaves.iterator();
+                    while (iterator.hasNext()) {
+                        Object[] linha = iterator.next();
+                        if (!novo.adicionar((String) linha[0], (String) linha[1], maximoDocumentos)) {
+                            throw new LimiteExcedido();
+                        }
+                        lidos++;
+                    }
+                }
+                return lidos;
+            });
+
+            synchronized (trava) {
+                for (String[] par : pendentes) {
+                    if (!novo.adicionarSeAusente(par[0], par[1])) {
+                        throw new LimiteExcedido();
+                    }
+                }
+                atual = novo;
+            }
+            long duracao = System.nanoTime() - inicio;
+            timerReconstrucao.record(duracao, TimeUnit.NANOSECONDS);
+
+            LoggingUtils.logPerformance(logger, "Reconstrução do índice de busca parcial",
+                    TimeUnit.NANOSECONDS.toMillis(duracao), (int) Math.min(total, Integer.MAX_VALUE));
+
+        } catch (LimiteExcedido ex) {
+            // Descarta também o índice anterior: a busca responde 503 em vez de crescer sem limite
+            atual = null;
+            LoggingUtils.logErro(logger, "reconstrução do índice de busca parcial",
+                    "tabela credito excede o limite de documentos do índice", String.valueOf(maximoDocumentos));
+
+        } catch (Exception ex) {
+            // Mantém o índice anterior; sem índice a busca responde 503 até a próxima tentativa
+            LoggingUtils.logErroInterno(logger, "reconstrução do índice de busca parcial", ex, null);
+        } finally {
+            synchronized (trava) {
+                pendentes = null;
+            }
+        }
+    }
+
+    // ================================================
+    // MÉTODOS PRIVADOS AUXILIARES
+    // ================================================
+
+    private double tamanho(boolean postagens) {
+        Indice indice = atual;
+        if (indice == null) {
+            return Double.NaN;
+        }
+        return postagens ? indice.quantidadePostagens() : indice.quantidadeDocumentos();
+    }
+
+    /**
+     * Verifica se o valor contém o termo sem distinção de maiúsculas, sem criar novas strings
+     */
+    static boolean contem(String valor, String termo) {
+        if (valor == null) {
+            return false;
+        }
+        int limite = valor.length() - termo.length();
+        for (int i = 0; i <= limite; i++) {
+            if (valor.regionMatches(true, i, termo, 0, termo.length())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * União de duas listas crescentes, sem repetição
+     */
+    static int[] unir(int[] a, int[] b) {
+        int[] resultado = new int[a.length + b.length];
+        int i = 0;
+        int j = 0;
+        int k = 0;
+        while (i < a.length || j < b.length) {
+            int proximo;
+            if (j >= b.length || (i < a.length && a[i] < b[j])) {
+                proximo = a[i++];
+            } else if (i >= a.length || b[j] < a[i]) {
+                proximo = b[j++];
+            } else {
+                proximo = a[i++];
+                j++;
+            }
+            resultado[k++] = proximo;
+        }
+        return k == resultado.length ? resultado : Arrays.copyOf(resultado, k);
+    }
+
+    /**
+     * Interrompe a reconstrução quando a tabela excede app.busca.maximo-documentos
+     */
+    private static final class LimiteExcedido extends RuntimeException {
+
+        private static final long serialVersionUID = 1L;
+
+        LimiteExcedido() {
+            super(null, null, false, false);
+        }
+    }
+
+    /**
+     * Pares indexados e os índices de trigramas das duas colunas, substituídos como uma unidade
+     * O documento é a posição do par nos arrays; inserções pela ingestão e buscas concorrem pelo lock
+     */
+    private final class Indice {
+        private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        private final IndiceNgrama credito = new IndiceNgrama();
+        private final IndiceNgrama nfse = new IndiceNgrama();
+        private String[] numerosCredito = new String[1024];
+        private String[] numerosNfse = new String[1024];
+        private int quantidade;
+
+        /**
+         * Indexa um par sem verificar repetição (leitura da tabela, sem pares repetidos)
+         *
+         * @return false se o índice já estiver no limite de documentos
+         */
+        boolean adicionar(String numeroCredito, String numeroNfse, int limite) {
+            if (numeroCredito == null) {
+                return true;
+            }
+            lock.writeLock().lock();
+            try {
+                return anexar(numeroCredito, numeroNfse, limite);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        /**
+         * Indexa um par recebido da ingestão, se ainda não estiver no índice
+         *
+         * @return false se o índice já estiver no limite de documentos
+         */
+        boolean adicionarSeAusente(String numeroCredito, String numeroNfse) {
+            lock.writeLock().lock();
+            try {
+                return contemPar(numeroCredito, numeroNfse) || anexar(numeroCredito, numeroNfse, maximoDocumentos);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        private boolean anexar(String numeroCredito, String numeroNfse, int limite) {
+            if (quantidade >= limite) {
+                return false;
+            }
+            if (quantidade == numerosCredito.length) {
+                numerosCredito = Arrays.copyOf(numerosCredito, quantidade * 2);
+                numerosNfse = Arrays.copyOf(numerosNfse, quantidade * 2);
+            }
+            int documento = quantidade++;
+            numerosCredito[documento] = numeroCredito;
+            numerosNfse[documento] = numeroNfse;
+            credito.adicionar(documento, numeroCredito);
+            nfse.adicionar(documento, numeroNfse);
+            return true;
+        }
+
+        /**
+         * Confere o par pelos candidatos do número do crédito (números curtos, sem trigrama, por varredura)
+         */
+        private boolean contemPar(String numeroCredito, String numeroNfse) {
+            if (numeroCredito.length() >= IndiceNgrama.TAMANHO_NGRAMA) {
+                for (int documento : credito.candidatos(numeroCredito)) {
+                    if (numeroCredito.equals(numerosCredito[documento])
+                            && Objects.equals(numeroNfse, numerosNfse[documento])) {
+                        return true;
+                    }
+                }
+                return false;
+            }
+            for (int documento = 0; documento < quantidade; documento++) {
+                if (numeroCredito.equals(numerosCredito[documento])
+                        && Objects.equals(numeroNfse, numerosNfse[documento])) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        List<BuscaNumerosDTO.Item> buscar(String termo, Campo campo, int maximo) {
+            lock.readLock().lock();
+            try {
+                int[] candidatos;
+                switch (campo) {
+                    case CREDITO:
+                        candidatos = credito.candidatos(termo);
+                        break;
+                    case NFSE:
+                        candidatos = nfse.candidatos(termo);
+                        break;
+                    default:
+                        candidatos = unir(credito.candidatos(termo), nfse.candidatos(termo));
+                }
+
+                List<BuscaNumerosDTO.Item> resultado = new ArrayList<>(Math.min(maximo, candidatos.length));
+                for (int i = 0; i < candidatos.length && resultado.size() < maximo; i++) {
+                    int documento = candidatos[i];
+                    boolean confere = (campo != Campo.NFSE && contem(numerosCredito[documento], termo))
+                            || (campo != Campo.CREDITO && contem(numerosNfse[documento], termo));
+                    if (confere) {
+                        resultado.add(new BuscaNumerosDTO.Item(numerosCredito[documento], numerosNfse[documento]));
+                    }
+                }
+                return resultado;
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        int quantidadeDocumentos() {
+            lock.readLock().lock();
+            try {
+                return quantidade;
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        long quantidadePostagens() {
+            lock.readLock().lock();
+            try {
+                return credito.quantidadePostagens() + nfse.quantidadePostagens();
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+    }
+}
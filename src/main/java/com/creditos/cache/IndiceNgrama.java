@@ -0,0 +1,151 @@
+package com.creditos.cache;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Índice invertido de trigramas para busca por substring
+ *
+ * Cada trigrama (três caracteres consecutivos, sem distinção de maiúsculas) aponta para a lista
+ * ordenada dos documentos que o contêm, guardada em int[] crescente. Uma busca calcula os
+ * trigramas do termo e intersecta as listas, da menor para a maior; o resultado é um
+ * superconjunto das ocorrências e deve ser confirmado pelo chamador (ex.: "123123" contém os
+ * trigramas de "1231231" sem conter o termo).
+ *
+ * Os documentos devem ser adicionados em ordem crescente de identificador. Não é thread-safe:
+ * o chamador controla o acesso concorrente.
+ *
+ * @author Ednilton Curt Rauh
+ * @version 1.0.0
+ */
+public class IndiceNgrama {
+
+    /**
+     * Tamanho do n-grama; termos menores não podem ser buscados pelo índice
+     */
+    public static final int TAMANHO_NGRAMA = 3;
+
+    private static final int[] VAZIO = new int[0];
+
+    private final Map<Long, Postagens> postagens = new HashMap<>();
+    private long totalPostagens;
+
+    /**
+     * Indexa um valor
+     *
+     * @param documento Identificador do documento, maior ou igual ao último adicionado
+     * @param valor Texto a indexar (ignorado se nulo ou menor que o n-grama)
+     */
+    public void adicionar(int documento, String valor) {
+        if (valor == null) {
+            return;
+        }
+        for (int i = 0; i + TAMANHO_NGRAMA <= valor.length(); i++) {
+            Postagens lista = postagens.computeIfAbsent(chave(valor, i), k -> new Postagens());
+            if (lista.adicionar(documento)) {
+                totalPostagens++;
+            }
+        }
+    }
+
+    /**
+     * Documentos que contêm todos os trigramas do termo
+     *
+     * @param termo Termo com pelo menos TAMANHO_NGRAMA caracteres
+     * @return Identificadores em ordem crescente (candidatos a confirmar)
+     */
+    public int[] candidatos(String termo) {
+        if (termo == null || termo.length() < TAMANHO_NGRAMA) {
+            throw new IllegalArgumentException("Termo deve ter pelo menos " + TAMANHO_NGRAMA + " caracteres");
+        }
+
+        List<Postagens> listas = new ArrayList<>(termo.length());
+        for (int i = 0; i + TAMANHO_NGRAMA <= termo.length(); i++) {
+            Postagens lista = postagens.get(chave(termo, i));
+            if (lista == null) {
+                return VAZIO;
+            }
+            if (!listas.contains(lista)) {
+                listas.add(lista);
+            }
+        }
+        listas.sort((a, b) -> Integer.compare(a.tamanho, b.tamanho));
+
+        // Parte da menor lista e busca cada candidato nas demais (custo proporcional à menor)
+        Postagens menor = listas.get(0);
+        int[] resultado = Arrays.copyOf(menor.documentos, menor.tamanho);
+        int quantidade = resultado.length;
+        for (int l = 1; l < listas.size() && quantidade > 0; l++) {
+            quantidade = intersectar(resultado, quantidade, listas.get(l));
+        }
+        return quantidade == resultado.length ? resultado : Arrays.copyOf(resultado, quantidade);
+    }
+
+    /**
+     * Quantidade de trigramas distintos
+     */
+    public int quantidadeNgramas() {
+        return postagens.size();
+    }
+
+    /**
+     * Soma do tamanho de todas as listas (entradas documento x trigrama)
+     */
+    public long quantidadePostagens() {
+        return totalPostagens;
+    }
+
+    // ================================================
+    // MÉTODOS AUXILIARES
+    // ================================================
+
+    /**
+     * Mantém em "candidatos" apenas os documentos presentes na lista; devolve a nova quantidade
+     */
+    private static int intersectar(int[] candidatos, int quantidade, Postagens lista) {
+        int mantidos = 0;
+        int inicio = 0;
+        for (int i = 0; i < quantidade && inicio < lista.tamanho; i++) {
+            int posicao = Arrays.binarySearch(lista.documentos, inicio, lista.tamanho, candidatos[i]);
+            if (posicao >= 0) {
+                candidatos[mantidos++] = candidatos[i];
+                inicio = posicao + 1;
+            } else {
+                inicio = -posicao - 1;
+            }
+        }
+        return mantidos;
+    }
+
+    /**
+     * Três caracteres (16 bits cada, em minúsculas) empacotados em um long
+     */
+    private static long chave(String texto, int inicio) {
+        return ((long) Character.toLowerCase(texto.charAt(inicio)) << 32)
+                | ((long) Character.toLowerCase(texto.charAt(inicio + 1)) << 16)
+                | Character.toLowerCase(texto.charAt(inicio + 2));
+    }
+
+    /**
+     * Lista de documentos de um trigrama, crescente e sem repetição
+     */
+    private static final class Postagens {
+        private int[] documentos = new int[4];
+        private int tamanho;
+
+        boolean adicionar(int documento) {
+            if (tamanho > 0 && documentos[tamanho - 1] >= documento) {
+                // Trigrama repetido no mesmo valor (ex.: "1111") ou documento já indexado
+                return false;
+            }
+            if (tamanho == documentos.length) {
+                documentos = Arrays.copyOf(documentos, tamanho + (tamanho >> 1));
+            }
+            documentos[tamanho++] = documento;
+            return true;
+        }
+    }
+}
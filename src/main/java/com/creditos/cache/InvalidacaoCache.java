@@ -0,0 +1,315 @@
+package com.creditos.cache;
+
+import com.creditos.config.CacheProperties;
+import com.creditos.dto.CacheInvalidacaoEventoDTO;
+import com.creditos.util.LoggingUtils;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Invalidação das chaves de cache de créditos em todas as instâncias da aplicação
+ *
+ * Cada invalidação remove as chaves do cache local e publica um evento por região no tópico
+ * app.kafka.topics.cache-invalidacao. As demais instâncias consomem o tópico (cada uma com group id
+ * próprio) e aplicam a mesma remoção localmente. Chaves invalidadas:
+ * - região "creditos": nfse_{numero} e credito_{numero}
+ * - região "existencia": nfse_exists_{numero} e credito_exists_{numero}
+ *
+ * Créditos inseridos (ingestão) e importações em massa também passam por aqui, em um evento da região
+ * "indices": as demais instâncias adicionam os pares ao filtro de Bloom e ao índice de busca parcial
+ * (ou os reconstroem a partir do banco, após uma importação) antes de remover as chaves afetadas. Sem
+ * isso, as verificações de existência e a busca parcial das outras instâncias só enxergariam os novos
+ * créditos na reconstrução periódica.
+ *
+ * Eventos perdidos (ex.: Kafka indisponível) ficam limitados ao TTL da região. Eventos atrasados ou
+ * fora de ordem não trazem dados antigos de volta: as regiões são CacheVersionado e recusam valores
+ * cuja carga começou antes da invalidação.
+ *
+ * Métricas expostas:
+ * - creditos.cache.invalidacao{origem=local|remota}: eventos aplicados
+ * - creditos.cache.invalidacao.falhas: eventos que não puderam ser publicados
+ *
+ * @author Ednilton Curt Rauh
+ * @version 1.0.0
+ */
+@Component
+public class InvalidacaoCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(InvalidacaoCache.class);
+
+    public static final String REGIAO_CREDITOS = "creditos";
+    public static final String REGIAO_EXISTENCIA = "existencia";
+    /** Região sem cache associado: créditos inseridos para o filtro de Bloom e o índice de busca */
+    public static final String REGIAO_INDICES = "indices";
+
+    private static final String PREFIXO_NFSE = "nfse_";
+    private static final String PREFIXO_CREDITO = "credito_";
+    private static final String PREFIXO_NFSE_EXISTS = "nfse_exists_";
+    private static final String PREFIXO_CREDITO_EXISTS = "credito_exists_";
+
+    private final CacheManager cacheManager;
+    private final CreditoBloomFilter bloomFilter;
+    private final CreditoIndiceNumeros indiceNumeros;
+    private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final String topico;
+
+    // Identifica esta instância nos eventos publicados e no group id do consumidor
+    private final String instancia = UUID.randomUUID().toString();
+    private final AtomicLong versao = new AtomicLong();
+
+    // Reconstruções pedidas por outras instâncias: fora da thread do consumidor e sem enfileirar repetidas
+    private final ExecutorService reconstrucao = Executors.newSingleThreadExecutor(tarefa -> {
+        Thread thread = new Thread(tarefa, "reconstrucao-indices");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean reconstrucaoPendente = new AtomicBoolean();
+
+    private final Counter aplicadasLocais;
+    private final Counter aplicadasRemotas;
+    private final Counter falhasPublicacao;
+
+    @Autowired
+    public InvalidacaoCache(CacheManager cacheManager,
+                            CreditoBloomFilter bloomFilter,
+                            CreditoIndiceNumeros indiceNumeros,
+                            ObjectProvider<KafkaTemplate<String, Object>> kafkaTemplate,
+                            CacheProperties cacheProperties,
+                            @Value("${app.kafka.topics.cache-invalidacao:cache-invalidacao-topic}") String topico,
+                            MeterRegistry meterRegistry) {
+        this.cacheManager = cacheManager;
+        this.bloomFilter = bloomFilter;
+        this.indiceNumeros = indiceNumeros;
+        this.kafkaTemplate = cacheProperties.getInvalidacao().isHabilitada() ? kafkaTemplate.getIfAvailable() : null;
+        this.topico = topico;
+
+        this.aplicadasLocais = contador(meterRegistry, "local");
+        this.aplicadasRemotas = contador(meterRegistry, "remota");
+        this.falhasPublicacao = Counter.builder("creditos.cache.invalidacao.falhas")
+                .description("Eventos de invalidação que não puderam ser publicados")
+                .register(meterRegistry);
+
+        LoggingUtils.logInicializacao(logger, "Invalidação de cache",
+                LoggingUtils.formatarMensagem(this.kafkaTemplate != null ? "distribuída" : "apenas local",
+                        "instancia", instancia, "topico", topico));
+    }
+
+    public String getInstancia() {
+        return instancia;
+    }
+
+    /**
+     * Publica créditos recém-inseridos em todas as instâncias: adiciona os pares ao filtro de Bloom e ao
+     * índice de busca parcial e invalida as consultas por NFS-e e por número de crédito afetadas
+     *
+     * @param numerosCredito Números de crédito inseridos
+     * @param numerosNfse NFS-e de cada crédito, na mesma posição de numerosCredito
+     */
+    public void creditosInseridos(List<String> numerosCredito, List<String> numerosNfse) {
+        if (numerosCredito.isEmpty()) {
+            return;
+        }
+        adicionarLocal(numerosCredito, numerosNfse);
+        aplicadasLocais.increment();
+        publicar(new CacheInvalidacaoEventoDTO(instancia, versao.incrementAndGet(), REGIAO_INDICES,
+                numerosCredito, numerosNfse));
+    }
+
+    /**
+     * Reconstrói o filtro de Bloom e o índice de busca a partir do banco e limpa as regiões de créditos,
+     * nesta instância (de forma síncrona) e nas demais (em segundo plano)
+     * Usado após cargas que não informam as chaves inseridas, como a importação em massa
+     */
+    public void reconstruirIndices() {
+        reconstruirLocal();
+        aplicadasLocais.increment();
+        publicar(new CacheInvalidacaoEventoDTO(instancia, versao.incrementAndGet(), REGIAO_INDICES,
+                Collections.<String>emptyList(), Collections.<String>emptyList()));
+    }
+
+    /**
+     * Invalida as consultas por NFS-e e por número de crédito, inclusive as verificações de existência
+     *
+     * @param numerosCredito Números de crédito alterados
+     * @param numerosNfse Números de NFS-e alterados
+     */
+    public void invalidarCreditos(Collection<String> numerosCredito, Collection<String> numerosNfse) {
+        if (numerosCredito.isEmpty() && numerosNfse.isEmpty()) {
+            return;
+        }
+        invalidar(REGIAO_CREDITOS, chaves(numerosCredito, numerosNfse, PREFIXO_CREDITO, PREFIXO_NFSE));
+        invalidar(REGIAO_EXISTENCIA, chaves(numerosCredito, numerosNfse, PREFIXO_CREDITO_EXISTS, PREFIXO_NFSE_EXISTS));
+    }
+
+    /**
+     * Limpa uma região inteira, em todas as instâncias
+     */
+    public void invalidarRegiao(String regiao) {
+        invalidar(regiao, Collections.<String>emptyList());
+    }
+
+    /**
+     * Aplica um evento recebido de outra instância; eventos publicados por esta instância são ignorados
+     */
+    public void aplicar(CacheInvalidacaoEventoDTO evento) {
+        if (instancia.equals(evento.getOrigem())) {
+            return;
+        }
+        if (evento.getRegiao() == null) {
+            LoggingUtils.logErroValidacao(logger, "evento", String.valueOf(evento), "região não informada");
+            return;
+        }
+        if (REGIAO_INDICES.equals(evento.getRegiao())) {
+            aplicarIndices(evento);
+        } else {
+            removerLocal(evento.getRegiao(), evento.getChaves());
+        }
+        aplicadasRemotas.increment();
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        reconstrucao.shutdownNow();
+    }
+
+    // ================================================
+    // MÉTODOS AUXILIARES
+    // ================================================
+
+    private void aplicarIndices(CacheInvalidacaoEventoDTO evento) {
+        List<String> numerosCredito = evento.getNumerosCredito();
+        List<String> numerosNfse = evento.getNumerosNfse();
+        if (numerosCredito == null || numerosCredito.isEmpty()) {
+            agendarReconstrucao();
+            return;
+        }
+        if (numerosNfse == null || numerosNfse.size() != numerosCredito.size()) {
+            LoggingUtils.logErroValidacao(logger, "evento", String.valueOf(evento),
+                    "numerosCredito e numerosNfse devem ter o mesmo tamanho");
+            return;
+        }
+        adicionarLocal(numerosCredito, numerosNfse);
+    }
+
+    /**
+     * Adiciona os pares ao filtro e ao índice antes de remover as chaves, para que uma consulta feita
+     * logo após a remoção não volte a gravar "inexistente" no cache
+     */
+    private void adicionarLocal(List<String> numerosCredito, List<String> numerosNfse) {
+        for (int i = 0; i < numerosCredito.size(); i++) {
+            bloomFilter.adicionar(numerosCredito.get(i), numerosNfse.get(i));
+            indiceNumeros.adicionar(numerosCredito.get(i), numerosNfse.get(i));
+        }
+        Set<String> nfses = new LinkedHashSet<>(numerosNfse);
+        removerLocal(REGIAO_CREDITOS, chaves(numerosCredito, nfses, PREFIXO_CREDITO, PREFIXO_NFSE));
+        removerLocal(REGIAO_EXISTENCIA, chaves(numerosCredito, nfses, PREFIXO_CREDITO_EXISTS, PREFIXO_NFSE_EXISTS));
+    }
+
+    private void reconstruirLocal() {
+        bloomFilter.reconstruir();
+        indiceNumeros.reconstruir();
+        removerLocal(REGIAO_CREDITOS, null);
+        removerLocal(REGIAO_EXISTENCIA, null);
+    }
+
+    private void agendarReconstrucao() {
+        // As regiões são limpas já na chegada; a reconstrução volta a limpá-las ao terminar
+        removerLocal(REGIAO_CREDITOS, null);
+        removerLocal(REGIAO_EXISTENCIA, null);
+        if (!reconstrucaoPendente.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            reconstrucao.execute(() -> {
+                reconstrucaoPendente.set(false);
+                reconstruirLocal();
+            });
+        } catch (RejectedExecutionException ex) {
+            reconstrucaoPendente.set(false);
+        }
+    }
+
+    private void invalidar(String regiao, List<String> chaves) {
+        removerLocal(regiao, chaves);
+        aplicadasLocais.increment();
+        publicar(new CacheInvalidacaoEventoDTO(instancia, versao.incrementAndGet(), regiao, chaves));
+    }
+
+    private void publicar(CacheInvalidacaoEventoDTO evento) {
+        if (kafkaTemplate == null) {
+            return;
+        }
+        try {
+            kafkaTemplate.send(topico, evento.getRegiao(), evento).addCallback(
+                    resultado -> { },
+                    ex -> falhaPublicacao(evento, ex));
+        } catch (Exception ex) {
+            falhaPublicacao(evento, ex);
+        }
+    }
+
+    private static List<String> chaves(Collection<String> numerosCredito, Collection<String> numerosNfse,
+                                       String prefixoCredito, String prefixoNfse) {
+        List<String> chaves = new ArrayList<>(numerosCredito.size() + numerosNfse.size());
+        for (String numero : numerosNfse) {
+            chaves.add(prefixoNfse + numero);
+        }
+        for (String numero : numerosCredito) {
+            chaves.add(prefixoCredito + numero);
+        }
+        return chaves;
+    }
+
+    private void removerLocal(String regiao, List<String> chaves) {
+        Cache cache = cacheManager.getCache(regiao);
+        if (cache == null) {
+            return;
+        }
+        if (chaves == null || chaves.isEmpty()) {
+            cache.clear();
+        } else {
+            for (String chave : chaves) {
+                cache.evict(chave);
+            }
+        }
+        LoggingUtils.logCacheOperacao(logger, "invalidação",
+                LoggingUtils.formatarMensagem("Região " + regiao,
+                        "chaves", chaves == null || chaves.isEmpty() ? "todas" : String.valueOf(chaves.size())));
+    }
+
+    private void falhaPublicacao(CacheInvalidacaoEventoDTO evento, Throwable ex) {
+        falhasPublicacao.increment();
+        // As outras instâncias passam a depender do TTL da região
+        LoggingUtils.logErro(logger, "Publicação de invalidação de cache", ex.getMessage(), String.valueOf(evento));
+    }
+
+    private static Counter contador(MeterRegistry meterRegistry, String origem) {
+        return Counter.builder("creditos.cache.invalidacao")
+                .description("Eventos de invalidação de cache aplicados")
+                .tag("origem", origem)
+                .register(meterRegistry);
+    }
+}
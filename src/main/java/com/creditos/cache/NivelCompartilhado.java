@@ -0,0 +1,230 @@
+package com.creditos.cache;
+
+import com.creditos.util.LoggingUtils;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+
+/**
+ * Segundo nível de uma região de cache, gravado no armazenamento compartilhado entre as instâncias
+ *
+ * Os valores são gravados em binário (CodecValorCache) com o TTL da região, sob a chave
+ * {prefixo}{regiao}:{chave}. Uma instância nova encontra aqui os valores carregados pelas demais
+ * e não precisa ir ao banco para as chaves mais consultadas.
+ *
+ * Cada valor é gravado com a versão lida antes da carga: a geração da região ({prefixo}versao:{regiao},
+ * incrementada na limpeza) e a da chave ({prefixo}versao:{regiao}:{chave}, incrementada na remoção).
+ * A leitura busca valor e gerações em um só MGET e descarta o valor cuja versão não é a atual. Assim,
+ * um valor carregado antes de uma invalidação e gravado depois dela, por uma instância que ainda não
+ * processou o evento, não é servido às demais instâncias que já o processaram.
+ *
+ * O nível é opcional para a consulta: qualquer falha do armazenamento é registrada, o nível fica
+ * suspenso pela pausa configurada (evitando um timeout por requisição) e a leitura segue para o banco.
+ * Remoções perdidas durante a suspensão ficam limitadas ao TTL da região.
+ *
+ * Métricas expostas:
+ * - creditos.cache.compartilhado{regiao, resultado=hit|miss|obsoleto|erro}
+ *
+ * @author Ednilton Curt Rauh
+ * @version 1.0.0
+ */
+public class NivelCompartilhado {
+
+    private static final Logger logger = LoggerFactory.getLogger(NivelCompartilhado.class);
+
+    /**
+     * Retorno de ler() quando a chave não está no nível compartilhado (null é um valor válido)
+     */
+    static final Object AUSENTE = new Object();
+
+    private static final int TAMANHO_VERSAO = 2 * Long.BYTES;
+
+    private final String regiao;
+    private final ArmazenamentoCompartilhado armazenamento;
+    private final String prefixo;
+    private final String chaveVersaoRegiao;
+    private final Duration ttl;
+    private final Duration ttlVersao;
+    private final long pausaAposFalhaNanos;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter obsoletos;
+    private final Counter erros;
+
+    private volatile long suspensoAte;
+
+    public NivelCompartilhado(String regiao, ArmazenamentoCompartilhado armazenamento, String prefixo,
+                              Duration ttl, Duration pausaAposFalha, MeterRegistry meterRegistry) {
+        this.regiao = regiao;
+        this.armazenamento = armazenamento;
+        this.prefixo = prefixo + regiao + ":";
+        this.chaveVersaoRegiao = prefixo + "versao:" + regiao;
+        this.ttl = ttl;
+        // A geração da chave precisa sobreviver aos valores gravados com a geração anterior
+        this.ttlVersao = ttl.multipliedBy(2);
+        this.pausaAposFalhaNanos = pausaAposFalha.toNanos();
+        this.suspensoAte = System.nanoTime();
+
+        this.hits = contador(meterRegistry, regiao, "hit");
+        this.misses = contador(meterRegistry, regiao, "miss");
+        this.obsoletos = contador(meterRegistry, regiao, "obsoleto");
+        this.erros = contador(meterRegistry, regiao, "erro");
+    }
+
+    /**
+     * @return Valor decodificado (AUSENTE se a chave não existir, estiver obsoleta ou o nível estiver
+     * indisponível) e a versão atual da chave, a ser usada na gravação do valor carregado do banco
+     */
+    Leitura ler(Object chave) {
+        if (suspenso()) {
+            return Leitura.INDISPONIVEL;
+        }
+        try {
+            byte[][] dados = armazenamento.lerVarios(prefixo + chave, chaveVersaoRegiao, chaveVersao(chave));
+            Versao versao = new Versao(numero(dados[1]), numero(dados[2]));
+            if (dados[0] == null) {
+                misses.increment();
+                return new Leitura(AUSENTE, versao);
+            }
+            ByteBuffer cabecalho = ByteBuffer.wrap(dados[0], 0, TAMANHO_VERSAO);
+            if (cabecalho.getLong() != versao.regiao || cabecalho.getLong() != versao.chave) {
+                obsoletos.increment();
+                return new Leitura(AUSENTE, versao);
+            }
+            Object valor = CodecValorCache.decodificar(Arrays.copyOfRange(dados[0], TAMANHO_VERSAO, dados[0].length));
+            hits.increment();
+            return new Leitura(valor, versao);
+        } catch (Exception ex) {
+            falha("leitura", chave, ex);
+            return Leitura.INDISPONIVEL;
+        }
+    }
+
+    /**
+     * @return Versão atual da chave, ou null se o nível estiver indisponível
+     */
+    Versao versao(Object chave) {
+        if (suspenso()) {
+            return null;
+        }
+        try {
+            byte[][] dados = armazenamento.lerVarios(chaveVersaoRegiao, chaveVersao(chave));
+            return new Versao(numero(dados[0]), numero(dados[1]));
+        } catch (Exception ex) {
+            falha("leitura da versão", chave, ex);
+            return null;
+        }
+    }
+
+    /**
+     * Grava o valor marcado com a versão lida antes da carga; sem versão (nível indisponível
+     * na leitura) o valor não é gravado
+     */
+    void gravar(Object chave, Object valor, Versao versao) {
+        if (versao == null || suspenso() || !CodecValorCache.suportado(valor)) {
+            return;
+        }
+        try {
+            byte[] codificado = CodecValorCache.codificar(valor);
+            ByteBuffer dados = ByteBuffer.allocate(TAMANHO_VERSAO + codificado.length);
+            dados.putLong(versao.regiao).putLong(versao.chave).put(codificado);
+            armazenamento.gravar(prefixo + chave, dados.array(), ttl);
+        } catch (Exception ex) {
+            falha("gravação", chave, ex);
+        }
+    }
+
+    /**
+     * Avança a geração da chave antes de remover o valor, tornando obsoletas as gravações
+     * de cargas iniciadas antes da invalidação
+     */
+    void invalidar(Object chave) {
+        if (suspenso()) {
+            return;
+        }
+        try {
+            armazenamento.incrementar(chaveVersao(chave), ttlVersao);
+            armazenamento.remover(prefixo + chave);
+        } catch (Exception ex) {
+            falha("remoção", chave, ex);
+        }
+    }
+
+    void limpar() {
+        if (suspenso()) {
+            return;
+        }
+        try {
+            armazenamento.incrementar(chaveVersaoRegiao, null);
+            armazenamento.removerPorPrefixo(prefixo);
+        } catch (Exception ex) {
+            falha("limpeza", "*", ex);
+        }
+    }
+
+    // ================================================
+    // MÉTODOS AUXILIARES
+    // ================================================
+
+    private String chaveVersao(Object chave) {
+        return chaveVersaoRegiao + ":" + chave;
+    }
+
+    private static long numero(byte[] dados) {
+        return dados == null ? 0L : Long.parseLong(new String(dados, StandardCharsets.US_ASCII));
+    }
+
+    private boolean suspenso() {
+        return System.nanoTime() - suspensoAte < 0;
+    }
+
+    private void falha(String operacao, Object chave, Exception ex) {
+        erros.increment();
+        suspensoAte = System.nanoTime() + pausaAposFalhaNanos;
+        LoggingUtils.logErro(logger, "Cache compartilhado (" + operacao + ")",
+                ex.getMessage(), regiao + ":" + chave);
+    }
+
+    private static Counter contador(MeterRegistry meterRegistry, String regiao, String resultado) {
+        return Counter.builder("creditos.cache.compartilhado")
+                .description("Acessos ao nível compartilhado do cache")
+                .tag("regiao", regiao)
+                .tag("resultado", resultado)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Gerações da região e da chave no momento da leitura
+     */
+    static final class Versao {
+        private final long regiao;
+        private final long chave;
+
+        Versao(long regiao, long chave) {
+            this.regiao = regiao;
+            this.chave = chave;
+        }
+    }
+
+    /**
+     * Resultado de ler(): o valor (ou AUSENTE) e a versão atual, null se o nível estiver indisponível
+     */
+    static final class Leitura {
+        private static final Leitura INDISPONIVEL = new Leitura(AUSENTE, null);
+
+        final Object valor;
+        final Versao versao;
+
+        Leitura(Object valor, Versao versao) {
+            this.valor = valor;
+            this.versao = versao;
+        }
+    }
+}
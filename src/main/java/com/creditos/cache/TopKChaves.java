@@ -0,0 +1,173 @@
+package com.creditos.cache;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Chaves mais frequentes de um fluxo, em memória limitada (algoritmo Space-Saving)
+ *
+ * Mantém no máximo "capacidade" contadores. Uma chave nova com a estrutura cheia substitui a de
+ * menor contagem e herda essa contagem + 1, registrada como erro máximo da estimativa. Toda chave
+ * com frequência real acima de N / capacidade está garantidamente entre os contadores.
+ *
+ * O registro no caminho da requisição só enfileira a chave em um buffer sem bloqueio (descartando
+ * se estiver cheio, como uma amostragem); a fila é drenada sob lock em lotes, por quem encontrar
+ * o buffer acima do limite ou ao consultar o ranking.
+ *
+ * @author Ednilton Curt Rauh
+ * @version 1.0.0
+ */
+public class TopKChaves {
+
+    private static final int LOTE_DRENAGEM = 1024;
+
+    private final int capacidade;
+    private final BlockingQueue<String> buffer;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final Map<String, Contador> contadores = new HashMap<>();
+    private final TreeSet<Contador> porContagem = new TreeSet<>(
+            Comparator.comparingLong((Contador c) -> c.contagem).thenComparing(c -> c.chave));
+
+    public TopKChaves(int capacidade, int tamanhoBuffer) {
+        this.capacidade = capacidade;
+        this.buffer = new ArrayBlockingQueue<>(tamanhoBuffer);
+    }
+
+    /**
+     * Registra uma ocorrência da chave
+     */
+    public void registrar(String chave) {
+        buffer.offer(chave);
+        if (buffer.size() >= LOTE_DRENAGEM && lock.tryLock()) {
+            try {
+                drenar();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Chaves mais frequentes em ordem decrescente de contagem estimada
+     *
+     * @param k Quantidade máxima de chaves
+     */
+    public List<Estimativa> maisFrequentes(int k) {
+        lock.lock();
+        try {
+            drenar();
+            List<Estimativa> resultado = new ArrayList<>(Math.min(k, porContagem.size()));
+            for (Contador contador : porContagem.descendingSet()) {
+                if (resultado.size() >= k) {
+                    break;
+                }
+                resultado.add(new Estimativa(contador.chave, contador.contagem, contador.erro));
+            }
+            return resultado;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Registra uma contagem inicial (ex.: ranking persistido em execução anterior)
+     */
+    public void semear(String chave, long contagem) {
+        lock.lock();
+        try {
+            incrementar(chave, contagem);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Divide todas as contagens por dois, para que o ranking acompanhe o tráfego recente
+     */
+    public void envelhecer() {
+        lock.lock();
+        try {
+            drenar();
+            List<Contador> todos = new ArrayList<>(porContagem);
+            porContagem.clear();
+            for (Contador contador : todos) {
+                contador.contagem = Math.max(1, contador.contagem / 2);
+                contador.erro = contador.erro / 2;
+                porContagem.add(contador);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // ================================================
+    // SPACE-SAVING
+    // ================================================
+
+    private void drenar() {
+        String chave;
+        while ((chave = buffer.poll()) != null) {
+            incrementar(chave, 1);
+        }
+    }
+
+    private void incrementar(String chave, long quantidade) {
+        Contador contador = contadores.get(chave);
+        if (contador != null) {
+            porContagem.remove(contador);
+            contador.contagem += quantidade;
+            porContagem.add(contador);
+            return;
+        }
+
+        if (contadores.size() < capacidade) {
+            contador = new Contador(chave, quantidade, 0);
+        } else {
+            // Substitui o menos frequente, herdando sua contagem como erro
+            Contador minimo = porContagem.pollFirst();
+            contadores.remove(minimo.chave);
+            contador = new Contador(chave, minimo.contagem + quantidade, minimo.contagem);
+        }
+        contadores.put(chave, contador);
+        porContagem.add(contador);
+    }
+
+    private static final class Contador {
+        private final String chave;
+        private long contagem;
+        private long erro;
+
+        private Contador(String chave, long contagem, long erro) {
+            this.chave = chave;
+            this.contagem = contagem;
+            this.erro = erro;
+        }
+    }
+
+    /**
+     * Contagem estimada de uma chave; a contagem real está entre contagem - erro e contagem
+     */
+    public static final class Estimativa {
+        private final String chave;
+        private final long contagem;
+        private final long erro;
+
+        public Estimativa(String chave, long contagem, long erro) {
+            this.chave = chave;
+            this.contagem = contagem;
+            this.erro = erro;
+        }
+
+        public String getChave() { return chave; }
+        public long getContagem() { return contagem; }
+        public long getErro() { return erro; }
+    }
+}
@@ -0,0 +1,112 @@
+package com.creditos.concurrent;
+
+import com.creditos.exception.CreditoException;
+import com.creditos.util.LoggingUtils;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Compartimento de execução isolado (bulkhead) para um tipo de carga
+ *
+ * Cada compartimento tem um pool próprio de threads e uma fila limitada. As requisições HTTP
+ * apenas despacham a tarefa e liberam a thread do Tomcat; uma consulta lenta ocupa somente as
+ * threads do seu compartimento, sem afetar as consultas pontuais dos demais.
+ *
+ * Com as threads ocupadas e a fila cheia, a tarefa é recusada imediatamente com
+ * CreditoException.servicoSobrecarregado (HTTP 503), em vez de acumular espera sem limite.
+ *
+ * Métricas expostas (tag compartimento):
+ * - creditos.bulkhead.rejeicoes: tarefas recusadas por saturação
+ * - executor.* (tag name=bulkhead-{compartimento}): threads ativas, fila, tarefas concluídas
+ *
+ * @author Ednilton Curt Rauh
+ * @version 1.0.0
+ */
+public class Bulkhead {
+
+    private static final Logger logger = LoggerFactory.getLogger(Bulkhead.class);
+
+    private final String compartimento;
+    private final ThreadPoolExecutor executor;
+    private final Counter rejeicoes;
+
+    /**
+     * @param compartimento Nome do compartimento, usado nas threads e nas métricas
+     * @param threads Quantidade máxima de tarefas executando ao mesmo tempo
+     * @param capacidadeFila Quantidade máxima de tarefas aguardando thread livre
+     * @param meterRegistry Registro de métricas
+     */
+    public Bulkhead(String compartimento, int threads, int capacidadeFila, MeterRegistry meterRegistry) {
+        this.compartimento = compartimento;
+
+        AtomicInteger contador = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(capacidadeFila), tarefa -> {
+                    Thread thread = new Thread(tarefa, "bulkhead-" + compartimento + "-" + contador.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+        // Threads ociosas são encerradas; o pool só fica cheio durante picos
+        this.executor.allowCoreThreadTimeOut(true);
+
+        this.rejeicoes = Counter.builder("creditos.bulkhead.rejeicoes")
+                .description("Tarefas recusadas por saturação do compartimento")
+                .tag("compartimento", compartimento)
+                .register(meterRegistry);
+        new ExecutorServiceMetrics(executor, "bulkhead-" + compartimento, Tags.empty()).bindTo(meterRegistry);
+
+        LoggingUtils.logInicializacao(logger, "Bulkhead " + compartimento,
+                LoggingUtils.formatarMensagem("configurado",
+                        "threads", String.valueOf(threads), "fila", String.valueOf(capacidadeFila)));
+    }
+
+    /**
+     * Executa a tarefa no pool do compartimento
+     *
+     * @param tarefa Tarefa; exceções são repassadas pelo futuro retornado
+     * @return Futuro com o resultado da tarefa
+     * @throws CreditoException servicoSobrecarregado se o compartimento estiver saturado
+     */
+    public <T> CompletableFuture<T> executar(Supplier<T> tarefa) {
+        try {
+            return CompletableFuture.supplyAsync(tarefa, executor);
+        } catch (RejectedExecutionException ex) {
+            rejeicoes.increment();
+            logger.warn("BULKHEAD | Compartimento: {} | Saturado: {} em execução, {} na fila",
+                    compartimento, executor.getActiveCount(), executor.getQueue().size());
+            throw CreditoException.servicoSobrecarregado(compartimento);
+        }
+    }
+
+    public String getCompartimento() {
+        return compartimento;
+    }
+
+    /**
+     * Encerra o pool, aguardando as tarefas em andamento por alguns segundos
+     */
+    public void encerrar() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            executor.shutdownNow();
+        }
+        LoggingUtils.logShutdown(logger, "Bulkhead " + compartimento, null);
+    }
+}
@@ -0,0 +1,146 @@
+package com.creditos.concurrent;
+
+import com.creditos.exception.CreditoException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Agrupamento de chamadas concorrentes para a mesma chave (single-flight)
+ *
+ * A primeira thread a pedir uma chave executa a carga; as demais que chegarem enquanto a carga
+ * estiver em andamento aguardam o mesmo resultado, inclusive exceções, em vez de repetir a
+ * consulta no banco. Nada é guardado após a conclusão: o cache continua sendo responsabilidade
+ * do Spring Cache.
+ *
+ * Se a espera exceder o tempo limite, a entrada da chave é descartada e a thread executa a carga
+ * por conta própria, para que uma carga travada não prenda as requisições seguintes.
+ *
+ * Métricas expostas (tag operacao):
+ * - creditos.singleflight.chamadas{resultado=executada}: cargas efetivamente executadas
+ * - creditos.singleflight.chamadas{resultado=agrupada}: chamadas atendidas pela carga de outra thread
+ * - creditos.singleflight.chamadas{resultado=tempo_esgotado}: esperas que excederam o tempo limite
+ * - creditos.singleflight.em_andamento: cargas em andamento
+ *
+ * @author Ednilton Curt Rauh
+ * @version 1.0.0
+ */
+public class SingleFlight<K, V> {
+
+    private static final Logger logger = LoggerFactory.getLogger(SingleFlight.class);
+
+    private final String operacao;
+    private final long tempoEsperaMillis;
+    private final ConcurrentMap<K, CompletableFuture<V>> emAndamento = new ConcurrentHashMap<>();
+
+    private final Counter executadas;
+    private final Counter agrupadas;
+    private final Counter temposEsgotados;
+
+    /**
+     * @param operacao Nome da operação, usado como tag nas métricas
+     * @param tempoEsperaMillis Tempo máximo que uma chamada aguarda a carga de outra thread
+     * @param meterRegistry Registro de métricas
+     */
+    public SingleFlight(String operacao, long tempoEsperaMillis, MeterRegistry meterRegistry) {
+        this.operacao = operacao;
+        this.tempoEsperaMillis = tempoEsperaMillis;
+
+        this.executadas = contador(meterRegistry, "executada", "Cargas executadas");
+        this.agrupadas = contador(meterRegistry, "agrupada", "Chamadas atendidas pela carga de outra thread");
+        this.temposEsgotados = contador(meterRegistry, "tempo_esgotado", "Esperas que excederam o tempo limite");
+
+        Gauge.builder("creditos.singleflight.em_andamento", emAndamento, ConcurrentMap::size)
+                .description("Cargas em andamento")
+                .tag("operacao", operacao)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Executa a carga para a chave, ou aguarda a carga já em andamento
+     *
+     * @param chave Chave da operação (ex.: número da NFS-e normalizado)
+     * @param carga Função que produz o valor; exceções são repassadas a todas as chamadas agrupadas
+     * @return Valor produzido pela carga
+     */
+    public V executar(K chave, Supplier<V> carga) {
+        CompletableFuture<V> nova = new CompletableFuture<>();
+        CompletableFuture<V> existente = emAndamento.putIfAbsent(chave, nova);
+
+        if (existente == null) {
+            return executarCarga(chave, nova, carga);
+        }
+
+        agrupadas.increment();
+        try {
+            return existente.get(tempoEsperaMillis, TimeUnit.MILLISECONDS);
+
+        } catch (TimeoutException ex) {
+            temposEsgotados.increment();
+            logger.warn("SINGLE-FLIGHT | Operação: {} | Tempo de espera de {} ms excedido para a chave {}",
+                    operacao, tempoEsperaMillis, chave);
+            emAndamento.remove(chave, existente);
+            return carga.get();
+
+        } catch (ExecutionException ex) {
+            throw relancar(ex.getCause());
+
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw CreditoException.erroInterno("Espera interrompida na operação " + operacao);
+        }
+    }
+
+    /**
+     * Quantidade de cargas em andamento
+     */
+    public int getEmAndamento() {
+        return emAndamento.size();
+    }
+
+    // ================================================
+    // MÉTODOS PRIVADOS AUXILIARES
+    // ================================================
+
+    private V executarCarga(K chave, CompletableFuture<V> futuro, Supplier<V> carga) {
+        executadas.increment();
+        try {
+            V valor = carga.get();
+            futuro.complete(valor);
+            return valor;
+        } catch (RuntimeException | Error ex) {
+            futuro.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            emAndamento.remove(chave, futuro);
+        }
+    }
+
+    private static RuntimeException relancar(Throwable causa) {
+        if (causa instanceof RuntimeException) {
+            return (RuntimeException) causa;
+        }
+        if (causa instanceof Error) {
+            throw (Error) causa;
+        }
+        return CreditoException.erroInterno(String.valueOf(causa));
+    }
+
+    private Counter contador(MeterRegistry meterRegistry, String resultado, String descricao) {
+        return Counter.builder("creditos.singleflight.chamadas")
+                .description(descricao)
+                .tag("operacao", operacao)
+                .tag("resultado", resultado)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,71 @@
+package com.creditos.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.ResolvableType;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.async.AsyncWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+
+/**
+ * Tempo limite das requisições assíncronas
+ *
+ * As consultas (CompletableFuture dos bulkheads) usam o padrão curto de spring.mvc.async.request-timeout:
+ * uma chamada presa no banco libera a conexão do cliente com 503 (CreditoException.tempoEsgotado) em vez
+ * de segurá-la por minutos. Apenas as respostas em streaming (StreamingResponseBody: exportações e
+ * relatórios), que podem durar vários minutos, recebem o tempo limite de app.exportacao.tempo-limite.
+ *
+ * @author Ednilton Curt Rauh
+ * @version 1.0.0
+ */
+@Configuration
+public class AsyncConfig implements WebMvcConfigurer {
+
+    private final long tempoLimiteStreaming;
+
+    public AsyncConfig(@Value("${app.exportacao.tempo-limite:PT30M}") Duration tempoLimiteStreaming) {
+        this.tempoLimiteStreaming = tempoLimiteStreaming.toMillis();
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.registerCallableInterceptors(tempoLimiteStreaming());
+    }
+
+    CallableProcessingInterceptor tempoLimiteStreaming() {
+        return new CallableProcessingInterceptor() {
+            @Override
+            public <T> void beforeConcurrentHandling(NativeWebRequest request, Callable<T> task) {
+                // Chamado antes do início do processamento assíncrono, quando o tempo limite ainda pode mudar
+                if (request instanceof AsyncWebRequest && respondeEmStreaming(request)) {
+                    ((AsyncWebRequest) request).setTimeout(tempoLimiteStreaming);
+                }
+            }
+        };
+    }
+
+    /**
+     * Handler que devolve StreamingResponseBody, diretamente ou em ResponseEntity
+     */
+    static boolean respondeEmStreaming(NativeWebRequest request) {
+        Object handler = request.getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE,
+                NativeWebRequest.SCOPE_REQUEST);
+        if (!(handler instanceof HandlerMethod)) {
+            return false;
+        }
+        ResolvableType retorno = ResolvableType.forMethodParameter(((HandlerMethod) handler).getReturnType());
+        Class<?> tipo = retorno.resolve(Object.class);
+        if (!StreamingResponseBody.class.isAssignableFrom(tipo)) {
+            tipo = retorno.getGeneric(0).resolve(Object.class);
+        }
+        return StreamingResponseBody.class.isAssignableFrom(tipo);
+    }
+}
@@ -0,0 +1,50 @@
+package com.creditos.config;
+
+import com.creditos.concurrent.Bulkhead;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Compartimentos de execução (bulkheads) usados pelos controllers
+ *
+ * - consulta: consultas pontuais, baratas e servidas em grande parte pelo cache
+ * - intervalo: consultas em lote, por período, tipo e cursor, que percorrem faixas do índice
+ * - admin: estatísticas e demais consultas analíticas
+ *
+ * Uma consulta por período lenta esgota apenas o compartimento "intervalo"; as consultas por
+ * NFS-e continuam com threads próprias. As exportações em streaming já rodam fora das threads
+ * do Tomcat, no executor assíncrono do Spring MVC.
+ *
+ * @author Ednilton Curt Rauh
+ * @version 1.0.0
+ */
+@Configuration
+@EnableConfigurationProperties(BulkheadProperties.class)
+public class BulkheadConfig {
+
+    public static final String CONSULTA = "bulkheadConsulta";
+    public static final String INTERVALO = "bulkheadIntervalo";
+    public static final String ADMIN = "bulkheadAdmin";
+
+    @Bean(name = CONSULTA, destroyMethod = "encerrar")
+    public Bulkhead bulkheadConsulta(BulkheadProperties properties, MeterRegistry meterRegistry) {
+        return criar("consulta", properties.getConsulta(), meterRegistry);
+    }
+
+    @Bean(name = INTERVALO, destroyMethod = "encerrar")
+    public Bulkhead bulkheadIntervalo(BulkheadProperties properties, MeterRegistry meterRegistry) {
+        return criar("intervalo", properties.getIntervalo(), meterRegistry);
+    }
+
+    @Bean(name = ADMIN, destroyMethod = "encerrar")
+    public Bulkhead bulkheadAdmin(BulkheadProperties properties, MeterRegistry meterRegistry) {
+        return criar("admin", properties.getAdmin(), meterRegistry);
+    }
+
+    private static Bulkhead criar(String nome, BulkheadProperties.Compartimento compartimento,
+                                 MeterRegistry meterRegistry) {
+        return new Bulkhead(nome, compartimento.getThreads(), compartimento.getFila(), meterRegistry);
+    }
+}
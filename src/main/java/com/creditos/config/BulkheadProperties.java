@@ -0,0 +1,101 @@
+package com.creditos.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Propriedades dos compartimentos de execução (bulkheads) dos controllers
+ *
+ * Exemplo em application.yml:
+ * <pre>
+ * app:
+ *   bulkhead:
+ *     consulta:
+ *       threads: 12
+ *       fila: 200
+ * </pre>
+ *
+ * @author Ednilton Curt Rauh
+ * @version 1.0.0
+ */
+@ConfigurationProperties(prefix = "app.bulkhead")
+public class BulkheadProperties {
+
+    /**
+     * Consultas pontuais: por NFS-e, por número do crédito e verificações de existência
+     */
+    private Compartimento consulta = new Compartimento(12, 200);
+
+    /**
+     * Consultas por intervalo: lote, período, tipo, Simples Nacional e listagens por cursor
+     */
+    private Compartimento intervalo = new Compartimento(4, 40);
+
+    /**
+     * Administração e análise: estatísticas
+     */
+    private Compartimento admin = new Compartimento(2, 10);
+
+    public Compartimento getConsulta() {
+        return consulta;
+    }
+
+    public void setConsulta(Compartimento consulta) {
+        this.consulta = consulta;
+    }
+
+    public Compartimento getIntervalo() {
+        return intervalo;
+    }
+
+    public void setIntervalo(Compartimento intervalo) {
+        this.intervalo = intervalo;
+    }
+
+    public Compartimento getAdmin() {
+        return admin;
+    }
+
+    public void setAdmin(Compartimento admin) {
+        this.admin = admin;
+    }
+
+    /**
+     * Limites de um compartimento
+     */
+    public static class Compartimento {
+
+        /**
+         * Tarefas executando ao mesmo tempo (no máximo uma conexão do pool JDBC cada)
+         */
+        private int threads;
+
+        /**
+         * Tarefas aguardando thread livre; acima disso a requisição recebe 503
+         */
+        private int fila;
+
+        public Compartimento() {
+        }
+
+        public Compartimento(int threads, int fila) {
+            this.threads = threads;
+            this.fila = fila;
+        }
+
+        public int getThreads() {
+            return threads;
+        }
+
+        public void setThreads(int threads) {
+            this.threads = threads;
+        }
+
+        public int getFila() {
+            return fila;
+        }
+
+        public void setFila(int fila) {
+            this.fila = fila;
+        }
+    }
+}
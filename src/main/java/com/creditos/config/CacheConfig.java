@@ -0,0 +1,147 @@
+package com.creditos.config;
+
+import com.creditos.cache.ArmazenamentoCompartilhado;
+import com.creditos.cache.ArmazenamentoCompartilhadoMemoria;
+import com.creditos.cache.ArmazenamentoCompartilhadoRedis;
+import com.creditos.cache.CacheManagerVersionado;
+import com.creditos.cache.CacheVersionado;
+import com.creditos.cache.NivelCompartilhado;
+import com.creditos.util.LoggingUtils;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.actuate.metrics.cache.CacheMeterBinderProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Configuração do cache em memória usado pelos métodos @Cacheable do CreditoService
+ *
+ * Utiliza Caffeine, cuja política de despejo por tamanho é W-TinyLFU: uma janela LRU
+ * pequena recebe as entradas novas e só as admite na área principal se a frequência
+ * estimada (count-min sketch) superar a da vítima. Assim, varreduras de números "frios"
+ * não expulsam as NFS-e mais consultadas.
+ *
+ * As estatísticas (hit, miss, evictions) são registradas automaticamente pelo actuator
+ * e expostas em /actuator/metrics/cache.gets e /actuator/prometheus.
+ *
+ * Cada região é decorada com CacheVersionado, que recusa valores carregados antes de uma
+ * invalidação (local ou recebida de outra instância pelo InvalidacaoCache).
+ *
+ * Com app.cache.compartilhado.tipo=redis (ou memoria, em testes), as regiões listadas em
+ * app.cache.compartilhado.regioes ganham um segundo nível compartilhado: cache local, depois
+ * armazenamento compartilhado, depois PostgreSQL. Instâncias novas já iniciam com o segundo nível aquecido.
+ *
+ * @author Ednilton Curt Rauh
+ * @version 1.0.0
+ */
+@Configuration
+@EnableCaching
+@EnableConfigurationProperties(CacheProperties.class)
+public class CacheConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(CacheConfig.class);
+
+    @Bean
+    public CacheManager cacheManager(CacheProperties properties,
+                                     ObjectProvider<ArmazenamentoCompartilhado> armazenamentoCompartilhado,
+                                     MeterRegistry meterRegistry) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+
+        // Regiões não declaradas usam a configuração padrão
+        cacheManager.setCaffeine(criarBuilder(properties.getPadrao()));
+
+        // Regiões declaradas são criadas na inicialização para que o actuator registre suas métricas
+        for (Map.Entry<String, CacheProperties.Regiao> entry : properties.getRegioes().entrySet()) {
+            CacheProperties.Regiao regiao = entry.getValue();
+            cacheManager.registerCustomCache(entry.getKey(), criarBuilder(regiao).build());
+
+            LoggingUtils.logCacheOperacao(logger, "configuração",
+                    LoggingUtils.formatarMensagem("Região " + entry.getKey(),
+                            "tamanhoMaximo", String.valueOf(regiao.getTamanhoMaximo()),
+                            "ttl", String.valueOf(regiao.getTtl())));
+        }
+
+        // Segundo nível compartilhado nas regiões configuradas, com o TTL da própria região
+        Map<String, NivelCompartilhado> niveis = new HashMap<>();
+        ArmazenamentoCompartilhado armazenamento = armazenamentoCompartilhado.getIfAvailable();
+        if (armazenamento != null) {
+            CacheProperties.Compartilhado compartilhado = properties.getCompartilhado();
+            for (String nome : compartilhado.getRegioes()) {
+                CacheProperties.Regiao regiao = properties.getRegioes().getOrDefault(nome, properties.getPadrao());
+                niveis.put(nome, new NivelCompartilhado(nome, armazenamento, compartilhado.getPrefixo(),
+                        regiao.getTtl(), compartilhado.getPausaAposFalha(), meterRegistry));
+            }
+            LoggingUtils.logCacheOperacao(logger, "configuração",
+                    LoggingUtils.formatarMensagem("Nível compartilhado",
+                            "tipo", compartilhado.getTipo(),
+                            "regioes", String.valueOf(niveis.keySet())));
+        }
+
+        return new CacheManagerVersionado(cacheManager, properties.getInvalidacao().getRetencaoVersoes(), niveis);
+    }
+
+    /**
+     * Armazenamento compartilhado em processo (app.cache.compartilhado.tipo=memoria), para testes
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "app.cache.compartilhado", name = "tipo", havingValue = "memoria")
+    public ArmazenamentoCompartilhado armazenamentoCompartilhadoMemoria() {
+        return new ArmazenamentoCompartilhadoMemoria();
+    }
+
+    /**
+     * Armazenamento compartilhado em servidor compatível com Redis (app.cache.compartilhado.tipo=redis)
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "app.cache.compartilhado", name = "tipo", havingValue = "redis")
+    public ArmazenamentoCompartilhado armazenamentoCompartilhadoRedis(CacheProperties properties) {
+        CacheProperties.Redis redis = properties.getCompartilhado().getRedis();
+        return new ArmazenamentoCompartilhadoRedis(redis.getHost(), redis.getPorta(), redis.getSenha(),
+                redis.getDatabase(), redis.getTimeout(), redis.getTamanhoPool());
+    }
+
+    /**
+     * Métricas do Caffeine para as regiões decoradas (o actuator só reconhece CaffeineCache)
+     */
+    @Bean
+    public CacheMeterBinderProvider<CacheVersionado> cacheVersionadoMeterBinderProvider() {
+        return new CacheVersionadoMeterBinderProvider();
+    }
+
+    /**
+     * Cria o builder do Caffeine limitado por tamanho e TTL, com estatísticas habilitadas
+     */
+    private Caffeine<Object, Object> criarBuilder(CacheProperties.Regiao regiao) {
+        return Caffeine.newBuilder()
+                .maximumSize(regiao.getTamanhoMaximo())
+                .expireAfterWrite(regiao.getTtl())
+                .recordStats();
+    }
+
+    private static class CacheVersionadoMeterBinderProvider implements CacheMeterBinderProvider<CacheVersionado> {
+
+        @Override
+        public MeterBinder getMeterBinder(CacheVersionado cache, Iterable<Tag> tags) {
+            if (!(cache.getDelegate() instanceof CaffeineCache)) {
+                return null;
+            }
+            return new CaffeineCacheMetrics<>(((CaffeineCache) cache.getDelegate()).getNativeCache(),
+                    cache.getName(), tags);
+        }
+    }
+}
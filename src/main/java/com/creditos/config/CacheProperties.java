@@ -0,0 +1,298 @@
+package com.creditos.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Propriedades de configuração das regiões de cache da aplicação
+ * Cada região (ex: "creditos", "existencia") possui tamanho máximo e TTL próprios
+ *
+ * Exemplo em application.yml:
+ * <pre>
+ * app:
+ *   cache:
+ *     regioes:
+ *       creditos:
+ *         tamanho-maximo: 10000
+ *         ttl: 10m
+ * </pre>
+ *
+ * @author Ednilton Curt Rauh
+ * @version 1.0.0
+ */
+@ConfigurationProperties(prefix = "app.cache")
+public class CacheProperties {
+
+    /**
+     * Configuração aplicada a regiões não declaradas explicitamente
+     */
+    private Regiao padrao = new Regiao();
+
+    /**
+     * Configuração por região de cache, indexada pelo nome usado em @Cacheable
+     */
+    private Map<String, Regiao> regioes = new LinkedHashMap<>();
+
+    /**
+     * Invalidação distribuída entre as instâncias da aplicação
+     */
+    private Invalidacao invalidacao = new Invalidacao();
+
+    /**
+     * Segundo nível de cache compartilhado entre as instâncias
+     */
+    private Compartilhado compartilhado = new Compartilhado();
+
+    public Regiao getPadrao() {
+        return padrao;
+    }
+
+    public void setPadrao(Regiao padrao) {
+        this.padrao = padrao;
+    }
+
+    public Map<String, Regiao> getRegioes() {
+        return regioes;
+    }
+
+    public void setRegioes(Map<String, Regiao> regioes) {
+        this.regioes = regioes;
+    }
+
+    public Invalidacao getInvalidacao() {
+        return invalidacao;
+    }
+
+    public void setInvalidacao(Invalidacao invalidacao) {
+        this.invalidacao = invalidacao;
+    }
+
+    public Compartilhado getCompartilhado() {
+        return compartilhado;
+    }
+
+    public void setCompartilhado(Compartilhado compartilhado) {
+        this.compartilhado = compartilhado;
+    }
+
+    /**
+     * Limites de uma região de cache
+     */
+    public static class Regiao {
+
+        /**
+         * Quantidade máxima de entradas mantidas na região
+         */
+        private long tamanhoMaximo = 1000;
+
+        /**
+         * Tempo de vida de uma entrada a partir da escrita
+         */
+        private Duration ttl = Duration.ofMinutes(10);
+
+        public long getTamanhoMaximo() {
+            return tamanhoMaximo;
+        }
+
+        public void setTamanhoMaximo(long tamanhoMaximo) {
+            this.tamanhoMaximo = tamanhoMaximo;
+        }
+
+        public Duration getTtl() {
+            return ttl;
+        }
+
+        public void setTtl(Duration ttl) {
+            this.ttl = ttl;
+        }
+    }
+
+    /**
+     * Invalidação de chaves entre instâncias via Kafka (tópico app.kafka.topics.cache-invalidacao)
+     */
+    public static class Invalidacao {
+
+        /**
+         * Publica e consome eventos de invalidação; desabilitada, a invalidação é apenas local
+         */
+        private boolean habilitada = true;
+
+        /**
+         * Prefixo do group id do consumidor; cada instância usa um grupo próprio para receber todos os eventos
+         */
+        private String groupIdPrefixo = "consulta-creditos-cache";
+
+        /**
+         * Tempo em que uma chave invalidada recusa valores carregados antes da invalidação.
+         * Deve ser maior que a duração da consulta mais lenta ao banco.
+         */
+        private Duration retencaoVersoes = Duration.ofMinutes(2);
+
+        public boolean isHabilitada() {
+            return habilitada;
+        }
+
+        public void setHabilitada(boolean habilitada) {
+            this.habilitada = habilitada;
+        }
+
+        public String getGroupIdPrefixo() {
+            return groupIdPrefixo;
+        }
+
+        public void setGroupIdPrefixo(String groupIdPrefixo) {
+            this.groupIdPrefixo = groupIdPrefixo;
+        }
+
+        public Duration getRetencaoVersoes() {
+            return retencaoVersoes;
+        }
+
+        public void setRetencaoVersoes(Duration retencaoVersoes) {
+            this.retencaoVersoes = retencaoVersoes;
+        }
+    }
+
+    /**
+     * Segundo nível de cache: armazenamento chave-valor compartilhado, consultado após o cache local
+     */
+    public static class Compartilhado {
+
+        /**
+         * Implementação do armazenamento: nenhum, memoria (em processo, para testes) ou redis
+         */
+        private String tipo = "nenhum";
+
+        /**
+         * Regiões com segundo nível; o TTL é o da própria região
+         */
+        private List<String> regioes = new ArrayList<>(Arrays.asList("creditos", "existencia"));
+
+        /**
+         * Prefixo das chaves no armazenamento, para separar aplicações e ambientes
+         */
+        private String prefixo = "consulta-creditos:";
+
+        /**
+         * Tempo em que o nível fica suspenso após uma falha do armazenamento
+         */
+        private Duration pausaAposFalha = Duration.ofSeconds(5);
+
+        private Redis redis = new Redis();
+
+        public String getTipo() {
+            return tipo;
+        }
+
+        public void setTipo(String tipo) {
+            this.tipo = tipo;
+        }
+
+        public List<String> getRegioes() {
+            return regioes;
+        }
+
+        public void setRegioes(List<String> regioes) {
+            this.regioes = regioes;
+        }
+
+        public String getPrefixo() {
+            return prefixo;
+        }
+
+        public void setPrefixo(String prefixo) {
+            this.prefixo = prefixo;
+        }
+
+        public Duration getPausaAposFalha() {
+            return pausaAposFalha;
+        }
+
+        public void setPausaAposFalha(Duration pausaAposFalha) {
+            this.pausaAposFalha = pausaAposFalha;
+        }
+
+        public Redis getRedis() {
+            return redis;
+        }
+
+        public void setRedis(Redis redis) {
+            this.redis = redis;
+        }
+    }
+
+    /**
+     * Conexão com o servidor compatível com Redis
+     */
+    public static class Redis {
+
+        private String host = "localhost";
+
+        private int porta = 6379;
+
+        private String senha;
+
+        private int database = 0;
+
+        /**
+         * Timeout de conexão e de cada comando; deve ser bem menor que o tempo de uma consulta ao banco
+         */
+        private Duration timeout = Duration.ofMillis(200);
+
+        private int tamanhoPool = 16;
+
+        public String getHost() {
+            return host;
+        }
+
+        public void setHost(String host) {
+            this.host = host;
+        }
+
+        public int getPorta() {
+            return porta;
+        }
+
+        public void setPorta(int porta) {
+            this.porta = porta;
+        }
+
+        public String getSenha() {
+            return senha;
+        }
+
+        public void setSenha(String senha) {
+            this.senha = senha;
+        }
+
+        public int getDatabase() {
+            return database;
+        }
+
+        public void setDatabase(int database) {
+            this.database = database;
+        }
+
+        public Duration getTimeout() {
+            return timeout;
+        }
+
+        public void setTimeout(Duration timeout) {
+            this.timeout = timeout;
+        }
+
+        public int getTamanhoPool() {
+            return tamanhoPool;
+        }
+
+        public void setTamanhoPool(int tamanhoPool) {
+            this.tamanhoPool = tamanhoPool;
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.creditos.config;
+
+import com.creditos.dto.CacheInvalidacaoEventoDTO;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+
+import java.util.Map;
+
+/**
+ * Configuração do consumidor de invalidação de cache (tópico app.kafka.topics.cache-invalidacao)
+ *
+ * - Cada instância consome com um group id próprio, então todas recebem todos os eventos
+ * - Leitura a partir do fim do tópico: ao iniciar, o cache local está vazio e não há o que invalidar
+ * - Nenhum offset é confirmado (enable.auto.commit=false e AckMode.MANUAL sem acknowledge): o group id
+ *   muda a cada processo e não é reaproveitado, e um grupo sem offsets é removido pelo broker assim que
+ *   o último membro sai, sem deixar grupos órfãos a cada reinício. Perder uma invalidação só afeta o
+ *   cache, e o TTL das regiões limita a janela de dado desatualizado
+ *
+ * @author Ednilton Curt Rauh
+ * @version 1.0.0
+ */
+@Configuration
+public class KafkaCacheInvalidacaoConfig {
+
+    public static final String CONTAINER_FACTORY = "cacheInvalidacaoKafkaListenerContainerFactory";
+
+    @Bean(name = CONTAINER_FACTORY)
+    public ConcurrentKafkaListenerContainerFactory<String, CacheInvalidacaoEventoDTO> cacheInvalidacaoKafkaListenerContainerFactory(
+            KafkaProperties kafkaProperties) {
+
+        Map<String, Object> propriedades = kafkaProperties.buildConsumerProperties();
+        propriedades.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "latest");
+        propriedades.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+
+        JsonDeserializer<CacheInvalidacaoEventoDTO> json = new JsonDeserializer<>(CacheInvalidacaoEventoDTO.class, false);
+        DefaultKafkaConsumerFactory<String, CacheInvalidacaoEventoDTO> consumerFactory = new DefaultKafkaConsumerFactory<>(
+                propriedades, new StringDeserializer(), new ErrorHandlingDeserializer<>(json));
+
+        ConcurrentKafkaListenerContainerFactory<String, CacheInvalidacaoEventoDTO> factory =
+                new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(consumerFactory);
+        // O listener não recebe Acknowledgment: o container nunca confirma offsets
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+        return factory;
+    }
+}
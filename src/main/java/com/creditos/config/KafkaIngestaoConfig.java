@@ -0,0 +1,75 @@
+package com.creditos.config;
+
+import com.creditos.dto.CreditoEventoDTO;
+import com.creditos.util.LoggingUtils;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.util.backoff.FixedBackOff;
+
+import java.util.Map;
+
+/**
+ * Configuração do consumidor de ingestão de créditos (tópico app.kafka.topics.credito-ingestao)
+ *
+ * - Listener em lote: cada poll (até max-poll-records eventos) vira um único INSERT multilinha
+ * - Confirmação manual: o offset só é gravado depois do commit no banco
+ * - Evento recusado pelo banco: CreditoIngestaoService regrava o lote evento a evento e descarta só o
+ *   recusado, então um único evento inválido não bloqueia a partição
+ * - Falha de infraestrutura no lote: o erro é repassado ao DefaultErrorHandler, que reposiciona o
+ *   consumidor e reprocessa o lote inteiro após o intervalo configurado, sem limite de tentativas
+ * - Mensagens que não são JSON válido chegam com valor nulo (ErrorHandlingDeserializer) e são descartadas
+ *
+ * @author Ednilton Curt Rauh
+ * @version 1.0.0
+ */
+@Configuration
+public class KafkaIngestaoConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(KafkaIngestaoConfig.class);
+
+    public static final String CONTAINER_FACTORY = "ingestaoKafkaListenerContainerFactory";
+
+    @Bean(name = CONTAINER_FACTORY)
+    public ConcurrentKafkaListenerContainerFactory<String, CreditoEventoDTO> ingestaoKafkaListenerContainerFactory(
+            KafkaProperties kafkaProperties,
+            @Value("${app.kafka.ingestao.concorrencia:1}") int concorrencia,
+            @Value("${app.kafka.ingestao.max-poll-records:500}") int maxPollRecords,
+            @Value("${app.kafka.ingestao.intervalo-retentativa-ms:5000}") long intervaloRetentativa) {
+
+        Map<String, Object> propriedades = kafkaProperties.buildConsumerProperties();
+        propriedades.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, maxPollRecords);
+        propriedades.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+
+        // O tipo é fixo: não depende do cabeçalho __TypeId__, que produtores não-Java não enviam
+        JsonDeserializer<CreditoEventoDTO> json = new JsonDeserializer<>(CreditoEventoDTO.class, false);
+        DefaultKafkaConsumerFactory<String, CreditoEventoDTO> consumerFactory = new DefaultKafkaConsumerFactory<>(
+                propriedades, new StringDeserializer(), new ErrorHandlingDeserializer<>(json));
+
+        ConcurrentKafkaListenerContainerFactory<String, CreditoEventoDTO> factory =
+                new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(consumerFactory);
+        factory.setBatchListener(true);
+        factory.setConcurrency(concorrencia);
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL_IMMEDIATE);
+        factory.setCommonErrorHandler(new DefaultErrorHandler(
+                new FixedBackOff(intervaloRetentativa, FixedBackOff.UNLIMITED_ATTEMPTS)));
+
+        LoggingUtils.logInicializacao(logger, "Consumidor de ingestão",
+                LoggingUtils.formatarMensagem("configurado",
+                        "concorrencia", String.valueOf(concorrencia),
+                        "maxPollRecords", String.valueOf(maxPollRecords)));
+        return factory;
+    }
+}
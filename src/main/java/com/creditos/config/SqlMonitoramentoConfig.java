@@ -0,0 +1,49 @@
+package com.creditos.config;
+
+import com.creditos.metricas.DataSourceMonitorado;
+import com.creditos.metricas.EstatisticasSql;
+import com.creditos.util.LoggingUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * Instrumentação dos comandos SQL (DataSourceMonitorado)
+ *
+ * O DataSource do pool é envolvido após a inicialização; JPA, JdbcTemplate e Flyway passam a usar
+ * a versão monitorada sem alteração. As estatísticas ficam em /api/admin/sql/estatisticas e os
+ * comandos lentos são registrados em log por amostragem, o que permite manter show-sql e o log
+ * de parâmetros do Hibernate desligados.
+ *
+ * Desligável com app.sql.monitoramento.habilitado=false.
+ *
+ * @author Ednilton Curt Rauh
+ * @version 1.0.0
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "app.sql.monitoramento", name = "habilitado", havingValue = "true",
+        matchIfMissing = true)
+public class SqlMonitoramentoConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(SqlMonitoramentoConfig.class);
+
+    @Bean
+    public static BeanPostProcessor dataSourceMonitoradoPostProcessor(ObjectProvider<EstatisticasSql> estatisticas) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource && !(bean instanceof DataSourceMonitorado)) {
+                    LoggingUtils.logInicializacao(logger, "monitoramento SQL", "DataSource " + beanName);
+                    return new DataSourceMonitorado((DataSource) bean, estatisticas.getObject());
+                }
+                return bean;
+            }
+        };
+    }
+}
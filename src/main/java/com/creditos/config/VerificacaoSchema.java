@@ -0,0 +1,94 @@
+package com.creditos.config;
+
+import com.creditos.entity.CreditoIdGenerator;
+import com.creditos.util.LoggingUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+/**
+ * Verificação, na subida da aplicação, dos objetos de banco criados pelas migrações Flyway
+ *
+ * Executada antes do EntityManagerFactory (VerificacaoSchemaConfig) e depois das migrações, quando
+ * habilitadas. Um banco não migrado falha aqui com uma mensagem indicando a migração pendente, em
+ * vez de um MappingException do Hibernate na validação da sequência (increment_size_mismatch_strategy)
+ * ou de erros 500 nas estatísticas, que leem apenas credito_agregado.
+ *
+ * @author Ednilton Curt Rauh
+ * @version 1.0.0
+ */
+public class VerificacaoSchema {
+
+    private static final Logger logger = LoggerFactory.getLogger(VerificacaoSchema.class);
+
+    static final String INCREMENTO_SEQUENCIA =
+            "SELECT seqincrement FROM pg_sequence WHERE seqrelid = to_regclass(?)";
+
+    static final String IDENTIDADE_ID =
+            "SELECT attidentity FROM pg_attribute WHERE attrelid = to_regclass('credito') AND attname = 'id'";
+
+    static final String TABELA_AGREGADOS = "SELECT to_regclass('credito_agregado') IS NOT NULL";
+
+    private static final String ORIENTACAO =
+            " Aplique as migrações de db/migration (spring.flyway.enabled=true, padrão, ou flyway migrate " +
+            "executado fora da aplicação) antes de subir esta versão.";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int tamanhoAlocacao;
+
+    public VerificacaoSchema(JdbcTemplate jdbcTemplate, int tamanhoAlocacao) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.tamanhoAlocacao = tamanhoAlocacao;
+    }
+
+    /**
+     * @throws IllegalStateException com a migração pendente, se o schema não for compatível
+     */
+    public void verificar() {
+        verificarSequenciaId();
+        verificarTabelaAgregados();
+        LoggingUtils.logInicializacao(logger, "verificação do schema", "sequência " +
+                CreditoIdGenerator.NOME_SEQUENCIA + " com INCREMENT BY " + tamanhoAlocacao);
+    }
+
+    // ================================================
+    // MÉTODOS PRIVADOS AUXILIARES
+    // ================================================
+
+    /**
+     * Migração V4: tabela credito_agregado, única fonte das estatísticas de ISSQN
+     */
+    private void verificarTabelaAgregados() {
+        if (!Boolean.TRUE.equals(jdbcTemplate.queryForObject(TABELA_AGREGADOS, Boolean.class))) {
+            throw new IllegalStateException("Schema incompatível: a tabela credito_agregado não existe " +
+                    "(migração V4 pendente) e as estatísticas de ISSQN falhariam." + ORIENTACAO);
+        }
+    }
+
+    /**
+     * Migração V3: sequência em blocos com INCREMENT BY igual a hibernate.id.credito_tamanho_alocacao
+     * e coluna id aceitando o valor atribuído pelo Hibernate
+     */
+    private void verificarSequenciaId() {
+        List<Long> incremento = jdbcTemplate.queryForList(INCREMENTO_SEQUENCIA, Long.class,
+                CreditoIdGenerator.NOME_SEQUENCIA);
+        if (incremento.isEmpty()) {
+            throw new IllegalStateException("Schema incompatível: a sequência " + CreditoIdGenerator.NOME_SEQUENCIA +
+                    " não existe (migração V3 pendente)." + ORIENTACAO);
+        }
+        if (incremento.get(0) != tamanhoAlocacao) {
+            throw new IllegalStateException("Schema incompatível: a sequência " + CreditoIdGenerator.NOME_SEQUENCIA +
+                    " tem INCREMENT BY " + incremento.get(0) + ", mas a aplicação reserva blocos de " + tamanhoAlocacao +
+                    " IDs (" + CreditoIdGenerator.PROPRIEDADE_TAMANHO_ALOCACAO + "; migração V3 pendente ou " +
+                    "aplicada com outro credito_id_incremento)." + ORIENTACAO);
+        }
+
+        List<String> identidade = jdbcTemplate.queryForList(IDENTIDADE_ID, String.class);
+        if (!identidade.isEmpty() && "a".equals(identidade.get(0))) {
+            throw new IllegalStateException("Schema incompatível: credito.id é GENERATED ALWAYS AS IDENTITY e " +
+                    "rejeitaria os IDs atribuídos pela aplicação (migração V3 pendente)." + ORIENTACAO);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.creditos.config;
+
+import com.creditos.entity.CreditoIdGenerator;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationInitializer;
+import org.springframework.boot.autoconfigure.orm.jpa.EntityManagerFactoryDependsOnPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Registra a VerificacaoSchema para rodar depois do Flyway e antes do EntityManagerFactory
+ *
+ * Desligável com app.schema.verificacao.habilitada=false.
+ *
+ * @author Ednilton Curt Rauh
+ * @version 1.0.0
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "app.schema.verificacao", name = "habilitada", havingValue = "true",
+        matchIfMissing = true)
+public class VerificacaoSchemaConfig {
+
+    private static final String NOME_BEAN = "verificacaoSchema";
+
+    @Bean(name = NOME_BEAN)
+    public VerificacaoSchema verificacaoSchema(JdbcTemplate jdbcTemplate,
+                                               ObjectProvider<FlywayMigrationInitializer> flyway,
+                                               @Value("${spring.jpa.properties." + CreditoIdGenerator.PROPRIEDADE_TAMANHO_ALOCACAO +
+                                                       ":" + CreditoIdGenerator.TAMANHO_ALOCACAO_PADRAO + "}") int tamanhoAlocacao) {
+        // Obter o inicializador força as migrações antes da verificação (quando o Flyway está habilitado)
+        flyway.ifAvailable(inicializador -> { });
+        VerificacaoSchema verificacao = new VerificacaoSchema(jdbcTemplate, tamanhoAlocacao);
+        verificacao.verificar();
+        return verificacao;
+    }
+
+    @Bean
+    public static EntityManagerFactoryDependsOnPostProcessor verificacaoSchemaAntesDoJpa() {
+        return new EntityManagerFactoryDependsOnPostProcessor(NOME_BEAN);
+    }
+}
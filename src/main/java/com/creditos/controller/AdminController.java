@@ -1,31 +1,66 @@
 package com.creditos.controller;
 
+import com.creditos.concurrent.Bulkhead;
+import com.creditos.config.BulkheadConfig;
+import com.creditos.dto.AuditoriaConsistenciaDTO;
 import com.creditos.dto.CreditoResponseDTO;
+import com.creditos.dto.EstatisticaSqlDTO;
+import com.creditos.dto.EstatisticasDTO;
+import com.creditos.dto.RecalculoAgregadosDTO;
+import com.creditos.dto.ResultadoAnaliticoDTO;
+import com.creditos.dto.ImportacaoStatusDTO;
+import com.creditos.dto.PaginaCursorDTO;
 import com.creditos.exception.CreditoException;
+import com.creditos.metricas.EstatisticasSql;
+import com.creditos.service.CreditoExportacaoService;
+import com.creditos.service.CreditoImportacaoService;
+import com.creditos.service.CreditoAgregadoService;
+import com.creditos.service.CreditoAnaliticoService;
+import com.creditos.service.CreditoAuditoriaService;
 import com.creditos.service.CreditoService;
 import com.creditos.util.LoggingUtils;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.math.BigDecimal;
+import java.net.URI;
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Controller para endpoints administrativos
  * Separado seguindo o princípio Single Responsibility
  * Atualizado com tratamento de erros padronizado
  *
+ * As consultas por cursor rodam no compartimento "intervalo" e as estatísticas e consultas
+ * analíticas no "admin" (ver BulkheadConfig); exportações e relatórios já respondem em
+ * streaming assíncrono.
+ *
  * @author Ednilton Curt Rauh
  * @version 1.1.0
  */
@@ -38,14 +73,39 @@ public class AdminController {
     private static final Logger logger = LoggerFactory.getLogger(AdminController.class);
 
     private final CreditoService creditoService;
+    private final CreditoExportacaoService creditoExportacaoService;
+    private final CreditoImportacaoService creditoImportacaoService;
+    private final Bulkhead bulkheadIntervalo;
+    private final Bulkhead bulkheadAdmin;
+    private final EstatisticasSql estatisticasSql;
+    private final CreditoAgregadoService creditoAgregadoService;
+    private final CreditoAnaliticoService creditoAnaliticoService;
+    private final CreditoAuditoriaService creditoAuditoriaService;
 
     @Autowired
-    public AdminController(CreditoService creditoService) {
+    public AdminController(CreditoService creditoService,
+                           CreditoExportacaoService creditoExportacaoService,
+                           CreditoImportacaoService creditoImportacaoService,
+                           @Qualifier(BulkheadConfig.INTERVALO) Bulkhead bulkheadIntervalo,
+                           @Qualifier(BulkheadConfig.ADMIN) Bulkhead bulkheadAdmin,
+                           EstatisticasSql estatisticasSql,
+                           CreditoAgregadoService creditoAgregadoService,
+                           CreditoAnaliticoService creditoAnaliticoService,
+                           CreditoAuditoriaService creditoAuditoriaService) {
         this.creditoService = creditoService;
+        this.creditoExportacaoService = creditoExportacaoService;
+        this.creditoImportacaoService = creditoImportacaoService;
+        this.bulkheadIntervalo = bulkheadIntervalo;
+        this.bulkheadAdmin = bulkheadAdmin;
+        this.estatisticasSql = estatisticasSql;
+        this.creditoAgregadoService = creditoAgregadoService;
+        this.creditoAnaliticoService = creditoAnaliticoService;
+        this.creditoAuditoriaService = creditoAuditoriaService;
     }
 
     /**
      * Endpoint para listar todos os créditos (útil para testes e administração)
+     * Mantém o contrato original (array JSON), mas escreve em streaming sem materializar a tabela
      */
     @GetMapping(value = "/creditos", produces = MediaType.APPLICATION_JSON_VALUE)
     @Operation(
@@ -64,26 +124,404 @@ public class AdminController {
                     content = @Content(mediaType = "application/json")
             )
     })
-    public ResponseEntity<List<CreditoResponseDTO>> listarTodosCreditos() {
+    public ResponseEntity<StreamingResponseBody> listarTodosCreditos() {
         LoggingUtils.logSolicitacaoRecebida(logger, "listar todos os créditos", "N/A");
 
-        try {
-            List<CreditoResponseDTO> creditos = creditoService.listarTodosCreditos();
+        StreamingResponseBody corpo = saida -> {
+            long total = creditoExportacaoService.exportar(CreditoExportacaoService.Formato.JSON, null, null, saida);
 
-            // Verifica se a lista está vazia (caso específico administrativo)
-            if (creditos.isEmpty()) {
+            if (total == 0) {
                 LoggingUtils.logOperacaoFinalizada(logger, "Listagem completa - nenhum crédito encontrado", 0);
                 logger.warn("ADMIN | Nenhum crédito encontrado na base de dados");
             } else {
-                LoggingUtils.logOperacaoFinalizada(logger, "Listagem completa", creditos.size());
+                LoggingUtils.logOperacaoFinalizada(logger, "Listagem completa", (int) Math.min(total, Integer.MAX_VALUE));
             }
+        };
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(corpo);
+    }
+
+    /**
+     * Endpoint de exportação em streaming
+     * GET /api/admin/creditos/export?formato=ndjson&dataInicio=2024-01-01&dataFim=2024-12-31
+     *
+     * A compressão gzip é negociada pelo servidor (Accept-Encoding) conforme server.compression
+     */
+    @GetMapping(value = "/creditos/export")
+    @Operation(
+            summary = "Exportar créditos",
+            description = "Exporta créditos em NDJSON ou CSV com uso constante de memória. " +
+                    "Aceita filtro opcional por data de constituição e compressão gzip via Accept-Encoding"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Exportação iniciada com sucesso"
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Formato ou período inválido",
+                    content = @Content(mediaType = "application/json")
+            ),
+            @ApiResponse(
+                    responseCode = "500",
+                    description = "Erro interno do servidor",
+                    content = @Content(mediaType = "application/json")
+            )
+    })
+    public ResponseEntity<StreamingResponseBody> exportarCreditos(
+            @Parameter(description = "Formato de saída: ndjson ou csv", example = "ndjson")
+            @RequestParam(defaultValue = "ndjson") String formato,
+            @Parameter(description = "Data inicial (yyyy-MM-dd), inclusiva", example = "2024-01-01")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dataInicio,
+            @Parameter(description = "Data final (yyyy-MM-dd), inclusiva", example = "2024-12-31")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dataFim) {
+
+        LoggingUtils.logSolicitacaoRecebida(logger, "exportar créditos", formato);
+
+        // Validações antes do streaming: erros ainda podem ser devolvidos com status adequado
+        CreditoExportacaoService.Formato formatoSaida = CreditoExportacaoService.Formato.of(formato);
+        creditoExportacaoService.validarFiltros(dataInicio, dataFim);
 
-            return ResponseEntity.ok(creditos);
+        StreamingResponseBody corpo = saida -> {
+            long total = creditoExportacaoService.exportar(formatoSaida, dataInicio, dataFim, saida);
+            LoggingUtils.logOperacaoFinalizada(logger, "Exportação " + formatoSaida.getExtensao(),
+                    (int) Math.min(total, Integer.MAX_VALUE));
+        };
 
-        } catch (Exception ex) {
-            logger.error("Erro ao listar todos os créditos: {}", ex.getMessage(), ex);
-            throw CreditoException.erroInterno("Falha na listagem administrativa de créditos: " + ex.getMessage());
-        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(formatoSaida.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"creditos." + formatoSaida.getExtensao() + "\"")
+                .body(corpo);
+    }
+
+    /**
+     * Endpoint de importação em massa
+     * POST /api/admin/importacoes (multipart: arquivo=creditos.csv)
+     *
+     * O processamento é assíncrono: a resposta traz o ID do job para acompanhar o andamento
+     */
+    @PostMapping(value = "/importacoes", consumes = MediaType.MULTIPART_FORM_DATA_VALUE,
+            produces = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(
+            summary = "Importar créditos em massa",
+            description = "Recebe um arquivo CSV (com cabeçalho, mesmo layout da exportação) ou NDJSON e o importa " +
+                    "em segundo plano via COPY. Créditos já existentes (mesmo número e NFS-e) são ignorados"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "202",
+                    description = "Importação agendada",
+                    content = @Content(mediaType = "application/json")
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Arquivo vazio ou formato não suportado",
+                    content = @Content(mediaType = "application/json")
+            ),
+            @ApiResponse(
+                    responseCode = "500",
+                    description = "Erro interno do servidor",
+                    content = @Content(mediaType = "application/json")
+            )
+    })
+    public ResponseEntity<ImportacaoStatusDTO> importarCreditos(
+            @Parameter(description = "Arquivo CSV ou NDJSON", required = true)
+            @RequestParam("arquivo") MultipartFile arquivo,
+            @Parameter(description = "Formato do arquivo: csv ou ndjson (padrão: pela extensão)", example = "csv")
+            @RequestParam(required = false) String formato) {
+
+        LoggingUtils.logSolicitacaoRecebida(logger, "importar créditos", arquivo.getOriginalFilename());
+
+        ImportacaoStatusDTO status = creditoImportacaoService.iniciar(arquivo, formato);
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/admin/importacoes/" + status.getId()))
+                .body(status);
+    }
+
+    /**
+     * Endpoint de andamento da importação
+     * GET /api/admin/importacoes/{id}
+     */
+    @GetMapping(value = "/importacoes/{id}", produces = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(
+            summary = "Andamento da importação",
+            description = "Situação do job, percentual lido do arquivo e contagem de linhas válidas, " +
+                    "rejeitadas, inseridas e duplicadas"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Status recuperado com sucesso",
+                    content = @Content(mediaType = "application/json")
+            ),
+            @ApiResponse(
+                    responseCode = "404",
+                    description = "Importação não encontrada ou expirada",
+                    content = @Content(mediaType = "application/json")
+            )
+    })
+    public ResponseEntity<ImportacaoStatusDTO> consultarImportacao(
+            @Parameter(description = "ID retornado na criação da importação", required = true)
+            @PathVariable String id) {
+
+        LoggingUtils.logSolicitacaoRecebida(logger, "status da importação", id);
+        return ResponseEntity.ok(creditoImportacaoService.consultarStatus(id));
+    }
+
+    /**
+     * Endpoint do relatório de linhas rejeitadas
+     * GET /api/admin/importacoes/{id}/erros
+     */
+    @GetMapping(value = "/importacoes/{id}/erros")
+    @Operation(
+            summary = "Relatório de erros da importação",
+            description = "CSV com o número de cada linha rejeitada e o motivo"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Relatório recuperado com sucesso"
+            ),
+            @ApiResponse(
+                    responseCode = "404",
+                    description = "Importação não encontrada ou expirada",
+                    content = @Content(mediaType = "application/json")
+            )
+    })
+    public ResponseEntity<StreamingResponseBody> baixarErrosImportacao(
+            @Parameter(description = "ID retornado na criação da importação", required = true)
+            @PathVariable String id) {
+
+        LoggingUtils.logSolicitacaoRecebida(logger, "erros da importação", id);
+
+        // Valida a existência antes do streaming, para responder 404 e não um corpo vazio
+        creditoImportacaoService.consultarStatus(id);
+
+        StreamingResponseBody corpo = saida -> creditoImportacaoService.escreverRelatorioErros(id, saida);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("text/csv"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"importacao-" + id + "-erros.csv\"")
+                .body(corpo);
+    }
+
+    /**
+     * Endpoint para listar créditos com paginação por cursor
+     * GET /api/admin/creditos/cursor?cursor=...&tamanho=50
+     */
+    @GetMapping(value = "/creditos/cursor", produces = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(
+            summary = "Listar créditos por cursor",
+            description = "Paginação por chave ordenada por data de constituição e ID (decrescente). " +
+                    "Use o campo proximoCursor da resposta para obter a página seguinte"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Página recuperada com sucesso",
+                    content = @Content(mediaType = "application/json")
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Cursor ou tamanho de página inválido",
+                    content = @Content(mediaType = "application/json")
+            ),
+            @ApiResponse(
+                    responseCode = "500",
+                    description = "Erro interno do servidor",
+                    content = @Content(mediaType = "application/json")
+            )
+    })
+    public CompletableFuture<ResponseEntity<PaginaCursorDTO<CreditoResponseDTO>>> listarCreditosPorCursor(
+            @Parameter(description = "Cursor retornado pela página anterior (vazio para a primeira página)")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Quantidade de itens por página", example = "50")
+            @RequestParam(defaultValue = "50") int tamanho) {
+
+        LoggingUtils.logSolicitacaoRecebida(logger, "listar créditos por cursor", cursor);
+
+        return bulkheadIntervalo.executar(() -> {
+            try {
+                PaginaCursorDTO<CreditoResponseDTO> pagina = creditoService.listarCreditosPorCursor(cursor, tamanho);
+
+                LoggingUtils.logOperacaoFinalizada(logger, "Listagem por cursor", pagina.getQuantidade());
+                return ResponseEntity.ok(pagina);
+
+            } catch (CreditoException ex) {
+                // Re-lança exceções já tratadas
+                throw ex;
+            } catch (Exception ex) {
+                logger.error("Erro na operação listar créditos por cursor: {}", ex.getMessage(), ex);
+                throw CreditoException.erroInterno("Falha na operação listar créditos por cursor: " + ex.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Endpoint para consultar créditos por período com paginação por cursor
+     * GET /api/admin/creditos/cursor/periodo?dataInicio=2024-01-01&dataFim=2024-12-31
+     */
+    @GetMapping(value = "/creditos/cursor/periodo", produces = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(
+            summary = "Consultar créditos por período (cursor)",
+            description = "Créditos constituídos no período, paginados por cursor"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Página recuperada com sucesso",
+                    content = @Content(mediaType = "application/json")
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Período, cursor ou tamanho de página inválido",
+                    content = @Content(mediaType = "application/json")
+            ),
+            @ApiResponse(
+                    responseCode = "500",
+                    description = "Erro interno do servidor",
+                    content = @Content(mediaType = "application/json")
+            )
+    })
+    public CompletableFuture<ResponseEntity<PaginaCursorDTO<CreditoResponseDTO>>> consultarCreditosPorPeriodoCursor(
+            @Parameter(description = "Data inicial (yyyy-MM-dd)", required = true, example = "2024-01-01")
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dataInicio,
+            @Parameter(description = "Data final (yyyy-MM-dd)", required = true, example = "2024-12-31")
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dataFim,
+            @Parameter(description = "Cursor retornado pela página anterior (vazio para a primeira página)")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Quantidade de itens por página", example = "50")
+            @RequestParam(defaultValue = "50") int tamanho) {
+
+        LoggingUtils.logSolicitacaoRecebida(logger, "créditos por período (cursor)", dataInicio + " a " + dataFim);
+
+        return bulkheadIntervalo.executar(() -> {
+            try {
+                PaginaCursorDTO<CreditoResponseDTO> pagina =
+                        creditoService.consultarCreditosPorPeriodoCursor(dataInicio, dataFim, cursor, tamanho);
+
+                LoggingUtils.logOperacaoFinalizada(logger, "Consulta por período (cursor)", pagina.getQuantidade());
+                return ResponseEntity.ok(pagina);
+
+            } catch (CreditoException ex) {
+                // Re-lança exceções já tratadas
+                throw ex;
+            } catch (Exception ex) {
+                logger.error("Erro na operação créditos por período (cursor): {}", ex.getMessage(), ex);
+                throw CreditoException.erroInterno("Falha na operação créditos por período (cursor): " + ex.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Endpoint para consultar créditos por tipo com paginação por cursor
+     * GET /api/admin/creditos/cursor/tipo/{tipoCredito}
+     */
+    @GetMapping(value = "/creditos/cursor/tipo/{tipoCredito}", produces = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(
+            summary = "Consultar créditos por tipo (cursor)",
+            description = "Créditos do tipo informado, paginados por cursor"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Página recuperada com sucesso",
+                    content = @Content(mediaType = "application/json")
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Tipo, cursor ou tamanho de página inválido",
+                    content = @Content(mediaType = "application/json")
+            ),
+            @ApiResponse(
+                    responseCode = "500",
+                    description = "Erro interno do servidor",
+                    content = @Content(mediaType = "application/json")
+            )
+    })
+    public CompletableFuture<ResponseEntity<PaginaCursorDTO<CreditoResponseDTO>>> consultarCreditosPorTipoCursor(
+            @Parameter(description = "Tipo do crédito", required = true, example = "ISSQN")
+            @PathVariable String tipoCredito,
+            @Parameter(description = "Cursor retornado pela página anterior (vazio para a primeira página)")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Quantidade de itens por página", example = "50")
+            @RequestParam(defaultValue = "50") int tamanho) {
+
+        LoggingUtils.logSolicitacaoRecebida(logger, "créditos por tipo (cursor)", tipoCredito);
+
+        return bulkheadIntervalo.executar(() -> {
+            try {
+                PaginaCursorDTO<CreditoResponseDTO> pagina =
+                        creditoService.consultarCreditosPorTipoCursor(tipoCredito, cursor, tamanho);
+
+                LoggingUtils.logOperacaoFinalizada(logger, "Consulta por tipo (cursor)", pagina.getQuantidade());
+                return ResponseEntity.ok(pagina);
+
+            } catch (CreditoException ex) {
+                // Re-lança exceções já tratadas
+                throw ex;
+            } catch (Exception ex) {
+                logger.error("Erro na operação créditos por tipo (cursor): {}", ex.getMessage(), ex);
+                throw CreditoException.erroInterno("Falha na operação créditos por tipo (cursor): " + ex.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Endpoint para consultar créditos por Simples Nacional com paginação por cursor
+     * GET /api/admin/creditos/cursor/simples-nacional/{simplesNacional}
+     */
+    @GetMapping(value = "/creditos/cursor/simples-nacional/{simplesNacional}", produces = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(
+            summary = "Consultar créditos por Simples Nacional (cursor)",
+            description = "Créditos de optantes (true) ou não optantes (false), paginados por cursor"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Página recuperada com sucesso",
+                    content = @Content(mediaType = "application/json")
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Cursor ou tamanho de página inválido",
+                    content = @Content(mediaType = "application/json")
+            ),
+            @ApiResponse(
+                    responseCode = "500",
+                    description = "Erro interno do servidor",
+                    content = @Content(mediaType = "application/json")
+            )
+    })
+    public CompletableFuture<ResponseEntity<PaginaCursorDTO<CreditoResponseDTO>>> consultarCreditosPorSimplesNacionalCursor(
+            @Parameter(description = "true para optantes, false para não optantes", required = true, example = "true")
+            @PathVariable boolean simplesNacional,
+            @Parameter(description = "Cursor retornado pela página anterior (vazio para a primeira página)")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Quantidade de itens por página", example = "50")
+            @RequestParam(defaultValue = "50") int tamanho) {
+
+        LoggingUtils.logSolicitacaoRecebida(logger, "créditos por Simples Nacional (cursor)", String.valueOf(simplesNacional));
+
+        return bulkheadIntervalo.executar(() -> {
+            try {
+                PaginaCursorDTO<CreditoResponseDTO> pagina =
+                        creditoService.consultarCreditosPorSimplesNacionalCursor(simplesNacional, cursor, tamanho);
+
+                LoggingUtils.logOperacaoFinalizada(logger, "Consulta por Simples Nacional (cursor)", pagina.getQuantidade());
+                return ResponseEntity.ok(pagina);
+
+            } catch (CreditoException ex) {
+                // Re-lança exceções já tratadas
+                throw ex;
+            } catch (Exception ex) {
+                logger.error("Erro na operação créditos por Simples Nacional (cursor): {}", ex.getMessage(), ex);
+                throw CreditoException.erroInterno("Falha na operação créditos por Simples Nacional (cursor): " + ex.getMessage());
+            }
+        });
     }
 
     /**
@@ -92,7 +530,8 @@ public class AdminController {
     @GetMapping(value = "/estatisticas", produces = MediaType.APPLICATION_JSON_VALUE)
     @Operation(
             summary = "Estatísticas dos créditos",
-            description = "Retorna estatísticas básicas dos créditos cadastrados"
+            description = "Retorna total, soma, média, mínimo e máximo do ISSQN, com agrupamentos por tipo e por mês. " +
+                    "Servido de um snapshot em cache de curta duração"
     )
     @ApiResponses(value = {
             @ApiResponse(
@@ -106,45 +545,453 @@ public class AdminController {
                     content = @Content(mediaType = "application/json")
             )
     })
-    public ResponseEntity<EstatisticasDTO> obterEstatisticas() {
+    public CompletableFuture<ResponseEntity<EstatisticasDTO>> obterEstatisticas() {
         LoggingUtils.logSolicitacaoRecebida(logger, "estatísticas", "N/A");
 
-        try {
-            List<CreditoResponseDTO> todosCreditos = creditoService.listarTodosCreditos();
+        return bulkheadAdmin.executar(() -> {
+            try {
+                EstatisticasDTO estatisticas = creditoService.obterEstatisticas();
 
-            EstatisticasDTO estatisticas = new EstatisticasDTO(
-                    todosCreditos.size(),
-                    System.currentTimeMillis()
-            );
+                LoggingUtils.logOperacaoFinalizada(logger, "Consulta de estatísticas", null);
 
-            LoggingUtils.logOperacaoFinalizada(logger, "Consulta de estatísticas", null);
+                return ResponseEntity.ok(estatisticas);
 
-            return ResponseEntity.ok(estatisticas);
+            } catch (CreditoException ex) {
+                // Re-lança exceções já tratadas
+                throw ex;
+            } catch (Exception ex) {
+                logger.error("Erro ao obter estatísticas: {}", ex.getMessage(), ex);
+                throw CreditoException.erroInterno("Falha na geração de estatísticas: " + ex.getMessage());
+            }
+        });
+    }
 
-        } catch (Exception ex) {
-            logger.error("Erro ao obter estatísticas: {}", ex.getMessage(), ex);
-            throw CreditoException.erroInterno("Falha na geração de estatísticas: " + ex.getMessage());
-        }
+    /**
+     * Endpoint para refazer os agregados de ISSQN a partir da tabela de créditos
+     * POST /api/admin/estatisticas/recalcular
+     */
+    @PostMapping(value = "/estatisticas/recalcular", produces = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(
+            summary = "Recalcular agregados de ISSQN",
+            description = "Refaz os agregados por tipo, Simples Nacional e mês percorrendo a tabela de créditos, " +
+                    "substitui os armazenados e informa os grupos que estavam divergentes; grupos alterados por " +
+                    "gravações durante o recálculo são adiados para o próximo"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Agregados recalculados com sucesso",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = RecalculoAgregadosDTO.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "500",
+                    description = "Erro interno do servidor",
+                    content = @Content(mediaType = "application/json")
+            ),
+            @ApiResponse(
+                    responseCode = "503",
+                    description = "Serviço sobrecarregado - tente novamente",
+                    content = @Content(mediaType = "application/json")
+            )
+    })
+    public CompletableFuture<ResponseEntity<RecalculoAgregadosDTO>> recalcularAgregados() {
+        LoggingUtils.logSolicitacaoRecebida(logger, "recálculo dos agregados", "N/A");
+
+        return bulkheadAdmin.executar(() -> {
+            try {
+                RecalculoAgregadosDTO resultado = creditoAgregadoService.recalcular();
+
+                LoggingUtils.logOperacaoFinalizada(logger, "Recálculo dos agregados",
+                        resultado.getDivergencias().size());
+
+                return ResponseEntity.ok(resultado);
+
+            } catch (CreditoException ex) {
+                // Re-lança exceções já tratadas
+                throw ex;
+            } catch (Exception ex) {
+                logger.error("Erro no recálculo dos agregados: {}", ex.getMessage(), ex);
+                throw CreditoException.erroInterno("Falha no recálculo dos agregados: " + ex.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Endpoint de agregação do ISSQN sobre o snapshot analítico em memória
+     * GET /api/admin/analitico/agregados?agrupamento=mes&dataInicio=2024-01-01&dataFim=2024-12-31
+     */
+    @GetMapping(value = "/analitico/agregados", produces = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(
+            summary = "Agregados analíticos do ISSQN",
+            description = "Quantidade, soma, média, mínimo e máximo do ISSQN por tipo, mês ou Simples Nacional, " +
+                    "com filtros de período, tipo, Simples Nacional e alíquota. Servido do snapshot colunar em memória"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Agregados calculados com sucesso",
+                    content = @Content(mediaType = "application/json")
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Agrupamento, período ou alíquota inválidos",
+                    content = @Content(mediaType = "application/json")
+            ),
+            @ApiResponse(
+                    responseCode = "503",
+                    description = "Snapshot ainda não carregado ou serviço sobrecarregado - tente novamente",
+                    content = @Content(mediaType = "application/json")
+            )
+    })
+    public CompletableFuture<ResponseEntity<ResultadoAnaliticoDTO<List<EstatisticasDTO.Grupo>>>> agregarAnalitico(
+            @Parameter(description = "Agrupamento: nenhum, tipo, mes ou simples-nacional", example = "mes")
+            @RequestParam(defaultValue = "nenhum") String agrupamento,
+            @Parameter(description = "Data inicial (inclusiva)", example = "2024-01-01")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dataInicio,
+            @Parameter(description = "Data final (inclusiva)", example = "2024-12-31")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dataFim,
+            @Parameter(description = "Tipo de crédito", example = "ISSQN")
+            @RequestParam(required = false) String tipoCredito,
+            @Parameter(description = "Opção pelo Simples Nacional")
+            @RequestParam(required = false) Boolean simplesNacional,
+            @Parameter(description = "Alíquota mínima (inclusiva)", example = "2.00")
+            @RequestParam(required = false) BigDecimal aliquotaMinima,
+            @Parameter(description = "Alíquota máxima (inclusiva)", example = "5.00")
+            @RequestParam(required = false) BigDecimal aliquotaMaxima) {
+
+        LoggingUtils.logSolicitacaoRecebida(logger, "agregados analíticos", agrupamento);
+
+        return bulkheadAdmin.executar(() -> {
+            try {
+                ResultadoAnaliticoDTO<List<EstatisticasDTO.Grupo>> resultado = creditoAnaliticoService.agregar(
+                        agrupamento, dataInicio, dataFim, tipoCredito, simplesNacional, aliquotaMinima, aliquotaMaxima);
+
+                LoggingUtils.logOperacaoFinalizada(logger, "Agregados analíticos", resultado.getDados().size());
+                return ResponseEntity.ok(resultado);
+
+            } catch (CreditoException ex) {
+                // Re-lança exceções já tratadas
+                throw ex;
+            } catch (Exception ex) {
+                logger.error("Erro nos agregados analíticos: {}", ex.getMessage(), ex);
+                throw CreditoException.erroInterno("Falha nos agregados analíticos: " + ex.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Endpoint de créditos por faixa de alíquota sobre o snapshot analítico
+     * GET /api/admin/analitico/aliquota?aliquotaMinima=2.00&aliquotaMaxima=5.00&limite=100
+     */
+    @GetMapping(value = "/analitico/aliquota", produces = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(
+            summary = "Créditos por faixa de alíquota",
+            description = "Créditos com alíquota na faixa informada, em ordem crescente de alíquota. " +
+                    "Servido do snapshot colunar em memória"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Créditos recuperados com sucesso",
+                    content = @Content(mediaType = "application/json")
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Faixa de alíquota ou limite inválidos",
+                    content = @Content(mediaType = "application/json")
+            ),
+            @ApiResponse(
+                    responseCode = "503",
+                    description = "Snapshot ainda não carregado ou serviço sobrecarregado - tente novamente",
+                    content = @Content(mediaType = "application/json")
+            )
+    })
+    public CompletableFuture<ResponseEntity<ResultadoAnaliticoDTO<List<CreditoResponseDTO>>>> listarPorAliquotaAnalitico(
+            @Parameter(description = "Alíquota mínima (inclusiva)", example = "2.00")
+            @RequestParam(required = false) BigDecimal aliquotaMinima,
+            @Parameter(description = "Alíquota máxima (inclusiva)", example = "5.00")
+            @RequestParam(required = false) BigDecimal aliquotaMaxima,
+            @Parameter(description = "Quantidade máxima de créditos", example = "100")
+            @RequestParam(defaultValue = "100") int limite) {
+
+        LoggingUtils.logSolicitacaoRecebida(logger, "créditos por faixa de alíquota",
+                aliquotaMinima + " - " + aliquotaMaxima);
+
+        return bulkheadAdmin.executar(() -> {
+            try {
+                ResultadoAnaliticoDTO<List<CreditoResponseDTO>> resultado =
+                        creditoAnaliticoService.listarPorAliquota(aliquotaMinima, aliquotaMaxima, limite);
+
+                LoggingUtils.logOperacaoFinalizada(logger, "Créditos por faixa de alíquota", resultado.getDados().size());
+                return ResponseEntity.ok(resultado);
+
+            } catch (CreditoException ex) {
+                // Re-lança exceções já tratadas
+                throw ex;
+            } catch (Exception ex) {
+                logger.error("Erro na listagem por faixa de alíquota: {}", ex.getMessage(), ex);
+                throw CreditoException.erroInterno("Falha na listagem por faixa de alíquota: " + ex.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Endpoint de auditoria dos créditos com ISSQN inconsistente
+     * GET /api/admin/analitico/inconsistentes?limite=100
+     */
+    @GetMapping(value = "/analitico/inconsistentes", produces = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(
+            summary = "Créditos com ISSQN inconsistente",
+            description = "Créditos cujo ISSQN difere de base de cálculo x alíquota / 100 por mais de 0,01. " +
+                    "Servido do snapshot colunar em memória"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Auditoria executada com sucesso",
+                    content = @Content(mediaType = "application/json")
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Limite inválido",
+                    content = @Content(mediaType = "application/json")
+            ),
+            @ApiResponse(
+                    responseCode = "503",
+                    description = "Snapshot ainda não carregado ou serviço sobrecarregado - tente novamente",
+                    content = @Content(mediaType = "application/json")
+            )
+    })
+    public CompletableFuture<ResponseEntity<ResultadoAnaliticoDTO<List<CreditoResponseDTO>>>> listarInconsistentesAnalitico(
+            @Parameter(description = "Quantidade máxima de créditos", example = "100")
+            @RequestParam(defaultValue = "100") int limite) {
+
+        LoggingUtils.logSolicitacaoRecebida(logger, "créditos inconsistentes", String.valueOf(limite));
+
+        return bulkheadAdmin.executar(() -> {
+            try {
+                ResultadoAnaliticoDTO<List<CreditoResponseDTO>> resultado =
+                        creditoAnaliticoService.listarInconsistentes(limite);
+
+                LoggingUtils.logOperacaoFinalizada(logger, "Créditos inconsistentes", resultado.getDados().size());
+                return ResponseEntity.ok(resultado);
+
+            } catch (CreditoException ex) {
+                // Re-lança exceções já tratadas
+                throw ex;
+            } catch (Exception ex) {
+                logger.error("Erro na auditoria de créditos inconsistentes: {}", ex.getMessage(), ex);
+                throw CreditoException.erroInterno("Falha na auditoria de créditos inconsistentes: " + ex.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Endpoint de auditoria dos números duplicados
+     * GET /api/admin/analitico/duplicados/nfse?limite=100
+     */
+    @GetMapping(value = "/analitico/duplicados/{coluna}", produces = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(
+            summary = "Números duplicados",
+            description = "Números de crédito (coluna credito) ou de NFS-e (coluna nfse) presentes em mais de um " +
+                    "registro, com a quantidade de ocorrências. Servido do snapshot colunar em memória"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Auditoria executada com sucesso",
+                    content = @Content(mediaType = "application/json")
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Coluna ou limite inválidos",
+                    content = @Content(mediaType = "application/json")
+            ),
+            @ApiResponse(
+                    responseCode = "503",
+                    description = "Snapshot ainda não carregado ou serviço sobrecarregado - tente novamente",
+                    content = @Content(mediaType = "application/json")
+            )
+    })
+    public CompletableFuture<ResponseEntity<ResultadoAnaliticoDTO<Map<String, Integer>>>> listarDuplicadosAnalitico(
+            @Parameter(description = "Coluna verificada: credito ou nfse", example = "nfse")
+            @PathVariable String coluna,
+            @Parameter(description = "Quantidade máxima de números", example = "100")
+            @RequestParam(defaultValue = "100") int limite) {
+
+        LoggingUtils.logSolicitacaoRecebida(logger, "números duplicados", coluna);
+
+        return bulkheadAdmin.executar(() -> {
+            try {
+                ResultadoAnaliticoDTO<Map<String, Integer>> resultado =
+                        creditoAnaliticoService.listarDuplicados(coluna, limite);
+
+                LoggingUtils.logOperacaoFinalizada(logger, "Números duplicados", resultado.getDados().size());
+                return ResponseEntity.ok(resultado);
+
+            } catch (CreditoException ex) {
+                // Re-lança exceções já tratadas
+                throw ex;
+            } catch (Exception ex) {
+                logger.error("Erro na auditoria de números duplicados: {}", ex.getMessage(), ex);
+                throw CreditoException.erroInterno("Falha na auditoria de números duplicados: " + ex.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Endpoint de auditoria da consistência do ISSQN
+     * POST /api/admin/auditorias/consistencia
+     *
+     * O processamento é assíncrono: a resposta traz o ID do job para acompanhar o andamento
+     */
+    @PostMapping(value = "/auditorias/consistencia", produces = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(
+            summary = "Auditar consistência do ISSQN",
+            description = "Verifica em segundo plano, em partições por faixa de id processadas em paralelo, se o " +
+                    "ISSQN difere de base de cálculo x alíquota / 100 por mais de 0,01. Usa conexões próprias, " +
+                    "fora do pool da API"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "202",
+                    description = "Auditoria agendada",
+                    content = @Content(mediaType = "application/json")
+            )
+    })
+    public ResponseEntity<AuditoriaConsistenciaDTO> auditarConsistencia() {
+        LoggingUtils.logSolicitacaoRecebida(logger, "auditoria de consistência", "N/A");
+
+        AuditoriaConsistenciaDTO status = creditoAuditoriaService.iniciar();
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/admin/auditorias/consistencia/" + status.getId()))
+                .body(status);
+    }
+
+    /**
+     * Endpoint de andamento e resultado da auditoria
+     * GET /api/admin/auditorias/consistencia/{id}
+     */
+    @GetMapping(value = "/auditorias/consistencia/{id}", produces = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(
+            summary = "Andamento da auditoria de consistência",
+            description = "Partições verificadas e, ao final, totais por tipo de crédito e maiores divergências"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Status recuperado com sucesso",
+                    content = @Content(mediaType = "application/json")
+            ),
+            @ApiResponse(
+                    responseCode = "404",
+                    description = "Auditoria não encontrada ou expirada",
+                    content = @Content(mediaType = "application/json")
+            )
+    })
+    public ResponseEntity<AuditoriaConsistenciaDTO> consultarAuditoriaConsistencia(
+            @Parameter(description = "ID retornado na criação da auditoria", required = true)
+            @PathVariable String id) {
+
+        LoggingUtils.logSolicitacaoRecebida(logger, "status da auditoria de consistência", id);
+        return ResponseEntity.ok(creditoAuditoriaService.consultarStatus(id));
     }
 
     /**
-     * DTO interno para estatísticas
+     * Endpoint do relatório gravado pela auditoria
+     * GET /api/admin/auditorias/consistencia/{id}/relatorio
      */
-    public static class EstatisticasDTO {
-        private int totalCreditos;
-        private long timestamp;
+    @GetMapping(value = "/auditorias/consistencia/{id}/relatorio")
+    @Operation(
+            summary = "Relatório da auditoria de consistência",
+            description = "Arquivo JSON com os totais por tipo de crédito e as maiores divergências"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Relatório recuperado com sucesso"
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Auditoria ainda não concluída",
+                    content = @Content(mediaType = "application/json")
+            ),
+            @ApiResponse(
+                    responseCode = "404",
+                    description = "Auditoria não encontrada ou expirada",
+                    content = @Content(mediaType = "application/json")
+            )
+    })
+    public ResponseEntity<StreamingResponseBody> baixarRelatorioAuditoria(
+            @Parameter(description = "ID retornado na criação da auditoria", required = true)
+            @PathVariable String id) {
 
-        public EstatisticasDTO(int totalCreditos, long timestamp) {
-            this.totalCreditos = totalCreditos;
-            this.timestamp = timestamp;
-        }
+        LoggingUtils.logSolicitacaoRecebida(logger, "relatório da auditoria de consistência", id);
 
-        // Getters
-        public int getTotalCreditos() { return totalCreditos; }
-        public long getTimestamp() { return timestamp; }
+        // Valida antes do streaming, para responder 4xx e não um corpo vazio
+        creditoAuditoriaService.validarRelatorio(id);
 
-        // Setters
-        public void setTotalCreditos(int totalCreditos) { this.totalCreditos = totalCreditos; }
-        public void setTimestamp(long timestamp) { this.timestamp = timestamp; }
+        StreamingResponseBody corpo = saida -> creditoAuditoriaService.escreverRelatorio(id, saida);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"auditoria-consistencia-" + id + ".json\"")
+                .body(corpo);
+    }
+
+    /**
+     * Endpoint com os comandos SQL mais lentos
+     * GET /api/admin/sql/estatisticas?ordem=maximo&limite=20
+     */
+    @GetMapping(value = "/sql/estatisticas", produces = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(
+            summary = "Comandos SQL mais lentos",
+            description = "Execuções, tempo total, médio e máximo, tempo de fetch e linhas de cada comando SQL, " +
+                    "por método do repositório, desde o início da instância ou a última limpeza"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Estatísticas recuperadas com sucesso",
+                    content = @Content(mediaType = "application/json")
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Ordem ou limite inválido",
+                    content = @Content(mediaType = "application/json")
+            )
+    })
+    public ResponseEntity<List<EstatisticaSqlDTO>> listarEstatisticasSql(
+            @Parameter(description = "Ordenação: maximo, medio ou total", example = "maximo")
+            @RequestParam(defaultValue = "maximo") String ordem,
+            @Parameter(description = "Quantidade máxima de comandos", example = "20")
+            @RequestParam(defaultValue = "20") int limite) {
+
+        LoggingUtils.logSolicitacaoRecebida(logger, "estatísticas SQL", ordem);
+        return ResponseEntity.ok(estatisticasSql.maisLentas(ordem, limite));
+    }
+
+    /**
+     * Endpoint para descartar as estatísticas SQL acumuladas
+     * DELETE /api/admin/sql/estatisticas
+     */
+    @DeleteMapping(value = "/sql/estatisticas")
+    @Operation(
+            summary = "Limpar estatísticas SQL",
+            description = "Descarta as estatísticas acumuladas (ex.: para medir o efeito de um novo índice)"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "204",
+                    description = "Estatísticas descartadas"
+            )
+    })
+    public ResponseEntity<Void> limparEstatisticasSql() {
+        LoggingUtils.logSolicitacaoRecebida(logger, "limpar estatísticas SQL", "N/A");
+        estatisticasSql.limpar();
+        return ResponseEntity.noContent().build();
     }
-}
\ No newline at end of file
+}
@@ -1,10 +1,16 @@
 package com.creditos.controller;
 
+import com.creditos.cache.AquecimentoCache;
+import com.creditos.concurrent.Bulkhead;
+import com.creditos.config.BulkheadConfig;
+import com.creditos.dto.BuscaNumerosDTO;
+import com.creditos.dto.ConsultaLoteRequestDTO;
+import com.creditos.dto.ConsultaLoteResponseDTO;
 import com.creditos.dto.CreditoResponseDTO;
 import com.creditos.exception.CreditoException;
+import com.creditos.service.CreditoLoteService;
 import com.creditos.service.CreditoService;
 import com.creditos.util.LoggingUtils;
-import com.creditos.util.ValidationUtils;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -15,6 +21,7 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
@@ -23,6 +30,7 @@ import org.springframework.web.bind.annotation.*;
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.Size;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Controller REST refatorado para consulta de créditos constituídos
@@ -33,6 +41,12 @@ import java.util.List;
  * Endpoints principais:
  * - GET /api/creditos/{numeroNfse}
  * - GET /api/creditos/credito/{numeroCredito}
+ * - POST /api/creditos/batch
+ * - GET /api/creditos/search
+ *
+ * Os endpoints devolvem CompletableFuture: a thread do Tomcat é liberada e a consulta roda no
+ * compartimento "consulta" (pontuais) ou "intervalo" (lote), ver BulkheadConfig. Compartimento
+ * saturado responde 503 imediatamente.
  *
  * @author Ednilton Curt Rauh
  * @version 2.2.0
@@ -47,10 +61,21 @@ public class CreditoController {
     private static final Logger logger = LoggerFactory.getLogger(CreditoController.class);
 
     private final CreditoService creditoService;
+    private final CreditoLoteService creditoLoteService;
+    private final AquecimentoCache aquecimentoCache;
+    private final Bulkhead bulkheadConsulta;
+    private final Bulkhead bulkheadIntervalo;
 
     @Autowired
-    public CreditoController(CreditoService creditoService) {
+    public CreditoController(CreditoService creditoService, CreditoLoteService creditoLoteService,
+                             AquecimentoCache aquecimentoCache,
+                             @Qualifier(BulkheadConfig.CONSULTA) Bulkhead bulkheadConsulta,
+                             @Qualifier(BulkheadConfig.INTERVALO) Bulkhead bulkheadIntervalo) {
         this.creditoService = creditoService;
+        this.creditoLoteService = creditoLoteService;
+        this.aquecimentoCache = aquecimentoCache;
+        this.bulkheadConsulta = bulkheadConsulta;
+        this.bulkheadIntervalo = bulkheadIntervalo;
     }
 
     /**
@@ -88,9 +113,14 @@ public class CreditoController {
                     responseCode = "500",
                     description = "Erro interno do servidor",
                     content = @Content(mediaType = "application/json")
+            ),
+            @ApiResponse(
+                    responseCode = "503",
+                    description = "Serviço sobrecarregado - tente novamente",
+                    content = @Content(mediaType = "application/json")
             )
     })
-    public ResponseEntity<List<CreditoResponseDTO>> consultarCreditosPorNfse(
+    public CompletableFuture<ResponseEntity<List<CreditoResponseDTO>>> consultarCreditosPorNfse(
             @Parameter(
                     description = "Número identificador da NFS-e",
                     required = true,
@@ -103,23 +133,26 @@ public class CreditoController {
 
         LoggingUtils.logSolicitacaoRecebida(logger, "consulta por NFS-e", numeroNfse);
 
-        try {
-            // Validação usando ValidationUtils
-            ValidationUtils.validateNumeroNfse(numeroNfse);
-
-            List<CreditoResponseDTO> creditos = creditoService.consultarCreditosPorNfse(numeroNfse);
-
-            LoggingUtils.logOperacaoFinalizada(logger, "Consulta por NFS-e " + numeroNfse, creditos.size());
-
-            return ResponseEntity.ok(creditos);
-
-        } catch (CreditoException ex) {
-            // Re-lança exceções já tratadas
-            throw ex;
-        } catch (Exception ex) {
-            logger.error("Erro na consulta por NFS-e {}: {}", numeroNfse, ex.getMessage(), ex);
-            throw CreditoException.erroInterno("Falha na consulta de créditos por NFS-e: " + ex.getMessage());
-        }
+        return bulkheadConsulta.executar(() -> {
+            try {
+                List<CreditoResponseDTO> creditos = creditoService.consultarCreditosPorNfse(numeroNfse);
+                if (!creditos.isEmpty()) {
+                    // Alimenta o ranking usado no aquecimento do cache após o próximo deploy
+                    aquecimentoCache.registrarConsultaNfse(numeroNfse);
+                }
+
+                LoggingUtils.logOperacaoFinalizada(logger, "Consulta por NFS-e " + numeroNfse, creditos.size());
+
+                return ResponseEntity.ok(creditos);
+
+            } catch (CreditoException ex) {
+                // Re-lança exceções já tratadas
+                throw ex;
+            } catch (Exception ex) {
+                logger.error("Erro na consulta por NFS-e {}: {}", numeroNfse, ex.getMessage(), ex);
+                throw CreditoException.erroInterno("Falha na consulta de créditos por NFS-e: " + ex.getMessage());
+            }
+        });
     }
 
     /**
@@ -157,9 +190,14 @@ public class CreditoController {
                     responseCode = "500",
                     description = "Erro interno do servidor",
                     content = @Content(mediaType = "application/json")
+            ),
+            @ApiResponse(
+                    responseCode = "503",
+                    description = "Serviço sobrecarregado - tente novamente",
+                    content = @Content(mediaType = "application/json")
             )
     })
-    public ResponseEntity<CreditoResponseDTO> consultarCreditoPorNumero(
+    public CompletableFuture<ResponseEntity<CreditoResponseDTO>> consultarCreditoPorNumero(
             @Parameter(
                     description = "Número identificador do crédito constituído",
                     required = true,
@@ -172,23 +210,154 @@ public class CreditoController {
 
         LoggingUtils.logSolicitacaoRecebida(logger, "consulta por número do crédito", numeroCredito);
 
-        try {
-            // Validação usando ValidationUtils
-            ValidationUtils.validateNumeroCredito(numeroCredito);
+        return bulkheadConsulta.executar(() -> {
+            try {
+                CreditoResponseDTO credito = creditoService.consultarCreditoPorNumero(numeroCredito);
 
-            CreditoResponseDTO credito = creditoService.consultarCreditoPorNumero(numeroCredito);
+                LoggingUtils.logOperacaoFinalizada(logger, "Consulta por número do crédito " + numeroCredito, 1);
 
-            LoggingUtils.logOperacaoFinalizada(logger, "Consulta por número do crédito " + numeroCredito, 1);
+                return ResponseEntity.ok(credito);
 
-            return ResponseEntity.ok(credito);
+            } catch (CreditoException ex) {
+                // Re-lança exceções já tratadas
+                throw ex;
+            } catch (Exception ex) {
+                logger.error("Erro na consulta por número do crédito {}: {}", numeroCredito, ex.getMessage(), ex);
+                throw CreditoException.erroInterno("Falha na consulta do crédito: " + ex.getMessage());
+            }
+        });
+    }
 
-        } catch (CreditoException ex) {
-            // Re-lança exceções já tratadas
-            throw ex;
-        } catch (Exception ex) {
-            logger.error("Erro na consulta por número do crédito {}: {}", numeroCredito, ex.getMessage(), ex);
-            throw CreditoException.erroInterno("Falha na consulta do crédito: " + ex.getMessage());
-        }
+    /**
+     * Endpoint: POST /api/creditos/batch
+     * Descrição: Consulta vários números de NFS-e e/ou de crédito em uma única requisição
+     *
+     * @param request Números de NFS-e e de crédito a consultar
+     * @return Mapa por número, com status ENCONTRADO, NAO_ENCONTRADO ou INVALIDO para cada um
+     */
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE,
+            produces = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(
+            summary = "Consultar créditos em lote",
+            description = "Consulta até o limite configurado de números de NFS-e e/ou de crédito em uma única " +
+                    "requisição. Números não encontrados ou inválidos aparecem no resultado com o respectivo status"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Lote processado com sucesso",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ConsultaLoteResponseDTO.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Lote vazio ou acima do limite de números por requisição",
+                    content = @Content(mediaType = "application/json")
+            ),
+            @ApiResponse(
+                    responseCode = "500",
+                    description = "Erro interno do servidor",
+                    content = @Content(mediaType = "application/json")
+            ),
+            @ApiResponse(
+                    responseCode = "503",
+                    description = "Serviço sobrecarregado - tente novamente",
+                    content = @Content(mediaType = "application/json")
+            )
+    })
+    public CompletableFuture<ResponseEntity<ConsultaLoteResponseDTO>> consultarCreditosEmLote(
+            @RequestBody ConsultaLoteRequestDTO request) {
+
+        int quantidade = request == null ? 0 : request.quantidadeTotal();
+        LoggingUtils.logSolicitacaoRecebida(logger, "consulta em lote", quantidade + " números");
+
+        return bulkheadIntervalo.executar(() -> {
+            try {
+                ConsultaLoteResponseDTO response = creditoLoteService.consultarLote(request);
+
+                LoggingUtils.logOperacaoFinalizada(logger, "Consulta em lote", quantidade);
+
+                return ResponseEntity.ok(response);
+
+            } catch (CreditoException ex) {
+                // Re-lança exceções já tratadas
+                throw ex;
+            } catch (Exception ex) {
+                logger.error("Erro na consulta em lote: {}", ex.getMessage(), ex);
+                throw CreditoException.erroInterno("Falha na consulta de créditos em lote: " + ex.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Endpoint: GET /api/creditos/search
+     * Descrição: Busca parcial por número de NFS-e e/ou de crédito (typeahead do back-office)
+     *
+     * @param termo Parte do número (mínimo de 3 caracteres)
+     * @param campo nfse, credito ou todos
+     * @param limite Quantidade máxima de resultados
+     * @return Pares crédito/NFS-e cujo número contém o termo
+     */
+    @GetMapping(value = "/search", produces = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(
+            summary = "Buscar por parte do número",
+            description = "Retorna os pares número do crédito / NFS-e cujo número contém o termo informado. " +
+                    "Respondida por um índice em memória; \"limitado\" indica que existem mais ocorrências"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Busca realizada com sucesso",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = BuscaNumerosDTO.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Termo com menos de 3 caracteres, campo ou limite inválido",
+                    content = @Content(mediaType = "application/json")
+            ),
+            @ApiResponse(
+                    responseCode = "500",
+                    description = "Erro interno do servidor",
+                    content = @Content(mediaType = "application/json")
+            ),
+            @ApiResponse(
+                    responseCode = "503",
+                    description = "Serviço sobrecarregado ou índice em construção - tente novamente",
+                    content = @Content(mediaType = "application/json")
+            )
+    })
+    public CompletableFuture<ResponseEntity<BuscaNumerosDTO>> buscarPorNumeroParcial(
+            @Parameter(description = "Parte do número da NFS-e ou do crédito", required = true, example = "7891")
+            @RequestParam String termo,
+            @Parameter(description = "Coluna pesquisada: nfse, credito ou todos", example = "todos")
+            @RequestParam(defaultValue = "todos") String campo,
+            @Parameter(description = "Quantidade máxima de resultados (até " + CreditoService.LIMITE_MAXIMO_BUSCA + ")",
+                    example = "20")
+            @RequestParam(defaultValue = "20") int limite) {
+
+        LoggingUtils.logSolicitacaoRecebida(logger, "busca parcial por número", termo);
+
+        return bulkheadConsulta.executar(() -> {
+            try {
+                BuscaNumerosDTO response = creditoService.buscarPorNumeroParcial(termo, campo, limite);
+
+                LoggingUtils.logOperacaoFinalizada(logger, "Busca parcial por " + termo, response.getResultados().size());
+
+                return ResponseEntity.ok(response);
+
+            } catch (CreditoException ex) {
+                // Re-lança exceções já tratadas
+                throw ex;
+            } catch (Exception ex) {
+                logger.error("Erro na busca parcial por {}: {}", termo, ex.getMessage(), ex);
+                throw CreditoException.erroInterno("Falha na busca parcial por número: " + ex.getMessage());
+            }
+        });
     }
 
     /**
@@ -214,9 +383,14 @@ public class CreditoController {
                     responseCode = "500",
                     description = "Erro interno do servidor",
                     content = @Content(mediaType = "application/json")
+            ),
+            @ApiResponse(
+                    responseCode = "503",
+                    description = "Serviço sobrecarregado - tente novamente",
+                    content = @Content(mediaType = "application/json")
             )
     })
-    public ResponseEntity<ExistenceResponse> verificarExistenciaCredito(
+    public CompletableFuture<ResponseEntity<ExistenceResponse>> verificarExistenciaCredito(
             @Parameter(
                     description = "Número do crédito a ser verificado",
                     required = true,
@@ -228,25 +402,24 @@ public class CreditoController {
 
         LoggingUtils.logSolicitacaoRecebida(logger, "verificação de existência", numeroCredito);
 
-        try {
-            // Validação usando ValidationUtils
-            ValidationUtils.validateNumeroCredito(numeroCredito);
+        return bulkheadConsulta.executar(() -> {
+            try {
+                boolean existe = creditoService.existeCreditoPorNumero(numeroCredito);
 
-            boolean existe = creditoService.existeCreditoPorNumero(numeroCredito);
+                ExistenceResponse response = new ExistenceResponse(existe, numeroCredito, "credito");
 
-            ExistenceResponse response = new ExistenceResponse(existe, numeroCredito, "credito");
+                LoggingUtils.logOperacaoFinalizada(logger, "Verificação de existência", null);
 
-            LoggingUtils.logOperacaoFinalizada(logger, "Verificação de existência", null);
+                return ResponseEntity.ok(response);
 
-            return ResponseEntity.ok(response);
-
-        } catch (CreditoException ex) {
-            // Re-lança exceções já tratadas
-            throw ex;
-        } catch (Exception ex) {
-            logger.error("Erro na verificação de existência do crédito {}: {}", numeroCredito, ex.getMessage(), ex);
-            throw CreditoException.erroInterno("Falha na verificação de existência: " + ex.getMessage());
-        }
+            } catch (CreditoException ex) {
+                // Re-lança exceções já tratadas
+                throw ex;
+            } catch (Exception ex) {
+                logger.error("Erro na verificação de existência do crédito {}: {}", numeroCredito, ex.getMessage(), ex);
+                throw CreditoException.erroInterno("Falha na verificação de existência: " + ex.getMessage());
+            }
+        });
     }
 
     /**
@@ -272,9 +445,14 @@ public class CreditoController {
                     responseCode = "500",
                     description = "Erro interno do servidor",
                     content = @Content(mediaType = "application/json")
+            ),
+            @ApiResponse(
+                    responseCode = "503",
+                    description = "Serviço sobrecarregado - tente novamente",
+                    content = @Content(mediaType = "application/json")
             )
     })
-    public ResponseEntity<ExistenceResponse> verificarExistenciaCreditosPorNfse(
+    public CompletableFuture<ResponseEntity<ExistenceResponse>> verificarExistenciaCreditosPorNfse(
             @Parameter(
                     description = "Número da NFS-e a ser verificado",
                     required = true,
@@ -286,25 +464,24 @@ public class CreditoController {
 
         LoggingUtils.logSolicitacaoRecebida(logger, "verificação de existência por NFS-e", numeroNfse);
 
-        try {
-            // Validação usando ValidationUtils
-            ValidationUtils.validateNumeroNfse(numeroNfse);
+        return bulkheadConsulta.executar(() -> {
+            try {
+                boolean existe = creditoService.existeCreditoPorNfse(numeroNfse);
 
-            boolean existe = creditoService.existeCreditoPorNfse(numeroNfse);
+                ExistenceResponse response = new ExistenceResponse(existe, numeroNfse, "nfse");
 
-            ExistenceResponse response = new ExistenceResponse(existe, numeroNfse, "nfse");
+                LoggingUtils.logOperacaoFinalizada(logger, "Verificação de existência por NFS-e", null);
 
-            LoggingUtils.logOperacaoFinalizada(logger, "Verificação de existência por NFS-e", null);
+                return ResponseEntity.ok(response);
 
-            return ResponseEntity.ok(response);
-
-        } catch (CreditoException ex) {
-            // Re-lança exceções já tratadas
-            throw ex;
-        } catch (Exception ex) {
-            logger.error("Erro na verificação de existência por NFS-e {}: {}", numeroNfse, ex.getMessage(), ex);
-            throw CreditoException.erroInterno("Falha na verificação de existência por NFS-e: " + ex.getMessage());
-        }
+            } catch (CreditoException ex) {
+                // Re-lança exceções já tratadas
+                throw ex;
+            } catch (Exception ex) {
+                logger.error("Erro na verificação de existência por NFS-e {}: {}", numeroNfse, ex.getMessage(), ex);
+                throw CreditoException.erroInterno("Falha na verificação de existência por NFS-e: " + ex.getMessage());
+            }
+        });
     }
 
     /**
@@ -0,0 +1,225 @@
+package com.creditos.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * DTO da auditoria de consistência do ISSQN (valorIssqn x baseCalculo x aliquota / 100)
+ * Traz o andamento enquanto a auditoria roda e o relatório completo ao final
+ *
+ * @author Ednilton Curt Rauh
+ * @version 1.0.0
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class AuditoriaConsistenciaDTO {
+
+    /**
+     * Situação da auditoria
+     */
+    public enum Status {
+        /** Agendada, aguardando a auditoria anterior terminar */
+        PENDENTE,
+        /** Partições sendo lidas e verificadas */
+        PROCESSANDO,
+        /** Todas as partições verificadas; relatório gravado */
+        CONCLUIDA,
+        /** Falha geral: o relatório não foi gerado */
+        FALHA
+    }
+
+    @JsonProperty("id")
+    private String id;
+
+    @JsonProperty("status")
+    private Status status;
+
+    @JsonProperty("idInicial")
+    private Long idInicial;
+
+    @JsonProperty("idFinal")
+    private Long idFinal;
+
+    @JsonProperty("particoes")
+    private long particoes;
+
+    @JsonProperty("particoesConcluidas")
+    private long particoesConcluidas;
+
+    @JsonProperty("verificados")
+    private long verificados;
+
+    @JsonProperty("inconsistentes")
+    private long inconsistentes;
+
+    @JsonProperty("porTipo")
+    private List<Tipo> porTipo;
+
+    @JsonProperty("maioresDivergencias")
+    private List<Divergencia> maioresDivergencias;
+
+    @JsonProperty("mensagem")
+    private String mensagem;
+
+    @JsonProperty("inicio")
+    private Long inicio;
+
+    @JsonProperty("fim")
+    private Long fim;
+
+    /**
+     * Construtor padrão (obrigatório para Jackson)
+     */
+    public AuditoriaConsistenciaDTO() {}
+
+    // Getters e Setters
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+
+    public Status getStatus() { return status; }
+    public void setStatus(Status status) { this.status = status; }
+
+    public Long getIdInicial() { return idInicial; }
+    public void setIdInicial(Long idInicial) { this.idInicial = idInicial; }
+
+    public Long getIdFinal() { return idFinal; }
+    public void setIdFinal(Long idFinal) { this.idFinal = idFinal; }
+
+    public long getParticoes() { return particoes; }
+    public void setParticoes(long particoes) { this.particoes = particoes; }
+
+    public long getParticoesConcluidas() { return particoesConcluidas; }
+    public void setParticoesConcluidas(long particoesConcluidas) { this.particoesConcluidas = particoesConcluidas; }
+
+    public long getVerificados() { return verificados; }
+    public void setVerificados(long verificados) { this.verificados = verificados; }
+
+    public long getInconsistentes() { return inconsistentes; }
+    public void setInconsistentes(long inconsistentes) { this.inconsistentes = inconsistentes; }
+
+    public List<Tipo> getPorTipo() { return porTipo; }
+    public void setPorTipo(List<Tipo> porTipo) { this.porTipo = porTipo; }
+
+    public List<Divergencia> getMaioresDivergencias() { return maioresDivergencias; }
+    public void setMaioresDivergencias(List<Divergencia> maioresDivergencias) { this.maioresDivergencias = maioresDivergencias; }
+
+    public String getMensagem() { return mensagem; }
+    public void setMensagem(String mensagem) { this.mensagem = mensagem; }
+
+    public Long getInicio() { return inicio; }
+    public void setInicio(Long inicio) { this.inicio = inicio; }
+
+    public Long getFim() { return fim; }
+    public void setFim(Long fim) { this.fim = fim; }
+
+    /**
+     * Totais de um tipo de crédito
+     */
+    public static class Tipo {
+
+        @JsonProperty("tipoCredito")
+        private String tipoCredito;
+
+        @JsonProperty("verificados")
+        private long verificados;
+
+        @JsonProperty("inconsistentes")
+        private long inconsistentes;
+
+        /**
+         * Construtor padrão (obrigatório para Jackson)
+         */
+        public Tipo() {}
+
+        public Tipo(String tipoCredito, long verificados, long inconsistentes) {
+            this.tipoCredito = tipoCredito;
+            this.verificados = verificados;
+            this.inconsistentes = inconsistentes;
+        }
+
+        // Getters e Setters
+        public String getTipoCredito() { return tipoCredito; }
+        public void setTipoCredito(String tipoCredito) { this.tipoCredito = tipoCredito; }
+
+        public long getVerificados() { return verificados; }
+        public void setVerificados(long verificados) { this.verificados = verificados; }
+
+        public long getInconsistentes() { return inconsistentes; }
+        public void setInconsistentes(long inconsistentes) { this.inconsistentes = inconsistentes; }
+    }
+
+    /**
+     * Crédito inconsistente, com a diferença entre o ISSQN informado e o calculado
+     */
+    public static class Divergencia {
+
+        @JsonProperty("id")
+        private long id;
+
+        @JsonProperty("numeroCredito")
+        private String numeroCredito;
+
+        @JsonProperty("numeroNfse")
+        private String numeroNfse;
+
+        @JsonProperty("tipoCredito")
+        private String tipoCredito;
+
+        @JsonProperty("valorIssqn")
+        private BigDecimal valorIssqn;
+
+        @JsonProperty("baseCalculo")
+        private BigDecimal baseCalculo;
+
+        @JsonProperty("aliquota")
+        private BigDecimal aliquota;
+
+        @JsonProperty("diferenca")
+        private BigDecimal diferenca;
+
+        /**
+         * Construtor padrão (obrigatório para Jackson)
+         */
+        public Divergencia() {}
+
+        public Divergencia(long id, String numeroCredito, String numeroNfse, String tipoCredito,
+                           BigDecimal valorIssqn, BigDecimal baseCalculo, BigDecimal aliquota,
+                           BigDecimal diferenca) {
+            this.id = id;
+            this.numeroCredito = numeroCredito;
+            this.numeroNfse = numeroNfse;
+            this.tipoCredito = tipoCredito;
+            this.valorIssqn = valorIssqn;
+            this.baseCalculo = baseCalculo;
+            this.aliquota = aliquota;
+            this.diferenca = diferenca;
+        }
+
+        // Getters e Setters
+        public long getId() { return id; }
+        public void setId(long id) { this.id = id; }
+
+        public String getNumeroCredito() { return numeroCredito; }
+        public void setNumeroCredito(String numeroCredito) { this.numeroCredito = numeroCredito; }
+
+        public String getNumeroNfse() { return numeroNfse; }
+        public void setNumeroNfse(String numeroNfse) { this.numeroNfse = numeroNfse; }
+
+        public String getTipoCredito() { return tipoCredito; }
+        public void setTipoCredito(String tipoCredito) { this.tipoCredito = tipoCredito; }
+
+        public BigDecimal getValorIssqn() { return valorIssqn; }
+        public void setValorIssqn(BigDecimal valorIssqn) { this.valorIssqn = valorIssqn; }
+
+        public BigDecimal getBaseCalculo() { return baseCalculo; }
+        public void setBaseCalculo(BigDecimal baseCalculo) { this.baseCalculo = baseCalculo; }
+
+        public BigDecimal getAliquota() { return aliquota; }
+        public void setAliquota(BigDecimal aliquota) { this.aliquota = aliquota; }
+
+        public BigDecimal getDiferenca() { return diferenca; }
+        public void setDiferenca(BigDecimal diferenca) { this.diferenca = diferenca; }
+    }
+}
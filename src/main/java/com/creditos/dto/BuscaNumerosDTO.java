@@ -0,0 +1,82 @@
+package com.creditos.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * DTO de resposta da busca parcial por número de NFS-e e/ou de crédito (/api/creditos/search)
+ * "limitado" indica que existem mais ocorrências além das devolvidas
+ *
+ * @author Ednilton Curt Rauh
+ * @version 1.0.0
+ */
+public class BuscaNumerosDTO {
+
+    @JsonProperty("termo")
+    private String termo;
+
+    @JsonProperty("campo")
+    private String campo;
+
+    @JsonProperty("resultados")
+    private List<Item> resultados = new ArrayList<>();
+
+    @JsonProperty("limitado")
+    private boolean limitado;
+
+    /**
+     * Construtor padrão (obrigatório para Jackson)
+     */
+    public BuscaNumerosDTO() {}
+
+    public BuscaNumerosDTO(String termo, String campo, List<Item> resultados, boolean limitado) {
+        this.termo = termo;
+        this.campo = campo;
+        this.resultados = resultados;
+        this.limitado = limitado;
+    }
+
+    // Getters e Setters
+    public String getTermo() { return termo; }
+    public void setTermo(String termo) { this.termo = termo; }
+
+    public String getCampo() { return campo; }
+    public void setCampo(String campo) { this.campo = campo; }
+
+    public List<Item> getResultados() { return resultados; }
+    public void setResultados(List<Item> resultados) { this.resultados = resultados; }
+
+    public boolean isLimitado() { return limitado; }
+    public void setLimitado(boolean limitado) { this.limitado = limitado; }
+
+    /**
+     * Par número do crédito / NFS-e encontrado
+     */
+    public static class Item {
+
+        @JsonProperty("numeroCredito")
+        private String numeroCredito;
+
+        @JsonProperty("numeroNfse")
+        private String numeroNfse;
+
+        /**
+         * Construtor padrão (obrigatório para Jackson)
+         */
+        public Item() {}
+
+        public Item(String numeroCredito, String numeroNfse) {
+            this.numeroCredito = numeroCredito;
+            this.numeroNfse = numeroNfse;
+        }
+
+        // Getters e Setters
+        public String getNumeroCredito() { return numeroCredito; }
+        public void setNumeroCredito(String numeroCredito) { this.numeroCredito = numeroCredito; }
+
+        public String getNumeroNfse() { return numeroNfse; }
+        public void setNumeroNfse(String numeroNfse) { this.numeroNfse = numeroNfse; }
+    }
+}
@@ -0,0 +1,136 @@
+package com.creditos.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+
+/**
+ * DTO do evento de invalidação de cache (tópico app.kafka.topics.cache-invalidacao)
+ *
+ * Cada evento se refere a uma região de cache. Com a lista de chaves vazia, a região inteira é limpa.
+ * Processos externos que corrigem créditos direto no banco podem publicar este mesmo evento, por exemplo:
+ * <pre>
+ * {"origem":"carga-noturna","versao":1,"regiao":"creditos","chaves":["nfse_7891011","credito_123456"]}
+ * </pre>
+ *
+ * Na região "indices" (InvalidacaoCache.REGIAO_INDICES), que não corresponde a um cache, o evento
+ * propaga créditos inseridos para o filtro de Bloom e o índice de busca parcial das demais instâncias:
+ * numerosCredito e numerosNfse são listas paralelas (o par de cada crédito na mesma posição); com as
+ * listas vazias, filtro e índice são reconstruídos a partir do banco (ex.: após importação em massa).
+ * <pre>
+ * {"origem":"...","versao":2,"regiao":"indices","numerosCredito":["123456"],"numerosNfse":["7891011"]}
+ * </pre>
+ *
+ * A versão é um contador crescente por origem, usado para diagnóstico; a proteção contra eventos fora de
+ * ordem fica nas versões locais do CacheVersionado.
+ *
+ * @author Ednilton Curt Rauh
+ * @version 1.0.0
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class CacheInvalidacaoEventoDTO {
+
+    @JsonProperty("origem")
+    private String origem;
+
+    @JsonProperty("versao")
+    private long versao;
+
+    @JsonProperty("regiao")
+    private String regiao;
+
+    @JsonProperty("chaves")
+    private List<String> chaves;
+
+    @JsonProperty("numerosCredito")
+    private List<String> numerosCredito;
+
+    @JsonProperty("numerosNfse")
+    private List<String> numerosNfse;
+
+    /**
+     * Construtor padrão
+     */
+    public CacheInvalidacaoEventoDTO() {}
+
+    /**
+     * Construtor completo
+     */
+    public CacheInvalidacaoEventoDTO(String origem, long versao, String regiao, List<String> chaves) {
+        this.origem = origem;
+        this.versao = versao;
+        this.regiao = regiao;
+        this.chaves = chaves;
+    }
+
+    /**
+     * Construtor do evento com os pares de créditos inseridos (região "indices")
+     */
+    public CacheInvalidacaoEventoDTO(String origem, long versao, String regiao,
+                                     List<String> numerosCredito, List<String> numerosNfse) {
+        this(origem, versao, regiao, null);
+        this.numerosCredito = numerosCredito;
+        this.numerosNfse = numerosNfse;
+    }
+
+    // Getters e Setters
+    public String getOrigem() {
+        return origem;
+    }
+
+    public void setOrigem(String origem) {
+        this.origem = origem;
+    }
+
+    public long getVersao() {
+        return versao;
+    }
+
+    public void setVersao(long versao) {
+        this.versao = versao;
+    }
+
+    public String getRegiao() {
+        return regiao;
+    }
+
+    public void setRegiao(String regiao) {
+        this.regiao = regiao;
+    }
+
+    public List<String> getChaves() {
+        return chaves;
+    }
+
+    public void setChaves(List<String> chaves) {
+        this.chaves = chaves;
+    }
+
+    public List<String> getNumerosCredito() {
+        return numerosCredito;
+    }
+
+    public void setNumerosCredito(List<String> numerosCredito) {
+        this.numerosCredito = numerosCredito;
+    }
+
+    public List<String> getNumerosNfse() {
+        return numerosNfse;
+    }
+
+    public void setNumerosNfse(List<String> numerosNfse) {
+        this.numerosNfse = numerosNfse;
+    }
+
+    @Override
+    public String toString() {
+        return "CacheInvalidacaoEventoDTO{" +
+                "origem='" + origem + '\'' +
+                ", versao=" + versao +
+                ", regiao='" + regiao + '\'' +
+                ", chaves=" + (chaves == null ? 0 : chaves.size()) +
+                ", numerosCredito=" + (numerosCredito == null ? 0 : numerosCredito.size()) +
+                '}';
+    }
+}
@@ -0,0 +1,60 @@
+package com.creditos.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * DTO de requisição para consulta em lote de créditos
+ * Aceita números de NFS-e e/ou números de crédito na mesma chamada
+ *
+ * @author Ednilton Curt Rauh
+ * @version 1.0.0
+ */
+public class ConsultaLoteRequestDTO {
+
+    @JsonProperty("numerosNfse")
+    private List<String> numerosNfse = new ArrayList<>();
+
+    @JsonProperty("numerosCredito")
+    private List<String> numerosCredito = new ArrayList<>();
+
+    /**
+     * Construtor padrão (obrigatório para Jackson)
+     */
+    public ConsultaLoteRequestDTO() {}
+
+    /**
+     * Construtor completo
+     */
+    public ConsultaLoteRequestDTO(List<String> numerosNfse, List<String> numerosCredito) {
+        this.numerosNfse = numerosNfse;
+        this.numerosCredito = numerosCredito;
+    }
+
+    // Getters e Setters
+    public List<String> getNumerosNfse() {
+        return numerosNfse;
+    }
+
+    public void setNumerosNfse(List<String> numerosNfse) {
+        this.numerosNfse = numerosNfse;
+    }
+
+    public List<String> getNumerosCredito() {
+        return numerosCredito;
+    }
+
+    public void setNumerosCredito(List<String> numerosCredito) {
+        this.numerosCredito = numerosCredito;
+    }
+
+    /**
+     * Quantidade total de números solicitados
+     */
+    public int quantidadeTotal() {
+        return (numerosNfse != null ? numerosNfse.size() : 0)
+                + (numerosCredito != null ? numerosCredito.size() : 0);
+    }
+}
@@ -0,0 +1,116 @@
+package com.creditos.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * DTO de resposta para consulta em lote de créditos
+ * Cada número solicitado aparece como chave, inclusive os não encontrados e os inválidos
+ *
+ * @author Ednilton Curt Rauh
+ * @version 1.0.0
+ */
+public class ConsultaLoteResponseDTO {
+
+    /**
+     * Situação de cada número consultado
+     */
+    public enum Status {
+        ENCONTRADO, NAO_ENCONTRADO, INVALIDO
+    }
+
+    @JsonProperty("nfse")
+    private Map<String, Item> nfse = new LinkedHashMap<>();
+
+    @JsonProperty("creditos")
+    private Map<String, Item> creditos = new LinkedHashMap<>();
+
+    @JsonProperty("timestamp")
+    private long timestamp;
+
+    /**
+     * Construtor padrão (obrigatório para Jackson)
+     */
+    public ConsultaLoteResponseDTO() {
+        this.timestamp = System.currentTimeMillis();
+    }
+
+    // Getters e Setters
+    public Map<String, Item> getNfse() { return nfse; }
+    public void setNfse(Map<String, Item> nfse) { this.nfse = nfse; }
+
+    public Map<String, Item> getCreditos() { return creditos; }
+    public void setCreditos(Map<String, Item> creditos) { this.creditos = creditos; }
+
+    public long getTimestamp() { return timestamp; }
+    public void setTimestamp(long timestamp) { this.timestamp = timestamp; }
+
+    /**
+     * Resultado individual de um número consultado
+     * Para NFS-e, preenche "creditos"; para número de crédito, preenche "credito"
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class Item {
+
+        @JsonProperty("status")
+        private Status status;
+
+        @JsonProperty("creditos")
+        private List<CreditoResponseDTO> creditos;
+
+        @JsonProperty("credito")
+        private CreditoResponseDTO credito;
+
+        @JsonProperty("mensagem")
+        private String mensagem;
+
+        /**
+         * Construtor padrão (obrigatório para Jackson)
+         */
+        public Item() {}
+
+        public static Item encontrado(List<CreditoResponseDTO> creditos) {
+            Item item = new Item();
+            item.status = Status.ENCONTRADO;
+            item.creditos = creditos;
+            return item;
+        }
+
+        public static Item encontrado(CreditoResponseDTO credito) {
+            Item item = new Item();
+            item.status = Status.ENCONTRADO;
+            item.credito = credito;
+            return item;
+        }
+
+        public static Item naoEncontrado() {
+            Item item = new Item();
+            item.status = Status.NAO_ENCONTRADO;
+            return item;
+        }
+
+        public static Item invalido(String mensagem) {
+            Item item = new Item();
+            item.status = Status.INVALIDO;
+            item.mensagem = mensagem;
+            return item;
+        }
+
+        // Getters e Setters
+        public Status getStatus() { return status; }
+        public void setStatus(Status status) { this.status = status; }
+
+        public List<CreditoResponseDTO> getCreditos() { return creditos; }
+        public void setCreditos(List<CreditoResponseDTO> creditos) { this.creditos = creditos; }
+
+        public CreditoResponseDTO getCredito() { return credito; }
+        public void setCredito(CreditoResponseDTO credito) { this.credito = credito; }
+
+        public String getMensagem() { return mensagem; }
+        public void setMensagem(String mensagem) { this.mensagem = mensagem; }
+    }
+}
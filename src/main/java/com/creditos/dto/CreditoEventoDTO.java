@@ -0,0 +1,167 @@
+package com.creditos.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * DTO do evento de ingestão de crédito recebido pelo Kafka (tópico app.kafka.topics.credito-ingestao)
+ *
+ * Os produtores devem usar o número do crédito como chave da mensagem, para que eventos do mesmo
+ * crédito caiam na mesma partição e sejam processados em ordem por um único consumidor.
+ *
+ * @author Ednilton Curt Rauh
+ * @version 1.0.0
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class CreditoEventoDTO {
+
+    @JsonProperty("numeroCredito")
+    private String numeroCredito;
+
+    @JsonProperty("numeroNfse")
+    private String numeroNfse;
+
+    @JsonProperty("dataConstituicao")
+    @JsonFormat(pattern = "yyyy-MM-dd")
+    private LocalDate dataConstituicao;
+
+    @JsonProperty("valorIssqn")
+    private BigDecimal valorIssqn;
+
+    @JsonProperty("tipoCredito")
+    private String tipoCredito;
+
+    @JsonProperty("simplesNacional")
+    private Boolean simplesNacional;
+
+    @JsonProperty("aliquota")
+    private BigDecimal aliquota;
+
+    @JsonProperty("valorFaturado")
+    private BigDecimal valorFaturado;
+
+    @JsonProperty("valorDeducao")
+    private BigDecimal valorDeducao;
+
+    @JsonProperty("baseCalculo")
+    private BigDecimal baseCalculo;
+
+    /**
+     * Construtor padrão
+     */
+    public CreditoEventoDTO() {}
+
+    /**
+     * Construtor completo
+     */
+    public CreditoEventoDTO(String numeroCredito, String numeroNfse, LocalDate dataConstituicao,
+                            BigDecimal valorIssqn, String tipoCredito, Boolean simplesNacional,
+                            BigDecimal aliquota, BigDecimal valorFaturado, BigDecimal valorDeducao,
+                            BigDecimal baseCalculo) {
+        this.numeroCredito = numeroCredito;
+        this.numeroNfse = numeroNfse;
+        this.dataConstituicao = dataConstituicao;
+        this.valorIssqn = valorIssqn;
+        this.tipoCredito = tipoCredito;
+        this.simplesNacional = simplesNacional;
+        this.aliquota = aliquota;
+        this.valorFaturado = valorFaturado;
+        this.valorDeducao = valorDeducao;
+        this.baseCalculo = baseCalculo;
+    }
+
+    // Getters e Setters
+    public String getNumeroCredito() {
+        return numeroCredito;
+    }
+
+    public void setNumeroCredito(String numeroCredito) {
+        this.numeroCredito = numeroCredito;
+    }
+
+    public String getNumeroNfse() {
+        return numeroNfse;
+    }
+
+    public void setNumeroNfse(String numeroNfse) {
+        this.numeroNfse = numeroNfse;
+    }
+
+    public LocalDate getDataConstituicao() {
+        return dataConstituicao;
+    }
+
+    public void setDataConstituicao(LocalDate dataConstituicao) {
+        this.dataConstituicao = dataConstituicao;
+    }
+
+    public BigDecimal getValorIssqn() {
+        return valorIssqn;
+    }
+
+    public void setValorIssqn(BigDecimal valorIssqn) {
+        this.valorIssqn = valorIssqn;
+    }
+
+    public String getTipoCredito() {
+        return tipoCredito;
+    }
+
+    public void setTipoCredito(String tipoCredito) {
+        this.tipoCredito = tipoCredito;
+    }
+
+    public Boolean getSimplesNacional() {
+        return simplesNacional;
+    }
+
+    public void setSimplesNacional(Boolean simplesNacional) {
+        this.simplesNacional = simplesNacional;
+    }
+
+    public BigDecimal getAliquota() {
+        return aliquota;
+    }
+
+    public void setAliquota(BigDecimal aliquota) {
+        this.aliquota = aliquota;
+    }
+
+    public BigDecimal getValorFaturado() {
+        return valorFaturado;
+    }
+
+    public void setValorFaturado(BigDecimal valorFaturado) {
+        this.valorFaturado = valorFaturado;
+    }
+
+    public BigDecimal getValorDeducao() {
+        return valorDeducao;
+    }
+
+    public void setValorDeducao(BigDecimal valorDeducao) {
+        this.valorDeducao = valorDeducao;
+    }
+
+    public BigDecimal getBaseCalculo() {
+        return baseCalculo;
+    }
+
+    public void setBaseCalculo(BigDecimal baseCalculo) {
+        this.baseCalculo = baseCalculo;
+    }
+
+    @Override
+    public String toString() {
+        return "CreditoEventoDTO{" +
+                "numeroCredito='" + numeroCredito + '\'' +
+                ", numeroNfse='" + numeroNfse + '\'' +
+                ", dataConstituicao=" + dataConstituicao +
+                ", tipoCredito='" + tipoCredito + '\'' +
+                '}';
+    }
+}
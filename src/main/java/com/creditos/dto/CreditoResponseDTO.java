@@ -1,10 +1,10 @@
 package com.creditos.dto;
 
+import com.creditos.util.DecimalFixo;
 import com.fasterxml.jackson.annotation.JsonFormat;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 import javax.validation.constraints.*;
-import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.Objects;
 
@@ -12,6 +12,9 @@ import java.util.Objects;
  * DTO de resposta para consulta de créditos
  * Seguindo EXATAMENTE o JSON especificado no PDF do desafio técnico
  *
+ * Os valores monetários e a alíquota são DecimalFixo (centésimos em long): o JSON mantém o
+ * número com duas casas, e getXxx().paraBigDecimal() atende quem precisa de BigDecimal.
+ *
  * @author Ednilton Curt Rauh
  * @version 1.0.0
  */
@@ -33,7 +36,7 @@ public class CreditoResponseDTO {
     @JsonProperty("valorIssqn")
     @NotNull(message = "Valor do ISSQN é obrigatório")
     @DecimalMin(value = "0.0", inclusive = false, message = "Valor do ISSQN deve ser maior que zero")
-    private BigDecimal valorIssqn;
+    private DecimalFixo valorIssqn;
 
     @JsonProperty("tipoCredito")
     @NotBlank(message = "Tipo do crédito é obrigatório")
@@ -46,22 +49,22 @@ public class CreditoResponseDTO {
     @JsonProperty("aliquota")
     @NotNull(message = "Alíquota é obrigatória")
     @DecimalMin(value = "0.0", inclusive = false, message = "Alíquota deve ser maior que zero")
-    private BigDecimal aliquota;
+    private DecimalFixo aliquota;
 
     @JsonProperty("valorFaturado")
     @NotNull(message = "Valor faturado é obrigatório")
     @DecimalMin(value = "0.0", inclusive = false, message = "Valor faturado deve ser maior que zero")
-    private BigDecimal valorFaturado;
+    private DecimalFixo valorFaturado;
 
     @JsonProperty("valorDeducao")
     @NotNull(message = "Valor de dedução é obrigatório")
     @DecimalMin(value = "0.0", message = "Valor de dedução deve ser maior ou igual a zero")
-    private BigDecimal valorDeducao;
+    private DecimalFixo valorDeducao;
 
     @JsonProperty("baseCalculo")
     @NotNull(message = "Base de cálculo é obrigatória")
     @DecimalMin(value = "0.0", inclusive = false, message = "Base de cálculo deve ser maior que zero")
-    private BigDecimal baseCalculo;
+    private DecimalFixo baseCalculo;
 
     // ================================================
     // CONSTRUTORES
@@ -76,9 +79,9 @@ public class CreditoResponseDTO {
      * Construtor completo para conversão de entidade
      */
     public CreditoResponseDTO(String numeroCredito, String numeroNfse, LocalDate dataConstituicao,
-                              BigDecimal valorIssqn, String tipoCredito, Boolean simplesNacional,
-                              BigDecimal aliquota, BigDecimal valorFaturado, BigDecimal valorDeducao,
-                              BigDecimal baseCalculo) {
+                              DecimalFixo valorIssqn, String tipoCredito, Boolean simplesNacional,
+                              DecimalFixo aliquota, DecimalFixo valorFaturado, DecimalFixo valorDeducao,
+                              DecimalFixo baseCalculo) {
         this.numeroCredito = numeroCredito;
         this.numeroNfse = numeroNfse;
         this.dataConstituicao = dataConstituicao;
@@ -119,11 +122,11 @@ public class CreditoResponseDTO {
         this.dataConstituicao = dataConstituicao;
     }
 
-    public BigDecimal getValorIssqn() {
+    public DecimalFixo getValorIssqn() {
         return valorIssqn;
     }
 
-    public void setValorIssqn(BigDecimal valorIssqn) {
+    public void setValorIssqn(DecimalFixo valorIssqn) {
         this.valorIssqn = valorIssqn;
     }
 
@@ -150,35 +153,35 @@ public class CreditoResponseDTO {
         this.simplesNacional = simplesNacional != null && simplesNacional ? "Sim" : "Não";
     }
 
-    public BigDecimal getAliquota() {
+    public DecimalFixo getAliquota() {
         return aliquota;
     }
 
-    public void setAliquota(BigDecimal aliquota) {
+    public void setAliquota(DecimalFixo aliquota) {
         this.aliquota = aliquota;
     }
 
-    public BigDecimal getValorFaturado() {
+    public DecimalFixo getValorFaturado() {
         return valorFaturado;
     }
 
-    public void setValorFaturado(BigDecimal valorFaturado) {
+    public void setValorFaturado(DecimalFixo valorFaturado) {
         this.valorFaturado = valorFaturado;
     }
 
-    public BigDecimal getValorDeducao() {
+    public DecimalFixo getValorDeducao() {
         return valorDeducao;
     }
 
-    public void setValorDeducao(BigDecimal valorDeducao) {
+    public void setValorDeducao(DecimalFixo valorDeducao) {
         this.valorDeducao = valorDeducao;
     }
 
-    public BigDecimal getBaseCalculo() {
+    public DecimalFixo getBaseCalculo() {
         return baseCalculo;
     }
 
-    public void setBaseCalculo(BigDecimal baseCalculo) {
+    public void setBaseCalculo(DecimalFixo baseCalculo) {
         this.baseCalculo = baseCalculo;
     }
 
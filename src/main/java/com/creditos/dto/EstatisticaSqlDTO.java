@@ -0,0 +1,81 @@
+package com.creditos.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * DTO com as estatísticas acumuladas de um comando SQL, por operação (método do repositório)
+ *
+ * Tempos em milissegundos. O tempo de execução vai do envio do comando até o retorno do driver;
+ * o tempo de fetch é o gasto em ResultSet.next() percorrendo as linhas.
+ *
+ * @author Ednilton Curt Rauh
+ * @version 1.0.0
+ */
+public class EstatisticaSqlDTO {
+
+    @JsonProperty("operacao")
+    private String operacao;
+
+    @JsonProperty("sql")
+    private String sql;
+
+    @JsonProperty("execucoes")
+    private long execucoes;
+
+    @JsonProperty("lentas")
+    private long lentas;
+
+    @JsonProperty("tempoTotalMs")
+    private double tempoTotalMs;
+
+    @JsonProperty("tempoMedioMs")
+    private double tempoMedioMs;
+
+    @JsonProperty("tempoMaximoMs")
+    private double tempoMaximoMs;
+
+    @JsonProperty("tempoFetchMs")
+    private double tempoFetchMs;
+
+    @JsonProperty("linhas")
+    private long linhas;
+
+    @JsonProperty("linhasPorExecucao")
+    private double linhasPorExecucao;
+
+    /**
+     * Construtor padrão (obrigatório para Jackson)
+     */
+    public EstatisticaSqlDTO() {}
+
+    // Getters e Setters
+    public String getOperacao() { return operacao; }
+    public void setOperacao(String operacao) { this.operacao = operacao; }
+
+    public String getSql() { return sql; }
+    public void setSql(String sql) { this.sql = sql; }
+
+    public long getExecucoes() { return execucoes; }
+    public void setExecucoes(long execucoes) { this.execucoes = execucoes; }
+
+    public long getLentas() { return lentas; }
+    public void setLentas(long lentas) { this.lentas = lentas; }
+
+    public double getTempoTotalMs() { return tempoTotalMs; }
+    public void setTempoTotalMs(double tempoTotalMs) { this.tempoTotalMs = tempoTotalMs; }
+
+    public double getTempoMedioMs() { return tempoMedioMs; }
+    public void setTempoMedioMs(double tempoMedioMs) { this.tempoMedioMs = tempoMedioMs; }
+
+    public double getTempoMaximoMs() { return tempoMaximoMs; }
+    public void setTempoMaximoMs(double tempoMaximoMs) { this.tempoMaximoMs = tempoMaximoMs; }
+
+    public double getTempoFetchMs() { return tempoFetchMs; }
+    public void setTempoFetchMs(double tempoFetchMs) { this.tempoFetchMs = tempoFetchMs; }
+
+    public long getLinhas() { return linhas; }
+    public void setLinhas(long linhas) { this.linhas = linhas; }
+
+    public double getLinhasPorExecucao() { return linhasPorExecucao; }
+    public void setLinhasPorExecucao(double linhasPorExecucao) { this.linhasPorExecucao = linhasPorExecucao; }
+}
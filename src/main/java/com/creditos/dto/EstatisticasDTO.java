@@ -0,0 +1,146 @@
+package com.creditos.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * DTO de resposta para estatísticas consolidadas dos créditos
+ * Totais gerais e agrupamentos por tipo de crédito e por mês de constituição
+ *
+ * @author Ednilton Curt Rauh
+ * @version 1.0.0
+ */
+public class EstatisticasDTO {
+
+    @JsonProperty("totalCreditos")
+    private long totalCreditos;
+
+    @JsonProperty("valorTotal")
+    private BigDecimal valorTotal;
+
+    @JsonProperty("valorMedio")
+    private BigDecimal valorMedio;
+
+    @JsonProperty("valorMinimo")
+    private BigDecimal valorMinimo;
+
+    @JsonProperty("valorMaximo")
+    private BigDecimal valorMaximo;
+
+    @JsonProperty("porTipo")
+    private List<Grupo> porTipo = new ArrayList<>();
+
+    @JsonProperty("porMes")
+    private List<Grupo> porMes = new ArrayList<>();
+
+    @JsonProperty("timestamp")
+    private long timestamp;
+
+    /**
+     * Construtor padrão (obrigatório para Jackson)
+     */
+    public EstatisticasDTO() {}
+
+    // Getters e Setters
+    public long getTotalCreditos() { return totalCreditos; }
+    public void setTotalCreditos(long totalCreditos) { this.totalCreditos = totalCreditos; }
+
+    public BigDecimal getValorTotal() { return valorTotal; }
+    public void setValorTotal(BigDecimal valorTotal) { this.valorTotal = valorTotal; }
+
+    public BigDecimal getValorMedio() { return valorMedio; }
+    public void setValorMedio(BigDecimal valorMedio) { this.valorMedio = valorMedio; }
+
+    public BigDecimal getValorMinimo() { return valorMinimo; }
+    public void setValorMinimo(BigDecimal valorMinimo) { this.valorMinimo = valorMinimo; }
+
+    public BigDecimal getValorMaximo() { return valorMaximo; }
+    public void setValorMaximo(BigDecimal valorMaximo) { this.valorMaximo = valorMaximo; }
+
+    public List<Grupo> getPorTipo() { return porTipo; }
+    public void setPorTipo(List<Grupo> porTipo) { this.porTipo = porTipo; }
+
+    public List<Grupo> getPorMes() { return porMes; }
+    public void setPorMes(List<Grupo> porMes) { this.porMes = porMes; }
+
+    public long getTimestamp() { return timestamp; }
+    public void setTimestamp(long timestamp) { this.timestamp = timestamp; }
+
+    @Override
+    public String toString() {
+        return "EstatisticasDTO{" +
+                "totalCreditos=" + totalCreditos +
+                ", valorTotal=" + valorTotal +
+                ", valorMedio=" + valorMedio +
+                ", valorMinimo=" + valorMinimo +
+                ", valorMaximo=" + valorMaximo +
+                ", porTipo=" + porTipo.size() +
+                ", porMes=" + porMes.size() +
+                ", timestamp=" + timestamp +
+                '}';
+    }
+
+    /**
+     * Estatísticas de um agrupamento (tipo de crédito ou mês no formato yyyy-MM)
+     */
+    public static class Grupo {
+
+        @JsonProperty("chave")
+        private String chave;
+
+        @JsonProperty("quantidade")
+        private long quantidade;
+
+        @JsonProperty("valorTotal")
+        private BigDecimal valorTotal;
+
+        @JsonProperty("valorMedio")
+        private BigDecimal valorMedio;
+
+        @JsonProperty("valorMinimo")
+        private BigDecimal valorMinimo;
+
+        @JsonProperty("valorMaximo")
+        private BigDecimal valorMaximo;
+
+        /**
+         * Construtor padrão (obrigatório para Jackson)
+         */
+        public Grupo() {}
+
+        /**
+         * Construtor completo
+         */
+        public Grupo(String chave, long quantidade, BigDecimal valorTotal, BigDecimal valorMedio,
+                     BigDecimal valorMinimo, BigDecimal valorMaximo) {
+            this.chave = chave;
+            this.quantidade = quantidade;
+            this.valorTotal = valorTotal;
+            this.valorMedio = valorMedio;
+            this.valorMinimo = valorMinimo;
+            this.valorMaximo = valorMaximo;
+        }
+
+        // Getters e Setters
+        public String getChave() { return chave; }
+        public void setChave(String chave) { this.chave = chave; }
+
+        public long getQuantidade() { return quantidade; }
+        public void setQuantidade(long quantidade) { this.quantidade = quantidade; }
+
+        public BigDecimal getValorTotal() { return valorTotal; }
+        public void setValorTotal(BigDecimal valorTotal) { this.valorTotal = valorTotal; }
+
+        public BigDecimal getValorMedio() { return valorMedio; }
+        public void setValorMedio(BigDecimal valorMedio) { this.valorMedio = valorMedio; }
+
+        public BigDecimal getValorMinimo() { return valorMinimo; }
+        public void setValorMinimo(BigDecimal valorMinimo) { this.valorMinimo = valorMinimo; }
+
+        public BigDecimal getValorMaximo() { return valorMaximo; }
+        public void setValorMaximo(BigDecimal valorMaximo) { this.valorMaximo = valorMaximo; }
+    }
+}
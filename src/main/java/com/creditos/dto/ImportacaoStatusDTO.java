@@ -0,0 +1,135 @@
+package com.creditos.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * DTO de resposta com o andamento de uma importação em massa de créditos
+ *
+ * @author Ednilton Curt Rauh
+ * @version 1.0.0
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ImportacaoStatusDTO {
+
+    /**
+     * Situação da importação
+     */
+    public enum Status {
+        /** Arquivo recebido, aguardando execução */
+        PENDENTE,
+        /** Leitura, carga na tabela de staging e merge em andamento */
+        PROCESSANDO,
+        /** Merge confirmado no banco */
+        CONCLUIDA,
+        /** Falha geral: nenhuma linha foi gravada */
+        FALHA
+    }
+
+    @JsonProperty("id")
+    private String id;
+
+    @JsonProperty("status")
+    private Status status;
+
+    @JsonProperty("arquivo")
+    private String arquivo;
+
+    @JsonProperty("formato")
+    private String formato;
+
+    @JsonProperty("tamanhoBytes")
+    private long tamanhoBytes;
+
+    @JsonProperty("bytesProcessados")
+    private long bytesProcessados;
+
+    @JsonProperty("percentual")
+    private int percentual;
+
+    @JsonProperty("linhasLidas")
+    private long linhasLidas;
+
+    @JsonProperty("linhasValidas")
+    private long linhasValidas;
+
+    @JsonProperty("linhasRejeitadas")
+    private long linhasRejeitadas;
+
+    @JsonProperty("inseridos")
+    private long inseridos;
+
+    @JsonProperty("duplicados")
+    private long duplicados;
+
+    @JsonProperty("mensagem")
+    private String mensagem;
+
+    @JsonProperty("inicio")
+    private Long inicio;
+
+    @JsonProperty("fim")
+    private Long fim;
+
+    /**
+     * Construtor padrão (obrigatório para Jackson)
+     */
+    public ImportacaoStatusDTO() {}
+
+    // Getters e Setters
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+
+    public Status getStatus() { return status; }
+    public void setStatus(Status status) { this.status = status; }
+
+    public String getArquivo() { return arquivo; }
+    public void setArquivo(String arquivo) { this.arquivo = arquivo; }
+
+    public String getFormato() { return formato; }
+    public void setFormato(String formato) { this.formato = formato; }
+
+    public long getTamanhoBytes() { return tamanhoBytes; }
+    public void setTamanhoBytes(long tamanhoBytes) { this.tamanhoBytes = tamanhoBytes; }
+
+    public long getBytesProcessados() { return bytesProcessados; }
+    public void setBytesProcessados(long bytesProcessados) { this.bytesProcessados = bytesProcessados; }
+
+    public int getPercentual() { return percentual; }
+    public void setPercentual(int percentual) { this.percentual = percentual; }
+
+    public long getLinhasLidas() { return linhasLidas; }
+    public void setLinhasLidas(long linhasLidas) { this.linhasLidas = linhasLidas; }
+
+    public long getLinhasValidas() { return linhasValidas; }
+    public void setLinhasValidas(long linhasValidas) { this.linhasValidas = linhasValidas; }
+
+    public long getLinhasRejeitadas() { return linhasRejeitadas; }
+    public void setLinhasRejeitadas(long linhasRejeitadas) { this.linhasRejeitadas = linhasRejeitadas; }
+
+    public long getInseridos() { return inseridos; }
+    public void setInseridos(long inseridos) { this.inseridos = inseridos; }
+
+    public long getDuplicados() { return duplicados; }
+    public void setDuplicados(long duplicados) { this.duplicados = duplicados; }
+
+    public String getMensagem() { return mensagem; }
+    public void setMensagem(String mensagem) { this.mensagem = mensagem; }
+
+    public Long getInicio() { return inicio; }
+    public void setInicio(Long inicio) { this.inicio = inicio; }
+
+    public Long getFim() { return fim; }
+    public void setFim(Long fim) { this.fim = fim; }
+
+    @Override
+    public String toString() {
+        return "ImportacaoStatusDTO{" +
+                "id='" + id + '\'' +
+                ", status=" + status +
+                ", linhasLidas=" + linhasLidas +
+                ", linhasRejeitadas=" + linhasRejeitadas +
+                ", inseridos=" + inseridos +
+                '}';
+    }
+}
@@ -0,0 +1,84 @@
+package com.creditos.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+
+/**
+ * DTO de resposta para paginação por cursor
+ * Não informa total de registros: a paginação por chave dispensa o count(*)
+ *
+ * @author Ednilton Curt Rauh
+ * @version 1.0.0
+ */
+public class PaginaCursorDTO<T> {
+
+    @JsonProperty("itens")
+    private List<T> itens;
+
+    @JsonProperty("quantidade")
+    private int quantidade;
+
+    @JsonProperty("proximoCursor")
+    private String proximoCursor;
+
+    @JsonProperty("possuiProxima")
+    private boolean possuiProxima;
+
+    /**
+     * Construtor padrão (obrigatório para Jackson)
+     */
+    public PaginaCursorDTO() {}
+
+    /**
+     * Construtor completo
+     */
+    public PaginaCursorDTO(List<T> itens, String proximoCursor) {
+        this.itens = itens;
+        this.quantidade = itens.size();
+        this.proximoCursor = proximoCursor;
+        this.possuiProxima = proximoCursor != null;
+    }
+
+    // Getters e Setters
+    public List<T> getItens() {
+        return itens;
+    }
+
+    public void setItens(List<T> itens) {
+        this.itens = itens;
+    }
+
+    public int getQuantidade() {
+        return quantidade;
+    }
+
+    public void setQuantidade(int quantidade) {
+        this.quantidade = quantidade;
+    }
+
+    public String getProximoCursor() {
+        return proximoCursor;
+    }
+
+    public void setProximoCursor(String proximoCursor) {
+        this.proximoCursor = proximoCursor;
+    }
+
+    public boolean isPossuiProxima() {
+        return possuiProxima;
+    }
+
+    public void setPossuiProxima(boolean possuiProxima) {
+        this.possuiProxima = possuiProxima;
+    }
+
+    @Override
+    public String toString() {
+        return "PaginaCursorDTO{" +
+                "quantidade=" + quantidade +
+                ", proximoCursor='" + proximoCursor + '\'' +
+                ", possuiProxima=" + possuiProxima +
+                '}';
+    }
+}
@@ -0,0 +1,129 @@
+package com.creditos.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * DTO de resposta do recálculo completo dos agregados de ISSQN
+ * Lista os grupos (tipo, Simples Nacional, mês) em que o valor armazenado divergia do recalculado
+ *
+ * @author Ednilton Curt Rauh
+ * @version 1.0.0
+ */
+public class RecalculoAgregadosDTO {
+
+    @JsonProperty("gruposArmazenados")
+    private int gruposArmazenados;
+
+    @JsonProperty("gruposRecalculados")
+    private int gruposRecalculados;
+
+    // Grupos alterados por gravações concorrentes durante o recálculo: mantidos e corrigidos no próximo
+    @JsonProperty("gruposAdiados")
+    private int gruposAdiados;
+
+    @JsonProperty("divergencias")
+    private List<Divergencia> divergencias = new ArrayList<>();
+
+    @JsonProperty("duracaoMs")
+    private long duracaoMs;
+
+    @JsonProperty("timestamp")
+    private long timestamp;
+
+    /**
+     * Construtor padrão (obrigatório para Jackson)
+     */
+    public RecalculoAgregadosDTO() {
+        this.timestamp = System.currentTimeMillis();
+    }
+
+    // Getters e Setters
+    public int getGruposArmazenados() { return gruposArmazenados; }
+    public void setGruposArmazenados(int gruposArmazenados) { this.gruposArmazenados = gruposArmazenados; }
+
+    public int getGruposRecalculados() { return gruposRecalculados; }
+    public void setGruposRecalculados(int gruposRecalculados) { this.gruposRecalculados = gruposRecalculados; }
+
+    public int getGruposAdiados() { return gruposAdiados; }
+    public void setGruposAdiados(int gruposAdiados) { this.gruposAdiados = gruposAdiados; }
+
+    public List<Divergencia> getDivergencias() { return divergencias; }
+    public void setDivergencias(List<Divergencia> divergencias) { this.divergencias = divergencias; }
+
+    public long getDuracaoMs() { return duracaoMs; }
+    public void setDuracaoMs(long duracaoMs) { this.duracaoMs = duracaoMs; }
+
+    public long getTimestamp() { return timestamp; }
+    public void setTimestamp(long timestamp) { this.timestamp = timestamp; }
+
+    /**
+     * Grupo com valores armazenados diferentes dos recalculados
+     * Grupo ausente em um dos lados aparece com quantidade zero e valor total zero
+     */
+    public static class Divergencia {
+
+        @JsonProperty("tipoCredito")
+        private String tipoCredito;
+
+        @JsonProperty("simplesNacional")
+        private boolean simplesNacional;
+
+        @JsonProperty("anoMes")
+        private String anoMes;
+
+        @JsonProperty("quantidadeArmazenada")
+        private long quantidadeArmazenada;
+
+        @JsonProperty("quantidadeRecalculada")
+        private long quantidadeRecalculada;
+
+        @JsonProperty("valorTotalArmazenado")
+        private BigDecimal valorTotalArmazenado;
+
+        @JsonProperty("valorTotalRecalculado")
+        private BigDecimal valorTotalRecalculado;
+
+        /**
+         * Construtor padrão (obrigatório para Jackson)
+         */
+        public Divergencia() {}
+
+        public Divergencia(String tipoCredito, boolean simplesNacional, String anoMes,
+                           long quantidadeArmazenada, long quantidadeRecalculada,
+                           BigDecimal valorTotalArmazenado, BigDecimal valorTotalRecalculado) {
+            this.tipoCredito = tipoCredito;
+            this.simplesNacional = simplesNacional;
+            this.anoMes = anoMes;
+            this.quantidadeArmazenada = quantidadeArmazenada;
+            this.quantidadeRecalculada = quantidadeRecalculada;
+            this.valorTotalArmazenado = valorTotalArmazenado;
+            this.valorTotalRecalculado = valorTotalRecalculado;
+        }
+
+        // Getters e Setters
+        public String getTipoCredito() { return tipoCredito; }
+        public void setTipoCredito(String tipoCredito) { this.tipoCredito = tipoCredito; }
+
+        public boolean isSimplesNacional() { return simplesNacional; }
+        public void setSimplesNacional(boolean simplesNacional) { this.simplesNacional = simplesNacional; }
+
+        public String getAnoMes() { return anoMes; }
+        public void setAnoMes(String anoMes) { this.anoMes = anoMes; }
+
+        public long getQuantidadeArmazenada() { return quantidadeArmazenada; }
+        public void setQuantidadeArmazenada(long quantidadeArmazenada) { this.quantidadeArmazenada = quantidadeArmazenada; }
+
+        public long getQuantidadeRecalculada() { return quantidadeRecalculada; }
+        public void setQuantidadeRecalculada(long quantidadeRecalculada) { this.quantidadeRecalculada = quantidadeRecalculada; }
+
+        public BigDecimal getValorTotalArmazenado() { return valorTotalArmazenado; }
+        public void setValorTotalArmazenado(BigDecimal valorTotalArmazenado) { this.valorTotalArmazenado = valorTotalArmazenado; }
+
+        public BigDecimal getValorTotalRecalculado() { return valorTotalRecalculado; }
+        public void setValorTotalRecalculado(BigDecimal valorTotalRecalculado) { this.valorTotalRecalculado = valorTotalRecalculado; }
+    }
+}
@@ -0,0 +1,46 @@
+package com.creditos.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * DTO de resposta das consultas analíticas servidas pelo snapshot colunar
+ * Informa quando o snapshot foi gerado: créditos gravados depois dele não estão incluídos
+ *
+ * @author Ednilton Curt Rauh
+ * @version 1.0.0
+ */
+public class ResultadoAnaliticoDTO<T> {
+
+    @JsonProperty("dados")
+    private T dados;
+
+    @JsonProperty("linhasSnapshot")
+    private int linhasSnapshot;
+
+    @JsonProperty("snapshotGeradoEm")
+    private long snapshotGeradoEm;
+
+    /**
+     * Construtor padrão (obrigatório para Jackson)
+     */
+    public ResultadoAnaliticoDTO() {}
+
+    /**
+     * Construtor completo
+     */
+    public ResultadoAnaliticoDTO(T dados, int linhasSnapshot, long snapshotGeradoEm) {
+        this.dados = dados;
+        this.linhasSnapshot = linhasSnapshot;
+        this.snapshotGeradoEm = snapshotGeradoEm;
+    }
+
+    // Getters e Setters
+    public T getDados() { return dados; }
+    public void setDados(T dados) { this.dados = dados; }
+
+    public int getLinhasSnapshot() { return linhasSnapshot; }
+    public void setLinhasSnapshot(int linhasSnapshot) { this.linhasSnapshot = linhasSnapshot; }
+
+    public long getSnapshotGeradoEm() { return snapshotGeradoEm; }
+    public void setSnapshotGeradoEm(long snapshotGeradoEm) { this.snapshotGeradoEm = snapshotGeradoEm; }
+}
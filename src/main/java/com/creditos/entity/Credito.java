@@ -1,8 +1,13 @@
 package com.creditos.entity;
 
+import com.creditos.util.DecimalFixo;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Type;
+
 import javax.persistence.*;
 import javax.validation.constraints.*;
 import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.time.LocalDate;
 import java.util.Objects;
 
@@ -13,32 +18,37 @@ import java.util.Objects;
  * @Entity
  * public class Credito {
  *     @Id
- *     @GeneratedValue(strategy = GenerationType.IDENTITY)
+ *     @GeneratedValue(strategy = GenerationType.SEQUENCE)
  *     private Long id;
  *     private String numeroCredito;
  *     private String numeroNfse;
  *     private LocalDate dataConstituicao;
- *     private BigDecimal valorIssqn;
+ *     private DecimalFixo valorIssqn;
  *     private String tipoCredito;
  *     private boolean simplesNacional;
- *     private BigDecimal aliquota;
- *     private BigDecimal valorFaturado;
- *     private BigDecimal valorDeducao;
- *     private BigDecimal baseCalculo;
+ *     private DecimalFixo aliquota;
+ *     private DecimalFixo valorFaturado;
+ *     private DecimalFixo valorDeducao;
+ *     private DecimalFixo baseCalculo;
  * }
  *
  * @author Ednilton Curt Rauh
  * @version 1.0.0
  */
 @Entity
-@Table(name = "credito", indexes = {
+@Table(name = "credito", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_credito_numero_credito_nfse", columnNames = {"numero_credito", "numero_nfse"})
+}, indexes = {
         @Index(name = "idx_credito_numero_nfse", columnList = "numero_nfse"),
-        @Index(name = "idx_credito_numero_credito", columnList = "numero_credito")
+        @Index(name = "idx_credito_numero_credito", columnList = "numero_credito"),
+        @Index(name = "idx_credito_data_constituicao_id", columnList = "data_constituicao, id")
 })
 public class Credito {
 
+    // Sequência com blocos (pooled-lo): habilita o batch de inserts, que IDENTITY desativa
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "credito_id")
+    @GenericGenerator(name = "credito_id", strategy = "com.creditos.entity.CreditoIdGenerator")
     private Long id;
 
     @Column(name = "numero_credito", nullable = false, length = 50)
@@ -56,9 +66,10 @@ public class Credito {
     private LocalDate dataConstituicao;
 
     @Column(name = "valor_issqn", nullable = false, precision = 15, scale = 2)
+    @Type(type = DecimalFixoType.NOME)
     @NotNull(message = "Valor do ISSQN é obrigatório")
     @DecimalMin(value = "0.0", inclusive = false, message = "Valor do ISSQN deve ser maior que zero")
-    private BigDecimal valorIssqn;
+    private DecimalFixo valorIssqn;
 
     @Column(name = "tipo_credito", nullable = false, length = 50)
     @NotBlank(message = "Tipo do crédito é obrigatório")
@@ -70,25 +81,29 @@ public class Credito {
     private Boolean simplesNacional;
 
     @Column(name = "aliquota", nullable = false, precision = 5, scale = 2)
+    @Type(type = DecimalFixoType.NOME)
     @NotNull(message = "Alíquota é obrigatória")
     @DecimalMin(value = "0.0", inclusive = false, message = "Alíquota deve ser maior que zero")
     @DecimalMax(value = "100.0", message = "Alíquota deve ser menor ou igual a 100")
-    private BigDecimal aliquota;
+    private DecimalFixo aliquota;
 
     @Column(name = "valor_faturado", nullable = false, precision = 15, scale = 2)
+    @Type(type = DecimalFixoType.NOME)
     @NotNull(message = "Valor faturado é obrigatório")
     @DecimalMin(value = "0.0", inclusive = false, message = "Valor faturado deve ser maior que zero")
-    private BigDecimal valorFaturado;
+    private DecimalFixo valorFaturado;
 
     @Column(name = "valor_deducao", nullable = false, precision = 15, scale = 2)
+    @Type(type = DecimalFixoType.NOME)
     @NotNull(message = "Valor de dedução é obrigatório")
     @DecimalMin(value = "0.0", message = "Valor de dedução deve ser maior ou igual a zero")
-    private BigDecimal valorDeducao;
+    private DecimalFixo valorDeducao;
 
     @Column(name = "base_calculo", nullable = false, precision = 15, scale = 2)
+    @Type(type = DecimalFixoType.NOME)
     @NotNull(message = "Base de cálculo é obrigatória")
     @DecimalMin(value = "0.0", inclusive = false, message = "Base de cálculo deve ser maior que zero")
-    private BigDecimal baseCalculo;
+    private DecimalFixo baseCalculo;
 
     // ================================================
     // CONSTRUTORES
@@ -103,9 +118,9 @@ public class Credito {
      * Construtor completo
      */
     public Credito(String numeroCredito, String numeroNfse, LocalDate dataConstituicao,
-                   BigDecimal valorIssqn, String tipoCredito, Boolean simplesNacional,
-                   BigDecimal aliquota, BigDecimal valorFaturado, BigDecimal valorDeducao,
-                   BigDecimal baseCalculo) {
+                   DecimalFixo valorIssqn, String tipoCredito, Boolean simplesNacional,
+                   DecimalFixo aliquota, DecimalFixo valorFaturado, DecimalFixo valorDeducao,
+                   DecimalFixo baseCalculo) {
         this.numeroCredito = numeroCredito;
         this.numeroNfse = numeroNfse;
         this.dataConstituicao = dataConstituicao;
@@ -154,11 +169,11 @@ public class Credito {
         this.dataConstituicao = dataConstituicao;
     }
 
-    public BigDecimal getValorIssqn() {
+    public DecimalFixo getValorIssqn() {
         return valorIssqn;
     }
 
-    public void setValorIssqn(BigDecimal valorIssqn) {
+    public void setValorIssqn(DecimalFixo valorIssqn) {
         this.valorIssqn = valorIssqn;
     }
 
@@ -178,35 +193,35 @@ public class Credito {
         this.simplesNacional = simplesNacional;
     }
 
-    public BigDecimal getAliquota() {
+    public DecimalFixo getAliquota() {
         return aliquota;
     }
 
-    public void setAliquota(BigDecimal aliquota) {
+    public void setAliquota(DecimalFixo aliquota) {
         this.aliquota = aliquota;
     }
 
-    public BigDecimal getValorFaturado() {
+    public DecimalFixo getValorFaturado() {
         return valorFaturado;
     }
 
-    public void setValorFaturado(BigDecimal valorFaturado) {
+    public void setValorFaturado(DecimalFixo valorFaturado) {
         this.valorFaturado = valorFaturado;
     }
 
-    public BigDecimal getValorDeducao() {
+    public DecimalFixo getValorDeducao() {
         return valorDeducao;
     }
 
-    public void setValorDeducao(BigDecimal valorDeducao) {
+    public void setValorDeducao(DecimalFixo valorDeducao) {
         this.valorDeducao = valorDeducao;
     }
 
-    public BigDecimal getBaseCalculo() {
+    public DecimalFixo getBaseCalculo() {
         return baseCalculo;
     }
 
-    public void setBaseCalculo(BigDecimal baseCalculo) {
+    public void setBaseCalculo(DecimalFixo baseCalculo) {
         this.baseCalculo = baseCalculo;
     }
 
@@ -258,11 +273,16 @@ public class Credito {
             return false;
         }
 
-        BigDecimal valorCalculado = baseCalculo
-                .multiply(aliquota)
-                .divide(new BigDecimal("100"), 2, BigDecimal.ROUND_HALF_UP);
-
-        return valorCalculado.compareTo(valorIssqn) == 0;
+        // Base (centavos) x alíquota (pontos-base) / 10000 = ISSQN em centavos, arredondado HALF_UP
+        try {
+            long produto = Math.multiplyExact(baseCalculo.getCentesimos(), aliquota.getCentesimos());
+            return DecimalFixo.deCentesimos(produto).dividir(10_000L).equals(valorIssqn);
+        } catch (ArithmeticException ex) {
+            BigDecimal valorCalculado = baseCalculo.paraBigDecimal()
+                    .multiply(aliquota.paraBigDecimal())
+                    .divide(new BigDecimal("100"), 2, RoundingMode.HALF_UP);
+            return valorCalculado.compareTo(valorIssqn.paraBigDecimal()) == 0;
+        }
     }
 
     /**
@@ -0,0 +1,44 @@
+package com.creditos.entity;
+
+import org.hibernate.MappingException;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.id.enhanced.StandardOptimizerDescriptor;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+import java.util.Properties;
+
+/**
+ * Gerador de IDs da entidade Credito baseado na sequência credito_id_seq com otimizador pooled-lo
+ *
+ * Cada chamada à sequência reserva um bloco de IDs: o valor retornado é o início do bloco e os
+ * seguintes são atribuídos em memória. Diferente de IDENTITY, o ID é conhecido antes do INSERT,
+ * o que permite ao Hibernate agrupar os inserts em batches (hibernate.jdbc.batch_size).
+ *
+ * O tamanho do bloco vem da propriedade hibernate.id.credito_tamanho_alocacao e deve ser igual ao
+ * INCREMENT BY da sequência (ajustado pela migração V3). Inserts sem ID (JDBC, COPY) continuam
+ * usando o DEFAULT nextval da coluna e apenas consomem um bloco inteiro, sem colisão.
+ *
+ * @author Ednilton Curt Rauh
+ * @version 1.0.0
+ */
+public class CreditoIdGenerator extends SequenceStyleGenerator {
+
+    public static final String NOME_SEQUENCIA = "credito_id_seq";
+    public static final String PROPRIEDADE_TAMANHO_ALOCACAO = "hibernate.id.credito_tamanho_alocacao";
+    public static final int TAMANHO_ALOCACAO_PADRAO = 50;
+
+    @Override
+    public void configure(Type type, Properties params, ServiceRegistry serviceRegistry) throws MappingException {
+        Object tamanho = serviceRegistry.getService(ConfigurationService.class)
+                .getSettings()
+                .get(PROPRIEDADE_TAMANHO_ALOCACAO);
+
+        params.setProperty(SEQUENCE_PARAM, NOME_SEQUENCIA);
+        params.setProperty(INCREMENT_PARAM, tamanho == null ? String.valueOf(TAMANHO_ALOCACAO_PADRAO) : tamanho.toString());
+        params.setProperty(OPT_PARAM, StandardOptimizerDescriptor.POOLED_LO.getExternalName());
+
+        super.configure(type, params, serviceRegistry);
+    }
+}
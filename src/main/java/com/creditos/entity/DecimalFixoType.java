@@ -0,0 +1,116 @@
+package com.creditos.entity;
+
+import com.creditos.util.DecimalFixo;
+import org.hibernate.HibernateException;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.usertype.UserType;
+
+import java.io.Serializable;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Objects;
+
+/**
+ * Mapeamento Hibernate das colunas NUMERIC de duas casas para DecimalFixo
+ *
+ * A leitura usa o texto da coluna (o driver do PostgreSQL recebe NUMERIC como texto) e o converte
+ * direto em centésimos, sem o BigDecimal/BigInteger intermediário de getBigDecimal. A gravação
+ * continua por setBigDecimal: é a borda com o banco e fica fora do caminho das consultas.
+ *
+ * Também vale para parâmetros JPQL comparados a esses atributos e para SUM/MIN/MAX, que devolvem
+ * o tipo do atributo (AVG continua devolvendo Double).
+ *
+ * @author Ednilton Curt Rauh
+ * @version 1.0.0
+ */
+public class DecimalFixoType implements UserType {
+
+    public static final String NOME = "com.creditos.entity.DecimalFixoType";
+
+    private static final int[] TIPOS_SQL = {Types.NUMERIC};
+
+    @Override
+    public int[] sqlTypes() {
+        return TIPOS_SQL;
+    }
+
+    @Override
+    public Class<DecimalFixo> returnedClass() {
+        return DecimalFixo.class;
+    }
+
+    @Override
+    public Object nullSafeGet(ResultSet rs, String[] names, SharedSessionContractImplementor session, Object owner)
+            throws SQLException {
+        try {
+            return ler(rs.getString(names[0]));
+        } catch (NumberFormatException ex) {
+            throw new HibernateException("Valor da coluna " + names[0] + " não cabe em DecimalFixo", ex);
+        }
+    }
+
+    @Override
+    public void nullSafeSet(PreparedStatement st, Object value, int index, SharedSessionContractImplementor session)
+            throws SQLException {
+        if (value == null) {
+            st.setNull(index, Types.NUMERIC);
+        } else {
+            st.setBigDecimal(index, ((DecimalFixo) value).paraBigDecimal());
+        }
+    }
+
+    /**
+     * Lê uma coluna NUMERIC pelo texto (também usado pelas leituras via JdbcTemplate)
+     *
+     * @return Valor ou null se a coluna for nula
+     * @throws NumberFormatException se tiver mais de duas casas decimais ou exceder o long
+     */
+    public static DecimalFixo ler(ResultSet rs, int coluna) throws SQLException {
+        return ler(rs.getString(coluna));
+    }
+
+    private static DecimalFixo ler(String texto) {
+        return texto != null ? DecimalFixo.parse(texto) : null;
+    }
+
+    // ================================================
+    // TIPO IMUTÁVEL
+    // ================================================
+
+    @Override
+    public boolean equals(Object x, Object y) {
+        return Objects.equals(x, y);
+    }
+
+    @Override
+    public int hashCode(Object x) {
+        return Objects.hashCode(x);
+    }
+
+    @Override
+    public Object deepCopy(Object value) {
+        return value;
+    }
+
+    @Override
+    public boolean isMutable() {
+        return false;
+    }
+
+    @Override
+    public Serializable disassemble(Object value) {
+        return (Serializable) value;
+    }
+
+    @Override
+    public Object assemble(Serializable cached, Object owner) {
+        return cached;
+    }
+
+    @Override
+    public Object replace(Object original, Object target, Object owner) {
+        return original;
+    }
+}
@@ -3,14 +3,41 @@ package com.creditos.exception;
 /**
  * Classe geral para lançar todos os tipos de erros do sistema de créditos
  * Centraliza a criação de exceções com factory methods simples
+ *
+ * Erros de negócio (4xx) são criados sem stack trace, pois fazem parte do fluxo normal
+ * (consultas sem resultado, números inválidos), assim como as respostas 503 (sobrecarga, índice
+ * em construção).
+ * Apenas erroInterno mantém a pilha completa.
  */
 public class CreditoException extends CreditoExceptionBase {
 
+    // Mensagens compartilhadas entre todas as instâncias
+    private static final String MSG_CREDITO_NAO_ENCONTRADO = "Crédito ISSQN não localizado no sistema";
+    private static final String MSG_NFSE_SEM_CREDITOS = "Não foram encontrados créditos constituídos para esta NFS-e";
+    private static final String MSG_NUMERO_CREDITO_INVALIDO = "Número do crédito informado é inválido: ";
+    private static final String MSG_NUMERO_NFSE_INVALIDO = "Número da NFS-e informado é inválido: ";
+    private static final String MSG_PARAMETRO_INVALIDO = "Parâmetro informado é inválido: ";
+    private static final String MSG_IMPORTACAO_NAO_ENCONTRADA = "Importação não localizada ou já expirada";
+    private static final String MSG_AUDITORIA_NAO_ENCONTRADA = "Auditoria não localizada ou já expirada";
+    private static final String MSG_SERVICO_SOBRECARREGADO =
+            "Serviço temporariamente sobrecarregado. Tente novamente em alguns instantes";
+    private static final String MSG_INDICE_INDISPONIVEL =
+            "Índice de busca em construção. Tente novamente em alguns instantes";
+    private static final String MSG_TEMPO_ESGOTADO =
+            "Tempo limite da consulta esgotado. Tente novamente em alguns instantes";
+    private static final String MSG_ERRO_INTERNO =
+            "Erro interno na consulta de créditos. Tente novamente em alguns instantes";
+
     private final int httpStatus;
 
     private CreditoException(String codigoErro, String tipoErro, String mensagemUsuario,
                              String parametro, String valor, int httpStatus) {
-        super(codigoErro, tipoErro, mensagemUsuario, parametro, valor);
+        this(codigoErro, tipoErro, mensagemUsuario, parametro, valor, httpStatus, httpStatus >= 500);
+    }
+
+    private CreditoException(String codigoErro, String tipoErro, String mensagemUsuario,
+                             String parametro, String valor, int httpStatus, boolean comPilha) {
+        super(codigoErro, tipoErro, mensagemUsuario, parametro, valor, comPilha);
         this.httpStatus = httpStatus;
     }
 
@@ -28,7 +55,7 @@ public class CreditoException extends CreditoExceptionBase {
         return new CreditoException(
                 "CRED_001",
                 "CREDITO_NAO_ENCONTRADO",
-                "Crédito ISSQN não localizado no sistema",
+                MSG_CREDITO_NAO_ENCONTRADO,
                 "numeroCredito",
                 numeroCredito,
                 404
@@ -42,7 +69,7 @@ public class CreditoException extends CreditoExceptionBase {
         return new CreditoException(
                 "NFSE_001",
                 "NFSE_SEM_CREDITOS",
-                "Não foram encontrados créditos constituídos para esta NFS-e",
+                MSG_NFSE_SEM_CREDITOS,
                 "numeroNfse",
                 numeroNfse,
                 404
@@ -56,7 +83,7 @@ public class CreditoException extends CreditoExceptionBase {
         return new CreditoException(
                 "PARAM_001",
                 "PARAMETRO_INVALIDO",
-                "Número do crédito informado é inválido: " + motivo,
+                MSG_NUMERO_CREDITO_INVALIDO + motivo,
                 "numeroCredito",
                 numeroCredito,
                 400
@@ -70,13 +97,102 @@ public class CreditoException extends CreditoExceptionBase {
         return new CreditoException(
                 "PARAM_002",
                 "PARAMETRO_INVALIDO",
-                "Número da NFS-e informado é inválido: " + motivo,
+                MSG_NUMERO_NFSE_INVALIDO + motivo,
                 "numeroNfse",
                 numeroNfse,
                 400
         );
     }
 
+    /**
+     * Parâmetro de consulta inválido (paginação, cursor, filtros)
+     */
+    public static CreditoException parametroInvalido(String parametro, String valor, String motivo) {
+        return new CreditoException(
+                "PARAM_003",
+                "PARAMETRO_INVALIDO",
+                MSG_PARAMETRO_INVALIDO + motivo,
+                parametro,
+                valor,
+                400
+        );
+    }
+
+    /**
+     * Importação em massa não encontrada
+     */
+    public static CreditoException importacaoNaoEncontrada(String id) {
+        return new CreditoException(
+                "IMP_001",
+                "IMPORTACAO_NAO_ENCONTRADA",
+                MSG_IMPORTACAO_NAO_ENCONTRADA,
+                "id",
+                id,
+                404
+        );
+    }
+
+    /**
+     * Auditoria de consistência não encontrada
+     */
+    public static CreditoException auditoriaNaoEncontrada(String id) {
+        return new CreditoException(
+                "AUD_001",
+                "AUDITORIA_NAO_ENCONTRADA",
+                MSG_AUDITORIA_NAO_ENCONTRADA,
+                "id",
+                id,
+                404
+        );
+    }
+
+    /**
+     * Compartimento de execução saturado (fila cheia)
+     * Criado sem pilha: sob sobrecarga, cada rejeição precisa ser barata
+     */
+    public static CreditoException servicoSobrecarregado(String compartimento) {
+        return new CreditoException(
+                "SYS_002",
+                "SERVICO_SOBRECARREGADO",
+                MSG_SERVICO_SOBRECARREGADO,
+                "compartimento",
+                compartimento,
+                503,
+                false
+        );
+    }
+
+    /**
+     * Índice em memória ainda não construído (inicialização) ou desabilitado
+     */
+    public static CreditoException indiceIndisponivel(String indice) {
+        return new CreditoException(
+                "SYS_003",
+                "INDICE_INDISPONIVEL",
+                MSG_INDICE_INDISPONIVEL,
+                "indice",
+                indice,
+                503,
+                false
+        );
+    }
+
+    /**
+     * Requisição assíncrona sem resposta dentro de spring.mvc.async.request-timeout
+     * Criado sem pilha, como as demais rejeições por sobrecarga
+     */
+    public static CreditoException tempoEsgotado(String requisicao) {
+        return new CreditoException(
+                "SYS_004",
+                "TEMPO_ESGOTADO",
+                MSG_TEMPO_ESGOTADO,
+                "requisicao",
+                requisicao,
+                503,
+                false
+        );
+    }
+
     /**
      * Erro interno do sistema
      */
@@ -84,7 +200,7 @@ public class CreditoException extends CreditoExceptionBase {
         return new CreditoException(
                 "SYS_001",
                 "ERRO_INTERNO",
-                "Erro interno na consulta de créditos. Tente novamente em alguns instantes",
+                MSG_ERRO_INTERNO,
                 null,
                 detalhes,
                 500
@@ -1,10 +1,16 @@
 package com.creditos.exception;
 
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 
 /**
  * Classe abstrata base para todas as exceções do sistema de créditos ISSQN
  * Fornece estrutura comum e comportamentos básicos
+ *
+ * Erros de negócio esperados (não encontrado, parâmetro inválido) podem ser criados sem pilha de
+ * chamadas: o preenchimento do stack trace é a parte mais cara da exceção e não traz informação
+ * útil para esses casos. O timestamp é guardado em milissegundos e convertido só quando lido.
  */
 public abstract class CreditoExceptionBase extends RuntimeException {
 
@@ -13,17 +19,27 @@ public abstract class CreditoExceptionBase extends RuntimeException {
     private final String mensagemUsuario;
     private final String parametro;
     private final String valor;
-    private final LocalDateTime timestamp;
+    private final long instanteMillis;
+    private LocalDateTime timestamp;
 
     protected CreditoExceptionBase(String codigoErro, String tipoErro, String mensagemUsuario,
                                    String parametro, String valor) {
-        super(mensagemUsuario);
+        this(codigoErro, tipoErro, mensagemUsuario, parametro, valor, true);
+    }
+
+    /**
+     * @param comPilha false para erros de negócio esperados: não preenche o stack trace
+     *                 nem registra exceções suprimidas
+     */
+    protected CreditoExceptionBase(String codigoErro, String tipoErro, String mensagemUsuario,
+                                   String parametro, String valor, boolean comPilha) {
+        super(mensagemUsuario, null, comPilha, comPilha);
         this.codigoErro = codigoErro;
         this.tipoErro = tipoErro;
         this.mensagemUsuario = mensagemUsuario;
         this.parametro = parametro;
         this.valor = valor;
-        this.timestamp = LocalDateTime.now();
+        this.instanteMillis = System.currentTimeMillis();
     }
 
     // Getters
@@ -32,7 +48,20 @@ public abstract class CreditoExceptionBase extends RuntimeException {
     public String getMensagemUsuario() { return mensagemUsuario; }
     public String getParametro() { return parametro; }
     public String getValor() { return valor; }
-    public LocalDateTime getTimestamp() { return timestamp; }
+    public long getInstanteMillis() { return instanteMillis; }
+
+    /**
+     * Data e hora da criação no fuso padrão, calculada na primeira leitura
+     * (a corrida entre threads é benigna: o valor calculado é sempre o mesmo)
+     */
+    public LocalDateTime getTimestamp() {
+        LocalDateTime valorCalculado = timestamp;
+        if (valorCalculado == null) {
+            valorCalculado = Instant.ofEpochMilli(instanteMillis).atZone(ZoneId.systemDefault()).toLocalDateTime();
+            timestamp = valorCalculado;
+        }
+        return valorCalculado;
+    }
 
     /**
      * Retorna o HTTP status code apropriado para cada tipo de erro
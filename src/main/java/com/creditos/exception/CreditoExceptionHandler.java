@@ -0,0 +1,90 @@
+package com.creditos.exception;
+
+import com.creditos.util.LoggingUtils;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.context.request.async.AsyncRequestTimeoutException;
+
+import javax.servlet.http.HttpServletRequest;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Converte as exceções do sistema de créditos na resposta HTTP com o status de cada erro
+ *
+ * Vale também para os endpoints assíncronos: o Spring MVC desembrulha a CompletionException
+ * do CompletableFuture e entrega a CreditoException original a este handler.
+ *
+ * O tempo limite das requisições assíncronas (AsyncRequestTimeoutException) vira
+ * CreditoException.tempoEsgotado, com o mesmo corpo e status 503 das demais rejeições.
+ *
+ * Respostas 503 (compartimento saturado ou tempo esgotado) levam o cabeçalho Retry-After, para que clientes e
+ * balanceadores tentem novamente em outra instância ou após uma pausa curta.
+ *
+ * Métricas expostas:
+ * - creditos.erros{codigo, tipo, status}: respostas de erro por código (ex.: CRED_001, PARAM_002, SYS_001)
+ *
+ * @author Ednilton Curt Rauh
+ * @version 1.0.0
+ */
+@RestControllerAdvice
+public class CreditoExceptionHandler {
+
+    private static final Logger logger = LoggerFactory.getLogger(CreditoExceptionHandler.class);
+
+    private static final String RETRY_AFTER_SEGUNDOS = "1";
+
+    private final MeterRegistry meterRegistry;
+
+    @Autowired
+    public CreditoExceptionHandler(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @ExceptionHandler(AsyncRequestTimeoutException.class)
+    public ResponseEntity<Map<String, Object>> tratarTempoEsgotado(AsyncRequestTimeoutException ex,
+                                                                   HttpServletRequest request) {
+        return tratarCreditoException(CreditoException.tempoEsgotado(request.getRequestURI()));
+    }
+
+    @ExceptionHandler(CreditoExceptionBase.class)
+    public ResponseEntity<Map<String, Object>> tratarCreditoException(CreditoExceptionBase ex) {
+        Counter.builder("creditos.erros")
+                .description("Respostas de erro por código")
+                .tag("codigo", ex.getCodigoErro())
+                .tag("tipo", ex.getTipoErro())
+                .tag("status", String.valueOf(ex.getHttpStatus()))
+                .register(meterRegistry)
+                .increment();
+
+        if (ex.deveLogar() && LoggingUtils.deveUsarLogError(ex)) {
+            LoggingUtils.logErroException(logger, ex, null);
+        } else {
+            logger.debug("RESPOSTA_ERRO | Código: {} | Parâmetro: {} | Valor: {}",
+                    ex.getCodigoErro(), ex.getParametro(), ex.getValor());
+        }
+
+        Map<String, Object> corpo = new LinkedHashMap<>();
+        corpo.put("status", ex.getHttpStatus());
+        corpo.put("codigoErro", ex.getCodigoErro());
+        corpo.put("tipoErro", ex.getTipoErro());
+        corpo.put("mensagem", ex.getMensagemUsuario());
+        corpo.put("parametro", ex.getParametro());
+        corpo.put("timestamp", ex.getTimestamp());
+
+        ResponseEntity.BodyBuilder resposta = ResponseEntity.status(ex.getHttpStatus())
+                .contentType(MediaType.APPLICATION_JSON);
+        if (ex.getHttpStatus() == 503) {
+            resposta.header(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SEGUNDOS);
+        }
+        return resposta.body(corpo);
+    }
+}
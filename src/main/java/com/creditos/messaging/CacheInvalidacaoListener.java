@@ -0,0 +1,60 @@
+package com.creditos.messaging;
+
+import com.creditos.cache.InvalidacaoCache;
+import com.creditos.config.KafkaCacheInvalidacaoConfig;
+import com.creditos.dto.CacheInvalidacaoEventoDTO;
+import com.creditos.util.LoggingUtils;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Consumidor dos eventos de invalidação de cache publicados pelas instâncias da aplicação
+ *
+ * O group id é o prefixo configurado seguido do identificador da instância, para que cada
+ * instância receba todos os eventos e remova as chaves do seu cache local. Como o identificador
+ * muda a cada processo, nenhum offset é confirmado (KafkaCacheInvalidacaoConfig) e o grupo deixa
+ * de existir no broker quando a instância é encerrada.
+ *
+ * @author Ednilton Curt Rauh
+ * @version 1.0.0
+ */
+@Component
+public class CacheInvalidacaoListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(CacheInvalidacaoListener.class);
+
+    private final InvalidacaoCache invalidacaoCache;
+
+    @Autowired
+    public CacheInvalidacaoListener(InvalidacaoCache invalidacaoCache) {
+        this.invalidacaoCache = invalidacaoCache;
+    }
+
+    /**
+     * Identificador da instância, usado no group id do consumidor
+     */
+    public String getInstancia() {
+        return invalidacaoCache.getInstancia();
+    }
+
+    @KafkaListener(
+            id = "cache-invalidacao",
+            idIsGroup = false,
+            groupId = "${app.cache.invalidacao.group-id-prefixo:consulta-creditos-cache}-#{__listener.instancia}",
+            topics = "${app.kafka.topics.cache-invalidacao}",
+            containerFactory = KafkaCacheInvalidacaoConfig.CONTAINER_FACTORY,
+            autoStartup = "${app.cache.invalidacao.habilitada:true}")
+    public void receber(ConsumerRecord<String, CacheInvalidacaoEventoDTO> registro) {
+        if (registro.value() == null) {
+            LoggingUtils.logErroValidacao(logger, "mensagem",
+                    registro.topic() + "-" + registro.partition() + "@" + registro.offset(),
+                    "conteúdo não pôde ser lido como evento de invalidação");
+            return;
+        }
+        invalidacaoCache.aplicar(registro.value());
+    }
+}
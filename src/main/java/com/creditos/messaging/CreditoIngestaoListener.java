@@ -0,0 +1,65 @@
+package com.creditos.messaging;
+
+import com.creditos.config.KafkaIngestaoConfig;
+import com.creditos.dto.CreditoEventoDTO;
+import com.creditos.service.CreditoIngestaoService;
+import com.creditos.util.LoggingUtils;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Consumidor dos eventos de ingestão de créditos
+ *
+ * Recebe o lote do poll, descarta mensagens que não puderam ser desserializadas e entrega o
+ * restante ao CreditoIngestaoService. O offset só é confirmado depois que o service retorna,
+ * ou seja, depois do commit no banco; se o service falhar, o lote é reprocessado.
+ *
+ * @author Ednilton Curt Rauh
+ * @version 1.0.0
+ */
+@Component
+public class CreditoIngestaoListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(CreditoIngestaoListener.class);
+
+    private final CreditoIngestaoService ingestaoService;
+
+    @Autowired
+    public CreditoIngestaoListener(CreditoIngestaoService ingestaoService) {
+        this.ingestaoService = ingestaoService;
+    }
+
+    @KafkaListener(
+            id = "credito-ingestao",
+            idIsGroup = false,
+            groupId = "${app.kafka.ingestao.group-id:consulta-creditos-ingestao}",
+            topics = "${app.kafka.topics.credito-ingestao}",
+            containerFactory = KafkaIngestaoConfig.CONTAINER_FACTORY,
+            autoStartup = "${app.kafka.ingestao.habilitada:true}")
+    public void receber(List<ConsumerRecord<String, CreditoEventoDTO>> registros, Acknowledgment ack) {
+        List<CreditoEventoDTO> eventos = new ArrayList<>(registros.size());
+
+        for (ConsumerRecord<String, CreditoEventoDTO> registro : registros) {
+            if (registro.value() == null) {
+                LoggingUtils.logErroValidacao(logger, "mensagem",
+                        registro.topic() + "-" + registro.partition() + "@" + registro.offset(),
+                        "conteúdo não pôde ser lido como evento de crédito");
+                continue;
+            }
+            eventos.add(registro.value());
+        }
+
+        if (!eventos.isEmpty()) {
+            ingestaoService.ingerir(eventos);
+        }
+        ack.acknowledge();
+    }
+}
@@ -0,0 +1,45 @@
+package com.creditos.metricas;
+
+/**
+ * Nome da operação (método do repositório) em execução na thread, usado para identificar os
+ * comandos SQL nas estatísticas
+ *
+ * O MetricasAspect define o nome ao redor de cada chamada ao CreditoRepository; comandos
+ * executados fora do repositório (JdbcTemplate, COPY) aparecem como "jdbc".
+ *
+ * @author Ednilton Curt Rauh
+ * @version 1.0.0
+ */
+public final class ContextoSql {
+
+    static final String SEM_OPERACAO = "jdbc";
+
+    private static final ThreadLocal<String> OPERACAO = new ThreadLocal<>();
+
+    private ContextoSql() {
+    }
+
+    /**
+     * Define a operação corrente
+     *
+     * @return Operação anterior, a ser restaurada ao final
+     */
+    public static String definir(String operacao) {
+        String anterior = OPERACAO.get();
+        OPERACAO.set(operacao);
+        return anterior;
+    }
+
+    public static void restaurar(String anterior) {
+        if (anterior == null) {
+            OPERACAO.remove();
+        } else {
+            OPERACAO.set(anterior);
+        }
+    }
+
+    public static String atual() {
+        String operacao = OPERACAO.get();
+        return operacao != null ? operacao : SEM_OPERACAO;
+    }
+}
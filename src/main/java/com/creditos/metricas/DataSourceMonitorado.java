@@ -0,0 +1,274 @@
+package com.creditos.metricas;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * DataSource que mede cada comando SQL e entrega os números às EstatisticasSql
+ *
+ * Conexões, statements e result sets são envolvidos por proxies (java.lang.reflect.Proxy) que
+ * repassam todas as chamadas ao driver e registram:
+ * - tempo de execução (execute*), por comando
+ * - parâmetros vinculados (set*), usados apenas no log de comandos lentos
+ * - tempo de fetch e linhas lidas (ResultSet.next), consolidados ao fechar o ResultSet ou o statement
+ * - linhas alteradas (executeUpdate, executeBatch)
+ *
+ * unwrap() devolve os objetos do driver, então o COPY da importação (PGConnection) e as métricas
+ * do pool (Hikari) continuam funcionando.
+ *
+ * @author Ednilton Curt Rauh
+ * @version 1.0.0
+ */
+public class DataSourceMonitorado extends DelegatingDataSource {
+
+    private final EstatisticasSql estatisticas;
+
+    public DataSourceMonitorado(DataSource delegate, EstatisticasSql estatisticas) {
+        super(delegate);
+        this.estatisticas = estatisticas;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return monitorar(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return monitorar(super.getConnection(username, password));
+    }
+
+    private Connection monitorar(Connection conexao) {
+        return proxy(Connection.class, new ConexaoMonitorada(conexao));
+    }
+
+    // ================================================
+    // PROXIES JDBC
+    // ================================================
+
+    private static <T> T proxy(Class<T> tipo, InvocationHandler handler) {
+        return tipo.cast(Proxy.newProxyInstance(DataSourceMonitorado.class.getClassLoader(),
+                new Class<?>[]{tipo}, handler));
+    }
+
+    /**
+     * Base dos proxies: repassa a chamada ao objeto do driver e trata unwrap/isWrapperFor
+     */
+    private abstract static class Repasse implements InvocationHandler {
+        final Object alvo;
+
+        Repasse(Object alvo) {
+            this.alvo = alvo;
+        }
+
+        Object repassar(Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(alvo, args);
+            } catch (InvocationTargetException ex) {
+                throw ex.getCause();
+            }
+        }
+
+        Object tratarWrapper(Object proxy, Method method, Object[] args) throws Throwable {
+            Class<?> tipo = (Class<?>) args[0];
+            if ("unwrap".equals(method.getName())) {
+                return tipo.isInstance(alvo) ? alvo : repassar(method, args);
+            }
+            return tipo.isInstance(alvo) || (Boolean) repassar(method, args);
+        }
+
+        static boolean ehWrapper(Method method) {
+            return ("unwrap".equals(method.getName()) || "isWrapperFor".equals(method.getName()))
+                    && method.getParameterCount() == 1;
+        }
+    }
+
+    private final class ConexaoMonitorada extends Repasse {
+
+        ConexaoMonitorada(Connection conexao) {
+            super(conexao);
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (ehWrapper(method)) {
+                return tratarWrapper(proxy, method, args);
+            }
+            Object resultado = repassar(method, args);
+            switch (method.getName()) {
+                case "prepareStatement":
+                    return proxy(PreparedStatement.class,
+                            new StatementMonitorado((Statement) resultado, (String) args[0]));
+                case "prepareCall":
+                    return proxy(CallableStatement.class,
+                            new StatementMonitorado((Statement) resultado, (String) args[0]));
+                case "createStatement":
+                    return proxy(Statement.class, new StatementMonitorado((Statement) resultado, null));
+                default:
+                    return resultado;
+            }
+        }
+    }
+
+    private final class StatementMonitorado extends Repasse {
+        private final String sql;
+        private final List<Object> parametros = new ArrayList<>();
+        private Execucao emAndamento;
+
+        StatementMonitorado(Statement statement, String sql) {
+            super(statement);
+            this.sql = sql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (ehWrapper(method)) {
+                return tratarWrapper(proxy, method, args);
+            }
+            String nome = method.getName();
+            if (nome.startsWith("execute")) {
+                return executar(nome, method, args);
+            }
+            if (nome.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer) {
+                vincular((Integer) args[0], "setNull".equals(nome) ? null : args[1]);
+            } else if ("clearParameters".equals(nome)) {
+                parametros.clear();
+            } else if ("close".equals(nome)) {
+                finalizarEmAndamento();
+            }
+            return repassar(method, args);
+        }
+
+        private Object executar(String nome, Method method, Object[] args) throws Throwable {
+            finalizarEmAndamento();
+            String comando = args != null && args.length > 0 && args[0] instanceof String ? (String) args[0] : sql;
+            Execucao execucao = new Execucao(ContextoSql.atual(), comando,
+                    parametros.isEmpty() ? Collections.emptyList() : new ArrayList<>(parametros));
+
+            long inicio = System.nanoTime();
+            Object resultado;
+            try {
+                resultado = repassar(method, args);
+            } catch (Throwable ex) {
+                execucao.execucaoNanos = System.nanoTime() - inicio;
+                execucao.finalizar();
+                throw ex;
+            }
+            execucao.execucaoNanos = System.nanoTime() - inicio;
+
+            if (resultado instanceof ResultSet) {
+                // O fetch acontece depois, no ResultSet; a execução é registrada ao fechá-lo
+                emAndamento = execucao;
+                return proxy(ResultSet.class, new ResultSetMonitorado((ResultSet) resultado, execucao));
+            }
+            execucao.linhas = linhasAlteradas(nome, resultado);
+            execucao.finalizar();
+            return resultado;
+        }
+
+        private void vincular(int indice, Object valor) {
+            while (parametros.size() < indice) {
+                parametros.add(null);
+            }
+            parametros.set(indice - 1, valor);
+        }
+
+        private void finalizarEmAndamento() {
+            if (emAndamento != null) {
+                emAndamento.finalizar();
+                emAndamento = null;
+            }
+        }
+    }
+
+    private static long linhasAlteradas(String metodo, Object resultado) {
+        if (resultado instanceof Number && metodo.contains("Update")) {
+            return Math.max(0, ((Number) resultado).longValue());
+        }
+        long total = 0;
+        if (resultado instanceof int[]) {
+            for (int quantidade : (int[]) resultado) {
+                total += Math.max(0, quantidade);
+            }
+        } else if (resultado instanceof long[]) {
+            for (long quantidade : (long[]) resultado) {
+                total += Math.max(0, quantidade);
+            }
+        }
+        return total;
+    }
+
+    private static final class ResultSetMonitorado extends Repasse {
+        private final Execucao execucao;
+
+        ResultSetMonitorado(ResultSet resultSet, Execucao execucao) {
+            super(resultSet);
+            this.execucao = execucao;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (ehWrapper(method)) {
+                return tratarWrapper(proxy, method, args);
+            }
+            String nome = method.getName();
+            if ("next".equals(nome)) {
+                long inicio = System.nanoTime();
+                Object temLinha = repassar(method, args);
+                execucao.fetchNanos += System.nanoTime() - inicio;
+                if (Boolean.TRUE.equals(temLinha)) {
+                    execucao.linhas++;
+                }
+                return temLinha;
+            }
+            if ("close".equals(nome)) {
+                try {
+                    return repassar(method, args);
+                } finally {
+                    execucao.finalizar();
+                }
+            }
+            return repassar(method, args);
+        }
+    }
+
+    /**
+     * Números de uma execução; registrada uma única vez, ao final do fetch
+     */
+    private final class Execucao {
+        private final String operacao;
+        private final String sql;
+        private final List<Object> parametros;
+        private long execucaoNanos;
+        private long fetchNanos;
+        private long linhas;
+        private boolean finalizada;
+
+        private Execucao(String operacao, String sql, List<Object> parametros) {
+            this.operacao = operacao;
+            this.sql = sql;
+            this.parametros = parametros;
+        }
+
+        private void finalizar() {
+            if (!finalizada) {
+                finalizada = true;
+                estatisticas.registrar(operacao, sql, execucaoNanos, fetchNanos, linhas, parametros);
+            }
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package com.creditos.metricas;
+
+import com.creditos.dto.EstatisticaSqlDTO;
+import com.creditos.exception.CreditoException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Estatísticas dos comandos SQL executados pela aplicação, por operação e texto do comando
+ *
+ * Alimentada pelo DataSourceMonitorado: para cada execução, tempo de execução, tempo de fetch
+ * e linhas lidas ou alteradas. Comandos acima do limite de lentidão são registrados em log com os
+ * parâmetros, por amostragem (evita inundar o log quando o banco inteiro fica lento).
+ *
+ * A quantidade de comandos distintos é limitada; acima do limite, os novos são somados em
+ * uma entrada única por operação.
+ *
+ * @author Ednilton Curt Rauh
+ * @version 1.0.0
+ */
+@Component
+public class EstatisticasSql {
+
+    private static final Logger logger = LoggerFactory.getLogger(EstatisticasSql.class);
+
+    static final String OUTROS_COMANDOS = "(outros comandos)";
+
+    private static final int TAMANHO_MAXIMO_LOG = 2000;
+
+    private final long limiteLentaNanos;
+    private final double amostragemLog;
+    private final int maximoComandos;
+
+    private final ConcurrentMap<String, Estatistica> estatisticas = new ConcurrentHashMap<>();
+
+    @Autowired
+    public EstatisticasSql(@Value("${app.sql.limite-lenta:500ms}") Duration limiteLenta,
+                           @Value("${app.sql.amostragem-log:0.1}") double amostragemLog,
+                           @Value("${app.sql.maximo-comandos:500}") int maximoComandos) {
+        this.limiteLentaNanos = limiteLenta.toNanos();
+        this.amostragemLog = amostragemLog;
+        this.maximoComandos = maximoComandos;
+    }
+
+    /**
+     * Registra uma execução
+     *
+     * @param operacao Método do repositório (ContextoSql) ou "jdbc"
+     * @param sql Texto do comando
+     * @param execucaoNanos Tempo de execução
+     * @param fetchNanos Tempo percorrendo o ResultSet (0 para comandos sem resultado)
+     * @param linhas Linhas lidas ou alteradas
+     * @param parametros Parâmetros vinculados, usados apenas no log de comandos lentos
+     */
+    public void registrar(String operacao, String sql, long execucaoNanos, long fetchNanos,
+                          long linhas, List<Object> parametros) {
+        long totalNanos = execucaoNanos + fetchNanos;
+        boolean lenta = totalNanos > limiteLentaNanos;
+
+        estatistica(operacao, sql).acumular(execucaoNanos, fetchNanos, linhas, lenta);
+
+        if (lenta && ThreadLocalRandom.current().nextDouble() < amostragemLog) {
+            logger.warn("SQL_LENTO | Operação: {} | Tempo: {}ms | Fetch: {}ms | Linhas: {} | SQL: {} | Parâmetros: {}",
+                    operacao, TimeUnit.NANOSECONDS.toMillis(totalNanos), TimeUnit.NANOSECONDS.toMillis(fetchNanos),
+                    linhas, truncar(sql), truncar(String.valueOf(parametros)));
+        }
+    }
+
+    /**
+     * Comandos mais lentos
+     *
+     * @param ordem maximo (tempo máximo), medio (tempo médio) ou total (tempo acumulado)
+     * @param limite Quantidade máxima de comandos
+     */
+    public List<EstatisticaSqlDTO> maisLentas(String ordem, int limite) {
+        Comparator<EstatisticaSqlDTO> comparador = comparador(ordem);
+        if (limite < 1) {
+            throw CreditoException.parametroInvalido("limite", String.valueOf(limite), "deve ser maior que zero");
+        }
+
+        List<EstatisticaSqlDTO> resultado = new ArrayList<>(estatisticas.size());
+        for (Estatistica estatistica : estatisticas.values()) {
+            resultado.add(estatistica.paraDTO());
+        }
+        resultado.sort(comparador.reversed());
+        return resultado.size() > limite ? new ArrayList<>(resultado.subList(0, limite)) : resultado;
+    }
+
+    /**
+     * Descarta as estatísticas acumuladas (ex.: após um deploy ou criação de índice)
+     */
+    public void limpar() {
+        estatisticas.clear();
+    }
+
+    // ================================================
+    // MÉTODOS AUXILIARES
+    // ================================================
+
+    private Estatistica estatistica(String operacao, String sql) {
+        String chave = operacao + '\n' + sql;
+        Estatistica estatistica = estatisticas.get(chave);
+        if (estatistica != null) {
+            return estatistica;
+        }
+        if (estatisticas.size() >= maximoComandos) {
+            return estatisticas.computeIfAbsent(operacao + '\n' + OUTROS_COMANDOS,
+                    k -> new Estatistica(operacao, OUTROS_COMANDOS));
+        }
+        return estatisticas.computeIfAbsent(chave, k -> new Estatistica(operacao, sql));
+    }
+
+    private static Comparator<EstatisticaSqlDTO> comparador(String ordem) {
+        if ("maximo".equalsIgnoreCase(ordem)) {
+            return Comparator.comparingDouble(EstatisticaSqlDTO::getTempoMaximoMs);
+        }
+        if ("medio".equalsIgnoreCase(ordem)) {
+            return Comparator.comparingDouble(EstatisticaSqlDTO::getTempoMedioMs);
+        }
+        if ("total".equalsIgnoreCase(ordem)) {
+            return Comparator.comparingDouble(EstatisticaSqlDTO::getTempoTotalMs);
+        }
+        throw CreditoException.parametroInvalido("ordem", ordem, "use maximo, medio ou total");
+    }
+
+    private static String truncar(String texto) {
+        return texto.length() > TAMANHO_MAXIMO_LOG ? texto.substring(0, TAMANHO_MAXIMO_LOG) + "..." : texto;
+    }
+
+    private static double milissegundos(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    /**
+     * Acumuladores de um comando; LongAdder evita disputa entre as threads que executam o mesmo SQL
+     */
+    private static final class Estatistica {
+        private final String operacao;
+        private final String sql;
+        private final LongAdder execucoes = new LongAdder();
+        private final LongAdder lentas = new LongAdder();
+        private final LongAdder tempoTotalNanos = new LongAdder();
+        private final LongAdder tempoFetchNanos = new LongAdder();
+        private final LongAdder linhas = new LongAdder();
+        private final AtomicLong tempoMaximoNanos = new AtomicLong();
+
+        private Estatistica(String operacao, String sql) {
+            this.operacao = operacao;
+            this.sql = sql;
+        }
+
+        private void acumular(long execucaoNanos, long fetchNanos, long quantidadeLinhas, boolean lenta) {
+            long total = execucaoNanos + fetchNanos;
+            execucoes.increment();
+            tempoTotalNanos.add(total);
+            tempoFetchNanos.add(fetchNanos);
+            linhas.add(quantidadeLinhas);
+            if (lenta) {
+                lentas.increment();
+            }
+            if (total > tempoMaximoNanos.get()) {
+                tempoMaximoNanos.accumulateAndGet(total, Math::max);
+            }
+        }
+
+        private EstatisticaSqlDTO paraDTO() {
+            long quantidade = execucoes.sum();
+            long total = tempoTotalNanos.sum();
+            long somaLinhas = linhas.sum();
+
+            EstatisticaSqlDTO dto = new EstatisticaSqlDTO();
+            dto.setOperacao(operacao);
+            dto.setSql(sql);
+            dto.setExecucoes(quantidade);
+            dto.setLentas(lentas.sum());
+            dto.setTempoTotalMs(milissegundos(total));
+            dto.setTempoMedioMs(quantidade == 0 ? 0 : milissegundos(total) / quantidade);
+            dto.setTempoMaximoMs(milissegundos(tempoMaximoNanos.get()));
+            dto.setTempoFetchMs(milissegundos(tempoFetchNanos.sum()));
+            dto.setLinhas(somaLinhas);
+            dto.setLinhasPorExecucao(quantidade == 0 ? 0 : (double) somaLinhas / quantidade);
+            return dto;
+        }
+    }
+}
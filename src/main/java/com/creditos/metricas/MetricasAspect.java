@@ -0,0 +1,152 @@
+package com.creditos.metricas;
+
+import com.creditos.dto.PaginaCursorDTO;
+import com.creditos.util.LoggingUtils;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tempo de execução de cada método público do CreditoService e de cada consulta do CreditoRepository
+ *
+ * Os tempos são registrados no timer creditos.operacao, com histograma de percentis e o limite de
+ * SLO configurado, o que permite ao Prometheus/Grafana calcular p50/p95/p99 por operação
+ * (histogram_quantile) e a fração de chamadas dentro do SLO (bucket le=SLO).
+ *
+ * Tags:
+ * - camada: service | repository
+ * - metodo: nome do método (ex.: consultarCreditosPorNfse, findDtoByNumeroNfse)
+ * - resultado: sucesso | erro
+ *
+ * O tempo do service inclui o cache: acertos aparecem na faixa de microssegundos e as idas ao banco
+ * aparecem também na camada repository. Chamadas do service acima do SLO são registradas em log
+ * com LoggingUtils.logPerformance.
+ *
+ * O aspecto tem a maior precedência, para envolver o proxy de cache e as transações.
+ *
+ * @author Ednilton Curt Rauh
+ * @version 1.0.0
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class MetricasAspect {
+
+    private static final Logger logger = LoggerFactory.getLogger(MetricasAspect.class);
+
+    static final String METRICA = "creditos.operacao";
+
+    private static final String CAMADA_SERVICE = "service";
+    private static final String CAMADA_REPOSITORY = "repository";
+
+    private final MeterRegistry meterRegistry;
+    private final Duration slo;
+    private final Duration maximoEsperado;
+    private final long sloNanos;
+
+    // Timers por camada, método e resultado: evita montar o builder a cada chamada
+    private final ConcurrentMap<String, Timer> timers = new ConcurrentHashMap<>();
+
+    @Autowired
+    public MetricasAspect(MeterRegistry meterRegistry,
+                          @Value("${app.metricas.slo:200ms}") Duration slo,
+                          @Value("${app.metricas.maximo-esperado:30s}") Duration maximoEsperado) {
+        this.meterRegistry = meterRegistry;
+        this.slo = slo;
+        this.maximoEsperado = maximoEsperado;
+        this.sloNanos = slo.toNanos();
+    }
+
+    @Around("execution(public * com.creditos.service.CreditoService.*(..))")
+    public Object medirService(ProceedingJoinPoint joinPoint) throws Throwable {
+        return medir(CAMADA_SERVICE, joinPoint);
+    }
+
+    /**
+     * Inclui as consultas herdadas do JpaRepository (findAll, count, saveAll)
+     * O nome do método também identifica os comandos SQL nas EstatisticasSql
+     */
+    @Around("this(com.creditos.repository.CreditoRepository) && !execution(* java.lang.Object.*(..))")
+    public Object medirRepository(ProceedingJoinPoint joinPoint) throws Throwable {
+        String anterior = ContextoSql.definir("CreditoRepository." + joinPoint.getSignature().getName());
+        try {
+            return medir(CAMADA_REPOSITORY, joinPoint);
+        } finally {
+            ContextoSql.restaurar(anterior);
+        }
+    }
+
+    // ================================================
+    // MÉTODOS AUXILIARES
+    // ================================================
+
+    private Object medir(String camada, ProceedingJoinPoint joinPoint) throws Throwable {
+        String metodo = joinPoint.getSignature().getName();
+        long inicio = System.nanoTime();
+        String resultado = "erro";
+        try {
+            Object retorno = joinPoint.proceed();
+            resultado = "sucesso";
+            registrarLento(camada, metodo, System.nanoTime() - inicio, retorno);
+            return retorno;
+        } finally {
+            timer(camada, metodo, resultado).record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void registrarLento(String camada, String metodo, long duracaoNanos, Object retorno) {
+        if (duracaoNanos > sloNanos && CAMADA_SERVICE.equals(camada)) {
+            LoggingUtils.logPerformance(logger, "CreditoService." + metodo,
+                    TimeUnit.NANOSECONDS.toMillis(duracaoNanos), quantidade(retorno));
+        }
+    }
+
+    private Timer timer(String camada, String metodo, String resultado) {
+        String chave = camada + '.' + metodo + '.' + resultado;
+        Timer timer = timers.get(chave);
+        if (timer == null) {
+            timer = timers.computeIfAbsent(chave, k -> Timer.builder(METRICA)
+                    .description("Tempo de execução das operações de consulta de créditos")
+                    .tag("camada", camada)
+                    .tag("metodo", metodo)
+                    .tag("resultado", resultado)
+                    .publishPercentileHistogram()
+                    .serviceLevelObjectives(slo)
+                    .maximumExpectedValue(maximoEsperado)
+                    .register(meterRegistry));
+        }
+        return timer;
+    }
+
+    private static int quantidade(Object retorno) {
+        if (retorno == null) {
+            return 0;
+        }
+        if (retorno instanceof Collection) {
+            return ((Collection<?>) retorno).size();
+        }
+        if (retorno instanceof PaginaCursorDTO) {
+            return ((PaginaCursorDTO<?>) retorno).getQuantidade();
+        }
+        if (retorno instanceof Slice) {
+            return ((Slice<?>) retorno).getNumberOfElements();
+        }
+        return 1;
+    }
+}
@@ -1,18 +1,25 @@
 package com.creditos.repository;
 
+import com.creditos.dto.CreditoResponseDTO;
 import com.creditos.entity.Credito;
 import com.creditos.service.CreditoService.EstatisticasPorTipo;
+import com.creditos.util.DecimalFixo;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Repository refatorado para operações de dados da entidade Credito
@@ -58,6 +65,91 @@ public interface CreditoRepository extends JpaRepository<Credito, Long> {
     @Query("SELECT c FROM Credito c WHERE c.numeroCredito = :numeroCredito ORDER BY c.id ASC")
     Optional<Credito> findFirstByNumeroCredito(@Param("numeroCredito") String numeroCredito);
 
+    // ================================================
+    // PROJEÇÕES EM DTO (SOMENTE LEITURA)
+    // ================================================
+    // Retornam CreditoResponseDTO via expressão de construtor: nenhuma entidade gerenciada é
+    // criada, sem snapshot para dirty checking nem registro no contexto de persistência.
+    // Use nas consultas de leitura que só convertem o resultado para a resposta da API.
+
+    /**
+     * Lista de colunas da projeção, na ordem do construtor de CreditoResponseDTO
+     */
+    String PROJECAO_DTO = "SELECT new com.creditos.dto.CreditoResponseDTO(" +
+            "c.numeroCredito, c.numeroNfse, c.dataConstituicao, c.valorIssqn, c.tipoCredito, " +
+            "c.simplesNacional, c.aliquota, c.valorFaturado, c.valorDeducao, c.baseCalculo) FROM Credito c ";
+
+    /**
+     * Projeção de findByNumeroNfse
+     * Endpoint: GET /api/creditos/{numeroNfse}
+     *
+     * @param numeroNfse Número da NFS-e
+     * @return Créditos da NFS-e ordenados por data de constituição
+     */
+    @Query(PROJECAO_DTO + "WHERE c.numeroNfse = :numeroNfse ORDER BY c.dataConstituicao DESC")
+    List<CreditoResponseDTO> findDtoByNumeroNfse(@Param("numeroNfse") String numeroNfse);
+
+    /**
+     * Projeção de findByNumeroCredito
+     * Endpoint: GET /api/creditos/credito/{numeroCredito}
+     *
+     * @param numeroCredito Número do crédito constituído
+     * @return Créditos com o número especificado (ordenados por ID)
+     */
+    @Query(PROJECAO_DTO + "WHERE c.numeroCredito = :numeroCredito ORDER BY c.id ASC")
+    List<CreditoResponseDTO> findDtoByNumeroCredito(@Param("numeroCredito") String numeroCredito);
+
+    /**
+     * Projeção de findByDataConstituicaoBetween
+     *
+     * @param dataInicio Data inicial do período
+     * @param dataFim Data final do período
+     * @return Créditos no período
+     */
+    @Query(PROJECAO_DTO + "WHERE c.dataConstituicao BETWEEN :dataInicio AND :dataFim ORDER BY c.dataConstituicao DESC")
+    List<CreditoResponseDTO> findDtoByDataConstituicaoBetween(@Param("dataInicio") LocalDate dataInicio,
+                                                              @Param("dataFim") LocalDate dataFim);
+
+    /**
+     * Projeção de findByTipoCreditoIgnoreCase
+     *
+     * @param tipoCredito Tipo do crédito
+     * @return Créditos do tipo
+     */
+    @Query(PROJECAO_DTO + "WHERE UPPER(c.tipoCredito) = UPPER(:tipoCredito) ORDER BY c.dataConstituicao DESC")
+    List<CreditoResponseDTO> findDtoByTipoCreditoIgnoreCase(@Param("tipoCredito") String tipoCredito);
+
+    /**
+     * Projeção de findByValorIssqnBetween
+     *
+     * @param valorMinimo Valor mínimo
+     * @param valorMaximo Valor máximo
+     * @return Créditos na faixa
+     */
+    @Query(PROJECAO_DTO + "WHERE c.valorIssqn BETWEEN :valorMinimo AND :valorMaximo ORDER BY c.valorIssqn DESC")
+    List<CreditoResponseDTO> findDtoByValorIssqnBetween(@Param("valorMinimo") DecimalFixo valorMinimo,
+                                                        @Param("valorMaximo") DecimalFixo valorMaximo);
+
+    /**
+     * Busca créditos de várias NFS-e em uma única consulta
+     * Endpoint: POST /api/creditos/batch
+     *
+     * @param numerosNfse Números de NFS-e (o chamador limita o tamanho do bloco)
+     * @return Créditos agrupáveis por NFS-e, ordenados por data de constituição dentro de cada NFS-e
+     */
+    @Query(PROJECAO_DTO + "WHERE c.numeroNfse IN :numerosNfse ORDER BY c.numeroNfse, c.dataConstituicao DESC")
+    List<CreditoResponseDTO> findDtoByNumeroNfseIn(@Param("numerosNfse") Collection<String> numerosNfse);
+
+    /**
+     * Busca créditos de vários números em uma única consulta
+     * Endpoint: POST /api/creditos/batch
+     *
+     * @param numerosCredito Números de crédito (o chamador limita o tamanho do bloco)
+     * @return Créditos ordenados por número e ID (o primeiro de cada número é o mais antigo)
+     */
+    @Query(PROJECAO_DTO + "WHERE c.numeroCredito IN :numerosCredito ORDER BY c.numeroCredito, c.id ASC")
+    List<CreditoResponseDTO> findDtoByNumeroCreditoIn(@Param("numerosCredito") Collection<String> numerosCredito);
+
     // ================================================
     // CONSULTAS POR PERÍODO
     // ================================================
@@ -104,6 +196,84 @@ public interface CreditoRepository extends JpaRepository<Credito, Long> {
     @Query("SELECT c FROM Credito c WHERE c.dataConstituicao >= :dataInicio ORDER BY c.dataConstituicao DESC")
     List<Credito> findByDataConstituicaoAfter(@Param("dataInicio") LocalDate dataInicio);
 
+    // ================================================
+    // CONSULTAS COM PAGINAÇÃO POR CURSOR (KEYSET)
+    // ================================================
+    // Ordenadas por (dataConstituicao, id) decrescente. Retornam Slice, que busca
+    // tamanho + 1 linhas para saber se há próxima página, sem executar count(*).
+    // Use PageRequest.of(0, tamanho): a posição é dada pelo cursor, nunca por OFFSET.
+
+    /**
+     * Busca a página de créditos posterior ao cursor
+     *
+     * @param dataCursor Data de constituição do último registro entregue
+     * @param idCursor ID do último registro entregue
+     * @param pageable Tamanho da página (sempre página 0)
+     * @return Fatia de créditos após o cursor
+     */
+    @Query("SELECT c FROM Credito c " +
+            "WHERE (c.dataConstituicao < :dataCursor OR (c.dataConstituicao = :dataCursor AND c.id < :idCursor)) " +
+            "ORDER BY c.dataConstituicao DESC, c.id DESC")
+    Slice<Credito> findPaginaAposCursor(@Param("dataCursor") LocalDate dataCursor,
+                                        @Param("idCursor") Long idCursor,
+                                        Pageable pageable);
+
+    /**
+     * Busca a página de créditos do período posterior ao cursor
+     * Contraparte por cursor de findByDataConstituicaoBetweenPaginated
+     *
+     * @param dataInicio Data inicial do período
+     * @param dataFim Data final do período
+     * @param dataCursor Data de constituição do último registro entregue
+     * @param idCursor ID do último registro entregue
+     * @param pageable Tamanho da página (sempre página 0)
+     * @return Fatia de créditos do período após o cursor
+     */
+    @Query("SELECT c FROM Credito c WHERE c.dataConstituicao BETWEEN :dataInicio AND :dataFim " +
+            "AND (c.dataConstituicao < :dataCursor OR (c.dataConstituicao = :dataCursor AND c.id < :idCursor)) " +
+            "ORDER BY c.dataConstituicao DESC, c.id DESC")
+    Slice<Credito> findByDataConstituicaoBetweenAposCursor(@Param("dataInicio") LocalDate dataInicio,
+                                                           @Param("dataFim") LocalDate dataFim,
+                                                           @Param("dataCursor") LocalDate dataCursor,
+                                                           @Param("idCursor") Long idCursor,
+                                                           Pageable pageable);
+
+    /**
+     * Busca a página de créditos do tipo posterior ao cursor
+     * Contraparte por cursor de findByTipoCreditoPaginated
+     *
+     * @param tipoCredito Tipo do crédito
+     * @param dataCursor Data de constituição do último registro entregue
+     * @param idCursor ID do último registro entregue
+     * @param pageable Tamanho da página (sempre página 0)
+     * @return Fatia de créditos do tipo após o cursor
+     */
+    @Query("SELECT c FROM Credito c WHERE UPPER(c.tipoCredito) = UPPER(:tipoCredito) " +
+            "AND (c.dataConstituicao < :dataCursor OR (c.dataConstituicao = :dataCursor AND c.id < :idCursor)) " +
+            "ORDER BY c.dataConstituicao DESC, c.id DESC")
+    Slice<Credito> findByTipoCreditoAposCursor(@Param("tipoCredito") String tipoCredito,
+                                               @Param("dataCursor") LocalDate dataCursor,
+                                               @Param("idCursor") Long idCursor,
+                                               Pageable pageable);
+
+    /**
+     * Busca a página de créditos por Simples Nacional posterior ao cursor
+     * Contraparte por cursor de findBySimplesNacionalPaginated
+     *
+     * @param simplesNacional Status do Simples Nacional
+     * @param dataCursor Data de constituição do último registro entregue
+     * @param idCursor ID do último registro entregue
+     * @param pageable Tamanho da página (sempre página 0)
+     * @return Fatia de créditos filtrados após o cursor
+     */
+    @Query("SELECT c FROM Credito c WHERE c.simplesNacional = :simplesNacional " +
+            "AND (c.dataConstituicao < :dataCursor OR (c.dataConstituicao = :dataCursor AND c.id < :idCursor)) " +
+            "ORDER BY c.dataConstituicao DESC, c.id DESC")
+    Slice<Credito> findBySimplesNacionalAposCursor(@Param("simplesNacional") Boolean simplesNacional,
+                                                   @Param("dataCursor") LocalDate dataCursor,
+                                                   @Param("idCursor") Long idCursor,
+                                                   Pageable pageable);
+
     // ================================================
     // CONSULTAS POR CARACTERÍSTICAS
     // ================================================
@@ -158,8 +328,8 @@ public interface CreditoRepository extends JpaRepository<Credito, Long> {
      * @return Lista de créditos na faixa
      */
     @Query("SELECT c FROM Credito c WHERE c.valorIssqn BETWEEN :valorMinimo AND :valorMaximo ORDER BY c.valorIssqn DESC")
-    List<Credito> findByValorIssqnBetween(@Param("valorMinimo") BigDecimal valorMinimo,
-                                          @Param("valorMaximo") BigDecimal valorMaximo);
+    List<Credito> findByValorIssqnBetween(@Param("valorMinimo") DecimalFixo valorMinimo,
+                                          @Param("valorMaximo") DecimalFixo valorMaximo);
 
     /**
      * Busca créditos com valor do ISSQN maior que um valor específico
@@ -168,7 +338,7 @@ public interface CreditoRepository extends JpaRepository<Credito, Long> {
      * @return Lista de créditos acima do valor
      */
     @Query("SELECT c FROM Credito c WHERE c.valorIssqn > :valorMinimo ORDER BY c.valorIssqn DESC")
-    List<Credito> findByValorIssqnGreaterThan(@Param("valorMinimo") BigDecimal valorMinimo);
+    List<Credito> findByValorIssqnGreaterThan(@Param("valorMinimo") DecimalFixo valorMinimo);
 
     /**
      * Busca créditos por faixa de alíquota
@@ -178,8 +348,8 @@ public interface CreditoRepository extends JpaRepository<Credito, Long> {
      * @return Lista de créditos na faixa de alíquota
      */
     @Query("SELECT c FROM Credito c WHERE c.aliquota BETWEEN :aliquotaMinima AND :aliquotaMaxima ORDER BY c.aliquota")
-    List<Credito> findByAliquotaBetween(@Param("aliquotaMinima") BigDecimal aliquotaMinima,
-                                        @Param("aliquotaMaxima") BigDecimal aliquotaMaxima);
+    List<Credito> findByAliquotaBetween(@Param("aliquotaMinima") DecimalFixo aliquotaMinima,
+                                        @Param("aliquotaMaxima") DecimalFixo aliquotaMaxima);
 
     // ================================================
     // CONSULTAS COMBINADAS
@@ -223,7 +393,7 @@ public interface CreditoRepository extends JpaRepository<Credito, Long> {
      * @return Soma total dos valores de ISSQN
      */
     @Query("SELECT SUM(c.valorIssqn) FROM Credito c")
-    BigDecimal sumValorIssqn();
+    DecimalFixo sumValorIssqn();
 
     /**
      * Calcula a média dos valores de ISSQN
@@ -239,7 +409,7 @@ public interface CreditoRepository extends JpaRepository<Credito, Long> {
      * @return Maior valor de ISSQN
      */
     @Query("SELECT MAX(c.valorIssqn) FROM Credito c")
-    BigDecimal maxValorIssqn();
+    DecimalFixo maxValorIssqn();
 
     /**
      * Encontra o menor valor de ISSQN
@@ -247,7 +417,7 @@ public interface CreditoRepository extends JpaRepository<Credito, Long> {
      * @return Menor valor de ISSQN
      */
     @Query("SELECT MIN(c.valorIssqn) FROM Credito c")
-    BigDecimal minValorIssqn();
+    DecimalFixo minValorIssqn();
 
     /**
      * Conta créditos por tipo
@@ -273,10 +443,27 @@ public interface CreditoRepository extends JpaRepository<Credito, Long> {
      * @return Lista de estatísticas por tipo
      */
     @Query("SELECT new com.creditos.service.CreditoService$EstatisticasPorTipo(" +
-            "c.tipoCredito, COUNT(c), SUM(c.valorIssqn), AVG(c.valorIssqn)) " +
+            "c.tipoCredito, COUNT(c), SUM(c.valorIssqn)) " +
             "FROM Credito c GROUP BY c.tipoCredito ORDER BY c.tipoCredito")
     List<EstatisticasPorTipo> findEstatisticasPorTipo();
 
+    /**
+     * Calcula em uma única consulta os totais gerais e os agrupamentos por tipo e por mês
+     * Usa GROUPING SETS do PostgreSQL: a linha com grupoTipo = 1 e grupoMes = 1 é o total geral
+     *
+     * @return Lista de arrays com [grupoTipo, grupoMes, tipoCredito, mes (yyyy-MM),
+     *         quantidade, valorTotal, valorMedio, valorMinimo, valorMaximo]
+     */
+    @Query(value = "SELECT GROUPING(tipo_credito) AS grupo_tipo, " +
+            "GROUPING(to_char(data_constituicao, 'YYYY-MM')) AS grupo_mes, " +
+            "tipo_credito, to_char(data_constituicao, 'YYYY-MM') AS mes, " +
+            "COUNT(*), SUM(valor_issqn), AVG(valor_issqn), MIN(valor_issqn), MAX(valor_issqn) " +
+            "FROM credito " +
+            "GROUP BY GROUPING SETS ((), (tipo_credito), (to_char(data_constituicao, 'YYYY-MM'))) " +
+            "ORDER BY grupo_tipo, grupo_mes, tipo_credito, mes",
+            nativeQuery = true)
+    List<Object[]> findEstatisticasConsolidadas();
+
     /**
      * Calcula valor total por período
      *
@@ -285,8 +472,8 @@ public interface CreditoRepository extends JpaRepository<Credito, Long> {
      * @return Valor total no período
      */
     @Query("SELECT SUM(c.valorIssqn) FROM Credito c WHERE c.dataConstituicao BETWEEN :dataInicio AND :dataFim")
-    BigDecimal sumValorIssqnByPeriodo(@Param("dataInicio") LocalDate dataInicio,
-                                      @Param("dataFim") LocalDate dataFim);
+    DecimalFixo sumValorIssqnByPeriodo(@Param("dataInicio") LocalDate dataInicio,
+                                       @Param("dataFim") LocalDate dataFim);
 
     /**
      * Conta créditos por período
@@ -336,6 +523,35 @@ public interface CreditoRepository extends JpaRepository<Credito, Long> {
     @Query("SELECT COUNT(c) > 0 FROM Credito c WHERE c.numeroCredito = :numeroCredito AND c.id != :id")
     boolean existsByNumeroCreditoAndIdNot(@Param("numeroCredito") String numeroCredito, @Param("id") Long id);
 
+    /**
+     * Verifica se existe crédito com o número informado, sem carregar entidades
+     *
+     * @param numeroCredito Número do crédito
+     * @return true se existir ao menos um crédito
+     */
+    @Query("SELECT COUNT(c) > 0 FROM Credito c WHERE c.numeroCredito = :numeroCredito")
+    boolean existsByNumeroCredito(@Param("numeroCredito") String numeroCredito);
+
+    /**
+     * Verifica se existe crédito para a NFS-e informada, sem carregar entidades
+     *
+     * @param numeroNfse Número da NFS-e
+     * @return true se existir ao menos um crédito
+     */
+    @Query("SELECT COUNT(c) > 0 FROM Credito c WHERE c.numeroNfse = :numeroNfse")
+    boolean existsByNumeroNfse(@Param("numeroNfse") String numeroNfse);
+
+    /**
+     * Lê apenas os identificadores [numeroCredito, numeroNfse] de todos os créditos
+     * Usa cursor com fetch size para não materializar a tabela em memória
+     * Deve ser consumido dentro de uma transação e fechado após o uso
+     *
+     * @return Stream de arrays com [numeroCredito, numeroNfse]
+     */
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE, value = "5000"))
+    @Query("SELECT c.numeroCredito, c.numeroNfse FROM Credito c")
+    Stream<Object[]> streamNumerosIdentificadores();
+
     /**
      * Busca créditos com valores inconsistentes (para auditoria)
      * Verifica se o valor do ISSQN está correto baseado na alíquota e base de cálculo
@@ -0,0 +1,456 @@
+package com.creditos.service;
+
+import com.creditos.dto.CreditoEventoDTO;
+import com.creditos.dto.RecalculoAgregadosDTO;
+import com.creditos.entity.DecimalFixoType;
+import com.creditos.util.DecimalFixo;
+import com.creditos.util.LoggingUtils;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Agregados materializados do ISSQN por (tipo de crédito, Simples Nacional, mês de constituição)
+ *
+ * A tabela credito_agregado é atualizada na mesma transação que grava em credito: a ingestão
+ * soma os créditos inseridos (acumular) e a importação em massa encadeia o upsert ao INSERT do
+ * merge (acumularDe). As estatísticas do CreditoService leem apenas os grupos, sem percorrer a
+ * tabela de créditos.
+ *
+ * O recálculo completo refaz os grupos a partir de credito e informa as divergências encontradas
+ * (ex.: linhas gravadas por fora da aplicação). A varredura de credito roda sem bloquear a ingestão:
+ * agregados armazenados e recalculados são lidos no mesmo snapshot (REPEATABLE READ). Só a troca
+ * final bloqueia credito_agregado, por uma transação curta que relê os grupos (O(grupos)) e substitui
+ * apenas os que não mudaram desde o snapshot; os alterados por gravações concorrentes são mantidos
+ * e corrigidos no próximo recálculo. Além da chamada administrativa, roda periodicamente
+ * (app.agregados.intervalo-recalculo), de modo que cargas manuais não deixem as estatísticas
+ * divergentes por tempo indeterminado; um advisory lock do PostgreSQL faz com que apenas uma
+ * instância recalcule por vez.
+ *
+ * Métricas expostas:
+ * - creditos.agregados.divergencias: grupos divergentes encontrados nos recálculos
+ *
+ * @author Ednilton Curt Rauh
+ * @version 1.0.0
+ */
+@Service
+@Transactional(readOnly = true)
+public class CreditoAgregadoService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CreditoAgregadoService.class);
+
+    private static final DateTimeFormatter FORMATO_ANO_MES = DateTimeFormatter.ofPattern("yyyy-MM");
+
+    private static final String COLUNAS =
+            "tipo_credito, simples_nacional, ano_mes, quantidade, valor_total, valor_minimo, valor_maximo, atualizado_em";
+
+    private static final String CONFLITO =
+            "ON CONFLICT (tipo_credito, simples_nacional, ano_mes) DO UPDATE SET " +
+            "quantidade = credito_agregado.quantidade + EXCLUDED.quantidade, " +
+            "valor_total = credito_agregado.valor_total + EXCLUDED.valor_total, " +
+            "valor_minimo = LEAST(credito_agregado.valor_minimo, EXCLUDED.valor_minimo), " +
+            "valor_maximo = GREATEST(credito_agregado.valor_maximo, EXCLUDED.valor_maximo), " +
+            "atualizado_em = EXCLUDED.atualizado_em";
+
+    static final String ACUMULAR =
+            "INSERT INTO credito_agregado (" + COLUNAS + ") VALUES (?, ?, ?, ?, ?, ?, ?, now()) " + CONFLITO;
+
+    private static final String LISTAR =
+            "SELECT tipo_credito, simples_nacional, ano_mes, quantidade, valor_total, valor_minimo, valor_maximo " +
+            "FROM credito_agregado";
+
+    private static final String RECALCULAR =
+            "SELECT tipo_credito, simples_nacional, to_char(data_constituicao, 'YYYY-MM'), " +
+            "COUNT(*), SUM(valor_issqn), MIN(valor_issqn), MAX(valor_issqn) " +
+            "FROM credito GROUP BY 1, 2, 3";
+
+    // Bloqueia a ingestão e a importação (que também gravam em credito_agregado) só durante a troca
+    private static final String BLOQUEAR = "LOCK TABLE credito_agregado IN EXCLUSIVE MODE";
+
+    static final String SUBSTITUIR =
+            "INSERT INTO credito_agregado (" + COLUNAS + ") VALUES (?, ?, ?, ?, ?, ?, ?, now()) " +
+            "ON CONFLICT (tipo_credito, simples_nacional, ano_mes) DO UPDATE SET " +
+            "quantidade = EXCLUDED.quantidade, valor_total = EXCLUDED.valor_total, " +
+            "valor_minimo = EXCLUDED.valor_minimo, valor_maximo = EXCLUDED.valor_maximo, " +
+            "atualizado_em = EXCLUDED.atualizado_em";
+
+    static final String REMOVER =
+            "DELETE FROM credito_agregado WHERE tipo_credito = ? AND simples_nacional = ? AND ano_mes = ?";
+
+    // Liberado no fim da transação; as demais instâncias pulam o recálculo periódico em andamento
+    private static final String TRAVAR_RECALCULO = "SELECT pg_try_advisory_xact_lock(hashtext('credito_agregado'))";
+
+    private static final RowMapper<Grupo> MAPEADOR = (rs, i) -> {
+        Grupo grupo = new Grupo(rs.getString(1), rs.getBoolean(2), rs.getString(3));
+        grupo.valores.somar(rs.getLong(4), DecimalFixoType.ler(rs, 5).getCentesimos(),
+                DecimalFixoType.ler(rs, 6).getCentesimos(), DecimalFixoType.ler(rs, 7).getCentesimos());
+        return grupo;
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate leituraSnapshot;
+    private final TransactionTemplate troca;
+    private final boolean recalculoPeriodico;
+    private final Counter divergencias;
+
+    @Autowired
+    public CreditoAgregadoService(JdbcTemplate jdbcTemplate,
+                                  PlatformTransactionManager transactionManager,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${app.agregados.recalculo-periodico:true}") boolean recalculoPeriodico) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.leituraSnapshot = new TransactionTemplate(transactionManager);
+        this.leituraSnapshot.setReadOnly(true);
+        this.leituraSnapshot.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.troca = new TransactionTemplate(transactionManager);
+        this.troca.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.recalculoPeriodico = recalculoPeriodico;
+        this.divergencias = Counter.builder("creditos.agregados.divergencias")
+                .description("Grupos de agregados divergentes encontrados no recálculo completo")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Comando que soma ao agregado as linhas de uma tabela ou CTE com as colunas de credito
+     * Usado pela importação em massa, encadeado ao INSERT do merge (WITH ... RETURNING)
+     *
+     * @param origem Tabela ou CTE com tipo_credito, simples_nacional, data_constituicao e valor_issqn
+     * @return INSERT ... SELECT ... ON CONFLICT
+     */
+    public static String acumularDe(String origem) {
+        return "INSERT INTO credito_agregado (" + COLUNAS + ") " +
+                "SELECT tipo_credito, simples_nacional, to_char(data_constituicao, 'YYYY-MM'), " +
+                "COUNT(*), SUM(valor_issqn), MIN(valor_issqn), MAX(valor_issqn), now() " +
+                "FROM " + origem + " GROUP BY 1, 2, 3 ORDER BY 1, 2, 3 " + CONFLITO;
+    }
+
+    // ================================================
+    // CONSULTA
+    // ================================================
+
+    /**
+     * Totais gerais, por tipo e por mês, somados a partir dos grupos materializados
+     *
+     * @return Consolidado (custo proporcional à quantidade de grupos)
+     */
+    public Consolidado consolidar() {
+        Consolidado consolidado = new Consolidado();
+        for (Grupo grupo : jdbcTemplate.query(LISTAR, MAPEADOR)) {
+            consolidado.adicionar(grupo);
+        }
+        return consolidado;
+    }
+
+    // ================================================
+    // MANUTENÇÃO INCREMENTAL
+    // ================================================
+
+    /**
+     * Soma os créditos recém-inseridos aos grupos
+     * Executado na transação que os inseriu, para que agregado e tabela sejam confirmados juntos
+     *
+     * @param inseridos Créditos efetivamente inseridos (normalizados)
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void acumular(List<CreditoEventoDTO> inseridos) {
+        if (inseridos.isEmpty()) {
+            return;
+        }
+
+        // Ordem fixa das chaves: gravações concorrentes bloqueiam os grupos na mesma sequência
+        Map<String, Grupo> grupos = new TreeMap<>();
+        for (CreditoEventoDTO evento : inseridos) {
+            Grupo grupo = new Grupo(evento.getTipoCredito(), evento.getSimplesNacional(),
+                    evento.getDataConstituicao().format(FORMATO_ANO_MES));
+            long valorIssqn = DecimalFixo.of(evento.getValorIssqn()).getCentesimos();
+            grupos.computeIfAbsent(grupo.chave(), k -> grupo).valores.somar(1, valorIssqn, valorIssqn, valorIssqn);
+        }
+
+        jdbcTemplate.batchUpdate(ACUMULAR, parametros(grupos.values()));
+    }
+
+    // ================================================
+    // RECÁLCULO COMPLETO
+    // ================================================
+
+    /**
+     * Refaz os agregados a partir da tabela credito e informa as divergências
+     * Percorre a tabela inteira sem bloquear as gravações: uso administrativo, fora do caminho das consultas
+     *
+     * @return Grupos armazenados, recalculados, divergentes e adiados
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    @CacheEvict(value = "estatisticas", allEntries = true)
+    public RecalculoAgregadosDTO recalcular() {
+        long inicio = System.currentTimeMillis();
+        return trocar(leituraSnapshot.execute(status -> ler()), inicio);
+    }
+
+    /**
+     * Recálculo periódico: corrige divergências de linhas gravadas por fora da aplicação
+     * Ignorado se outra instância estiver recalculando no mesmo momento
+     *
+     * @return Resultado do recálculo, ou null se ignorado
+     */
+    @Scheduled(initialDelayString = "${app.agregados.intervalo-recalculo:PT6H}",
+            fixedDelayString = "${app.agregados.intervalo-recalculo:PT6H}")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    @CacheEvict(value = "estatisticas", allEntries = true)
+    public RecalculoAgregadosDTO recalcularPeriodicamente() {
+        if (!recalculoPeriodico) {
+            return null;
+        }
+        long inicio = System.currentTimeMillis();
+        // O advisory lock fica com a transação de leitura, aberta até o fim da troca
+        return leituraSnapshot.execute(status -> {
+            if (!Boolean.TRUE.equals(jdbcTemplate.queryForObject(TRAVAR_RECALCULO, Boolean.class))) {
+                logger.debug("Recálculo periódico dos agregados em andamento em outra instância");
+                return null;
+            }
+            return trocar(ler(), inicio);
+        });
+    }
+
+    /**
+     * Grupos armazenados e recalculados, lidos no snapshot da transação corrente
+     */
+    private Leitura ler() {
+        return new Leitura(indexar(jdbcTemplate.query(LISTAR, MAPEADOR)),
+                indexar(jdbcTemplate.query(RECALCULAR, MAPEADOR)));
+    }
+
+    /**
+     * Compara com o snapshot e substitui, em uma transação curta, os grupos que não mudaram desde ele
+     */
+    private RecalculoAgregadosDTO trocar(Leitura leitura, long inicio) {
+        Map<String, Grupo> armazenados = leitura.armazenados;
+        Map<String, Grupo> recalculados = leitura.recalculados;
+
+        RecalculoAgregadosDTO resultado = new RecalculoAgregadosDTO();
+        resultado.setGruposArmazenados(armazenados.size());
+        resultado.setGruposRecalculados(recalculados.size());
+
+        Set<String> chaves = new TreeSet<>(armazenados.keySet());
+        chaves.addAll(recalculados.keySet());
+        List<String> divergentes = new ArrayList<>();
+        for (String chave : chaves) {
+            Grupo armazenado = armazenados.get(chave);
+            Grupo recalculado = recalculados.get(chave);
+            if (armazenado == null || recalculado == null || !armazenado.valores.igual(recalculado.valores)) {
+                divergentes.add(chave);
+                Grupo referencia = recalculado != null ? recalculado : armazenado;
+                resultado.getDivergencias().add(new RecalculoAgregadosDTO.Divergencia(
+                        referencia.tipoCredito, referencia.simplesNacional, referencia.anoMes,
+                        armazenado != null ? armazenado.valores.quantidade : 0,
+                        recalculado != null ? recalculado.valores.quantidade : 0,
+                        (armazenado != null ? armazenado.valores.getValorTotal() : DecimalFixo.ZERO).paraBigDecimal(),
+                        (recalculado != null ? recalculado.valores.getValorTotal() : DecimalFixo.ZERO).paraBigDecimal()));
+            }
+        }
+
+        if (!divergentes.isEmpty()) {
+            resultado.setGruposAdiados(troca.execute(status -> {
+                jdbcTemplate.execute(BLOQUEAR);
+                Map<String, Grupo> atuais = indexar(jdbcTemplate.query(LISTAR, MAPEADOR));
+
+                List<Grupo> substituir = new ArrayList<>();
+                List<Object[]> remover = new ArrayList<>();
+                int adiados = 0;
+                for (String chave : divergentes) {
+                    // Grupo gravado depois do snapshot: o recalculado não inclui essa gravação
+                    if (!mesmoValor(atuais.get(chave), armazenados.get(chave))) {
+                        adiados++;
+                        continue;
+                    }
+                    Grupo recalculado = recalculados.get(chave);
+                    if (recalculado != null) {
+                        substituir.add(recalculado);
+                    } else {
+                        Grupo armazenado = armazenados.get(chave);
+                        remover.add(new Object[]{armazenado.tipoCredito, armazenado.simplesNacional, armazenado.anoMes});
+                    }
+                }
+                if (!substituir.isEmpty()) {
+                    jdbcTemplate.batchUpdate(SUBSTITUIR, parametros(substituir));
+                }
+                if (!remover.isEmpty()) {
+                    jdbcTemplate.batchUpdate(REMOVER, remover);
+                }
+                return adiados;
+            }));
+        }
+
+        int quantidadeDivergencias = resultado.getDivergencias().size();
+        divergencias.increment(quantidadeDivergencias);
+        resultado.setDuracaoMs(System.currentTimeMillis() - inicio);
+
+        if (quantidadeDivergencias > 0) {
+            logger.warn("AGREGADOS_DIVERGENTES | Grupos: {} de {} | Adiados: {} | Primeiro: {}/{}/{}",
+                    quantidadeDivergencias, chaves.size(), resultado.getGruposAdiados(),
+                    resultado.getDivergencias().get(0).getTipoCredito(),
+                    resultado.getDivergencias().get(0).isSimplesNacional(),
+                    resultado.getDivergencias().get(0).getAnoMes());
+        }
+        LoggingUtils.logPerformance(logger, "Recálculo dos agregados de ISSQN",
+                resultado.getDuracaoMs(), recalculados.size());
+        return resultado;
+    }
+
+    // ================================================
+    // MÉTODOS AUXILIARES
+    // ================================================
+
+    private static boolean mesmoValor(Grupo atual, Grupo armazenado) {
+        if (atual == null || armazenado == null) {
+            return atual == armazenado;
+        }
+        return atual.valores.igual(armazenado.valores);
+    }
+
+    private static Map<String, Grupo> indexar(List<Grupo> grupos) {
+        Map<String, Grupo> indexados = new TreeMap<>();
+        for (Grupo grupo : grupos) {
+            indexados.put(grupo.chave(), grupo);
+        }
+        return indexados;
+    }
+
+    private static List<Object[]> parametros(Collection<Grupo> grupos) {
+        List<Object[]> parametros = new ArrayList<>(grupos.size());
+        for (Grupo grupo : grupos) {
+            parametros.add(new Object[]{grupo.tipoCredito, grupo.simplesNacional, grupo.anoMes,
+                    grupo.valores.quantidade, grupo.valores.getValorTotal().paraBigDecimal(),
+                    grupo.valores.getValorMinimo().paraBigDecimal(), grupo.valores.getValorMaximo().paraBigDecimal()});
+        }
+        return parametros;
+    }
+
+    // ================================================
+    // CLASSES INTERNAS
+    // ================================================
+
+    /**
+     * Agregados armazenados e recalculados lidos no mesmo snapshot
+     */
+    private static final class Leitura {
+        private final Map<String, Grupo> armazenados;
+        private final Map<String, Grupo> recalculados;
+
+        Leitura(Map<String, Grupo> armazenados, Map<String, Grupo> recalculados) {
+            this.armazenados = armazenados;
+            this.recalculados = recalculados;
+        }
+    }
+
+    /**
+     * Quantidade, soma, mínimo e máximo de um conjunto de créditos, em centavos
+     */
+    public static class Acumulado {
+        private long quantidade;
+        private long valorTotal;
+        private long valorMinimo = Long.MAX_VALUE;
+        private long valorMaximo = Long.MIN_VALUE;
+
+        void somar(long quantidadeParcial, long total, long minimo, long maximo) {
+            quantidade += quantidadeParcial;
+            valorTotal = Math.addExact(valorTotal, total);
+            valorMinimo = Math.min(valorMinimo, minimo);
+            valorMaximo = Math.max(valorMaximo, maximo);
+        }
+
+        void somar(Acumulado outro) {
+            if (outro.quantidade > 0) {
+                somar(outro.quantidade, outro.valorTotal, outro.valorMinimo, outro.valorMaximo);
+            }
+        }
+
+        boolean igual(Acumulado outro) {
+            return quantidade == outro.quantidade
+                    && valorTotal == outro.valorTotal
+                    && valorMinimo == outro.valorMinimo
+                    && valorMaximo == outro.valorMaximo;
+        }
+
+        public long getQuantidade() { return quantidade; }
+
+        public DecimalFixo getValorTotal() { return DecimalFixo.deCentesimos(valorTotal); }
+
+        public DecimalFixo getValorMinimo() { return DecimalFixo.deCentesimos(quantidade > 0 ? valorMinimo : 0); }
+
+        public DecimalFixo getValorMaximo() { return DecimalFixo.deCentesimos(quantidade > 0 ? valorMaximo : 0); }
+
+        /**
+         * Média com duas casas decimais, arredondamento HALF_UP (zero sem créditos)
+         */
+        public DecimalFixo getValorMedio() {
+            return quantidade == 0 ? DecimalFixo.ZERO : getValorTotal().dividir(quantidade);
+        }
+    }
+
+    /**
+     * Totais gerais e por tipo e por mês (ordenados pela chave)
+     */
+    public static class Consolidado {
+        private final Acumulado geral = new Acumulado();
+        private final Map<String, Acumulado> porTipo = new TreeMap<>();
+        private final Map<String, Acumulado> porMes = new TreeMap<>();
+
+        void adicionar(Grupo grupo) {
+            geral.somar(grupo.valores);
+            porTipo.computeIfAbsent(grupo.tipoCredito, k -> new Acumulado()).somar(grupo.valores);
+            porMes.computeIfAbsent(grupo.anoMes, k -> new Acumulado()).somar(grupo.valores);
+        }
+
+        public Acumulado getGeral() { return geral; }
+
+        public Map<String, Acumulado> getPorTipo() { return porTipo; }
+
+        public Map<String, Acumulado> getPorMes() { return porMes; }
+    }
+
+    /**
+     * Linha de credito_agregado
+     */
+    static final class Grupo {
+        private final String tipoCredito;
+        private final boolean simplesNacional;
+        private final String anoMes;
+        private final Acumulado valores = new Acumulado();
+
+        Grupo(String tipoCredito, boolean simplesNacional, String anoMes) {
+            this.tipoCredito = tipoCredito;
+            this.simplesNacional = simplesNacional;
+            this.anoMes = anoMes;
+        }
+
+        Acumulado valores() {
+            return valores;
+        }
+
+        String chave() {
+            return tipoCredito + '|' + simplesNacional + '|' + anoMes;
+        }
+    }
+}
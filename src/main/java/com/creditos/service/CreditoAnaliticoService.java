@@ -0,0 +1,156 @@
+package com.creditos.service;
+
+import com.creditos.analitico.CreditoSnapshotAnalitico;
+import com.creditos.analitico.SnapshotColunar;
+import com.creditos.dto.CreditoResponseDTO;
+import com.creditos.dto.EstatisticasDTO;
+import com.creditos.dto.ResultadoAnaliticoDTO;
+import com.creditos.exception.CreditoException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Service das consultas analíticas (painéis e auditoria)
+ *
+ * Responde a partir do snapshot colunar em memória, sem acessar o banco: agregações com filtros,
+ * listagem por faixa de alíquota, créditos com ISSQN inconsistente e números duplicados. Os
+ * resultados refletem a última atualização do snapshot, informada em cada resposta.
+ *
+ * @author Ednilton Curt Rauh
+ * @version 1.0.0
+ */
+@Service
+public class CreditoAnaliticoService {
+
+    public static final int LIMITE_MAXIMO = 1000;
+
+    private final CreditoSnapshotAnalitico snapshotAnalitico;
+
+    @Autowired
+    public CreditoAnaliticoService(CreditoSnapshotAnalitico snapshotAnalitico) {
+        this.snapshotAnalitico = snapshotAnalitico;
+    }
+
+    /**
+     * Agrega o ISSQN das linhas filtradas
+     *
+     * @param agrupamento nenhum, tipo, mes ou simples-nacional
+     * @param dataInicio Data inicial (opcional, inclusiva)
+     * @param dataFim Data final (opcional, inclusiva)
+     * @param tipoCredito Tipo de crédito (opcional)
+     * @param simplesNacional Opção pelo Simples Nacional (opcional)
+     * @param aliquotaMinima Alíquota mínima (opcional, inclusiva)
+     * @param aliquotaMaxima Alíquota máxima (opcional, inclusiva)
+     * @return Um grupo por chave encontrada
+     * @throws CreditoException se parâmetro inválido ou snapshot ainda não carregado
+     */
+    public ResultadoAnaliticoDTO<List<EstatisticasDTO.Grupo>> agregar(String agrupamento,
+                                                                     LocalDate dataInicio, LocalDate dataFim,
+                                                                     String tipoCredito, Boolean simplesNacional,
+                                                                     BigDecimal aliquotaMinima,
+                                                                     BigDecimal aliquotaMaxima) {
+        SnapshotColunar.Agrupamento criterio = agrupamento(agrupamento);
+        SnapshotColunar.Filtro filtro = filtro(dataInicio, dataFim, aliquotaMinima, aliquotaMaxima)
+                .tipoCredito(tipoCredito)
+                .simplesNacional(simplesNacional);
+
+        SnapshotColunar snapshot = snapshotAnalitico.obter();
+        return resultado(snapshot, snapshot.agregar(filtro, criterio));
+    }
+
+    /**
+     * Créditos na faixa de alíquota, em ordem crescente de alíquota
+     *
+     * @throws CreditoException se parâmetro inválido ou snapshot ainda não carregado
+     */
+    public ResultadoAnaliticoDTO<List<CreditoResponseDTO>> listarPorAliquota(BigDecimal aliquotaMinima,
+                                                                             BigDecimal aliquotaMaxima,
+                                                                             int limite) {
+        validarLimite(limite);
+        SnapshotColunar.Filtro filtro = filtro(null, null, aliquotaMinima, aliquotaMaxima);
+
+        SnapshotColunar snapshot = snapshotAnalitico.obter();
+        return resultado(snapshot, snapshot.listarPorAliquota(filtro, limite));
+    }
+
+    /**
+     * Créditos cujo ISSQN difere de base de cálculo x alíquota / 100 por mais de 0,01
+     *
+     * @throws CreditoException se parâmetro inválido ou snapshot ainda não carregado
+     */
+    public ResultadoAnaliticoDTO<List<CreditoResponseDTO>> listarInconsistentes(int limite) {
+        validarLimite(limite);
+
+        SnapshotColunar snapshot = snapshotAnalitico.obter();
+        return resultado(snapshot, snapshot.listarInconsistentes(limite));
+    }
+
+    /**
+     * Números de crédito ou de NFS-e presentes em mais de um registro
+     *
+     * @param coluna credito ou nfse
+     * @throws CreditoException se parâmetro inválido ou snapshot ainda não carregado
+     */
+    public ResultadoAnaliticoDTO<Map<String, Integer>> listarDuplicados(String coluna, int limite) {
+        validarLimite(limite);
+        SnapshotColunar.Coluna colunaDuplicados;
+        if ("credito".equalsIgnoreCase(coluna)) {
+            colunaDuplicados = SnapshotColunar.Coluna.CREDITO;
+        } else if ("nfse".equalsIgnoreCase(coluna)) {
+            colunaDuplicados = SnapshotColunar.Coluna.NFSE;
+        } else {
+            throw CreditoException.parametroInvalido("coluna", coluna, "colunas suportadas: credito, nfse");
+        }
+
+        SnapshotColunar snapshot = snapshotAnalitico.obter();
+        return resultado(snapshot, snapshot.duplicados(colunaDuplicados, limite));
+    }
+
+    // ================================================
+    // MÉTODOS PRIVADOS AUXILIARES
+    // ================================================
+
+    private static SnapshotColunar.Agrupamento agrupamento(String valor) {
+        if (valor != null) {
+            String normalizado = valor.trim().replace('-', '_');
+            for (SnapshotColunar.Agrupamento agrupamento : SnapshotColunar.Agrupamento.values()) {
+                if (agrupamento.name().equalsIgnoreCase(normalizado)) {
+                    return agrupamento;
+                }
+            }
+        }
+        throw CreditoException.parametroInvalido("agrupamento", valor,
+                "agrupamentos suportados: nenhum, tipo, mes, simples-nacional");
+    }
+
+    private static SnapshotColunar.Filtro filtro(LocalDate dataInicio, LocalDate dataFim,
+                                                 BigDecimal aliquotaMinima, BigDecimal aliquotaMaxima) {
+        if (dataInicio != null && dataFim != null && dataInicio.isAfter(dataFim)) {
+            throw CreditoException.parametroInvalido("dataInicio", String.valueOf(dataInicio),
+                    "data inicial deve ser anterior ou igual à data final");
+        }
+        if (aliquotaMinima != null && aliquotaMaxima != null && aliquotaMinima.compareTo(aliquotaMaxima) > 0) {
+            throw CreditoException.parametroInvalido("aliquotaMinima", aliquotaMinima.toPlainString(),
+                    "alíquota mínima deve ser menor ou igual à máxima");
+        }
+        return SnapshotColunar.Filtro.todos()
+                .periodo(dataInicio, dataFim)
+                .aliquota(aliquotaMinima, aliquotaMaxima);
+    }
+
+    private static void validarLimite(int limite) {
+        if (limite < 1 || limite > LIMITE_MAXIMO) {
+            throw CreditoException.parametroInvalido("limite", String.valueOf(limite),
+                    "deve estar entre 1 e " + LIMITE_MAXIMO);
+        }
+    }
+
+    private static <T> ResultadoAnaliticoDTO<T> resultado(SnapshotColunar snapshot, T dados) {
+        return new ResultadoAnaliticoDTO<>(dados, snapshot.getQuantidade(), snapshot.getGeradoEm());
+    }
+}
@@ -0,0 +1,550 @@
+package com.creditos.service;
+
+import com.creditos.dto.AuditoriaConsistenciaDTO;
+import com.creditos.exception.CreditoException;
+import com.creditos.util.ConsistenciaIssqn;
+import com.creditos.util.LoggingUtils;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Service de auditoria da consistência do ISSQN (valorIssqn x baseCalculo x aliquota / 100)
+ *
+ * A tabela é dividida em partições por faixa de id. Cada partição é lida por um cursor JDBC
+ * somente-avanço e verificada em aritmética inteira exata (ConsistenciaIssqn): o banco devolve os
+ * valores já em centavos e pontos-base, e nenhum BigDecimal é criado para créditos consistentes.
+ * As partições rodam em paralelo em um ForkJoinPool dedicado e os parciais (totais por tipo e
+ * maiores divergências) são unidos na volta da recursão.
+ *
+ * As leituras usam um pool de conexões próprio, criado para cada auditoria com no máximo
+ * "paralelismo" conexões somente-leitura e fechado ao final: o pool da API não é disputado,
+ * qualquer que seja o tamanho da tabela.
+ *
+ * Como na importação, a auditoria roda em segundo plano: o andamento e o relatório ficam no
+ * status do job, e o relatório também é gravado em arquivo JSON para download.
+ *
+ * @author Ednilton Curt Rauh
+ * @version 1.0.0
+ */
+@Service
+public class CreditoAuditoriaService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CreditoAuditoriaService.class);
+
+    private static final String SQL_LIMITES = "SELECT MIN(id), MAX(id) FROM credito";
+
+    // Conversão no banco: valores NUMERIC(15,2) e NUMERIC(5,2) multiplicados por 100 são inteiros exatos
+    private static final String SQL_PARTICAO = "SELECT id, tipo_credito, " +
+            "CAST(valor_issqn * 100 AS BIGINT), CAST(base_calculo * 100 AS BIGINT), CAST(aliquota * 100 AS INTEGER), " +
+            "numero_credito, numero_nfse FROM credito WHERE id BETWEEN ? AND ?";
+
+    /**
+     * Leitura das linhas de uma faixa de ids (inclusiva) para o parcial
+     */
+    interface LeitorParticao {
+        void ler(long idInicial, long idFinal, Parcial parcial);
+    }
+
+    private final DataSourceProperties dataSourceProperties;
+    private final ObjectMapper objectMapper;
+    private final Path diretorio;
+    private final int paralelismo;
+    private final long tamanhoParticao;
+    private final int fetchSize;
+    private final int quantidadeMaiores;
+    private final Duration retencao;
+    private final ExecutorService coordenador;
+    private final ForkJoinPool pool;
+
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+
+    @Autowired
+    public CreditoAuditoriaService(DataSourceProperties dataSourceProperties,
+                                   ObjectMapper objectMapper,
+                                   @Value("${app.auditoria.diretorio:${java.io.tmpdir}}") String diretorio,
+                                   @Value("${app.auditoria.paralelismo:2}") int paralelismo,
+                                   @Value("${app.auditoria.tamanho-particao:100000}") long tamanhoParticao,
+                                   @Value("${app.auditoria.fetch-size:5000}") int fetchSize,
+                                   @Value("${app.auditoria.quantidade-maiores:100}") int quantidadeMaiores,
+                                   @Value("${app.auditoria.retencao:PT24H}") Duration retencao) {
+        this.dataSourceProperties = dataSourceProperties;
+        this.objectMapper = objectMapper;
+        this.diretorio = Paths.get(diretorio);
+        this.paralelismo = paralelismo;
+        this.tamanhoParticao = tamanhoParticao;
+        this.fetchSize = fetchSize;
+        this.quantidadeMaiores = quantidadeMaiores;
+        this.retencao = retencao;
+
+        // Uma auditoria por vez; as seguintes aguardam como PENDENTE
+        this.coordenador = Executors.newSingleThreadExecutor(tarefa -> {
+            Thread thread = new Thread(tarefa, "auditoria-consistencia");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        AtomicInteger contador = new AtomicInteger();
+        this.pool = new ForkJoinPool(paralelismo, forkJoinPool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(forkJoinPool);
+            thread.setName("auditoria-consistencia-" + contador.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }, null, false);
+    }
+
+    /**
+     * Agenda uma auditoria de toda a tabela
+     *
+     * @return Status inicial do job (PENDENTE)
+     */
+    public AuditoriaConsistenciaDTO iniciar() {
+        removerExpirados();
+
+        Job job = new Job(UUID.randomUUID().toString());
+        job.relatorio = diretorio.resolve("auditoria-consistencia-" + job.id + ".json");
+        jobs.put(job.id, job);
+        coordenador.execute(() -> executar(job));
+
+        LoggingUtils.logOperacaoFinalizada(logger, "Auditoria de consistência agendada " + job.id, null);
+        return job.paraDTO();
+    }
+
+    /**
+     * Consulta o andamento (ou o relatório, se concluída) de uma auditoria
+     *
+     * @throws CreditoException se o job não existir ou já tiver expirado
+     */
+    public AuditoriaConsistenciaDTO consultarStatus(String id) {
+        return obterJob(id).paraDTO();
+    }
+
+    /**
+     * Verifica se o relatório JSON já foi gravado
+     * Deve ser chamado na thread da requisição, antes do streaming, para que erros resultem em 4xx
+     *
+     * @throws CreditoException se o job não existir, já tiver expirado ou ainda não tiver concluído
+     */
+    public void validarRelatorio(String id) {
+        Job job = obterJob(id);
+        if (job.status != AuditoriaConsistenciaDTO.Status.CONCLUIDA) {
+            throw CreditoException.parametroInvalido("id", id, "relatório disponível apenas para auditorias concluídas");
+        }
+    }
+
+    /**
+     * Escreve o relatório JSON gravado ao final da auditoria
+     *
+     * @throws CreditoException se o job não existir, já tiver expirado ou ainda não tiver concluído
+     */
+    public void escreverRelatorio(String id, OutputStream saida) throws IOException {
+        validarRelatorio(id);
+        Files.copy(obterJob(id).relatorio, saida);
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        coordenador.shutdownNow();
+        pool.shutdownNow();
+    }
+
+    // ================================================
+    // EXECUÇÃO DO JOB
+    // ================================================
+
+    private void executar(Job job) {
+        job.status = AuditoriaConsistenciaDTO.Status.PROCESSANDO;
+        job.inicio = System.currentTimeMillis();
+
+        try (HikariDataSource dataSource = criarDataSource()) {
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+            jdbcTemplate.setFetchSize(fetchSize);
+
+            Long[] limites = jdbcTemplate.queryForObject(SQL_LIMITES,
+                    (rs, numeroLinha) -> new Long[]{(Long) rs.getObject(1), (Long) rs.getObject(2)});
+
+            Parcial resultado;
+            if (limites == null || limites[0] == null) {
+                resultado = new Parcial(quantidadeMaiores);
+            } else {
+                job.idInicial = limites[0];
+                job.idFinal = limites[1];
+                job.particoes = quantidadeParticoes(limites[0], limites[1], tamanhoParticao);
+                resultado = auditar(pool, limites[0], limites[1], tamanhoParticao, quantidadeMaiores,
+                        (inicio, fim, parcial) -> lerParticao(jdbcTemplate, inicio, fim, parcial),
+                        job.particoesConcluidas);
+            }
+
+            job.resultado = resultado;
+            job.fim = System.currentTimeMillis();
+
+            // O relatório é gravado antes de o status mudar, para o download nunca encontrar arquivo parcial
+            AuditoriaConsistenciaDTO relatorio = job.paraDTO();
+            relatorio.setStatus(AuditoriaConsistenciaDTO.Status.CONCLUIDA);
+            Files.createDirectories(diretorio);
+            objectMapper.writerWithDefaultPrettyPrinter().writeValue(job.relatorio.toFile(), relatorio);
+            job.status = AuditoriaConsistenciaDTO.Status.CONCLUIDA;
+
+            LoggingUtils.logPerformance(logger, "Auditoria de consistência " + job.id,
+                    job.fim - job.inicio, (int) Math.min(resultado.inconsistentes(), Integer.MAX_VALUE));
+
+        } catch (Exception ex) {
+            job.resultado = null;
+            job.mensagem = "Falha na auditoria: " + ex.getMessage();
+            job.status = AuditoriaConsistenciaDTO.Status.FALHA;
+            LoggingUtils.logErroInterno(logger, "Auditoria de consistência " + job.id, ex, null);
+        } finally {
+            if (job.fim == null) {
+                job.fim = System.currentTimeMillis();
+            }
+        }
+    }
+
+    /**
+     * Verifica as partições [idInicial, idFinal] em paralelo no pool informado
+     *
+     * @param concluidas Incrementado a cada partição verificada
+     * @return Parcial com os totais de toda a faixa
+     */
+    static Parcial auditar(ForkJoinPool pool, long idInicial, long idFinal, long tamanhoParticao,
+                           int quantidadeMaiores, LeitorParticao leitor, AtomicLong concluidas) {
+        long particoes = quantidadeParticoes(idInicial, idFinal, tamanhoParticao);
+        return pool.invoke(new TarefaParticoes(idInicial, idFinal, tamanhoParticao, quantidadeMaiores,
+                leitor, concluidas, 0, particoes));
+    }
+
+    static long quantidadeParticoes(long idInicial, long idFinal, long tamanhoParticao) {
+        return (idFinal - idInicial) / tamanhoParticao + 1;
+    }
+
+    private void lerParticao(JdbcTemplate jdbcTemplate, long inicio, long fim, Parcial parcial) {
+        jdbcTemplate.query(SQL_PARTICAO, (RowCallbackHandler) rs -> {
+            long valorIssqn = rs.getLong(3);
+            long baseCalculo = rs.getLong(4);
+            int aliquota = rs.getInt(5);
+            long diferenca = ConsistenciaIssqn.diferenca(valorIssqn, baseCalculo, aliquota);
+            String tipo = rs.getString(2);
+
+            // Números do crédito só são lidos para as divergências que entram no relatório
+            if (parcial.registrar(tipo, diferenca)) {
+                parcial.oferecer(new Ocorrencia(rs.getLong(1), rs.getString(6), rs.getString(7), tipo,
+                        valorIssqn, baseCalculo, aliquota, diferenca));
+            }
+        }, inicio, fim);
+    }
+
+    private HikariDataSource criarDataSource() {
+        HikariDataSource dataSource = dataSourceProperties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        dataSource.setPoolName("auditoria-consistencia");
+        dataSource.setMaximumPoolSize(paralelismo);
+        dataSource.setMinimumIdle(0);
+        dataSource.setReadOnly(true);
+        // Sem auto-commit o driver PostgreSQL respeita o fetch size e lê a partição em blocos
+        dataSource.setAutoCommit(false);
+        return dataSource;
+    }
+
+    private Job obterJob(String id) {
+        Job job = id == null ? null : jobs.get(id);
+        if (job == null) {
+            throw CreditoException.auditoriaNaoEncontrada(id);
+        }
+        return job;
+    }
+
+    /**
+     * Descarta jobs encerrados há mais tempo que a retenção, com seus relatórios
+     */
+    private void removerExpirados() {
+        long limite = System.currentTimeMillis() - retencao.toMillis();
+        Iterator<Job> iterator = jobs.values().iterator();
+        while (iterator.hasNext()) {
+            Job job = iterator.next();
+            Long fim = job.fim;
+            if (fim != null && fim < limite) {
+                iterator.remove();
+                try {
+                    Files.deleteIfExists(job.relatorio);
+                } catch (IOException ex) {
+                    logger.warn("AUDITORIA | Não foi possível apagar {}: {}", job.relatorio, ex.getMessage());
+                }
+            }
+        }
+    }
+
+    // ================================================
+    // PARTIÇÕES E PARCIAIS
+    // ================================================
+
+    /**
+     * Divide as partições [primeira, ultima) ao meio até restar uma, lida pela própria thread
+     */
+    private static final class TarefaParticoes extends RecursiveTask<Parcial> {
+        private final long idInicial;
+        private final long idFinal;
+        private final long tamanhoParticao;
+        private final int quantidadeMaiores;
+        private final LeitorParticao leitor;
+        private final AtomicLong concluidas;
+        private final long primeira;
+        private final long ultima;
+
+        TarefaParticoes(long idInicial, long idFinal, long tamanhoParticao, int quantidadeMaiores,
+                        LeitorParticao leitor, AtomicLong concluidas, long primeira, long ultima) {
+            this.idInicial = idInicial;
+            this.idFinal = idFinal;
+            this.tamanhoParticao = tamanhoParticao;
+            this.quantidadeMaiores = quantidadeMaiores;
+            this.leitor = leitor;
+            this.concluidas = concluidas;
+            this.primeira = primeira;
+            this.ultima = ultima;
+        }
+
+        @Override
+        protected Parcial compute() {
+            if (ultima - primeira == 1) {
+                long inicio = idInicial + primeira * tamanhoParticao;
+                long fim = Math.min(idFinal, inicio + tamanhoParticao - 1);
+                Parcial parcial = new Parcial(quantidadeMaiores);
+                leitor.ler(inicio, fim, parcial);
+                concluidas.incrementAndGet();
+                return parcial;
+            }
+
+            long meio = primeira + (ultima - primeira) / 2;
+            TarefaParticoes esquerda = new TarefaParticoes(idInicial, idFinal, tamanhoParticao, quantidadeMaiores,
+                    leitor, concluidas, primeira, meio);
+            TarefaParticoes direita = new TarefaParticoes(idInicial, idFinal, tamanhoParticao, quantidadeMaiores,
+                    leitor, concluidas, meio, ultima);
+            esquerda.fork();
+            Parcial resultado = direita.compute();
+            resultado.unir(esquerda.join());
+            return resultado;
+        }
+    }
+
+    /**
+     * Totais por tipo e maiores divergências de um conjunto de partições
+     * Cada instância pertence a uma única tarefa; a união acontece após o join
+     */
+    static final class Parcial {
+        private final int quantidadeMaiores;
+        private final Map<String, long[]> porTipo = new HashMap<>();
+        // Heap mínimo pela magnitude da diferença: o topo é a menor divergência guardada
+        private final PriorityQueue<Ocorrencia> maiores =
+                new PriorityQueue<>((a, b) -> Long.compare(a.magnitude(), b.magnitude()));
+
+        Parcial(int quantidadeMaiores) {
+            this.quantidadeMaiores = quantidadeMaiores;
+        }
+
+        /**
+         * Conta o crédito no seu tipo
+         *
+         * @param diferenca ISSQN x 10000 - base x alíquota (ConsistenciaIssqn.diferenca)
+         * @return true se o crédito é inconsistente e entraria nas maiores divergências
+         */
+        boolean registrar(String tipo, long diferenca) {
+            long[] totais = porTipo.get(tipo);
+            if (totais == null) {
+                totais = new long[2];
+                porTipo.put(tipo, totais);
+            }
+            totais[0]++;
+
+            if (diferenca <= ConsistenciaIssqn.TOLERANCIA && diferenca >= -ConsistenciaIssqn.TOLERANCIA) {
+                return false;
+            }
+            totais[1]++;
+            return quantidadeMaiores > 0
+                    && (maiores.size() < quantidadeMaiores || magnitude(diferenca) > maiores.peek().magnitude());
+        }
+
+        void oferecer(Ocorrencia ocorrencia) {
+            if (quantidadeMaiores == 0) {
+                return;
+            }
+            if (maiores.size() < quantidadeMaiores) {
+                maiores.add(ocorrencia);
+            } else if (ocorrencia.magnitude() > maiores.peek().magnitude()) {
+                maiores.poll();
+                maiores.add(ocorrencia);
+            }
+        }
+
+        void unir(Parcial outra) {
+            for (Map.Entry<String, long[]> entrada : outra.porTipo.entrySet()) {
+                long[] totais = porTipo.get(entrada.getKey());
+                if (totais == null) {
+                    porTipo.put(entrada.getKey(), entrada.getValue());
+                } else {
+                    totais[0] += entrada.getValue()[0];
+                    totais[1] += entrada.getValue()[1];
+                }
+            }
+            for (Ocorrencia ocorrencia : outra.maiores) {
+                oferecer(ocorrencia);
+            }
+        }
+
+        long verificados() {
+            long total = 0;
+            for (long[] totais : porTipo.values()) {
+                total += totais[0];
+            }
+            return total;
+        }
+
+        long inconsistentes() {
+            long total = 0;
+            for (long[] totais : porTipo.values()) {
+                total += totais[1];
+            }
+            return total;
+        }
+
+        List<AuditoriaConsistenciaDTO.Tipo> porTipo() {
+            List<AuditoriaConsistenciaDTO.Tipo> resultado = new ArrayList<>();
+            for (Map.Entry<String, long[]> entrada : new TreeMap<>(porTipo).entrySet()) {
+                resultado.add(new AuditoriaConsistenciaDTO.Tipo(entrada.getKey(),
+                        entrada.getValue()[0], entrada.getValue()[1]));
+            }
+            return resultado;
+        }
+
+        /**
+         * Maiores divergências em ordem decrescente de magnitude (empates pelo id)
+         */
+        List<AuditoriaConsistenciaDTO.Divergencia> maioresDivergencias() {
+            List<Ocorrencia> ordenadas = new ArrayList<>(maiores);
+            ordenadas.sort((a, b) -> a.magnitude() != b.magnitude()
+                    ? Long.compare(b.magnitude(), a.magnitude())
+                    : Long.compare(a.id, b.id));
+
+            List<AuditoriaConsistenciaDTO.Divergencia> resultado = new ArrayList<>(ordenadas.size());
+            for (Ocorrencia ocorrencia : ordenadas) {
+                resultado.add(ocorrencia.paraDTO());
+            }
+            return resultado;
+        }
+    }
+
+    /**
+     * Crédito inconsistente em centavos e pontos-base
+     */
+    static final class Ocorrencia {
+        private final long id;
+        private final String numeroCredito;
+        private final String numeroNfse;
+        private final String tipoCredito;
+        private final long valorIssqn;
+        private final long baseCalculo;
+        private final int aliquota;
+        private final long diferenca;
+
+        Ocorrencia(long id, String numeroCredito, String numeroNfse, String tipoCredito,
+                   long valorIssqn, long baseCalculo, int aliquota, long diferenca) {
+            this.id = id;
+            this.numeroCredito = numeroCredito;
+            this.numeroNfse = numeroNfse;
+            this.tipoCredito = tipoCredito;
+            this.valorIssqn = valorIssqn;
+            this.baseCalculo = baseCalculo;
+            this.aliquota = aliquota;
+            this.diferenca = diferenca;
+        }
+
+        long magnitude() {
+            return CreditoAuditoriaService.magnitude(diferenca);
+        }
+
+        AuditoriaConsistenciaDTO.Divergencia paraDTO() {
+            // Diferença em milionésimos de real: ISSQN informado - calculado
+            return new AuditoriaConsistenciaDTO.Divergencia(id, numeroCredito, numeroNfse, tipoCredito,
+                    BigDecimal.valueOf(valorIssqn, 2), BigDecimal.valueOf(baseCalculo, 2),
+                    BigDecimal.valueOf(aliquota, 2), BigDecimal.valueOf(diferenca, 6).stripTrailingZeros());
+        }
+    }
+
+    private static long magnitude(long diferenca) {
+        return diferenca == Long.MIN_VALUE ? Long.MAX_VALUE : Math.abs(diferenca);
+    }
+
+    /**
+     * Estado de uma auditoria, atualizado pela thread do job e lido pelo endpoint de status
+     */
+    private static final class Job {
+        private final String id;
+        private final AtomicLong particoesConcluidas = new AtomicLong();
+        private Path relatorio;
+        private volatile AuditoriaConsistenciaDTO.Status status = AuditoriaConsistenciaDTO.Status.PENDENTE;
+        private volatile Long idInicial;
+        private volatile Long idFinal;
+        private volatile long particoes;
+        private volatile Parcial resultado;
+        private volatile String mensagem;
+        private volatile Long inicio;
+        private volatile Long fim;
+
+        Job(String id) {
+            this.id = id;
+        }
+
+        AuditoriaConsistenciaDTO paraDTO() {
+            AuditoriaConsistenciaDTO dto = new AuditoriaConsistenciaDTO();
+            dto.setId(id);
+            dto.setStatus(status);
+            dto.setIdInicial(idInicial);
+            dto.setIdFinal(idFinal);
+            dto.setParticoes(particoes);
+            dto.setParticoesConcluidas(particoesConcluidas.get());
+            dto.setMensagem(mensagem);
+            dto.setInicio(inicio);
+            dto.setFim(fim);
+
+            Parcial parcial = resultado;
+            if (parcial != null) {
+                dto.setVerificados(parcial.verificados());
+                dto.setInconsistentes(parcial.inconsistentes());
+                dto.setPorTipo(parcial.porTipo());
+                dto.setMaioresDivergencias(parcial.maioresDivergencias());
+            }
+            return dto;
+        }
+    }
+}
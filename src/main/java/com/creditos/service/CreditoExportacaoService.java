@@ -0,0 +1,351 @@
+package com.creditos.service;
+
+import com.creditos.dto.CreditoResponseDTO;
+import com.creditos.entity.DecimalFixoType;
+import com.creditos.exception.CreditoException;
+import com.creditos.util.LoggingUtils;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Service de exportação de créditos em streaming
+ *
+ * Lê a tabela credito com um cursor JDBC somente-avanço (fetch size configurável) e escreve
+ * cada linha diretamente no OutputStream da resposta. Nenhuma lista é materializada e não há
+ * contexto de persistência, de modo que o uso de heap é constante independente do tamanho da tabela.
+ *
+ * @author Ednilton Curt Rauh
+ * @version 1.0.0
+ */
+@Service
+public class CreditoExportacaoService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CreditoExportacaoService.class);
+
+    private static final String SQL_BASE = "SELECT numero_credito, numero_nfse, data_constituicao, valor_issqn, " +
+            "tipo_credito, simples_nacional, aliquota, valor_faturado, valor_deducao, base_calculo FROM credito";
+
+    private static final String CABECALHO_CSV = "numeroCredito,numeroNfse,dataConstituicao,valorIssqn,tipoCredito," +
+            "simplesNacional,aliquota,valorFaturado,valorDeducao,baseCalculo";
+
+    private static final int TAMANHO_BUFFER = 64 * 1024;
+
+    /**
+     * Formatos de exportação suportados
+     */
+    public enum Formato {
+        /** Um objeto JSON por linha (application/x-ndjson) */
+        NDJSON("application/x-ndjson", "ndjson"),
+        /** Valores separados por vírgula com cabeçalho (text/csv) */
+        CSV("text/csv", "csv"),
+        /** Array JSON único, compatível com a listagem administrativa original */
+        JSON("application/json", "json");
+
+        private final String contentType;
+        private final String extensao;
+
+        Formato(String contentType, String extensao) {
+            this.contentType = contentType;
+            this.extensao = extensao;
+        }
+
+        public String getContentType() { return contentType; }
+        public String getExtensao() { return extensao; }
+
+        /**
+         * Converte o parâmetro da requisição (case insensitive)
+         *
+         * @throws CreditoException se o formato não for suportado
+         */
+        public static Formato of(String valor) {
+            if (valor != null) {
+                for (Formato formato : values()) {
+                    if (formato.extensao.equalsIgnoreCase(valor.trim())) {
+                        return formato;
+                    }
+                }
+            }
+            throw CreditoException.parametroInvalido("formato", valor, "formatos suportados: ndjson, csv, json");
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final int fetchSize;
+
+    @Autowired
+    public CreditoExportacaoService(JdbcTemplate jdbcTemplate,
+                                    PlatformTransactionManager transactionManager,
+                                    ObjectMapper objectMapper,
+                                    @Value("${app.exportacao.fetch-size:2000}") int fetchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.objectMapper = objectMapper;
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * Valida os filtros de exportação antes de iniciar o streaming
+     * Deve ser chamado na thread da requisição, para que erros resultem em 400 e não em resposta truncada
+     *
+     * @param dataInicio Data inicial (opcional)
+     * @param dataFim Data final (opcional)
+     * @throws CreditoException se o período for inválido
+     */
+    public void validarFiltros(LocalDate dataInicio, LocalDate dataFim) {
+        if (dataInicio != null && dataFim != null && dataInicio.isAfter(dataFim)) {
+            throw CreditoException.parametroInvalido("dataInicio", String.valueOf(dataInicio),
+                    "data inicial deve ser anterior ou igual à data final");
+        }
+    }
+
+    /**
+     * Exporta os créditos no formato solicitado, escrevendo diretamente no stream
+     *
+     * @param formato Formato de saída
+     * @param dataInicio Data inicial do filtro (opcional, inclusiva)
+     * @param dataFim Data final do filtro (opcional, inclusiva)
+     * @param saida Stream de saída da resposta
+     * @return Quantidade de créditos exportados
+     */
+    public long exportar(Formato formato, LocalDate dataInicio, LocalDate dataFim, OutputStream saida) {
+        validarFiltros(dataInicio, dataFim);
+
+        long inicio = System.currentTimeMillis();
+        Writer writer = new BufferedWriter(new OutputStreamWriter(saida, StandardCharsets.UTF_8), TAMANHO_BUFFER);
+
+        try {
+            EscritorLinhas escritor = criarEscritor(formato, writer);
+            long total = transactionTemplate.execute(status -> executarConsulta(dataInicio, dataFim, escritor));
+            escritor.finalizar();
+            writer.flush();
+
+            LoggingUtils.logPerformance(logger, "Exportação " + formato.name(),
+                    System.currentTimeMillis() - inicio, (int) Math.min(total, Integer.MAX_VALUE));
+            return total;
+
+        } catch (UncheckedIOException ex) {
+            // Cliente desconectou no meio da transferência; a transação e o cursor já foram encerrados
+            logger.warn("EXPORTAÇÃO | Transferência interrompida: {}", ex.getCause().getMessage());
+            throw ex;
+        } catch (IOException ex) {
+            logger.warn("EXPORTAÇÃO | Transferência interrompida: {}", ex.getMessage());
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    // ================================================
+    // MÉTODOS PRIVADOS AUXILIARES
+    // ================================================
+
+    private long executarConsulta(LocalDate dataInicio, LocalDate dataFim, EscritorLinhas escritor) {
+        StringBuilder sql = new StringBuilder(SQL_BASE);
+        List<Object> parametros = new ArrayList<>(2);
+
+        if (dataInicio != null) {
+            sql.append(parametros.isEmpty() ? " WHERE" : " AND").append(" data_constituicao >= ?");
+            parametros.add(Date.valueOf(dataInicio));
+        }
+        if (dataFim != null) {
+            sql.append(parametros.isEmpty() ? " WHERE" : " AND").append(" data_constituicao <= ?");
+            parametros.add(Date.valueOf(dataFim));
+        }
+        sql.append(" ORDER BY id");
+
+        long[] contador = new long[1];
+        RowCallbackHandler handler = rs -> {
+            escritor.escrever(rs);
+            contador[0]++;
+        };
+
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(sql.toString(),
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(fetchSize);
+            for (int i = 0; i < parametros.size(); i++) {
+                ps.setObject(i + 1, parametros.get(i));
+            }
+            return ps;
+        }, handler);
+
+        return contador[0];
+    }
+
+    private EscritorLinhas criarEscritor(Formato formato, Writer writer) throws IOException {
+        switch (formato) {
+            case CSV:
+                return new EscritorCsv(writer);
+            case JSON:
+                return new EscritorJson(escritorJson().writeValuesAsArray(writer));
+            case NDJSON:
+            default:
+                return new EscritorJson(escritorJson()
+                        .withRootValueSeparator("\n")
+                        .writeValues(writer));
+        }
+    }
+
+    /**
+     * O fechamento do SequenceWriter encerra o array JSON, mas não o stream da resposta,
+     * que ainda recebe o flush final em exportar()
+     */
+    private ObjectWriter escritorJson() {
+        return objectMapper.writerFor(CreditoResponseDTO.class).without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    }
+
+    /**
+     * Converte a linha corrente do ResultSet no DTO de resposta
+     */
+    private static CreditoResponseDTO lerLinha(ResultSet rs) throws SQLException {
+        return new CreditoResponseDTO(
+                rs.getString(1),
+                rs.getString(2),
+                rs.getDate(3).toLocalDate(),
+                DecimalFixoType.ler(rs, 4),
+                rs.getString(5),
+                rs.getBoolean(6),
+                DecimalFixoType.ler(rs, 7),
+                DecimalFixoType.ler(rs, 8),
+                DecimalFixoType.ler(rs, 9),
+                DecimalFixoType.ler(rs, 10)
+        );
+    }
+
+    /**
+     * Estratégia de escrita de linhas por formato
+     */
+    private interface EscritorLinhas {
+        void escrever(ResultSet rs) throws SQLException;
+
+        void finalizar() throws IOException;
+    }
+
+    /**
+     * Escrita JSON (NDJSON ou array) via SequenceWriter do Jackson
+     */
+    private static final class EscritorJson implements EscritorLinhas {
+        private final SequenceWriter sequenceWriter;
+
+        EscritorJson(SequenceWriter sequenceWriter) {
+            this.sequenceWriter = sequenceWriter;
+        }
+
+        @Override
+        public void escrever(ResultSet rs) throws SQLException {
+            try {
+                sequenceWriter.write(lerLinha(rs));
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+
+        @Override
+        public void finalizar() throws IOException {
+            sequenceWriter.close();
+        }
+    }
+
+    /**
+     * Escrita CSV (RFC 4180) sem objetos intermediários
+     */
+    private static final class EscritorCsv implements EscritorLinhas {
+        private final Writer writer;
+
+        EscritorCsv(Writer writer) throws IOException {
+            this.writer = writer;
+            writer.write(CABECALHO_CSV);
+            writer.write('\n');
+        }
+
+        @Override
+        public void escrever(ResultSet rs) throws SQLException {
+            try {
+                escreverTexto(rs.getString(1));
+                writer.write(',');
+                escreverTexto(rs.getString(2));
+                writer.write(',');
+                writer.write(rs.getDate(3).toLocalDate().toString());
+                writer.write(',');
+                escreverDecimal(rs.getString(4));
+                writer.write(',');
+                escreverTexto(rs.getString(5));
+                writer.write(',');
+                writer.write(rs.getBoolean(6) ? "Sim" : "Não");
+                writer.write(',');
+                escreverDecimal(rs.getString(7));
+                writer.write(',');
+                escreverDecimal(rs.getString(8));
+                writer.write(',');
+                escreverDecimal(rs.getString(9));
+                writer.write(',');
+                escreverDecimal(rs.getString(10));
+                writer.write('\n');
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+
+        @Override
+        public void finalizar() throws IOException {
+            writer.flush();
+        }
+
+        /**
+         * O texto da coluna NUMERIC(p, 2) já vem sem notação científica e com duas casas
+         */
+        private void escreverDecimal(String valor) throws IOException {
+            if (valor != null) {
+                writer.write(valor);
+            }
+        }
+
+        private void escreverTexto(String valor) throws IOException {
+            if (valor == null) {
+                return;
+            }
+
+            boolean precisaAspas = false;
+            for (int i = 0; i < valor.length() && !precisaAspas; i++) {
+                char c = valor.charAt(i);
+                precisaAspas = c == ',' || c == '"' || c == '\n' || c == '\r';
+            }
+
+            if (!precisaAspas) {
+                writer.write(valor);
+                return;
+            }
+
+            writer.write('"');
+            writer.write(valor.replace("\"", "\"\""));
+            writer.write('"');
+        }
+    }
+}
@@ -0,0 +1,464 @@
+package com.creditos.service;
+
+import com.creditos.cache.InvalidacaoCache;
+import com.creditos.dto.CreditoEventoDTO;
+import com.creditos.dto.ImportacaoStatusDTO;
+import com.creditos.exception.CreditoException;
+import com.creditos.util.LoggingUtils;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import javax.annotation.PreDestroy;
+import java.io.BufferedReader;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Service de importação em massa de créditos (arquivos CSV ou NDJSON)
+ *
+ * O arquivo recebido é gravado em disco e processado em segundo plano, em uma única transação:
+ * 1. Leitura em streaming, linha a linha, com as mesmas validações da ingestão por Kafka
+ *    (ValidationUtils.validateDadosCredito, incluindo a consistência do ISSQN)
+ * 2. Linhas válidas enviadas pelo COPY do driver PostgreSQL (CopyManager) para uma tabela temporária
+ * 3. Merge set-based na tabela credito, ignorando créditos já existentes (mesmo número e NFS-e)
+ *    e repetições dentro do próprio arquivo; no mesmo comando, os inseridos são somados aos
+ *    agregados de ISSQN (CreditoAgregadoService)
+ *
+ * Linhas rejeitadas vão para um relatório CSV (linha, motivo) e o andamento pode ser acompanhado
+ * pelo status do job. Ao final, o filtro de Bloom e o índice de busca parcial são reconstruídos
+ * e os caches "creditos" e "existencia" são limpos em todas as instâncias
+ * (InvalidacaoCache.reconstruirIndices).
+ *
+ * @author Ednilton Curt Rauh
+ * @version 1.0.0
+ */
+@Service
+public class CreditoImportacaoService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CreditoImportacaoService.class);
+
+    private static final int TAMANHO_BUFFER_COPY = 64 * 1024;
+    private static final int TAMANHO_BUFFER_LEITURA = 64 * 1024;
+
+    private static final String CRIAR_STAGING =
+            "CREATE TEMP TABLE credito_importacao (" +
+            "linha BIGINT NOT NULL, numero_credito VARCHAR(50), numero_nfse VARCHAR(50), " +
+            "data_constituicao DATE, valor_issqn NUMERIC, tipo_credito VARCHAR(50), simples_nacional BOOLEAN, " +
+            "aliquota NUMERIC, valor_faturado NUMERIC, valor_deducao NUMERIC, base_calculo NUMERIC" +
+            ") ON COMMIT DROP";
+
+    private static final String COPY_STAGING =
+            "COPY credito_importacao (linha, numero_credito, numero_nfse, data_constituicao, valor_issqn, " +
+            "tipo_credito, simples_nacional, aliquota, valor_faturado, valor_deducao, base_calculo) " +
+            "FROM STDIN WITH (FORMAT csv)";
+
+    // DISTINCT ON mantém a primeira ocorrência de cada crédito no arquivo; créditos já existentes
+    // (inclusive gravados por uma ingestão concorrente) são descartados pelo índice único
+    private static final String MERGE_STAGING =
+            "INSERT INTO credito (numero_credito, numero_nfse, data_constituicao, valor_issqn, tipo_credito, " +
+            "simples_nacional, aliquota, valor_faturado, valor_deducao, base_calculo) " +
+            "SELECT DISTINCT ON (s.numero_credito, s.numero_nfse) s.numero_credito, s.numero_nfse, " +
+            "s.data_constituicao, s.valor_issqn, s.tipo_credito, s.simples_nacional, s.aliquota, " +
+            "s.valor_faturado, s.valor_deducao, s.base_calculo " +
+            "FROM credito_importacao s " +
+            "ORDER BY s.numero_credito, s.numero_nfse, s.linha " +
+            "ON CONFLICT (numero_credito, numero_nfse) DO NOTHING";
+
+    // Merge e agregados de ISSQN em um único comando; devolve a quantidade de créditos inseridos
+    private static final String MERGE_E_AGREGAR =
+            "WITH inseridos AS (" + MERGE_STAGING +
+            " RETURNING tipo_credito, simples_nacional, data_constituicao, valor_issqn), " +
+            "agregados AS (" + CreditoAgregadoService.acumularDe("inseridos") + ") " +
+            "SELECT COUNT(*) FROM inseridos";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final InvalidacaoCache invalidacaoCache;
+    private final Path diretorio;
+    private final Duration retencao;
+    private final ExecutorService executor;
+
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+
+    @Autowired
+    public CreditoImportacaoService(JdbcTemplate jdbcTemplate,
+                                    PlatformTransactionManager transactionManager,
+                                    ObjectMapper objectMapper,
+                                    InvalidacaoCache invalidacaoCache,
+                                    @Value("${app.importacao.diretorio:${java.io.tmpdir}}") String diretorio,
+                                    @Value("${app.importacao.concorrencia:1}") int concorrencia,
+                                    @Value("${app.importacao.retencao:PT24H}") Duration retencao) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+        this.invalidacaoCache = invalidacaoCache;
+        this.diretorio = Paths.get(diretorio);
+        this.retencao = retencao;
+
+        AtomicInteger contador = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(concorrencia, tarefa -> {
+            Thread thread = new Thread(tarefa, "importacao-creditos-" + contador.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Recebe o arquivo e agenda a importação
+     *
+     * @param arquivo Arquivo enviado (CSV com cabeçalho ou NDJSON)
+     * @param formato Formato informado; se vazio, é deduzido pela extensão do arquivo
+     * @return Status inicial do job (PENDENTE)
+     * @throws CreditoException se o arquivo estiver vazio ou o formato não for suportado
+     */
+    public ImportacaoStatusDTO iniciar(MultipartFile arquivo, String formato) {
+        if (arquivo == null || arquivo.isEmpty()) {
+            throw CreditoException.parametroInvalido("arquivo", null, "arquivo vazio");
+        }
+        CreditoExportacaoService.Formato formatoArquivo = resolverFormato(formato, arquivo.getOriginalFilename());
+
+        removerExpirados();
+
+        Job job = new Job(UUID.randomUUID().toString(), arquivo.getOriginalFilename(), formatoArquivo, arquivo.getSize());
+        try {
+            Files.createDirectories(diretorio);
+            job.entrada = diretorio.resolve("importacao-" + job.id + "." + formatoArquivo.getExtensao());
+            job.relatorio = diretorio.resolve("importacao-" + job.id + "-erros.csv");
+            arquivo.transferTo(job.entrada);
+        } catch (IOException ex) {
+            LoggingUtils.logErroInterno(logger, "Recebimento de importação", ex, job.arquivo);
+            throw CreditoException.erroInterno("Falha ao gravar o arquivo de importação: " + ex.getMessage());
+        }
+
+        jobs.put(job.id, job);
+        executor.execute(() -> executar(job));
+
+        LoggingUtils.logOperacaoFinalizada(logger, "Importação agendada " + job.id, null);
+        return job.paraDTO();
+    }
+
+    /**
+     * Consulta o andamento de uma importação
+     *
+     * @throws CreditoException se o job não existir ou já tiver expirado
+     */
+    public ImportacaoStatusDTO consultarStatus(String id) {
+        return obterJob(id).paraDTO();
+    }
+
+    /**
+     * Escreve o relatório de linhas rejeitadas (CSV: linha, motivo)
+     *
+     * @throws CreditoException se o job não existir ou já tiver expirado
+     */
+    public void escreverRelatorioErros(String id, OutputStream saida) throws IOException {
+        Job job = obterJob(id);
+        if (Files.exists(job.relatorio)) {
+            Files.copy(job.relatorio, saida);
+        }
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        executor.shutdownNow();
+    }
+
+    // ================================================
+    // EXECUÇÃO DO JOB
+    // ================================================
+
+    private void executar(Job job) {
+        job.status = ImportacaoStatusDTO.Status.PROCESSANDO;
+        job.inicio = System.currentTimeMillis();
+
+        try (InputStream arquivo = new ContadorBytes(Files.newInputStream(job.entrada), job.bytesProcessados);
+             BufferedReader reader = new BufferedReader(
+                     new InputStreamReader(arquivo, StandardCharsets.UTF_8), TAMANHO_BUFFER_LEITURA);
+             Writer relatorio = Files.newBufferedWriter(job.relatorio, StandardCharsets.UTF_8)) {
+
+            relatorio.write("linha,motivo\n");
+            LeitorImportacao leitor = new LeitorImportacao(reader, job.formato, objectMapper);
+
+            long inseridos = transactionTemplate.execute(status -> jdbcTemplate.execute(
+                    (ConnectionCallback<Long>) con -> carregarEMesclar(con, leitor, relatorio, job)));
+
+            job.inseridos = inseridos;
+            job.duplicados = job.linhasValidas.get() - inseridos;
+            job.status = ImportacaoStatusDTO.Status.CONCLUIDA;
+
+            // Novos créditos passam a ser visíveis para as consultas
+            invalidacaoCache.reconstruirIndices();
+
+            LoggingUtils.logPerformance(logger, "Importação " + job.id,
+                    System.currentTimeMillis() - job.inicio, (int) Math.min(inseridos, Integer.MAX_VALUE));
+
+        } catch (CreditoException ex) {
+            job.mensagem = ex.getMensagemUsuario();
+            job.status = ImportacaoStatusDTO.Status.FALHA;
+            LoggingUtils.logErroException(logger, ex, "importação " + job.id);
+        } catch (Exception ex) {
+            job.mensagem = "Falha na importação: " + ex.getMessage();
+            job.status = ImportacaoStatusDTO.Status.FALHA;
+            LoggingUtils.logErroInterno(logger, "Importação " + job.id, ex, job.arquivo);
+        } finally {
+            job.fim = System.currentTimeMillis();
+            apagar(job.entrada);
+        }
+    }
+
+    /**
+     * Cria a tabela de staging, envia as linhas válidas via COPY e executa o merge
+     *
+     * @return Quantidade de créditos inseridos
+     */
+    private long carregarEMesclar(Connection con, LeitorImportacao leitor, Writer relatorio, Job job)
+            throws SQLException {
+        try (Statement statement = con.createStatement()) {
+            statement.execute(CRIAR_STAGING);
+        }
+
+        CopyIn copy = con.unwrap(PGConnection.class).getCopyAPI().copyIn(COPY_STAGING);
+        try {
+            StringBuilder buffer = new StringBuilder(TAMANHO_BUFFER_COPY + 1024);
+            LeitorImportacao.Linha linha;
+            while ((linha = leitor.proxima()) != null) {
+                job.linhasLidas.incrementAndGet();
+
+                String motivo = linha.getErro() != null ? linha.getErro()
+                        : CreditoIngestaoService.motivoRejeicao(linha.getEvento());
+                if (motivo != null) {
+                    job.linhasRejeitadas.incrementAndGet();
+                    escreverErro(relatorio, linha.getNumero(), motivo);
+                    continue;
+                }
+
+                job.linhasValidas.incrementAndGet();
+                escreverLinhaCopy(buffer, linha.getNumero(), CreditoIngestaoService.normalizar(linha.getEvento()));
+                if (buffer.length() >= TAMANHO_BUFFER_COPY) {
+                    enviar(copy, buffer);
+                }
+            }
+            enviar(copy, buffer);
+            copy.endCopy();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        } finally {
+            if (copy.isActive()) {
+                copy.cancelCopy();
+            }
+        }
+
+        try (Statement statement = con.createStatement()) {
+            // Tabelas temporárias não passam pelo autovacuum: sem estatísticas, o planner subestima o volume
+            statement.execute("ANALYZE credito_importacao");
+            try (ResultSet resultado = statement.executeQuery(MERGE_E_AGREGAR)) {
+                resultado.next();
+                return resultado.getLong(1);
+            }
+        }
+    }
+
+    // ================================================
+    // MÉTODOS PRIVADOS AUXILIARES
+    // ================================================
+
+    /**
+     * Linha CSV para o COPY; os campos texto já foram validados (dígitos e tipos conhecidos)
+     */
+    private static void escreverLinhaCopy(StringBuilder buffer, long numeroLinha, CreditoEventoDTO evento) {
+        buffer.append(numeroLinha).append(',')
+                .append(evento.getNumeroCredito()).append(',')
+                .append(evento.getNumeroNfse()).append(',')
+                .append(evento.getDataConstituicao()).append(',')
+                .append(evento.getValorIssqn().toPlainString()).append(',')
+                .append(evento.getTipoCredito()).append(',')
+                .append(evento.getSimplesNacional()).append(',')
+                .append(evento.getAliquota().toPlainString()).append(',')
+                .append(evento.getValorFaturado().toPlainString()).append(',')
+                .append(evento.getValorDeducao().toPlainString()).append(',')
+                .append(evento.getBaseCalculo().toPlainString()).append('\n');
+    }
+
+    private static void enviar(CopyIn copy, StringBuilder buffer) throws SQLException {
+        if (buffer.length() == 0) {
+            return;
+        }
+        byte[] bytes = buffer.toString().getBytes(StandardCharsets.UTF_8);
+        copy.writeToCopy(bytes, 0, bytes.length);
+        buffer.setLength(0);
+    }
+
+    private static void escreverErro(Writer relatorio, long numeroLinha, String motivo) throws IOException {
+        relatorio.write(Long.toString(numeroLinha));
+        relatorio.write(",\"");
+        relatorio.write(motivo.replace("\"", "\"\"").replace('\n', ' ').replace('\r', ' '));
+        relatorio.write("\"\n");
+    }
+
+    private CreditoExportacaoService.Formato resolverFormato(String formato, String nomeArquivo) {
+        if (formato != null && !formato.trim().isEmpty()) {
+            CreditoExportacaoService.Formato informado = CreditoExportacaoService.Formato.of(formato);
+            if (informado == CreditoExportacaoService.Formato.JSON) {
+                throw CreditoException.parametroInvalido("formato", formato,
+                        "formatos suportados na importação: csv, ndjson");
+            }
+            return informado;
+        }
+        String nome = nomeArquivo == null ? "" : nomeArquivo.toLowerCase();
+        if (nome.endsWith(".csv")) {
+            return CreditoExportacaoService.Formato.CSV;
+        }
+        if (nome.endsWith(".ndjson") || nome.endsWith(".jsonl")) {
+            return CreditoExportacaoService.Formato.NDJSON;
+        }
+        throw CreditoException.parametroInvalido("formato", nomeArquivo,
+                "informe o formato (csv ou ndjson) ou use a extensão .csv, .ndjson ou .jsonl");
+    }
+
+    private Job obterJob(String id) {
+        Job job = id == null ? null : jobs.get(id);
+        if (job == null) {
+            throw CreditoException.importacaoNaoEncontrada(id);
+        }
+        return job;
+    }
+
+    /**
+     * Descarta jobs encerrados há mais tempo que a retenção, com seus relatórios
+     */
+    private void removerExpirados() {
+        long limite = System.currentTimeMillis() - retencao.toMillis();
+        Iterator<Job> iterator = jobs.values().iterator();
+        while (iterator.hasNext()) {
+            Job job = iterator.next();
+            Long fim = job.fim;
+            if (fim != null && fim < limite) {
+                iterator.remove();
+                apagar(job.relatorio);
+            }
+        }
+    }
+
+    private static void apagar(Path arquivo) {
+        try {
+            if (arquivo != null) {
+                Files.deleteIfExists(arquivo);
+            }
+        } catch (IOException ex) {
+            logger.warn("IMPORTAÇÃO | Não foi possível apagar {}: {}", arquivo, ex.getMessage());
+        }
+    }
+
+    /**
+     * Estado de uma importação, atualizado pela thread do job e lido pelo endpoint de status
+     */
+    private static final class Job {
+        private final String id;
+        private final String arquivo;
+        private final CreditoExportacaoService.Formato formato;
+        private final long tamanhoBytes;
+        private final AtomicLong bytesProcessados = new AtomicLong();
+        private final AtomicLong linhasLidas = new AtomicLong();
+        private final AtomicLong linhasValidas = new AtomicLong();
+        private final AtomicLong linhasRejeitadas = new AtomicLong();
+        private Path entrada;
+        private Path relatorio;
+        private volatile ImportacaoStatusDTO.Status status = ImportacaoStatusDTO.Status.PENDENTE;
+        private volatile long inseridos;
+        private volatile long duplicados;
+        private volatile String mensagem;
+        private volatile Long inicio;
+        private volatile Long fim;
+
+        Job(String id, String arquivo, CreditoExportacaoService.Formato formato, long tamanhoBytes) {
+            this.id = id;
+            this.arquivo = arquivo;
+            this.formato = formato;
+            this.tamanhoBytes = tamanhoBytes;
+        }
+
+        ImportacaoStatusDTO paraDTO() {
+            ImportacaoStatusDTO dto = new ImportacaoStatusDTO();
+            dto.setId(id);
+            dto.setStatus(status);
+            dto.setArquivo(arquivo);
+            dto.setFormato(formato.getExtensao());
+            dto.setTamanhoBytes(tamanhoBytes);
+            dto.setBytesProcessados(bytesProcessados.get());
+            dto.setPercentual(tamanhoBytes == 0 ? 0 : (int) Math.min(100, bytesProcessados.get() * 100 / tamanhoBytes));
+            dto.setLinhasLidas(linhasLidas.get());
+            dto.setLinhasValidas(linhasValidas.get());
+            dto.setLinhasRejeitadas(linhasRejeitadas.get());
+            dto.setInseridos(inseridos);
+            dto.setDuplicados(duplicados);
+            dto.setMensagem(mensagem);
+            dto.setInicio(inicio);
+            dto.setFim(fim);
+            return dto;
+        }
+    }
+
+    /**
+     * Conta os bytes lidos do arquivo, para o percentual de andamento
+     */
+    private static final class ContadorBytes extends FilterInputStream {
+        private final AtomicLong contador;
+
+        ContadorBytes(InputStream in, AtomicLong contador) {
+            super(in);
+            this.contador = contador;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                contador.incrementAndGet();
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int lidos = super.read(b, off, len);
+            if (lidos > 0) {
+                contador.addAndGet(lidos);
+            }
+            return lidos;
+        }
+    }
+}
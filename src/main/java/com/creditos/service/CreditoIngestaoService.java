@@ -0,0 +1,350 @@
+package com.creditos.service;
+
+import com.creditos.cache.InvalidacaoCache;
+import com.creditos.dto.CreditoEventoDTO;
+import com.creditos.exception.CreditoException;
+import com.creditos.util.LoggingUtils;
+import com.creditos.util.ValidationUtils;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Service de ingestão de créditos recebidos por eventos
+ *
+ * Valida cada evento com ValidationUtils.validateDadosCredito e grava os válidos em um único
+ * INSERT multilinha (colunas enviadas como arrays e expandidas com unnest) dentro de uma transação.
+ * O INSERT é idempotente (ON CONFLICT DO NOTHING sobre o índice único de número e NFS-e), então
+ * reprocessar um lote após falha, reentregas após rebalance e consumidores ou importações concorrentes
+ * não duplicam registros nem agregados.
+ *
+ * O insert é feito via JDBC e não via JPA porque o conflito precisa ser resolvido pelo banco
+ * em cada linha; o ID vem do DEFAULT da coluna (credito_id_seq). O RETURNING devolve as chaves
+ * realmente inseridas (as ignoradas pelo ON CONFLICT não aparecem), e só esses créditos são somados
+ * aos agregados de ISSQN (CreditoAgregadoService), na mesma transação, e publicados às demais instâncias.
+ *
+ * Se o banco recusar o lote por um dado inválido que a validação não previu (violação de integridade),
+ * os eventos são regravados um a um, cada um na sua transação: só o evento recusado é descartado como
+ * inválido e o lote não volta a ser reentregue indefinidamente. Falhas de infraestrutura continuam
+ * propagadas para o reprocessamento do lote inteiro.
+ *
+ * Após o commit, as chaves são adicionadas ao filtro de Bloom e ao índice de busca parcial e invalidadas
+ * nos caches "creditos" e "existencia" de todas as instâncias (InvalidacaoCache.creditosInseridos), para
+ * que as consultas enxerguem os novos créditos.
+ *
+ * @author Ednilton Curt Rauh
+ * @version 1.0.0
+ */
+@Service
+public class CreditoIngestaoService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CreditoIngestaoService.class);
+
+    /**
+     * Maior valor aceito pelas colunas NUMERIC(15,2): 13 dígitos inteiros
+     */
+    static final int DIGITOS_INTEIROS_MAXIMO = 13;
+
+    // Conflito resolvido pelo índice único uk_credito_numero_credito_nfse (V5)
+    static final String INSERT_IDEMPOTENTE =
+            "INSERT INTO credito (numero_credito, numero_nfse, data_constituicao, valor_issqn, tipo_credito, " +
+            "simples_nacional, aliquota, valor_faturado, valor_deducao, base_calculo) " +
+            "SELECT * FROM unnest(?::varchar[], ?::varchar[], ?::date[], ?::numeric[], ?::varchar[], " +
+            "?::boolean[], ?::numeric[], ?::numeric[], ?::numeric[], ?::numeric[]) " +
+            "ON CONFLICT (numero_credito, numero_nfse) DO NOTHING " +
+            "RETURNING numero_credito, numero_nfse";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final CreditoAgregadoService agregadoService;
+    private final InvalidacaoCache invalidacaoCache;
+
+    private final Counter inseridos;
+    private final Counter duplicados;
+    private final Counter invalidos;
+
+    @Autowired
+    public CreditoIngestaoService(JdbcTemplate jdbcTemplate,
+                                  PlatformTransactionManager transactionManager,
+                                  InvalidacaoCache invalidacaoCache,
+                                  CreditoAgregadoService agregadoService,
+                                  MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.invalidacaoCache = invalidacaoCache;
+        this.agregadoService = agregadoService;
+
+        this.inseridos = contador(meterRegistry, "inserido", "Créditos inseridos pela ingestão");
+        this.duplicados = contador(meterRegistry, "duplicado", "Eventos ignorados por crédito já existente");
+        this.invalidos = contador(meterRegistry, "invalido", "Eventos descartados por falha de validação");
+    }
+
+    /**
+     * Valida e grava um lote de eventos
+     *
+     * Eventos inválidos, inclusive os recusados pelo banco, são descartados (com log) e não impedem
+     * a gravação dos demais. Falhas de infraestrutura são propagadas, para que o lote inteiro seja reprocessado.
+     *
+     * @param eventos Eventos recebidos
+     * @return Quantidade de créditos inseridos, duplicados e inválidos
+     */
+    public ResultadoIngestao ingerir(List<CreditoEventoDTO> eventos) {
+        long inicio = System.currentTimeMillis();
+
+        try {
+            // Chave número do crédito + NFS-e: repetições dentro do lote contam como duplicadas
+            Map<String, CreditoEventoDTO> validos = new LinkedHashMap<>();
+            int quantidadeInvalidos = 0;
+            int repetidosNoLote = 0;
+
+            for (CreditoEventoDTO evento : eventos) {
+                String motivo = motivoRejeicao(evento);
+                if (motivo != null) {
+                    quantidadeInvalidos++;
+                    LoggingUtils.logErroValidacao(logger, "evento", String.valueOf(evento), motivo);
+                    continue;
+                }
+                CreditoEventoDTO normalizado = normalizar(evento);
+                if (validos.putIfAbsent(chave(normalizado.getNumeroCredito(), normalizado.getNumeroNfse()),
+                        normalizado) != null) {
+                    repetidosNoLote++;
+                }
+            }
+
+            List<CreditoEventoDTO> lote = new ArrayList<>(validos.values());
+            Set<String> chavesInseridas;
+            int quantidadeRecusados = 0;
+            try {
+                chavesInseridas = gravar(lote);
+            } catch (DataIntegrityViolationException ex) {
+                LoggingUtils.logErro(logger, "Ingestão de créditos",
+                        "lote recusado pelo banco, regravando evento a evento", "eventos=" + lote.size());
+                chavesInseridas = new HashSet<>();
+                for (CreditoEventoDTO evento : lote) {
+                    try {
+                        chavesInseridas.addAll(gravar(Collections.singletonList(evento)));
+                    } catch (DataIntegrityViolationException recusa) {
+                        quantidadeRecusados++;
+                        LoggingUtils.logErroValidacao(logger, "evento", String.valueOf(evento),
+                                "recusado pelo banco: " + recusa.getMostSpecificCause().getMessage());
+                    }
+                }
+            }
+
+            // Após o commit: publica as novas chaves para as consultas de todas as instâncias
+            List<String> numerosCredito = new ArrayList<>();
+            List<String> numerosNfse = new ArrayList<>();
+            for (CreditoEventoDTO evento : inseridos(lote, chavesInseridas)) {
+                numerosCredito.add(evento.getNumeroCredito());
+                numerosNfse.add(evento.getNumeroNfse());
+            }
+            invalidacaoCache.creditosInseridos(numerosCredito, numerosNfse);
+            int quantidadeInseridos = numerosCredito.size();
+
+            ResultadoIngestao resultado = new ResultadoIngestao(quantidadeInseridos,
+                    lote.size() - quantidadeInseridos - quantidadeRecusados + repetidosNoLote,
+                    quantidadeInvalidos + quantidadeRecusados);
+            inseridos.increment(resultado.getInseridos());
+            duplicados.increment(resultado.getDuplicados());
+            invalidos.increment(resultado.getInvalidos());
+
+            LoggingUtils.logPerformance(logger, "Ingestão de créditos",
+                    System.currentTimeMillis() - inicio, resultado.getInseridos());
+            return resultado;
+
+        } catch (CreditoException ex) {
+            // Re-lança exceções já tratadas
+            throw ex;
+        } catch (Exception ex) {
+            LoggingUtils.logErroInterno(logger, "Ingestão de créditos", ex, "eventos=" + eventos.size());
+            throw CreditoException.erroInterno("Falha na gravação do lote de créditos: " + ex.getMessage());
+        }
+    }
+
+    // ================================================
+    // MÉTODOS PRIVADOS AUXILIARES
+    // ================================================
+
+    /**
+     * Retorna o motivo da rejeição, ou null se o evento for válido
+     * Compartilhado com a importação em massa, para que as duas entradas apliquem as mesmas regras
+     */
+    static String motivoRejeicao(CreditoEventoDTO evento) {
+        if (evento == null) {
+            return "evento vazio";
+        }
+        try {
+            ValidationUtils.validateDadosCredito(evento.getNumeroCredito(), evento.getNumeroNfse(),
+                    evento.getDataConstituicao(), evento.getValorIssqn(), evento.getTipoCredito(),
+                    evento.getAliquota(), evento.getValorFaturado(), evento.getBaseCalculo());
+        } catch (CreditoException ex) {
+            return ex.getValor();
+        }
+        // Campos obrigatórios na tabela que a validação geral não cobre
+        if (evento.getSimplesNacional() == null) {
+            return "simplesNacional é obrigatório";
+        }
+        if (evento.getValorDeducao() == null || evento.getValorDeducao().signum() < 0) {
+            return "valorDeducao deve ser maior ou igual a zero";
+        }
+        // Fora do NUMERIC(15,2) o banco recusaria o batch (ou o COPY) inteiro, não só o evento
+        if (excedeDigitos(evento.getValorIssqn()) || excedeDigitos(evento.getValorFaturado())
+                || excedeDigitos(evento.getValorDeducao()) || excedeDigitos(evento.getBaseCalculo())) {
+            return "valores devem ter no máximo " + DIGITOS_INTEIROS_MAXIMO + " dígitos inteiros";
+        }
+        return null;
+    }
+
+    private static boolean excedeDigitos(BigDecimal valor) {
+        return valor.precision() - valor.scale() > DIGITOS_INTEIROS_MAXIMO;
+    }
+
+    static CreditoEventoDTO normalizar(CreditoEventoDTO evento) {
+        return new CreditoEventoDTO(evento.getNumeroCredito().trim(), evento.getNumeroNfse().trim(),
+                evento.getDataConstituicao(), evento.getValorIssqn(), evento.getTipoCredito().trim().toUpperCase(),
+                evento.getSimplesNacional(), evento.getAliquota(), evento.getValorFaturado(),
+                evento.getValorDeducao(), evento.getBaseCalculo());
+    }
+
+    /**
+     * Grava o lote e soma os inseridos aos agregados em uma única transação
+     *
+     * @return Chaves (número do crédito + NFS-e) das linhas inseridas
+     */
+    private Set<String> gravar(List<CreditoEventoDTO> lote) {
+        if (lote.isEmpty()) {
+            return Collections.emptySet();
+        }
+        return transactionTemplate.execute(status -> {
+            Set<String> chavesInseridas = inserir(lote);
+            // Agregados de ISSQN confirmados na mesma transação que os créditos
+            agregadoService.acumular(inseridos(lote, chavesInseridas));
+            return chavesInseridas;
+        });
+    }
+
+    private Set<String> inserir(List<CreditoEventoDTO> lote) {
+        int n = lote.size();
+        String[] numerosCredito = new String[n];
+        String[] numerosNfse = new String[n];
+        Date[] datas = new Date[n];
+        BigDecimal[] valoresIssqn = new BigDecimal[n];
+        String[] tipos = new String[n];
+        Boolean[] simples = new Boolean[n];
+        BigDecimal[] aliquotas = new BigDecimal[n];
+        BigDecimal[] valoresFaturados = new BigDecimal[n];
+        BigDecimal[] valoresDeducao = new BigDecimal[n];
+        BigDecimal[] basesCalculo = new BigDecimal[n];
+        for (int i = 0; i < n; i++) {
+            CreditoEventoDTO evento = lote.get(i);
+            numerosCredito[i] = evento.getNumeroCredito();
+            numerosNfse[i] = evento.getNumeroNfse();
+            datas[i] = Date.valueOf(evento.getDataConstituicao());
+            valoresIssqn[i] = evento.getValorIssqn();
+            tipos[i] = evento.getTipoCredito();
+            simples[i] = evento.getSimplesNacional();
+            aliquotas[i] = evento.getAliquota();
+            valoresFaturados[i] = evento.getValorFaturado();
+            valoresDeducao[i] = evento.getValorDeducao();
+            basesCalculo[i] = evento.getBaseCalculo();
+        }
+
+        Set<String> chavesInseridas = new HashSet<>();
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(INSERT_IDEMPOTENTE);
+            ps.setArray(1, con.createArrayOf("varchar", numerosCredito));
+            ps.setArray(2, con.createArrayOf("varchar", numerosNfse));
+            ps.setArray(3, con.createArrayOf("date", datas));
+            ps.setArray(4, con.createArrayOf("numeric", valoresIssqn));
+            ps.setArray(5, con.createArrayOf("varchar", tipos));
+            ps.setArray(6, con.createArrayOf("bool", simples));
+            ps.setArray(7, con.createArrayOf("numeric", aliquotas));
+            ps.setArray(8, con.createArrayOf("numeric", valoresFaturados));
+            ps.setArray(9, con.createArrayOf("numeric", valoresDeducao));
+            ps.setArray(10, con.createArrayOf("numeric", basesCalculo));
+            return ps;
+        }, (RowCallbackHandler) rs -> chavesInseridas.add(chave(rs.getString(1), rs.getString(2))));
+        return chavesInseridas;
+    }
+
+    /**
+     * Eventos do lote cuja chave foi devolvida pelo RETURNING, na ordem do lote
+     */
+    private static List<CreditoEventoDTO> inseridos(List<CreditoEventoDTO> lote, Set<String> chavesInseridas) {
+        List<CreditoEventoDTO> inseridos = new ArrayList<>(chavesInseridas.size());
+        for (CreditoEventoDTO evento : lote) {
+            if (chavesInseridas.contains(chave(evento.getNumeroCredito(), evento.getNumeroNfse()))) {
+                inseridos.add(evento);
+            }
+        }
+        return inseridos;
+    }
+
+    private static String chave(String numeroCredito, String numeroNfse) {
+        return numeroCredito + '|' + numeroNfse;
+    }
+
+    private static Counter contador(MeterRegistry meterRegistry, String resultado, String descricao) {
+        return Counter.builder("creditos.ingestao.registros")
+                .description(descricao)
+                .tag("resultado", resultado)
+                .register(meterRegistry);
+    }
+
+    // ================================================
+    // RESULTADO
+    // ================================================
+
+    /**
+     * Contagem do processamento de um lote
+     */
+    public static final class ResultadoIngestao {
+
+        private final int inseridos;
+        private final int duplicados;
+        private final int invalidos;
+
+        public ResultadoIngestao(int inseridos, int duplicados, int invalidos) {
+            this.inseridos = inseridos;
+            this.duplicados = duplicados;
+            this.invalidos = invalidos;
+        }
+
+        public int getInseridos() {
+            return inseridos;
+        }
+
+        public int getDuplicados() {
+            return duplicados;
+        }
+
+        public int getInvalidos() {
+            return invalidos;
+        }
+
+        @Override
+        public String toString() {
+            return "ResultadoIngestao{inseridos=" + inseridos + ", duplicados=" + duplicados +
+                    ", invalidos=" + invalidos + '}';
+        }
+    }
+}
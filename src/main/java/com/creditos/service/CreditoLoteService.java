@@ -0,0 +1,308 @@
+package com.creditos.service;
+
+import com.creditos.cache.CacheVersionado;
+import com.creditos.cache.CreditoBloomFilter;
+import com.creditos.dto.ConsultaLoteRequestDTO;
+import com.creditos.dto.ConsultaLoteResponseDTO;
+import com.creditos.dto.ConsultaLoteResponseDTO.Item;
+import com.creditos.dto.CreditoResponseDTO;
+import com.creditos.exception.CreditoException;
+import com.creditos.repository.CreditoRepository;
+import com.creditos.util.LoggingUtils;
+import com.creditos.util.ValidadorNumeroIdentificador;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Service de consulta em lote de créditos
+ *
+ * Resolve muitos números em uma única chamada: primeiro no cache "creditos" (as mesmas chaves
+ * usadas pelas consultas unitárias do CreditoService), depois descarta os que o filtro de Bloom
+ * garante ausentes e, por fim, busca o restante com consultas IN divididas em blocos.
+ *
+ * Cada miss no cache registra uma carga na thread (CacheVersionado), consumida pelo put do valor
+ * encontrado. Números inexistentes nunca recebem put, então os registros feitos durante o lote são
+ * descartados ao final, como o CargaCacheAspect faz para as consultas unitárias.
+ *
+ * @author Ednilton Curt Rauh
+ * @version 1.0.0
+ */
+@Service
+@Transactional(readOnly = true)
+public class CreditoLoteService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CreditoLoteService.class);
+
+    private static final String CACHE_CREDITOS = "creditos";
+    private static final String PREFIXO_NFSE = "nfse_";
+    private static final String PREFIXO_CREDITO = "credito_";
+
+    private final CreditoRepository creditoRepository;
+    private final CreditoBloomFilter bloomFilter;
+    private final Cache cache;
+    private final int maximoItens;
+    private final int tamanhoBloco;
+
+    @Autowired
+    public CreditoLoteService(CreditoRepository creditoRepository,
+                              CreditoBloomFilter bloomFilter,
+                              CacheManager cacheManager,
+                              @Value("${app.lote.max-itens:1000}") int maximoItens,
+                              @Value("${app.lote.tamanho-bloco:500}") int tamanhoBloco) {
+        this.creditoRepository = creditoRepository;
+        this.bloomFilter = bloomFilter;
+        this.cache = cacheManager.getCache(CACHE_CREDITOS);
+        this.maximoItens = maximoItens;
+        this.tamanhoBloco = tamanhoBloco;
+    }
+
+    /**
+     * Consulta em lote por números de NFS-e e/ou números de crédito
+     *
+     * @param request Números solicitados
+     * @return Mapa por número com o resultado de cada um, inclusive não encontrados e inválidos
+     * @throws CreditoException se o lote estiver vazio ou exceder o limite configurado
+     */
+    public ConsultaLoteResponseDTO consultarLote(ConsultaLoteRequestDTO request) {
+        long inicio = System.currentTimeMillis();
+
+        try {
+            validarLote(request);
+
+            ConsultaLoteResponseDTO response = new ConsultaLoteResponseDTO();
+            long marca = CacheVersionado.marcarCargas();
+            try {
+                response.setNfse(consultarNfses(normalizar(request.getNumerosNfse())));
+                response.setCreditos(consultarCreditos(normalizar(request.getNumerosCredito())));
+            } finally {
+                CacheVersionado.descartarCargas(marca);
+            }
+
+            LoggingUtils.logPerformance(logger, "Consulta em lote",
+                    System.currentTimeMillis() - inicio, request.quantidadeTotal());
+            return response;
+
+        } catch (CreditoException ex) {
+            // Re-lança exceções já tratadas
+            throw ex;
+        } catch (Exception ex) {
+            logger.error("Erro interno na consulta em lote: {}", ex.getMessage(), ex);
+            throw CreditoException.erroInterno("Falha na consulta de créditos em lote: " + ex.getMessage());
+        }
+    }
+
+    /**
+     * Carrega no cache "creditos" os créditos das NFS-e informadas, sem o limite de itens do lote
+     *
+     * Usa o mesmo caminho da consulta em lote (cache, filtro de Bloom e consultas IN em blocos),
+     * então NFS-e já em cache ou inexistentes não geram consulta ao banco.
+     *
+     * @param numeros Números de NFS-e
+     * @return Quantidade de NFS-e com créditos em cache ao final
+     */
+    public int aquecerNfses(List<String> numeros) {
+        Map<String, Item> resultado;
+        long marca = CacheVersionado.marcarCargas();
+        try {
+            resultado = consultarNfses(normalizar(numeros));
+        } finally {
+            CacheVersionado.descartarCargas(marca);
+        }
+
+        int emCache = 0;
+        for (Item item : resultado.values()) {
+            if (item.getStatus() == ConsultaLoteResponseDTO.Status.ENCONTRADO) {
+                emCache++;
+            }
+        }
+        return emCache;
+    }
+
+    // ================================================
+    // RESOLUÇÃO POR TIPO DE NÚMERO
+    // ================================================
+
+    private Map<String, Item> consultarNfses(List<String> numeros) {
+        Map<String, Item> resultado = new LinkedHashMap<>();
+        Set<String> pendentes = new LinkedHashSet<>();
+
+        for (String numero : numeros) {
+            if (resultado.containsKey(numero) || pendentes.contains(numero)) {
+                continue;
+            }
+            ValidadorNumeroIdentificador.Resultado validacao = ValidadorNumeroIdentificador.validar(numero);
+            if (!validacao.isValido()) {
+                resultado.put(numero, Item.invalido("Número da NFS-e " + validacao.getMotivo()));
+                continue;
+            }
+
+            List<CreditoResponseDTO> emCache = lerCache(PREFIXO_NFSE + numero);
+            if (emCache != null) {
+                resultado.put(numero, Item.encontrado(emCache));
+            } else if (bloomFilter.consultar(CreditoBloomFilter.TipoChave.NFSE, numero)
+                    == CreditoBloomFilter.Resposta.AUSENTE) {
+                resultado.put(numero, Item.naoEncontrado());
+            } else {
+                pendentes.add(numero);
+            }
+        }
+
+        Map<String, List<CreditoResponseDTO>> encontrados = new LinkedHashMap<>();
+        for (CreditoResponseDTO credito : buscarEmBlocos(pendentes, creditoRepository::findDtoByNumeroNfseIn)) {
+            encontrados.computeIfAbsent(credito.getNumeroNfse(), k -> new ArrayList<>()).add(credito);
+        }
+
+        for (String numero : pendentes) {
+            List<CreditoResponseDTO> creditos = encontrados.get(numero);
+            if (creditos == null) {
+                registrarAusenteNoBanco(CreditoBloomFilter.TipoChave.NFSE, numero);
+                resultado.put(numero, Item.naoEncontrado());
+            } else {
+                cache.put(PREFIXO_NFSE + numero, creditos);
+                resultado.put(numero, Item.encontrado(creditos));
+            }
+        }
+
+        return ordenarConformeSolicitado(numeros, resultado);
+    }
+
+    private Map<String, Item> consultarCreditos(List<String> numeros) {
+        Map<String, Item> resultado = new LinkedHashMap<>();
+        Set<String> pendentes = new LinkedHashSet<>();
+
+        for (String numero : numeros) {
+            if (resultado.containsKey(numero) || pendentes.contains(numero)) {
+                continue;
+            }
+            ValidadorNumeroIdentificador.Resultado validacao = ValidadorNumeroIdentificador.validar(numero);
+            if (!validacao.isValido()) {
+                resultado.put(numero, Item.invalido("Número do crédito " + validacao.getMotivo()));
+                continue;
+            }
+
+            CreditoResponseDTO emCache = lerCache(PREFIXO_CREDITO + numero);
+            if (emCache != null) {
+                resultado.put(numero, Item.encontrado(emCache));
+            } else if (bloomFilter.consultar(CreditoBloomFilter.TipoChave.CREDITO, numero)
+                    == CreditoBloomFilter.Resposta.AUSENTE) {
+                resultado.put(numero, Item.naoEncontrado());
+            } else {
+                pendentes.add(numero);
+            }
+        }
+
+        // Ordenação por número e ID: o primeiro de cada número é o mesmo retornado pela consulta unitária
+        Map<String, CreditoResponseDTO> encontrados = new LinkedHashMap<>();
+        for (CreditoResponseDTO credito : buscarEmBlocos(pendentes, creditoRepository::findDtoByNumeroCreditoIn)) {
+            encontrados.putIfAbsent(credito.getNumeroCredito(), credito);
+        }
+
+        for (String numero : pendentes) {
+            CreditoResponseDTO credito = encontrados.get(numero);
+            if (credito == null) {
+                registrarAusenteNoBanco(CreditoBloomFilter.TipoChave.CREDITO, numero);
+                resultado.put(numero, Item.naoEncontrado());
+            } else {
+                cache.put(PREFIXO_CREDITO + numero, credito);
+                resultado.put(numero, Item.encontrado(credito));
+            }
+        }
+
+        return ordenarConformeSolicitado(numeros, resultado);
+    }
+
+    // ================================================
+    // MÉTODOS PRIVADOS AUXILIARES
+    // ================================================
+
+    /**
+     * Valida presença e tamanho do lote
+     */
+    private void validarLote(ConsultaLoteRequestDTO request) {
+        int quantidade = request == null ? 0 : request.quantidadeTotal();
+        if (quantidade == 0) {
+            throw CreditoException.parametroInvalido("numerosNfse/numerosCredito", "[]",
+                    "informe ao menos um número");
+        }
+        if (quantidade > maximoItens) {
+            throw CreditoException.parametroInvalido("numerosNfse/numerosCredito", String.valueOf(quantidade),
+                    "máximo de " + maximoItens + " números por requisição");
+        }
+    }
+
+    /**
+     * Executa a consulta IN em blocos de tamanho fixo para limitar a quantidade de parâmetros por instrução
+     */
+    private List<CreditoResponseDTO> buscarEmBlocos(Set<String> numeros,
+                                                    Function<List<String>, List<CreditoResponseDTO>> consulta) {
+        if (numeros.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        List<String> todos = new ArrayList<>(numeros);
+        List<CreditoResponseDTO> creditos = new ArrayList<>();
+        for (int i = 0; i < todos.size(); i += tamanhoBloco) {
+            creditos.addAll(consulta.apply(todos.subList(i, Math.min(i + tamanhoBloco, todos.size()))));
+        }
+        return creditos;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T lerCache(String chave) {
+        Cache.ValueWrapper valor = cache.get(chave);
+        return valor == null ? null : (T) valor.get();
+    }
+
+    /**
+     * Número não encontrado no banco: se o filtro de Bloom respondeu "talvez presente", foi falso positivo
+     */
+    private void registrarAusenteNoBanco(CreditoBloomFilter.TipoChave tipo, String numero) {
+        if (bloomFilter.consultar(tipo, numero) == CreditoBloomFilter.Resposta.TALVEZ_PRESENTE) {
+            bloomFilter.registrarFalsoPositivo(tipo);
+        }
+    }
+
+    /**
+     * Reconstrói o mapa na ordem em que os números foram enviados
+     */
+    private Map<String, Item> ordenarConformeSolicitado(List<String> numeros, Map<String, Item> resultado) {
+        Map<String, Item> ordenado = new LinkedHashMap<>();
+        for (String numero : numeros) {
+            Item item = resultado.get(numero);
+            if (item != null) {
+                ordenado.putIfAbsent(numero, item);
+            }
+        }
+        return ordenado;
+    }
+
+    /**
+     * Normaliza os números recebidos (trim), tratando lista e elementos nulos como vazios
+     */
+    private List<String> normalizar(List<String> numeros) {
+        if (numeros == null) {
+            return Collections.emptyList();
+        }
+
+        List<String> normalizados = new ArrayList<>(numeros.size());
+        for (String numero : numeros) {
+            normalizados.add(numero == null ? "" : numero.trim());
+        }
+        return normalizados;
+    }
+}
@@ -1,23 +1,41 @@
 package com.creditos.service;
 
+import com.creditos.cache.CreditoBloomFilter;
+import com.creditos.cache.CreditoIndiceNumeros;
+import com.creditos.cache.IndiceNgrama;
+import com.creditos.concurrent.SingleFlight;
+import com.creditos.dto.BuscaNumerosDTO;
 import com.creditos.dto.CreditoResponseDTO;
+import com.creditos.dto.EstatisticasDTO;
+import com.creditos.dto.PaginaCursorDTO;
 import com.creditos.entity.Credito;
 import com.creditos.exception.CreditoException;
 import com.creditos.repository.CreditoRepository;
+import com.creditos.util.CursorPaginacao;
+import com.creditos.util.DecimalFixo;
 import com.creditos.util.LoggingUtils;
 import com.creditos.util.ValidationUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -36,11 +54,36 @@ public class CreditoService {
 
     private static final Logger logger = LoggerFactory.getLogger(CreditoService.class);
 
+    /**
+     * Tamanho máximo de página aceito na paginação por cursor
+     */
+    public static final int TAMANHO_MAXIMO_PAGINA = 500;
+
+    /**
+     * Quantidade máxima de resultados da busca parcial por número
+     */
+    public static final int LIMITE_MAXIMO_BUSCA = 100;
+
     private final CreditoRepository creditoRepository;
+    private final CreditoBloomFilter bloomFilter;
+    private final CreditoIndiceNumeros indiceNumeros;
+    private final CreditoAgregadoService agregadoService;
+    private final SingleFlight<String, List<CreditoResponseDTO>> singleFlightNfse;
+    private final SingleFlight<String, CreditoResponseDTO> singleFlightCredito;
 
     @Autowired
-    public CreditoService(CreditoRepository creditoRepository) {
+    public CreditoService(CreditoRepository creditoRepository,
+                          CreditoBloomFilter bloomFilter,
+                          CreditoIndiceNumeros indiceNumeros,
+                          CreditoAgregadoService agregadoService,
+                          MeterRegistry meterRegistry,
+                          @Value("${app.single-flight.tempo-espera-ms:5000}") long tempoEsperaSingleFlight) {
         this.creditoRepository = creditoRepository;
+        this.bloomFilter = bloomFilter;
+        this.indiceNumeros = indiceNumeros;
+        this.agregadoService = agregadoService;
+        this.singleFlightNfse = new SingleFlight<>("consulta_nfse", tempoEsperaSingleFlight, meterRegistry);
+        this.singleFlightCredito = new SingleFlight<>("consulta_credito", tempoEsperaSingleFlight, meterRegistry);
     }
 
     // ================================================
@@ -51,22 +94,25 @@ public class CreditoService {
      * Consulta créditos pelo número da NFS-e
      * Método principal conforme especificação do desafio técnico
      *
+     * Sem transação própria: a consulta roda na transação do repositório, de modo que as chamadas
+     * agrupadas pelo single-flight não ocupam conexão do pool enquanto aguardam
+     *
      * @param numeroNfse Número da NFS-e para consulta
      * @return Lista de créditos encontrados
      * @throws CreditoException se nenhum crédito for encontrado ou erro de validação
      */
-    @Cacheable(value = "creditos", key = "'nfse_' + #numeroNfse")
+    @Cacheable(value = "creditos", key = "'nfse_' + T(com.creditos.util.ValidationUtils).normalizeString(#numeroNfse)")
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
     public List<CreditoResponseDTO> consultarCreditosPorNfse(String numeroNfse) {
         LoggingUtils.logInicioConsulta(logger, "NFS-e", numeroNfse);
 
         try {
-            // Validação usando nosso sistema de exceções
+            // Validação única do caminho da requisição (o controller não repete a verificação)
             validarNumeroNfse(numeroNfse);
 
-            List<Credito> creditos = buscarCreditosPorNfse(numeroNfse);
-            validateCreditosEncontrados(creditos, numeroNfse);
-
-            List<CreditoResponseDTO> response = convertToDTOList(creditos);
+            // Chamadas concorrentes para a mesma NFS-e compartilham uma única consulta ao banco
+            List<CreditoResponseDTO> response = singleFlightNfse.executar(
+                    ValidationUtils.normalizeString(numeroNfse), () -> carregarCreditosPorNfse(numeroNfse));
             LoggingUtils.logConsultaSucesso(logger, "NFS-e", numeroNfse, response.size());
 
             return response;
@@ -84,20 +130,25 @@ public class CreditoService {
      * Consulta um crédito específico pelo número do crédito
      * Método principal conforme especificação do desafio técnico
      *
+     * Sem transação própria: a consulta roda na transação do repositório, de modo que as chamadas
+     * agrupadas pelo single-flight não ocupam conexão do pool enquanto aguardam
+     *
      * @param numeroCredito Número do crédito constituído
      * @return Dados do crédito encontrado
      * @throws CreditoException se o crédito não for encontrado ou erro de validação
      */
-    @Cacheable(value = "creditos", key = "'credito_' + #numeroCredito")
+    @Cacheable(value = "creditos", key = "'credito_' + T(com.creditos.util.ValidationUtils).normalizeString(#numeroCredito)")
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
     public CreditoResponseDTO consultarCreditoPorNumero(String numeroCredito) {
         LoggingUtils.logInicioConsulta(logger, "número do crédito", numeroCredito);
 
         try {
-            // Validação usando nosso sistema de exceções
+            // Validação única do caminho da requisição (o controller não repete a verificação)
             validarNumeroCredito(numeroCredito);
 
-            Credito credito = buscarCreditoPorNumero(numeroCredito);
-            CreditoResponseDTO response = convertToDTO(credito);
+            // Chamadas concorrentes para o mesmo número compartilham uma única consulta ao banco
+            CreditoResponseDTO response = singleFlightCredito.executar(
+                    ValidationUtils.normalizeString(numeroCredito), () -> buscarCreditoPorNumero(numeroCredito));
 
             LoggingUtils.logConsultaSucesso(logger, "número do crédito", numeroCredito, 1);
 
@@ -123,17 +174,14 @@ public class CreditoService {
      * @return true se existir, false caso contrário
      * @throws CreditoException se erro de validação ou interno
      */
-    @Cacheable(value = "existencia", key = "'credito_exists_' + #numeroCredito")
+    @Cacheable(value = "existencia", key = "'credito_exists_' + T(com.creditos.util.ValidationUtils).normalizeString(#numeroCredito)")
     public boolean existeCreditoPorNumero(String numeroCredito) {
         try {
-            // Usa validação não-destrutiva do ValidationUtils
-            if (!ValidationUtils.isValidNumeroCredito(numeroCredito)) {
-                throw CreditoException.numeroCreditoInvalido(numeroCredito, "formato inválido");
-            }
+            // Validação única do caminho da requisição (o controller não repete a verificação)
+            validarNumeroCredito(numeroCredito);
 
             String numeroNormalizado = ValidationUtils.normalizeString(numeroCredito);
-            List<Credito> creditos = creditoRepository.findByNumeroCredito(numeroNormalizado);
-            boolean existe = !creditos.isEmpty();
+            boolean existe = verificarExistencia(CreditoBloomFilter.TipoChave.CREDITO, numeroNormalizado);
 
             logger.debug("Verificação de existência para crédito {}: {}", numeroCredito, existe);
             return existe;
@@ -154,16 +202,14 @@ public class CreditoService {
      * @return true se existir, false caso contrário
      * @throws CreditoException se erro de validação ou interno
      */
-    @Cacheable(value = "existencia", key = "'nfse_exists_' + #numeroNfse")
+    @Cacheable(value = "existencia", key = "'nfse_exists_' + T(com.creditos.util.ValidationUtils).normalizeString(#numeroNfse)")
     public boolean existeCreditoPorNfse(String numeroNfse) {
         try {
-            // Usa validação não-destrutiva do ValidationUtils
-            if (!ValidationUtils.isValidNumeroNfse(numeroNfse)) {
-                throw CreditoException.numeroNfseInvalido(numeroNfse, "formato inválido");
-            }
+            // Validação única do caminho da requisição (o controller não repete a verificação)
+            validarNumeroNfse(numeroNfse);
 
             String numeroNormalizado = ValidationUtils.normalizeString(numeroNfse);
-            boolean existe = !creditoRepository.findByNumeroNfse(numeroNormalizado).isEmpty();
+            boolean existe = verificarExistencia(CreditoBloomFilter.TipoChave.NFSE, numeroNormalizado);
 
             logger.debug("Verificação de existência para NFS-e {}: {}", numeroNfse, existe);
             return existe;
@@ -177,12 +223,65 @@ public class CreditoService {
         }
     }
 
+    // ================================================
+    // BUSCA PARCIAL POR NÚMERO
+    // ================================================
+
+    /**
+     * Busca pares crédito/NFS-e cujo número contém o termo (typeahead)
+     * Respondida pelo índice de trigramas em memória; sem transação, não ocupa conexão do pool
+     *
+     * @param termo Parte do número, com pelo menos 3 e no máximo 50 caracteres
+     * @param campo nfse, credito ou todos
+     * @param limite Quantidade máxima de resultados (1 a LIMITE_MAXIMO_BUSCA)
+     * @return Pares encontrados e indicação de que existem mais ocorrências
+     * @throws CreditoException se parâmetro inválido ou índice ainda em construção
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public BuscaNumerosDTO buscarPorNumeroParcial(String termo, String campo, int limite) {
+        try {
+            String termoNormalizado = ValidationUtils.normalizeString(termo);
+            if (termoNormalizado == null || termoNormalizado.length() < IndiceNgrama.TAMANHO_NGRAMA
+                    || termoNormalizado.length() > 50) {
+                throw CreditoException.parametroInvalido("termo", termo,
+                        "deve ter entre " + IndiceNgrama.TAMANHO_NGRAMA + " e 50 caracteres");
+            }
+            if (limite < 1 || limite > LIMITE_MAXIMO_BUSCA) {
+                throw CreditoException.parametroInvalido("limite", String.valueOf(limite),
+                        "deve estar entre 1 e " + LIMITE_MAXIMO_BUSCA);
+            }
+            CreditoIndiceNumeros.Campo campoBusca = campoBusca(campo);
+
+            // Um resultado a mais indica que a lista foi cortada pelo limite
+            List<BuscaNumerosDTO.Item> itens = indiceNumeros.buscar(termoNormalizado, campoBusca, limite + 1);
+            if (itens == null) {
+                throw CreditoException.indiceIndisponivel("busca");
+            }
+
+            boolean limitado = itens.size() > limite;
+            if (limitado) {
+                itens = itens.subList(0, limite);
+            }
+
+            logger.debug("Busca parcial por '{}' em {}: {} resultados", termoNormalizado, campo, itens.size());
+            return new BuscaNumerosDTO(termoNormalizado, campoBusca.name().toLowerCase(Locale.ROOT), itens, limitado);
+
+        } catch (CreditoException ex) {
+            // Re-lança exceções já tratadas
+            throw ex;
+        } catch (Exception ex) {
+            logger.error("Erro interno na busca parcial por '{}': {}", termo, ex.getMessage(), ex);
+            throw CreditoException.erroInterno("Falha na busca parcial por número: " + ex.getMessage());
+        }
+    }
+
     // ================================================
     // MÉTODOS ADMINISTRATIVOS
     // ================================================
 
     /**
      * Lista todos os créditos (método auxiliar para administração)
+     * Materializa a tabela inteira em memória; para grandes volumes use CreditoExportacaoService
      *
      * @return Lista de todos os créditos
      * @throws CreditoException se erro interno
@@ -220,7 +319,7 @@ public class CreditoService {
             }
 
             Page<Credito> creditosPage = creditoRepository.findAll(pageable);
-            return creditosPage.map(this::convertToDTO);
+            return creditosPage.map(CreditoService::convertToDTO);
 
         } catch (CreditoException ex) {
             throw ex;
@@ -230,6 +329,120 @@ public class CreditoService {
         }
     }
 
+    /**
+     * Lista créditos com paginação por cursor, ordenados por data de constituição e ID (decrescente)
+     * Custo constante por página, independente da profundidade, e sem count(*)
+     *
+     * @param cursor Token da página anterior (null para a primeira página)
+     * @param tamanho Quantidade de itens por página
+     * @return Página de créditos com o cursor da próxima página
+     * @throws CreditoException se cursor ou tamanho forem inválidos
+     */
+    public PaginaCursorDTO<CreditoResponseDTO> listarCreditosPorCursor(String cursor, int tamanho) {
+        logger.debug("Listando créditos por cursor - tamanho: {}", tamanho);
+
+        try {
+            CursorPaginacao posicao = CursorPaginacao.decodificar(cursor);
+            Slice<Credito> fatia = creditoRepository.findPaginaAposCursor(
+                    posicao.getDataConstituicao(), posicao.getId(), criarPaginaCursor(tamanho));
+            return montarPaginaCursor(fatia);
+
+        } catch (CreditoException ex) {
+            throw ex;
+        } catch (Exception ex) {
+            logger.error("Erro interno na listagem por cursor: {}", ex.getMessage(), ex);
+            throw CreditoException.erroInterno("Falha na listagem por cursor de créditos: " + ex.getMessage());
+        }
+    }
+
+    /**
+     * Consulta créditos por período com paginação por cursor
+     *
+     * @param dataInicio Data inicial do período
+     * @param dataFim Data final do período
+     * @param cursor Token da página anterior (null para a primeira página)
+     * @param tamanho Quantidade de itens por página
+     * @return Página de créditos com o cursor da próxima página
+     * @throws CreditoException se parâmetros inválidos ou erro interno
+     */
+    public PaginaCursorDTO<CreditoResponseDTO> consultarCreditosPorPeriodoCursor(LocalDate dataInicio, LocalDate dataFim,
+                                                                                 String cursor, int tamanho) {
+        LoggingUtils.logInicioConsulta(logger, "período (cursor)", dataInicio + " a " + dataFim);
+
+        try {
+            ValidationUtils.validatePeriodo(dataInicio, dataFim);
+
+            CursorPaginacao posicao = CursorPaginacao.decodificar(cursor);
+            Slice<Credito> fatia = creditoRepository.findByDataConstituicaoBetweenAposCursor(
+                    dataInicio, dataFim, posicao.getDataConstituicao(), posicao.getId(), criarPaginaCursor(tamanho));
+            return montarPaginaCursor(fatia);
+
+        } catch (CreditoException ex) {
+            throw ex;
+        } catch (Exception ex) {
+            logger.error("Erro interno na consulta por período (cursor): {}", ex.getMessage(), ex);
+            throw CreditoException.erroInterno("Falha na consulta por período: " + ex.getMessage());
+        }
+    }
+
+    /**
+     * Consulta créditos por tipo com paginação por cursor
+     *
+     * @param tipoCredito Tipo do crédito
+     * @param cursor Token da página anterior (null para a primeira página)
+     * @param tamanho Quantidade de itens por página
+     * @return Página de créditos com o cursor da próxima página
+     * @throws CreditoException se parâmetros inválidos ou erro interno
+     */
+    public PaginaCursorDTO<CreditoResponseDTO> consultarCreditosPorTipoCursor(String tipoCredito, String cursor, int tamanho) {
+        LoggingUtils.logInicioConsulta(logger, "tipo (cursor)", tipoCredito);
+
+        try {
+            if (!ValidationUtils.isValidString(tipoCredito)) {
+                throw CreditoException.parametroInvalido("tipoCredito", tipoCredito, "tipo do crédito é obrigatório");
+            }
+
+            CursorPaginacao posicao = CursorPaginacao.decodificar(cursor);
+            Slice<Credito> fatia = creditoRepository.findByTipoCreditoAposCursor(
+                    tipoCredito.trim(), posicao.getDataConstituicao(), posicao.getId(), criarPaginaCursor(tamanho));
+            return montarPaginaCursor(fatia);
+
+        } catch (CreditoException ex) {
+            throw ex;
+        } catch (Exception ex) {
+            logger.error("Erro interno na consulta por tipo (cursor): {}", ex.getMessage(), ex);
+            throw CreditoException.erroInterno("Falha na consulta por tipo: " + ex.getMessage());
+        }
+    }
+
+    /**
+     * Consulta créditos do Simples Nacional com paginação por cursor
+     *
+     * @param simplesNacional true para Simples Nacional, false para não optantes
+     * @param cursor Token da página anterior (null para a primeira página)
+     * @param tamanho Quantidade de itens por página
+     * @return Página de créditos com o cursor da próxima página
+     * @throws CreditoException se parâmetros inválidos ou erro interno
+     */
+    public PaginaCursorDTO<CreditoResponseDTO> consultarCreditosPorSimplesNacionalCursor(boolean simplesNacional,
+                                                                                         String cursor, int tamanho) {
+        String filtro = simplesNacional ? "Simples Nacional" : "Não optantes";
+        LoggingUtils.logInicioConsulta(logger, "Simples Nacional (cursor)", filtro);
+
+        try {
+            CursorPaginacao posicao = CursorPaginacao.decodificar(cursor);
+            Slice<Credito> fatia = creditoRepository.findBySimplesNacionalAposCursor(
+                    simplesNacional, posicao.getDataConstituicao(), posicao.getId(), criarPaginaCursor(tamanho));
+            return montarPaginaCursor(fatia);
+
+        } catch (CreditoException ex) {
+            throw ex;
+        } catch (Exception ex) {
+            logger.error("Erro interno na consulta por Simples Nacional (cursor): {}", ex.getMessage(), ex);
+            throw CreditoException.erroInterno("Falha na consulta por Simples Nacional: " + ex.getMessage());
+        }
+    }
+
     /**
      * Conta o total de créditos cadastrados
      *
@@ -273,8 +486,7 @@ public class CreditoService {
                 throw CreditoException.erroInterno("Data de início deve ser anterior à data fim");
             }
 
-            List<Credito> creditos = creditoRepository.findByDataConstituicaoBetween(dataInicio, dataFim);
-            List<CreditoResponseDTO> response = convertToDTOList(creditos);
+            List<CreditoResponseDTO> response = creditoRepository.findDtoByDataConstituicaoBetween(dataInicio, dataFim);
 
             LoggingUtils.logConsultaSucesso(logger, "período", dataInicio + " a " + dataFim, response.size());
             return response;
@@ -302,8 +514,7 @@ public class CreditoService {
                 throw CreditoException.erroInterno("Tipo do crédito é obrigatório");
             }
 
-            List<Credito> creditos = creditoRepository.findByTipoCreditoIgnoreCase(tipoCredito.trim());
-            List<CreditoResponseDTO> response = convertToDTOList(creditos);
+            List<CreditoResponseDTO> response = creditoRepository.findDtoByTipoCreditoIgnoreCase(tipoCredito.trim());
 
             LoggingUtils.logConsultaSucesso(logger, "tipo", tipoCredito, response.size());
             return response;
@@ -361,8 +572,9 @@ public class CreditoService {
                 throw CreditoException.erroInterno("Valor mínimo deve ser menor ou igual ao valor máximo");
             }
 
-            List<Credito> creditos = creditoRepository.findByValorIssqnBetween(valorMinimo, valorMaximo);
-            List<CreditoResponseDTO> response = convertToDTOList(creditos);
+            // Arredonda para dentro da faixa: limites com mais de duas casas não excluem valores válidos
+            List<CreditoResponseDTO> response = creditoRepository.findDtoByValorIssqnBetween(
+                    DecimalFixo.of(valorMinimo, RoundingMode.CEILING), DecimalFixo.of(valorMaximo, RoundingMode.FLOOR));
 
             LoggingUtils.logConsultaSucesso(logger, "faixa de valor", valorMinimo + " a " + valorMaximo, response.size());
             return response;
@@ -381,15 +593,16 @@ public class CreditoService {
 
     /**
      * Calcula o valor total de ISSQN constituído
+     * Soma dos agregados materializados (CreditoAgregadoService), sem percorrer a tabela
      *
      * @return Valor total em BigDecimal
      * @throws CreditoException se erro interno
      */
     public BigDecimal calcularValorTotalIssqn() {
         try {
-            BigDecimal total = creditoRepository.sumValorIssqn();
+            BigDecimal total = agregadoService.consolidar().getGeral().getValorTotal().paraBigDecimal();
             logger.info("Valor total de ISSQN constituído: {}", total);
-            return total != null ? total : BigDecimal.ZERO;
+            return total;
 
         } catch (Exception ex) {
             logger.error("Erro interno no cálculo do valor total: {}", ex.getMessage(), ex);
@@ -398,7 +611,47 @@ public class CreditoService {
     }
 
     /**
-     * Calcula estatísticas por tipo de crédito
+     * Obtém estatísticas consolidadas (totais, por tipo e por mês) a partir dos agregados materializados
+     * O resultado é servido do cache "estatisticas" (TTL curto), evitando recalcular a cada polling;
+     * sync = true garante que apenas uma thread recalcule quando o snapshot expira
+     *
+     * @return Estatísticas consolidadas
+     * @throws CreditoException se erro interno
+     */
+    @Cacheable(value = "estatisticas", key = "'snapshot'", sync = true)
+    public EstatisticasDTO obterEstatisticas() {
+        logger.debug("Calculando estatísticas consolidadas");
+
+        try {
+            CreditoAgregadoService.Consolidado consolidado = agregadoService.consolidar();
+            CreditoAgregadoService.Acumulado geral = consolidado.getGeral();
+
+            EstatisticasDTO estatisticas = new EstatisticasDTO();
+            estatisticas.setTotalCreditos(geral.getQuantidade());
+            estatisticas.setValorTotal(geral.getValorTotal().paraBigDecimal());
+            estatisticas.setValorMedio(geral.getValorMedio().paraBigDecimal());
+            estatisticas.setValorMinimo(geral.getValorMinimo().paraBigDecimal());
+            estatisticas.setValorMaximo(geral.getValorMaximo().paraBigDecimal());
+
+            for (Map.Entry<String, CreditoAgregadoService.Acumulado> tipo : consolidado.getPorTipo().entrySet()) {
+                estatisticas.getPorTipo().add(paraGrupo(tipo.getKey(), tipo.getValue()));
+            }
+            for (Map.Entry<String, CreditoAgregadoService.Acumulado> mes : consolidado.getPorMes().entrySet()) {
+                estatisticas.getPorMes().add(paraGrupo(mes.getKey(), mes.getValue()));
+            }
+
+            estatisticas.setTimestamp(System.currentTimeMillis());
+            logger.info("Estatísticas consolidadas calculadas: {}", estatisticas);
+            return estatisticas;
+
+        } catch (Exception ex) {
+            logger.error("Erro interno no cálculo de estatísticas consolidadas: {}", ex.getMessage(), ex);
+            throw CreditoException.erroInterno("Falha no cálculo de estatísticas consolidadas: " + ex.getMessage());
+        }
+    }
+
+    /**
+     * Calcula estatísticas por tipo de crédito a partir dos agregados materializados
      *
      * @return Lista de estatísticas por tipo
      * @throws CreditoException se erro interno
@@ -407,7 +660,14 @@ public class CreditoService {
         logger.debug("Calculando estatísticas por tipo de crédito");
 
         try {
-            return creditoRepository.findEstatisticasPorTipo();
+            List<EstatisticasPorTipo> estatisticas = new ArrayList<>();
+            for (Map.Entry<String, CreditoAgregadoService.Acumulado> tipo
+                    : agregadoService.consolidar().getPorTipo().entrySet()) {
+                CreditoAgregadoService.Acumulado valores = tipo.getValue();
+                estatisticas.add(new EstatisticasPorTipo(tipo.getKey(), valores.getQuantidade(),
+                        valores.getValorTotal()));
+            }
+            return estatisticas;
 
         } catch (Exception ex) {
             logger.error("Erro interno no cálculo de estatísticas por tipo: {}", ex.getMessage(), ex);
@@ -416,16 +676,16 @@ public class CreditoService {
     }
 
     /**
-     * Calcula a média de valores de ISSQN
+     * Calcula a média de valores de ISSQN (duas casas decimais) a partir dos agregados materializados
      *
      * @return Valor médio
      * @throws CreditoException se erro interno
      */
     public BigDecimal calcularMediaValorIssqn() {
         try {
-            BigDecimal media = creditoRepository.avgValorIssqn();
+            BigDecimal media = agregadoService.consolidar().getGeral().getValorMedio().paraBigDecimal();
             logger.debug("Média de valor ISSQN: {}", media);
-            return media != null ? media : BigDecimal.ZERO;
+            return media;
 
         } catch (Exception ex) {
             logger.error("Erro interno no cálculo da média: {}", ex.getMessage(), ex);
@@ -456,20 +716,29 @@ public class CreditoService {
     // ================================================
 
     /**
-     * Busca créditos por NFS-e no repositório
+     * Carrega e converte os créditos da NFS-e (executado uma única vez por grupo de chamadas concorrentes)
+     */
+    private List<CreditoResponseDTO> carregarCreditosPorNfse(String numeroNfse) {
+        List<CreditoResponseDTO> creditos = buscarCreditosPorNfse(numeroNfse);
+        validateCreditosEncontrados(creditos, numeroNfse);
+        return creditos;
+    }
+
+    /**
+     * Busca créditos por NFS-e no repositório (projeção direta em DTO)
      */
-    private List<Credito> buscarCreditosPorNfse(String numeroNfse) {
+    private List<CreditoResponseDTO> buscarCreditosPorNfse(String numeroNfse) {
         String numeroNormalizado = ValidationUtils.normalizeString(numeroNfse);
-        return creditoRepository.findByNumeroNfse(numeroNormalizado);
+        return creditoRepository.findDtoByNumeroNfse(numeroNormalizado);
     }
 
     /**
      * Busca um crédito específico por número
-     * Atualizado para usar o repository refatorado
+     * Projeção direta em DTO, sem carregar a entidade
      */
-    private Credito buscarCreditoPorNumero(String numeroCredito) {
+    private CreditoResponseDTO buscarCreditoPorNumero(String numeroCredito) {
         String numeroNormalizado = ValidationUtils.normalizeString(numeroCredito);
-        List<Credito> creditos = creditoRepository.findByNumeroCredito(numeroNormalizado);
+        List<CreditoResponseDTO> creditos = creditoRepository.findDtoByNumeroCredito(numeroNormalizado);
 
         if (creditos.isEmpty()) {
             LoggingUtils.logNenhumResultado(logger, "número do crédito", numeroCredito);
@@ -485,22 +754,92 @@ public class CreditoService {
         return creditos.get(0);
     }
 
+    /**
+     * Verifica existência consultando primeiro o filtro de Bloom
+     * Uma resposta "definitivamente ausente" dispensa o acesso ao banco
+     */
+    private boolean verificarExistencia(CreditoBloomFilter.TipoChave tipo, String numeroNormalizado) {
+        CreditoBloomFilter.Resposta resposta = bloomFilter.consultar(tipo, numeroNormalizado);
+        if (resposta == CreditoBloomFilter.Resposta.AUSENTE) {
+            return false;
+        }
+
+        boolean existe = tipo == CreditoBloomFilter.TipoChave.CREDITO
+                ? creditoRepository.existsByNumeroCredito(numeroNormalizado)
+                : creditoRepository.existsByNumeroNfse(numeroNormalizado);
+
+        if (!existe && resposta == CreditoBloomFilter.Resposta.TALVEZ_PRESENTE) {
+            bloomFilter.registrarFalsoPositivo(tipo);
+        }
+        return existe;
+    }
+
     /**
      * Valida se foram encontrados créditos para a NFS-e
      */
-    private void validateCreditosEncontrados(List<Credito> creditos, String numeroNfse) {
+    private void validateCreditosEncontrados(List<CreditoResponseDTO> creditos, String numeroNfse) {
         if (creditos.isEmpty()) {
             LoggingUtils.logNenhumResultado(logger, "NFS-e", numeroNfse);
             throw CreditoException.nfseSemCreditos(numeroNfse);
         }
     }
 
+    /**
+     * Converte o campo da busca parcial (nfse, credito ou todos)
+     */
+    private CreditoIndiceNumeros.Campo campoBusca(String campo) {
+        if (campo != null) {
+            for (CreditoIndiceNumeros.Campo valor : CreditoIndiceNumeros.Campo.values()) {
+                if (valor.name().equalsIgnoreCase(campo.trim())) {
+                    return valor;
+                }
+            }
+        }
+        throw CreditoException.parametroInvalido("campo", campo, "use nfse, credito ou todos");
+    }
+
+    /**
+     * Valida o tamanho e cria a requisição de página para consultas por cursor
+     */
+    private Pageable criarPaginaCursor(int tamanho) {
+        if (tamanho < 1 || tamanho > TAMANHO_MAXIMO_PAGINA) {
+            throw CreditoException.parametroInvalido("tamanho", String.valueOf(tamanho),
+                    "deve estar entre 1 e " + TAMANHO_MAXIMO_PAGINA);
+        }
+        return PageRequest.of(0, tamanho);
+    }
+
+    /**
+     * Converte a fatia em página de DTOs, gerando o cursor a partir do último registro
+     */
+    private PaginaCursorDTO<CreditoResponseDTO> montarPaginaCursor(Slice<Credito> fatia) {
+        List<Credito> creditos = fatia.getContent();
+
+        String proximoCursor = null;
+        if (fatia.hasNext() && !creditos.isEmpty()) {
+            Credito ultimo = creditos.get(creditos.size() - 1);
+            proximoCursor = CursorPaginacao.apos(ultimo.getDataConstituicao(), ultimo.getId()).codificar();
+        }
+
+        return new PaginaCursorDTO<>(convertToDTOList(creditos), proximoCursor);
+    }
+
+    /**
+     * Converte um total agregado (por tipo ou por mês) em grupo do DTO de estatísticas
+     */
+    private EstatisticasDTO.Grupo paraGrupo(String chave, CreditoAgregadoService.Acumulado valores) {
+        return new EstatisticasDTO.Grupo(chave, valores.getQuantidade(), valores.getValorTotal().paraBigDecimal(),
+                valores.getValorMedio().paraBigDecimal(), valores.getValorMinimo().paraBigDecimal(),
+                valores.getValorMaximo().paraBigDecimal());
+    }
+
     /**
      * Converte lista de entidades para lista de DTOs
+     * Estático e visível no pacote para reuso pelos demais services
      */
-    private List<CreditoResponseDTO> convertToDTOList(List<Credito> creditos) {
+    static List<CreditoResponseDTO> convertToDTOList(List<Credito> creditos) {
         return creditos.stream()
-                .map(this::convertToDTO)
+                .map(CreditoService::convertToDTO)
                 .collect(Collectors.toList());
     }
 
@@ -511,7 +850,7 @@ public class CreditoService {
      * @param credito Entidade a ser convertida
      * @return DTO de resposta
      */
-    private CreditoResponseDTO convertToDTO(Credito credito) {
+    static CreditoResponseDTO convertToDTO(Credito credito) {
         if (credito == null) {
             return null;
         }
@@ -536,19 +875,20 @@ public class CreditoService {
 
     /**
      * Classe para representar estatísticas por tipo de crédito
+     * A média é calculada do total em centavos (HALF_UP), sem passar pelo AVG em double
      */
     public static class EstatisticasPorTipo {
         private String tipoCredito;
         private Long quantidade;
-        private BigDecimal valorTotal;
-        private BigDecimal valorMedio;
+        private DecimalFixo valorTotal;
+        private DecimalFixo valorMedio;
 
 
-        public EstatisticasPorTipo(String tipoCredito, Long quantidade, BigDecimal valorTotal, Double valorMedio) {
+        public EstatisticasPorTipo(String tipoCredito, Long quantidade, DecimalFixo valorTotal) {
             this.tipoCredito = tipoCredito;
             this.quantidade = quantidade;
-            this.valorTotal = valorTotal;
-            this.valorMedio = valorMedio != null ? BigDecimal.valueOf(valorMedio) : BigDecimal.ZERO;
+            this.valorTotal = valorTotal != null ? valorTotal : DecimalFixo.ZERO;
+            this.valorMedio = quantidade != null && quantidade > 0 ? this.valorTotal.dividir(quantidade) : DecimalFixo.ZERO;
         }
 
         // Getters e Setters
@@ -558,10 +898,10 @@ public class CreditoService {
         public Long getQuantidade() { return quantidade; }
         public void setQuantidade(Long quantidade) { this.quantidade = quantidade; }
 
-        public BigDecimal getValorTotal() { return valorTotal; }
-        public void setValorTotal(BigDecimal valorTotal) { this.valorTotal = valorTotal; }
+        public DecimalFixo getValorTotal() { return valorTotal; }
+        public void setValorTotal(DecimalFixo valorTotal) { this.valorTotal = valorTotal; }
 
-        public BigDecimal getValorMedio() { return valorMedio; }
-        public void setValorMedio(BigDecimal valorMedio) { this.valorMedio = valorMedio; }
+        public DecimalFixo getValorMedio() { return valorMedio; }
+        public void setValorMedio(DecimalFixo valorMedio) { this.valorMedio = valorMedio; }
     }
 }
\ No newline at end of file
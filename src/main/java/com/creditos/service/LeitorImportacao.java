@@ -0,0 +1,255 @@
+package com.creditos.service;
+
+import com.creditos.dto.CreditoEventoDTO;
+import com.creditos.exception.CreditoException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Leitor em streaming dos arquivos de importação (CSV ou NDJSON), uma linha por vez
+ *
+ * Aceita o mesmo layout produzido pela exportação: CSV com cabeçalho (colunas em qualquer ordem,
+ * simplesNacional como Sim/Não ou true/false) e NDJSON com um objeto por linha. Erros de formato
+ * de uma linha não interrompem a leitura; são devolvidos na própria linha para o relatório de erros.
+ *
+ * @author Ednilton Curt Rauh
+ * @version 1.0.0
+ */
+final class LeitorImportacao {
+
+    static final String[] COLUNAS = {"numeroCredito", "numeroNfse", "dataConstituicao", "valorIssqn",
+            "tipoCredito", "simplesNacional", "aliquota", "valorFaturado", "valorDeducao", "baseCalculo"};
+
+    /**
+     * Linha lida: o evento convertido ou o motivo da falha de leitura
+     */
+    static final class Linha {
+        private final long numero;
+        private final CreditoEventoDTO evento;
+        private final String erro;
+
+        private Linha(long numero, CreditoEventoDTO evento, String erro) {
+            this.numero = numero;
+            this.evento = evento;
+            this.erro = erro;
+        }
+
+        long getNumero() { return numero; }
+        CreditoEventoDTO getEvento() { return evento; }
+        String getErro() { return erro; }
+    }
+
+    /**
+     * Acesso aos campos de uma linha pelo nome da coluna
+     */
+    private interface Campos {
+        String valor(String coluna);
+    }
+
+    private final BufferedReader reader;
+    private final CreditoExportacaoService.Formato formato;
+    private final ObjectReader leitorJson;
+    private Map<String, Integer> indiceColunas;
+    private long numeroLinha;
+
+    LeitorImportacao(BufferedReader reader, CreditoExportacaoService.Formato formato, ObjectMapper objectMapper) {
+        if (formato != CreditoExportacaoService.Formato.CSV && formato != CreditoExportacaoService.Formato.NDJSON) {
+            throw CreditoException.parametroInvalido("formato", formato.getExtensao(),
+                    "formatos suportados na importação: csv, ndjson");
+        }
+        this.reader = reader;
+        this.formato = formato;
+        // Decimais lidos como BigDecimal exato, sem passar por double nem perder a escala
+        this.leitorJson = objectMapper.reader()
+                .with(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS)
+                .with(JsonNodeFactory.withExactBigDecimals(true));
+    }
+
+    /**
+     * Lê a próxima linha de dados, ignorando linhas em branco
+     *
+     * @return Linha lida, ou null no fim do arquivo
+     * @throws CreditoException se o cabeçalho CSV estiver ausente ou incompleto
+     */
+    Linha proxima() throws IOException {
+        String texto;
+        while ((texto = reader.readLine()) != null) {
+            numeroLinha++;
+            if (texto.trim().isEmpty()) {
+                continue;
+            }
+            if (formato == CreditoExportacaoService.Formato.CSV && indiceColunas == null) {
+                indiceColunas = lerCabecalho(texto);
+                continue;
+            }
+            return formato == CreditoExportacaoService.Formato.CSV ? lerCsv(texto) : lerNdjson(texto);
+        }
+        return null;
+    }
+
+    // ================================================
+    // FORMATOS
+    // ================================================
+
+    private Linha lerCsv(String texto) {
+        List<String> valores = separarCsv(texto);
+        if (valores == null) {
+            return new Linha(numeroLinha, null, "aspas não fechadas");
+        }
+        return converter(coluna -> {
+            int indice = indiceColunas.get(coluna);
+            return indice < valores.size() ? valores.get(indice) : null;
+        });
+    }
+
+    private Linha lerNdjson(String texto) {
+        JsonNode objeto;
+        try {
+            objeto = leitorJson.readTree(texto);
+        } catch (IOException ex) {
+            return new Linha(numeroLinha, null, "JSON inválido");
+        }
+        if (objeto == null || !objeto.isObject()) {
+            return new Linha(numeroLinha, null, "a linha deve conter um objeto JSON");
+        }
+        return converter(coluna -> {
+            JsonNode valor = objeto.get(coluna);
+            return valor == null || valor.isNull() ? null : valor.asText();
+        });
+    }
+
+    private Map<String, Integer> lerCabecalho(String texto) {
+        List<String> nomes = separarCsv(texto);
+        Map<String, Integer> indices = new HashMap<>();
+        if (nomes != null) {
+            for (int i = 0; i < nomes.size(); i++) {
+                indices.put(nomes.get(i).trim(), i);
+            }
+        }
+        for (String coluna : COLUNAS) {
+            if (!indices.containsKey(coluna)) {
+                throw CreditoException.parametroInvalido("cabecalho", texto,
+                        "coluna obrigatória ausente: " + coluna);
+            }
+        }
+        return indices;
+    }
+
+    // ================================================
+    // CONVERSÃO DE CAMPOS
+    // ================================================
+
+    private Linha converter(Campos campos) {
+        try {
+            CreditoEventoDTO evento = new CreditoEventoDTO(
+                    campos.valor("numeroCredito"),
+                    campos.valor("numeroNfse"),
+                    data(campos, "dataConstituicao"),
+                    decimal(campos, "valorIssqn"),
+                    campos.valor("tipoCredito"),
+                    booleano(campos, "simplesNacional"),
+                    decimal(campos, "aliquota"),
+                    decimal(campos, "valorFaturado"),
+                    decimal(campos, "valorDeducao"),
+                    decimal(campos, "baseCalculo"));
+            return new Linha(numeroLinha, evento, null);
+        } catch (IllegalArgumentException ex) {
+            return new Linha(numeroLinha, null, ex.getMessage());
+        }
+    }
+
+    private static LocalDate data(Campos campos, String coluna) {
+        String valor = vazioComoNulo(campos.valor(coluna));
+        try {
+            return valor == null ? null : LocalDate.parse(valor);
+        } catch (DateTimeParseException ex) {
+            throw new IllegalArgumentException(coluna + ": data inválida (use yyyy-MM-dd)");
+        }
+    }
+
+    private static BigDecimal decimal(Campos campos, String coluna) {
+        String valor = vazioComoNulo(campos.valor(coluna));
+        try {
+            return valor == null ? null : new BigDecimal(valor);
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException(coluna + ": valor numérico inválido");
+        }
+    }
+
+    private static Boolean booleano(Campos campos, String coluna) {
+        String valor = vazioComoNulo(campos.valor(coluna));
+        if (valor == null) {
+            return null;
+        }
+        switch (valor.toLowerCase()) {
+            case "sim":
+            case "true":
+                return Boolean.TRUE;
+            case "não":
+            case "nao":
+            case "false":
+                return Boolean.FALSE;
+            default:
+                throw new IllegalArgumentException(coluna + ": use Sim/Não ou true/false");
+        }
+    }
+
+    private static String vazioComoNulo(String valor) {
+        if (valor == null) {
+            return null;
+        }
+        String limpo = valor.trim();
+        return limpo.isEmpty() ? null : limpo;
+    }
+
+    /**
+     * Separa uma linha CSV (RFC 4180, sem quebras de linha dentro de aspas)
+     *
+     * @return Valores da linha, ou null se houver aspas não fechadas
+     */
+    static List<String> separarCsv(String linha) {
+        List<String> valores = new ArrayList<>(COLUNAS.length);
+        StringBuilder atual = new StringBuilder();
+        boolean entreAspas = false;
+
+        for (int i = 0; i < linha.length(); i++) {
+            char c = linha.charAt(i);
+            if (entreAspas) {
+                if (c == '"' && i + 1 < linha.length() && linha.charAt(i + 1) == '"') {
+                    atual.append('"');
+                    i++;
+                } else if (c == '"') {
+                    entreAspas = false;
+                } else {
+                    atual.append(c);
+                }
+            } else if (c == '"') {
+                entreAspas = true;
+            } else if (c == ',') {
+                valores.add(atual.toString());
+                atual.setLength(0);
+            } else if (c != '\r') {
+                atual.append(c);
+            }
+        }
+
+        if (entreAspas) {
+            return null;
+        }
+        valores.add(atual.toString());
+        return valores;
+    }
+}
@@ -0,0 +1,59 @@
+package com.creditos.util;
+
+import java.math.BigInteger;
+
+/**
+ * Regra de auditoria da consistência do ISSQN em aritmética inteira exata
+ *
+ * Um crédito é inconsistente quando |ISSQN - base de cálculo x alíquota / 100| > 0,01. Com ISSQN
+ * e base em centavos e alíquota em pontos-base (5,00% = 500), a comparação equivale a
+ * |ISSQN x 10000 - base x alíquota| > 10000, sem divisão nem arredondamento. A diferença é
+ * expressa em milionésimos de real (1 centavo = 10000).
+ *
+ * É o mesmo critério de CreditoRepository.findCreditosComValoresInconsistentes; a validação da
+ * ingestão (ValidationUtils.validateConsistenciaIssqn) arredonda o valor calculado antes de comparar.
+ *
+ * @author Ednilton Curt Rauh
+ * @version 1.0.0
+ */
+public final class ConsistenciaIssqn {
+
+    /** Tolerância de 0,01 em milionésimos de real */
+    public static final long TOLERANCIA = 10_000L;
+
+    private static final BigInteger ESCALA = BigInteger.valueOf(10_000L);
+    private static final BigInteger LONG_MAXIMO = BigInteger.valueOf(Long.MAX_VALUE);
+    private static final BigInteger LONG_MINIMO = BigInteger.valueOf(Long.MIN_VALUE);
+
+    private ConsistenciaIssqn() {
+        // Classe utilitária
+    }
+
+    /**
+     * ISSQN x 10000 - base x alíquota, em milionésimos de real
+     * Fora do intervalo de long (valores acima de ~9 x 10^14 centavos) o resultado é saturado
+     *
+     * @param valorIssqn ISSQN em centavos
+     * @param baseCalculo Base de cálculo em centavos
+     * @param aliquota Alíquota em pontos-base
+     * @return Diferença entre o ISSQN informado e o calculado
+     */
+    public static long diferenca(long valorIssqn, long baseCalculo, int aliquota) {
+        try {
+            return Math.subtractExact(Math.multiplyExact(valorIssqn, ESCALA.longValue()),
+                    Math.multiplyExact(baseCalculo, (long) aliquota));
+        } catch (ArithmeticException ex) {
+            BigInteger diferenca = BigInteger.valueOf(valorIssqn).multiply(ESCALA)
+                    .subtract(BigInteger.valueOf(baseCalculo).multiply(BigInteger.valueOf(aliquota)));
+            return diferenca.max(LONG_MINIMO).min(LONG_MAXIMO).longValue();
+        }
+    }
+
+    /**
+     * Indica se a diferença excede a tolerância de 0,01
+     */
+    public static boolean inconsistente(long valorIssqn, long baseCalculo, int aliquota) {
+        long diferenca = diferenca(valorIssqn, baseCalculo, aliquota);
+        return diferenca > TOLERANCIA || diferenca < -TOLERANCIA;
+    }
+}
@@ -0,0 +1,94 @@
+package com.creditos.util;
+
+import com.creditos.exception.CreditoException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Base64;
+
+/**
+ * Cursor opaco para paginação por chave (keyset/seek) ordenada por (dataConstituicao, id) decrescente
+ *
+ * O token codifica a posição do último registro entregue. A próxima página é obtida com
+ * "WHERE (data, id) < (:data, :id)", que usa o índice idx_credito_data_constituicao_id e
+ * mantém o custo por página constante, sem OFFSET e sem count(*).
+ *
+ * @author Ednilton Curt Rauh
+ * @version 1.0.0
+ */
+public final class CursorPaginacao {
+
+    private static final String VERSAO = "v1";
+
+    /**
+     * Posição anterior a qualquer registro válido (usada na primeira página)
+     */
+    private static final CursorPaginacao INICIAL = new CursorPaginacao(LocalDate.of(9999, 12, 31), Long.MAX_VALUE);
+
+    private final LocalDate dataConstituicao;
+    private final long id;
+
+    private CursorPaginacao(LocalDate dataConstituicao, long id) {
+        this.dataConstituicao = dataConstituicao;
+        this.id = id;
+    }
+
+    /**
+     * Cursor da primeira página
+     */
+    public static CursorPaginacao inicial() {
+        return INICIAL;
+    }
+
+    /**
+     * Cria o cursor apontando para o último registro de uma página
+     */
+    public static CursorPaginacao apos(LocalDate dataConstituicao, Long id) {
+        return new CursorPaginacao(dataConstituicao, id);
+    }
+
+    /**
+     * Decodifica um token recebido do cliente
+     *
+     * @param token Token opaco (null ou vazio para a primeira página)
+     * @return Cursor decodificado
+     * @throws CreditoException se o token for inválido
+     */
+    public static CursorPaginacao decodificar(String token) {
+        if (!ValidationUtils.isValidString(token)) {
+            return INICIAL;
+        }
+
+        try {
+            String conteudo = new String(Base64.getUrlDecoder().decode(token.trim()), StandardCharsets.UTF_8);
+            String[] partes = conteudo.split(":");
+
+            if (partes.length != 3 || !VERSAO.equals(partes[0])) {
+                throw CreditoException.parametroInvalido("cursor", token, "cursor de paginação desconhecido");
+            }
+
+            return new CursorPaginacao(LocalDate.ofEpochDay(Long.parseLong(partes[1])), Long.parseLong(partes[2]));
+
+        } catch (CreditoException ex) {
+            throw ex;
+        } catch (Exception ex) {
+            throw CreditoException.parametroInvalido("cursor", token, "cursor de paginação malformado");
+        }
+    }
+
+    /**
+     * Codifica o cursor como token opaco para o cliente
+     */
+    public String codificar() {
+        String conteudo = VERSAO + ":" + dataConstituicao.toEpochDay() + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(conteudo.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public LocalDate getDataConstituicao() {
+        return dataConstituicao;
+    }
+
+    public long getId() {
+        return id;
+    }
+}
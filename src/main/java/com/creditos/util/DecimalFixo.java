@@ -0,0 +1,315 @@
+package com.creditos.util;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.deser.std.StdScalarDeserializer;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Decimal de ponto fixo com duas casas, armazenado como long em centésimos
+ *
+ * Representa as colunas NUMERIC(15, 2) e NUMERIC(5, 2) da tabela credito: valores monetários em
+ * centavos e a alíquota em pontos-base (5,00% = 500). Substitui o BigDecimal nos caminhos de leitura
+ * (entidade, DTO de resposta, cache, exportação e agregados): um objeto de 16 bytes por valor, sem
+ * BigInteger interno, comparação e soma em aritmética de long.
+ *
+ * O valor é lido do banco pelo texto da coluna (DecimalFixoType) e gravado no JSON como número com
+ * duas casas, no mesmo formato do BigDecimal de escala 2. BigDecimal só é criado nas bordas, quando
+ * o chamador pede explicitamente (paraBigDecimal) ou na gravação via JDBC.
+ *
+ * Estende Number para que as anotações @DecimalMin/@DecimalMax continuem válidas nos campos.
+ *
+ * @author Ednilton Curt Rauh
+ * @version 1.0.0
+ */
+@JsonSerialize(using = DecimalFixo.Serializador.class)
+@JsonDeserialize(using = DecimalFixo.Desserializador.class)
+public final class DecimalFixo extends Number implements Comparable<DecimalFixo> {
+
+    private static final long serialVersionUID = 1L;
+
+    /** Casas decimais */
+    public static final int ESCALA = 2;
+
+    public static final DecimalFixo ZERO = new DecimalFixo(0L);
+
+    private static final long FATOR = 100L;
+
+    private final long centesimos;
+
+    private DecimalFixo(long centesimos) {
+        this.centesimos = centesimos;
+    }
+
+    // ================================================
+    // CRIAÇÃO
+    // ================================================
+
+    /**
+     * Cria a partir do valor em centésimos (centavos ou pontos-base)
+     */
+    public static DecimalFixo deCentesimos(long centesimos) {
+        return centesimos == 0 ? ZERO : new DecimalFixo(centesimos);
+    }
+
+    /**
+     * Converte um BigDecimal sem arredondamento
+     *
+     * @throws ArithmeticException se tiver mais de duas casas decimais significativas ou exceder o long
+     */
+    public static DecimalFixo of(BigDecimal valor) {
+        return of(valor, RoundingMode.UNNECESSARY);
+    }
+
+    /**
+     * Converte um BigDecimal arredondando para duas casas
+     *
+     * @throws ArithmeticException se exceder o long (ou se o arredondamento for UNNECESSARY e necessário)
+     */
+    public static DecimalFixo of(BigDecimal valor, RoundingMode arredondamento) {
+        return deCentesimos(valor.setScale(ESCALA, arredondamento).unscaledValue().longValueExact());
+    }
+
+    /**
+     * Interpreta o texto de um decimal ("1500.75", "-0.5", "10")
+     *
+     * @throws NumberFormatException se o texto for inválido ou tiver casas decimais além da segunda diferentes de zero
+     */
+    public static DecimalFixo parse(CharSequence texto) {
+        return deCentesimos(centesimos(texto));
+    }
+
+    /**
+     * Interpreta o texto de um decimal diretamente em centésimos, sem criar objetos
+     * Aceita sinal, parte inteira e parte fracionária separada por ponto; sem expoente
+     *
+     * @throws NumberFormatException se o texto for inválido ou tiver casas decimais além da segunda diferentes de zero
+     */
+    public static long centesimos(CharSequence texto) {
+        int tamanho = texto.length();
+        int i = 0;
+        boolean negativo = false;
+        if (tamanho > 0 && (texto.charAt(0) == '-' || texto.charAt(0) == '+')) {
+            negativo = texto.charAt(0) == '-';
+            i++;
+        }
+
+        // Acumula negativo: o intervalo de long negativo inclui Long.MIN_VALUE
+        long valor = 0;
+        int digitos = 0;
+        for (; i < tamanho && texto.charAt(i) != '.'; i++, digitos++) {
+            valor = acumular(valor, texto.charAt(i), texto);
+        }
+
+        int casas = 0;
+        if (i < tamanho) {
+            for (i++; i < tamanho; i++, digitos++) {
+                char c = texto.charAt(i);
+                if (casas < ESCALA) {
+                    valor = acumular(valor, c, texto);
+                    casas++;
+                } else if (c != '0') {
+                    throw new NumberFormatException("Mais de " + ESCALA + " casas decimais: " + texto);
+                }
+            }
+        }
+        if (digitos == 0) {
+            throw new NumberFormatException("Decimal inválido: " + texto);
+        }
+        for (; casas < ESCALA; casas++) {
+            valor = acumular(valor, '0', texto);
+        }
+
+        if (negativo) {
+            return valor;
+        }
+        if (valor == Long.MIN_VALUE) {
+            throw new NumberFormatException("Decimal fora do intervalo: " + texto);
+        }
+        return -valor;
+    }
+
+    // ================================================
+    // OPERAÇÕES
+    // ================================================
+
+    /**
+     * Valor em centésimos (centavos ou pontos-base)
+     */
+    public long getCentesimos() {
+        return centesimos;
+    }
+
+    /**
+     * @throws ArithmeticException se a soma exceder o long
+     */
+    public DecimalFixo somar(DecimalFixo outro) {
+        return deCentesimos(Math.addExact(centesimos, outro.centesimos));
+    }
+
+    /**
+     * @throws ArithmeticException se a diferença exceder o long
+     */
+    public DecimalFixo subtrair(DecimalFixo outro) {
+        return deCentesimos(Math.subtractExact(centesimos, outro.centesimos));
+    }
+
+    /**
+     * Divide por um inteiro com duas casas e arredondamento HALF_UP (ex.: média de um total)
+     *
+     * @throws ArithmeticException se o divisor for zero
+     */
+    public DecimalFixo dividir(long divisor) {
+        if (divisor == 0) {
+            throw new ArithmeticException("Divisão por zero");
+        }
+        long quociente = centesimos / divisor;
+        long resto = Math.abs(centesimos % divisor);
+        if (resto >= Math.abs(divisor) - resto) {
+            quociente += (centesimos < 0) == (divisor < 0) ? 1 : -1;
+        }
+        return deCentesimos(quociente);
+    }
+
+    public int signum() {
+        return Long.signum(centesimos);
+    }
+
+    /**
+     * Converte para BigDecimal de escala 2 (apenas nas bordas que exigem BigDecimal)
+     */
+    public BigDecimal paraBigDecimal() {
+        return BigDecimal.valueOf(centesimos, ESCALA);
+    }
+
+    // ================================================
+    // NUMBER
+    // ================================================
+
+    /**
+     * Parte inteira (truncada)
+     */
+    @Override
+    public long longValue() {
+        return centesimos / FATOR;
+    }
+
+    @Override
+    public int intValue() {
+        return (int) longValue();
+    }
+
+    @Override
+    public double doubleValue() {
+        // Divisão de double corretamente arredondada enquanto |centesimos| < 2^53
+        return centesimos / (double) FATOR;
+    }
+
+    @Override
+    public float floatValue() {
+        return (float) doubleValue();
+    }
+
+    // ================================================
+    // MÉTODOS EQUALS, HASHCODE E TOSTRING
+    // ================================================
+
+    @Override
+    public int compareTo(DecimalFixo outro) {
+        return Long.compare(centesimos, outro.centesimos);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || o instanceof DecimalFixo && centesimos == ((DecimalFixo) o).centesimos;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(centesimos);
+    }
+
+    /**
+     * Texto com exatamente duas casas, sem notação científica ("1500.75", "-0.05")
+     */
+    @Override
+    public String toString() {
+        long inteiro = centesimos / FATOR;
+        int fracao = (int) Math.abs(centesimos % FATOR);
+        StringBuilder texto = new StringBuilder(24);
+        if (centesimos < 0 && inteiro == 0) {
+            texto.append('-');
+        }
+        texto.append(inteiro).append('.');
+        if (fracao < 10) {
+            texto.append('0');
+        }
+        return texto.append(fracao).toString();
+    }
+
+    // ================================================
+    // MÉTODOS PRIVADOS AUXILIARES
+    // ================================================
+
+    private static long acumular(long valor, char c, CharSequence texto) {
+        if (c < '0' || c > '9') {
+            throw new NumberFormatException("Decimal inválido: " + texto);
+        }
+        try {
+            return Math.subtractExact(Math.multiplyExact(valor, 10L), c - '0');
+        } catch (ArithmeticException ex) {
+            throw new NumberFormatException("Decimal fora do intervalo: " + texto);
+        }
+    }
+
+    // ================================================
+    // JACKSON
+    // ================================================
+
+    /**
+     * Grava como número JSON com duas casas, igual ao BigDecimal de escala 2
+     */
+    public static final class Serializador extends StdSerializer<DecimalFixo> {
+
+        private static final long serialVersionUID = 1L;
+
+        public Serializador() {
+            super(DecimalFixo.class);
+        }
+
+        @Override
+        public void serialize(DecimalFixo valor, JsonGenerator gerador, SerializerProvider provider) throws IOException {
+            gerador.writeNumber(valor.toString());
+        }
+    }
+
+    /**
+     * Lê números e textos numéricos com até duas casas decimais
+     */
+    public static final class Desserializador extends StdScalarDeserializer<DecimalFixo> {
+
+        private static final long serialVersionUID = 1L;
+
+        public Desserializador() {
+            super(DecimalFixo.class);
+        }
+
+        @Override
+        public DecimalFixo deserialize(JsonParser parser, DeserializationContext contexto) throws IOException {
+            String texto = parser.getText().trim();
+            try {
+                return parse(texto);
+            } catch (NumberFormatException ex) {
+                return (DecimalFixo) contexto.handleWeirdStringValue(DecimalFixo.class, texto, ex.getMessage());
+            }
+        }
+    }
+}
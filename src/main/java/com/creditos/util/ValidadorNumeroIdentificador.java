@@ -0,0 +1,93 @@
+package com.creditos.util;
+
+/**
+ * Validador de números identificadores (número do crédito e da NFS-e)
+ *
+ * Verifica em uma única passada, sem alocar objetos, que o valor contém apenas dígitos ASCII
+ * e respeita o tamanho máximo. Espaços nas extremidades são ignorados pelos índices, com a
+ * mesma regra de String.trim(), sem criar a string recortada.
+ *
+ * @author Ednilton Curt Rauh
+ * @version 1.0.0
+ */
+public final class ValidadorNumeroIdentificador {
+
+    /**
+     * Tamanho máximo aceito, igual ao das colunas numero_credito e numero_nfse
+     */
+    public static final int TAMANHO_MAXIMO = 50;
+
+    /**
+     * Resultado da validação, com o motivo usado nas mensagens de erro
+     */
+    public enum Resultado {
+        VALIDO(null),
+        OBRIGATORIO("é obrigatório"),
+        TAMANHO_EXCEDIDO("deve ter no máximo " + TAMANHO_MAXIMO + " caracteres"),
+        CARACTERE_INVALIDO("deve conter apenas dígitos");
+
+        private final String motivo;
+
+        Resultado(String motivo) {
+            this.motivo = motivo;
+        }
+
+        public boolean isValido() {
+            return this == VALIDO;
+        }
+
+        public String getMotivo() {
+            return motivo;
+        }
+    }
+
+    private ValidadorNumeroIdentificador() {
+        // Construtor privado para classe utilitária
+    }
+
+    /**
+     * Valida o número informado
+     *
+     * @param valor Número a validar (pode ser nulo ou conter espaços nas extremidades)
+     * @return Resultado da validação
+     */
+    public static Resultado validar(CharSequence valor) {
+        if (valor == null) {
+            return Resultado.OBRIGATORIO;
+        }
+
+        int inicio = 0;
+        int fim = valor.length();
+        while (inicio < fim && valor.charAt(inicio) <= ' ') {
+            inicio++;
+        }
+        while (fim > inicio && valor.charAt(fim - 1) <= ' ') {
+            fim--;
+        }
+
+        if (inicio == fim) {
+            return Resultado.OBRIGATORIO;
+        }
+        if (fim - inicio > TAMANHO_MAXIMO) {
+            return Resultado.TAMANHO_EXCEDIDO;
+        }
+
+        for (int i = inicio; i < fim; i++) {
+            char c = valor.charAt(i);
+            if (c < '0' || c > '9') {
+                return Resultado.CARACTERE_INVALIDO;
+            }
+        }
+        return Resultado.VALIDO;
+    }
+
+    /**
+     * Atalho para uso em condições
+     *
+     * @param valor Número a validar
+     * @return true se o número for válido
+     */
+    public static boolean isValido(CharSequence valor) {
+        return validar(valor) == Resultado.VALIDO;
+    }
+}
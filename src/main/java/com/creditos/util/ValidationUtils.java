@@ -7,7 +7,6 @@ import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
-import java.util.regex.Pattern;
 
 /**
  * Classe utilitária para validações comuns
@@ -19,10 +18,6 @@ import java.util.regex.Pattern;
  */
 public class ValidationUtils {
 
-    // Padrões regex para validação
-    private static final Pattern NUMERO_CREDITO_PATTERN = Pattern.compile("^[0-9]{1,50}$");
-    private static final Pattern NUMERO_NFSE_PATTERN = Pattern.compile("^[0-9]{1,50}$");
-
     private ValidationUtils() {
         // Construtor privado para classe utilitária
     }
@@ -38,17 +33,9 @@ public class ValidationUtils {
      * @throws CreditoException se o número for inválido
      */
     public static void validateNumeroNfse(String numeroNfse) {
-        if (numeroNfse == null || numeroNfse.trim().isEmpty()) {
-            throw CreditoException.numeroNfseInvalido(numeroNfse, "é obrigatório");
-        }
-
-        String numeroLimpo = numeroNfse.trim();
-        if (numeroLimpo.length() > 50) {
-            throw CreditoException.numeroNfseInvalido(numeroNfse, "deve ter no máximo 50 caracteres");
-        }
-
-        if (!NUMERO_NFSE_PATTERN.matcher(numeroLimpo).matches()) {
-            throw CreditoException.numeroNfseInvalido(numeroNfse, "deve conter apenas dígitos");
+        ValidadorNumeroIdentificador.Resultado resultado = ValidadorNumeroIdentificador.validar(numeroNfse);
+        if (!resultado.isValido()) {
+            throw CreditoException.numeroNfseInvalido(numeroNfse, resultado.getMotivo());
         }
     }
 
@@ -59,17 +46,9 @@ public class ValidationUtils {
      * @throws CreditoException se o número for inválido
      */
     public static void validateNumeroCredito(String numeroCredito) {
-        if (numeroCredito == null || numeroCredito.trim().isEmpty()) {
-            throw CreditoException.numeroCreditoInvalido(numeroCredito, "é obrigatório");
-        }
-
-        String numeroLimpo = numeroCredito.trim();
-        if (numeroLimpo.length() > 50) {
-            throw CreditoException.numeroCreditoInvalido(numeroCredito, "deve ter no máximo 50 caracteres");
-        }
-
-        if (!NUMERO_CREDITO_PATTERN.matcher(numeroLimpo).matches()) {
-            throw CreditoException.numeroCreditoInvalido(numeroCredito, "deve conter apenas números");
+        ValidadorNumeroIdentificador.Resultado resultado = ValidadorNumeroIdentificador.validar(numeroCredito);
+        if (!resultado.isValido()) {
+            throw CreditoException.numeroCreditoInvalido(numeroCredito, resultado.getMotivo());
         }
     }
 
@@ -382,12 +361,7 @@ public class ValidationUtils {
      * @return true se formato básico for válido, false caso contrário
      */
     public static boolean isValidNumeroCredito(String numeroCredito) {
-        if (numeroCredito == null || numeroCredito.trim().isEmpty()) {
-            return false;
-        }
-
-        String numeroLimpo = numeroCredito.trim();
-        return numeroLimpo.length() <= 50 && NUMERO_CREDITO_PATTERN.matcher(numeroLimpo).matches();
+        return ValidadorNumeroIdentificador.isValido(numeroCredito);
     }
 
     /**
@@ -398,11 +372,6 @@ public class ValidationUtils {
      * @return true se formato básico for válido, false caso contrário
      */
     public static boolean isValidNumeroNfse(String numeroNfse) {
-        if (numeroNfse == null || numeroNfse.trim().isEmpty()) {
-            return false;
-        }
-
-        String numeroLimpo = numeroNfse.trim();
-        return numeroLimpo.length() <= 50 && NUMERO_NFSE_PATTERN.matcher(numeroLimpo).matches();
+        return ValidadorNumeroIdentificador.isValido(numeroNfse);
     }
 }
\ No newline at end of file
@@ -0,0 +1,57 @@
+-- ================================================
+-- Resolução manual das duplicatas de (numero_credito, numero_nfse)
+-- Pré-requisito da migração V5, que falha enquanto houver duplicatas.
+-- NÃO é aplicado pelo Flyway: execute com psql, etapa por etapa, com a
+-- aplicação parada, e revise o relatório antes de remover qualquer linha.
+-- ================================================
+
+-- 1. Relatório: cada par duplicado com os ids e valores gravados
+SELECT numero_credito, numero_nfse, COUNT(*) AS quantidade,
+       array_agg(id ORDER BY id) AS ids,
+       array_agg(valor_issqn ORDER BY id) AS valores_issqn,
+       array_agg(data_constituicao ORDER BY id) AS datas_constituicao
+  FROM credito
+ GROUP BY numero_credito, numero_nfse
+HAVING COUNT(*) > 1
+ ORDER BY numero_credito, numero_nfse;
+
+-- 2. Resolução (após a revisão do relatório): mantém o menor id de cada par e
+--    guarda as linhas removidas em credito_duplicado para auditoria.
+--    Pares cujas linhas diferem nos valores devem ser corrigidos um a um antes
+--    desta etapa, pela área responsável pelos dados fiscais.
+BEGIN;
+
+CREATE TABLE IF NOT EXISTS credito_duplicado AS
+SELECT c.*, now() AS removido_em
+  FROM credito c
+ WHERE false;
+
+INSERT INTO credito_duplicado
+SELECT c.*, now()
+  FROM credito c
+ WHERE EXISTS (SELECT 1
+                 FROM credito o
+                WHERE o.numero_credito = c.numero_credito
+                  AND o.numero_nfse = c.numero_nfse
+                  AND o.id < c.id);
+
+DELETE FROM credito c
+ USING credito o
+ WHERE c.numero_credito = o.numero_credito
+   AND c.numero_nfse = o.numero_nfse
+   AND c.id > o.id;
+
+-- Recalcula os agregados a partir do conteúdo resultante
+DELETE FROM credito_agregado;
+
+INSERT INTO credito_agregado (tipo_credito, simples_nacional, ano_mes, quantidade,
+                              valor_total, valor_minimo, valor_maximo)
+SELECT tipo_credito, simples_nacional, to_char(data_constituicao, 'YYYY-MM'),
+       COUNT(*), SUM(valor_issqn), MIN(valor_issqn), MAX(valor_issqn)
+  FROM credito
+ GROUP BY tipo_credito, simples_nacional, to_char(data_constituicao, 'YYYY-MM');
+
+-- Confira as contagens antes de confirmar; em caso de dúvida, ROLLBACK
+SELECT COUNT(*) AS removidas FROM credito_duplicado;
+
+COMMIT;
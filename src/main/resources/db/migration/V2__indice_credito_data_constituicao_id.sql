@@ -0,0 +1,7 @@
+-- ================================================
+-- Índice para paginação por cursor (keyset)
+-- Suporta "ORDER BY data_constituicao DESC, id DESC" com
+-- "WHERE (data_constituicao, id) < (:data, :id)" sem OFFSET
+-- ================================================
+CREATE INDEX IF NOT EXISTS idx_credito_data_constituicao_id
+    ON credito (data_constituicao, id);
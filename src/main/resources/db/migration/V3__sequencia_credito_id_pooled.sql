@@ -0,0 +1,34 @@
+-- ================================================
+-- IDs da tabela credito gerados por sequência em blocos (pooled-lo)
+-- A aplicação reserva ${credito_id_incremento} IDs por chamada a nextval,
+-- então o INCREMENT BY da sequência deve ser igual a esse valor.
+-- Funciona tanto para coluna SERIAL quanto IDENTITY; inserts sem ID
+-- continuam usando o DEFAULT da coluna.
+-- ================================================
+DO $$
+DECLARE
+    sequencia TEXT := pg_get_serial_sequence('credito', 'id');
+    identidade CHAR;
+BEGIN
+    SELECT a.attidentity INTO identidade
+      FROM pg_attribute a
+     WHERE a.attrelid = 'credito'::regclass
+       AND a.attname = 'id';
+
+    IF sequencia IS NULL THEN
+        CREATE SEQUENCE credito_id_seq OWNED BY credito.id;
+        ALTER TABLE credito ALTER COLUMN id SET DEFAULT nextval('credito_id_seq');
+        sequencia := 'credito_id_seq';
+    END IF;
+
+    IF identidade IN ('a', 'd') THEN
+        -- GENERATED ALWAYS rejeitaria o ID atribuído pelo Hibernate
+        ALTER TABLE credito ALTER COLUMN id SET GENERATED BY DEFAULT;
+        ALTER TABLE credito ALTER COLUMN id SET INCREMENT BY ${credito_id_incremento};
+    ELSE
+        EXECUTE format('ALTER SEQUENCE %s INCREMENT BY %s', sequencia, ${credito_id_incremento});
+    END IF;
+
+    -- Próximo bloco começa depois do maior ID existente
+    PERFORM setval(sequencia, COALESCE((SELECT MAX(id) FROM credito), 0) + 1, false);
+END $$;
@@ -0,0 +1,26 @@
+-- ================================================
+-- Agregados materializados do ISSQN por (tipo, Simples Nacional, mês)
+-- Mantidos na mesma transação que grava em credito (ingestão e importação),
+-- de modo que as estatísticas leem O(grupos) em vez de percorrer a tabela.
+-- A carga inicial abaixo parte do conteúdo atual; divergências posteriores
+-- são detectadas e corrigidas por POST /api/admin/estatisticas/recalcular.
+-- ================================================
+CREATE TABLE IF NOT EXISTS credito_agregado (
+    tipo_credito     VARCHAR(50)    NOT NULL,
+    simples_nacional BOOLEAN        NOT NULL,
+    ano_mes          CHAR(7)        NOT NULL,
+    quantidade       BIGINT         NOT NULL,
+    valor_total      NUMERIC(20, 2) NOT NULL,
+    valor_minimo     NUMERIC(15, 2) NOT NULL,
+    valor_maximo     NUMERIC(15, 2) NOT NULL,
+    atualizado_em    TIMESTAMP      NOT NULL DEFAULT now(),
+    PRIMARY KEY (tipo_credito, simples_nacional, ano_mes)
+);
+
+INSERT INTO credito_agregado (tipo_credito, simples_nacional, ano_mes, quantidade,
+                              valor_total, valor_minimo, valor_maximo)
+SELECT tipo_credito, simples_nacional, to_char(data_constituicao, 'YYYY-MM'),
+       COUNT(*), SUM(valor_issqn), MIN(valor_issqn), MAX(valor_issqn)
+  FROM credito
+ GROUP BY tipo_credito, simples_nacional, to_char(data_constituicao, 'YYYY-MM')
+ON CONFLICT (tipo_credito, simples_nacional, ano_mes) DO NOTHING;
@@ -0,0 +1,29 @@
+-- ================================================
+-- Unicidade de (numero_credito, numero_nfse)
+-- Base do INSERT ... ON CONFLICT DO NOTHING da ingestão e da importação:
+-- sem a restrição, duas transações concorrentes (consumidores em paralelo,
+-- reentrega após rebalance ou importação simultânea) podiam inserir o mesmo
+-- crédito e somá-lo duas vezes aos agregados.
+-- Duplicatas já gravadas NÃO são removidas aqui: a migração falha e lista a
+-- quantidade encontrada. A resolução é um passo manual e revisado
+-- (db/manual/resolver_duplicidades_credito.sql) antes de reiniciar a aplicação.
+-- ================================================
+DO $$
+DECLARE
+    grupos BIGINT;
+    excedentes BIGINT;
+BEGIN
+    SELECT COUNT(*), COALESCE(SUM(quantidade - 1), 0) INTO grupos, excedentes
+      FROM (SELECT COUNT(*) AS quantidade
+              FROM credito
+             GROUP BY numero_credito, numero_nfse
+            HAVING COUNT(*) > 1) d;
+
+    IF grupos > 0 THEN
+        RAISE EXCEPTION 'credito possui % par(es) (numero_credito, numero_nfse) duplicado(s), % linha(s) excedente(s)', grupos, excedentes
+            USING HINT = 'Revise e resolva as duplicatas com db/manual/resolver_duplicidades_credito.sql antes de aplicar V5';
+    END IF;
+END $$;
+
+CREATE UNIQUE INDEX IF NOT EXISTS uk_credito_numero_credito_nfse
+    ON credito (numero_credito, numero_nfse);
@@ -0,0 +1,115 @@
+package com.creditos.analitico;
+
+import com.creditos.exception.CreditoException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class CreditoSnapshotAnaliticoTest {
+
+    @Test
+    @DisplayName("Deve acrescentar só as linhas novas e descartar o snapshot acima do limite de linhas")
+    void testAtualizacaoIncrementalELimite() throws Exception {
+        List<Long> tabela = new ArrayList<>();
+        List<String> consultas = new ArrayList<>();
+        JdbcTemplate jdbcTemplate = tabelaSimulada(tabela, consultas);
+        CreditoSnapshotAnalitico analitico = new CreditoSnapshotAnalitico(jdbcTemplate,
+                mock(PlatformTransactionManager.class), new SimpleMeterRegistry(), true, 100, 3, Duration.ofHours(6));
+
+        assertThatThrownBy(analitico::obter).isInstanceOf(CreditoException.class)
+                .extracting("httpStatus").isEqualTo(503);
+
+        tabela.add(1L);
+        tabela.add(2L);
+        analitico.atualizar();
+        assertThat(analitico.obter().getQuantidade()).isEqualTo(2);
+        assertThat(consultas).containsExactly("completa");
+
+        // Sem linhas novas o snapshot é mantido, sem cópia
+        SnapshotColunar semNovas = analitico.obter();
+        analitico.atualizar();
+        assertThat(analitico.obter()).isSameAs(semNovas);
+
+        tabela.add(3L);
+        analitico.atualizar();
+        assertThat(analitico.obter().getQuantidade()).isEqualTo(3);
+        assertThat(consultas).containsExactly("completa", "id > 2", "id > 2");
+
+        tabela.add(4L);
+        analitico.atualizar();
+        assertThatThrownBy(analitico::obter).isInstanceOf(CreditoException.class)
+                .extracting("httpStatus").isEqualTo(503);
+
+        // Acima do limite, não relê a tabela até a próxima recarga completa
+        analitico.atualizar();
+        assertThat(consultas).containsExactly("completa", "id > 2", "id > 2", "id > 3");
+    }
+
+    /**
+     * JdbcTemplate que responde às cargas a partir de uma lista de ids, registrando cada consulta
+     */
+    private static JdbcTemplate tabelaSimulada(List<Long> tabela, List<String> consultas) throws Exception {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        doAnswer(invocacao -> {
+            long[] desde = {0L};
+            String[] sql = {null};
+            PreparedStatement ps = mock(PreparedStatement.class);
+            doAnswer(i -> desde[0] = i.getArgument(1)).when(ps).setLong(anyInt(), any(Long.class));
+            Connection con = mock(Connection.class);
+            when(con.prepareStatement(anyString(), anyInt(), anyInt())).thenAnswer(i -> {
+                sql[0] = i.getArgument(0);
+                return ps;
+            });
+            invocacao.<PreparedStatementCreator>getArgument(0).createPreparedStatement(con);
+
+            boolean incremental = sql[0].contains("id > ?");
+            consultas.add(incremental ? "id > " + desde[0] : "completa");
+            RowCallbackHandler handler = invocacao.getArgument(1);
+            for (Long id : new ArrayList<>(tabela)) {
+                if (!incremental || id > desde[0]) {
+                    handler.processRow(linha(id));
+                }
+            }
+            return null;
+        }).when(jdbcTemplate).query(any(PreparedStatementCreator.class), any(RowCallbackHandler.class));
+        return jdbcTemplate;
+    }
+
+    private static ResultSet linha(long id) throws Exception {
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getLong(1)).thenReturn(id);
+        when(rs.getString(2)).thenReturn("C" + id);
+        when(rs.getString(3)).thenReturn("N" + id);
+        when(rs.getDate(4)).thenReturn(Date.valueOf(LocalDate.of(2024, 1, 10)));
+        when(rs.getString(5)).thenReturn("50.00");
+        when(rs.getString(6)).thenReturn("ISSQN");
+        when(rs.getBoolean(7)).thenReturn(true);
+        when(rs.getString(8)).thenReturn("5.00");
+        when(rs.getString(9)).thenReturn("1000.00");
+        when(rs.getString(10)).thenReturn("0.00");
+        when(rs.getString(11)).thenReturn("1000.00");
+        return rs;
+    }
+}
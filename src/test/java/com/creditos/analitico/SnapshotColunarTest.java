@@ -0,0 +1,107 @@
+package com.creditos.analitico;
+
+import com.creditos.dto.CreditoResponseDTO;
+import com.creditos.dto.EstatisticasDTO;
+import com.creditos.util.DecimalFixo;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.entry;
+
+class SnapshotColunarTest {
+
+    @Test
+    @DisplayName("Deve agregar por mês e por tipo aplicando os filtros sobre as colunas")
+    void testAgregar() {
+        SnapshotColunar snapshot = snapshot();
+
+        List<EstatisticasDTO.Grupo> meses = snapshot.agregar(SnapshotColunar.Filtro.todos()
+                .periodo(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 12, 31)), SnapshotColunar.Agrupamento.MES);
+        assertThat(meses).extracting(EstatisticasDTO.Grupo::getChave).containsExactly("2024-01", "2024-03");
+        assertThat(meses.get(0).getQuantidade()).isEqualTo(3);
+        assertThat(meses.get(0).getValorTotal()).isEqualByComparingTo("1325.50");
+        assertThat(meses.get(0).getValorMedio()).isEqualByComparingTo("441.83");
+        assertThat(meses.get(0).getValorMinimo()).isEqualByComparingTo("25.00");
+
+        List<EstatisticasDTO.Grupo> tipos = snapshot.agregar(SnapshotColunar.Filtro.todos()
+                .simplesNacional(Boolean.TRUE), SnapshotColunar.Agrupamento.TIPO);
+        assertThat(tipos).extracting(EstatisticasDTO.Grupo::getChave).containsExactly("ISSQN", "Outros");
+        assertThat(tipos.get(0).getQuantidade()).isEqualTo(2);
+
+        assertThat(snapshot.agregar(SnapshotColunar.Filtro.todos().tipoCredito("inexistente"),
+                SnapshotColunar.Agrupamento.NENHUM)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Deve listar por alíquota, apontar inconsistências e números duplicados")
+    void testListagens() {
+        SnapshotColunar snapshot = snapshot();
+
+        List<CreditoResponseDTO> faixa = snapshot.listarPorAliquota(SnapshotColunar.Filtro.todos()
+                .aliquota(new BigDecimal("2.5"), new BigDecimal("5.00")), 10);
+        assertThat(faixa).extracting(CreditoResponseDTO::getNumeroNfse).containsExactly("N2", "N4", "N1", "N3");
+        assertThat(faixa.get(0).getAliquota()).isEqualTo(DecimalFixo.parse("2.50"));
+        assertThat(faixa.get(0).getDataConstituicao()).isEqualTo(LocalDate.of(2024, 1, 20));
+
+        // N3: 50,50 de ISSQN para 1000,00 x 5% = 50,00
+        assertThat(snapshot.listarInconsistentes(10)).extracting(CreditoResponseDTO::getNumeroNfse)
+                .containsExactly("N3");
+
+        assertThat(snapshot.duplicados(SnapshotColunar.Coluna.CREDITO, 10)).containsExactly(entry("C1", 3));
+        assertThat(snapshot.duplicados(SnapshotColunar.Coluna.NFSE, 10)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Deve rejeitar alíquota fora de 0..100")
+    void testConversoes() {
+        SnapshotColunar.Construtor construtor = new SnapshotColunar.Construtor(1);
+
+        assertThatThrownBy(() -> adicionar(construtor, "N9", "C9", "ISSQN", true, "2024-01-01", "1.00", "100.01", "1.00"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> SnapshotColunar.pontosBase(DecimalFixo.parse("-0.01")))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(SnapshotColunar.pontosBase(DecimalFixo.parse("100"))).isEqualTo((short) 10_000);
+    }
+
+    @Test
+    @DisplayName("Deve acrescentar linhas a uma cópia do snapshot sem alterar o original")
+    void testAcrescentar() {
+        SnapshotColunar base = snapshot();
+
+        SnapshotColunar.Construtor construtor = new SnapshotColunar.Construtor(base, 1);
+        adicionar(construtor, "N6", "C4", "Outros", true, "2024-01-15", "30.00", "3.00", "1000.00");
+        adicionar(construtor, "N7", "C5", "Novo", false, "2024-01-16", "20.00", "2.00", "1000.00");
+        SnapshotColunar acrescido = construtor.construir();
+
+        assertThat(base.getQuantidade()).isEqualTo(5);
+        assertThat(acrescido.getQuantidade()).isEqualTo(7);
+        List<EstatisticasDTO.Grupo> tipos = acrescido.agregar(SnapshotColunar.Filtro.todos()
+                .periodo(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 31)), SnapshotColunar.Agrupamento.TIPO);
+        assertThat(tipos).extracting(EstatisticasDTO.Grupo::getChave).containsExactly("ISSQN", "Novo", "Outros");
+        assertThat(tipos).extracting(EstatisticasDTO.Grupo::getQuantidade).containsExactly(2L, 1L, 2L);
+        assertThat(acrescido.agregar(SnapshotColunar.Filtro.todos().simplesNacional(Boolean.TRUE),
+                SnapshotColunar.Agrupamento.NENHUM).get(0).getQuantidade()).isEqualTo(4);
+    }
+
+    private static SnapshotColunar snapshot() {
+        SnapshotColunar.Construtor construtor = new SnapshotColunar.Construtor(2);
+        adicionar(construtor, "N1", "C1", "ISSQN", true, "2024-01-10", "1250.00", "5.00", "25000.00");
+        adicionar(construtor, "N2", "C1", "ISSQN", true, "2024-01-20", "25.00", "2.50", "1000.00");
+        adicionar(construtor, "N3", "C2", "Outros", false, "2024-01-31", "50.50", "5.00", "1000.00");
+        adicionar(construtor, "N4", "C1", "Outros", true, "2024-03-01", "40.00", "4.00", "1000.00");
+        adicionar(construtor, "N5", "C3", "ISSQN", false, "2023-12-31", "10.00", "1.00", "1000.00");
+        return construtor.construir();
+    }
+
+    private static void adicionar(SnapshotColunar.Construtor construtor, String nfse, String credito, String tipo,
+                                  boolean simples, String data, String valorIssqn, String aliquota, String base) {
+        construtor.adicionar(credito, nfse, LocalDate.parse(data), DecimalFixo.parse(valorIssqn), tipo, simples,
+                DecimalFixo.parse(aliquota), DecimalFixo.parse(base), DecimalFixo.ZERO, DecimalFixo.parse(base));
+    }
+}
@@ -0,0 +1,121 @@
+package com.creditos.cache;
+
+import com.creditos.service.CreditoLoteService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class AquecimentoCacheTest {
+
+    @TempDir
+    Path diretorio;
+
+    @Test
+    @DisplayName("Deve gravar o top-K com contagens, envelhecê-las e aquecer a próxima instância em blocos")
+    void deveGravarELerRanking() throws Exception {
+        Path arquivo = diretorio.resolve("ranking/top-nfse.txt");
+        AquecimentoCache anterior = aquecimento(mock(CreditoLoteService.class), arquivo, true, Duration.ofMinutes(1));
+        registrar(anterior, "300", 12);
+        registrar(anterior, "100", 6);
+        registrar(anterior, "200", 4);
+        registrar(anterior, "400", 1);
+
+        anterior.persistir();
+        assertThat(Files.readAllLines(arquivo, StandardCharsets.UTF_8)).containsExactly(
+                "# NFS-e mais consultadas (numero;contagem estimada)", "300;12", "100;6", "200;4");
+        assertThat(diretorio.resolve("ranking")).isDirectoryNotContaining("glob:**.tmp");
+
+        // Após gravar, as contagens são divididas por dois
+        anterior.persistir();
+        assertThat(Files.readAllLines(arquivo, StandardCharsets.UTF_8)).containsExactly(
+                "# NFS-e mais consultadas (numero;contagem estimada)", "300;6", "100;3", "200;2");
+
+        List<List<String>> blocos = new ArrayList<>();
+        AquecimentoCache nova = aquecimento(loteRegistrando(blocos), arquivo, true, Duration.ofMinutes(1));
+        nova.run(null);
+        assertThat(blocos).containsExactly(Arrays.asList("300", "100"), Arrays.asList("200"));
+
+        // O ranking lido continua valendo até ser superado pelo tráfego novo
+        registrar(nova, "500", 4);
+        nova.persistir();
+        assertThat(Files.readAllLines(arquivo, StandardCharsets.UTF_8)).containsExactly(
+                "# NFS-e mais consultadas (numero;contagem estimada)", "300;6", "500;4", "100;3");
+    }
+
+    @Test
+    @DisplayName("Deve ignorar comentários e linhas em branco e tolerar contagem ausente ou inválida")
+    void deveLerArquivoEditado() throws Exception {
+        Path arquivo = diretorio.resolve("top-nfse.txt");
+        Files.write(arquivo, Arrays.asList("# comentário", "", "111", "222;abc", "333;7", "444;1"),
+                StandardCharsets.UTF_8);
+
+        List<List<String>> blocos = new ArrayList<>();
+        aquecimento(loteRegistrando(blocos), arquivo, true, Duration.ofMinutes(1)).run(null);
+
+        // Limitado ao top-K (3), na ordem do arquivo
+        assertThat(blocos).containsExactly(Arrays.asList("111", "222"), Arrays.asList("333"));
+    }
+
+    @Test
+    @DisplayName("Deve iniciar com cache frio sem arquivo, desabilitado, com tempo esgotado ou com falha no lote")
+    void deveIniciarComCacheFrio() throws Exception {
+        Path ausente = diretorio.resolve("ausente.txt");
+        CreditoLoteService semArquivo = mock(CreditoLoteService.class);
+        aquecimento(semArquivo, ausente, true, Duration.ofMinutes(1)).run(null);
+        verifyNoInteractions(semArquivo);
+
+        Path arquivo = diretorio.resolve("top-nfse.txt");
+        Files.write(arquivo, Arrays.asList("111;2", "222;1"), StandardCharsets.UTF_8);
+
+        CreditoLoteService desabilitado = mock(CreditoLoteService.class);
+        AquecimentoCache aquecimentoDesabilitado = aquecimento(desabilitado, ausente, false, Duration.ofMinutes(1));
+        aquecimentoDesabilitado.registrarConsultaNfse("111");
+        aquecimentoDesabilitado.run(null);
+        aquecimentoDesabilitado.persistir();
+        verifyNoInteractions(desabilitado);
+        assertThat(ausente).doesNotExist();
+
+        CreditoLoteService semTempo = mock(CreditoLoteService.class);
+        aquecimento(semTempo, arquivo, true, Duration.ofMillis(-1)).run(null);
+        verifyNoInteractions(semTempo);
+
+        CreditoLoteService comFalha = mock(CreditoLoteService.class);
+        when(comFalha.aquecerNfses(anyList())).thenThrow(new IllegalStateException("banco indisponível"));
+        aquecimento(comFalha, arquivo, true, Duration.ofMinutes(1)).run(null);
+    }
+
+    private static AquecimentoCache aquecimento(CreditoLoteService lote, Path arquivo, boolean habilitado,
+                                                Duration tempoMaximo) {
+        return new AquecimentoCache(lote, habilitado, arquivo.toString(), 3, 2, tempoMaximo);
+    }
+
+    private static CreditoLoteService loteRegistrando(List<List<String>> blocos) {
+        CreditoLoteService lote = mock(CreditoLoteService.class);
+        when(lote.aquecerNfses(anyList())).thenAnswer(invocacao -> {
+            List<String> bloco = invocacao.getArgument(0);
+            blocos.add(new ArrayList<>(bloco));
+            return bloco.size();
+        });
+        return lote;
+    }
+
+    private static void registrar(AquecimentoCache aquecimento, String numeroNfse, int vezes) {
+        for (int i = 0; i < vezes; i++) {
+            aquecimento.registrarConsultaNfse(numeroNfse);
+        }
+    }
+}
@@ -0,0 +1,283 @@
+package com.creditos.cache;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ArmazenamentoCompartilhadoRedisTest {
+
+    private ServidorFalso servidor;
+    private ArmazenamentoCompartilhadoRedis armazenamento;
+
+    @AfterEach
+    void tearDown() throws IOException {
+        if (armazenamento != null) {
+            armazenamento.destroy();
+        }
+        if (servidor != null) {
+            servidor.close();
+        }
+    }
+
+    @Test
+    @DisplayName("Deve interpretar respostas bulk, nulas, inteiras e em array")
+    void deveInterpretarRespostas() throws IOException {
+        conectar(comando -> {
+            switch (comando.get(0)) {
+                case "GET":
+                    return "existe".equals(comando.get(1)) ? "$3\r\nabc\r\n" : "$-1\r\n";
+                case "MGET":
+                    return "*3\r\n$1\r\nx\r\n$-1\r\n$0\r\n\r\n";
+                case "INCR":
+                    return ":42\r\n";
+                default:
+                    return "+OK\r\n";
+            }
+        }, 1);
+
+        assertThat(armazenamento.ler("existe")).containsExactly('a', 'b', 'c');
+        assertThat(armazenamento.ler("ausente")).isNull();
+        byte[][] valores = armazenamento.lerVarios("a", "b", "c");
+        assertThat(valores[0]).containsExactly('x');
+        assertThat(valores[1]).isNull();
+        assertThat(valores[2]).isEmpty();
+        assertThat(armazenamento.incrementar("versao", Duration.ofSeconds(2))).isEqualTo(42L);
+        armazenamento.gravar("chave", new byte[]{1, 2}, Duration.ofMillis(1500));
+
+        assertThat(servidor.comandos).containsExactly("GET existe", "GET ausente", "MGET a b c",
+                "INCR versao", "PEXPIRE versao 2000", "SET chave \u0001\u0002 PX 1500");
+        assertThat(servidor.conexoes.get()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Deve propagar o erro do servidor como IllegalStateException")
+    void devePropagarErroDoServidor() throws IOException {
+        conectar(comando -> "-WRONGTYPE Operation against a key holding the wrong kind of value\r\n", 1);
+
+        assertThatThrownBy(() -> armazenamento.ler("lista"))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("WRONGTYPE");
+    }
+
+    @Test
+    @DisplayName("Deve remover por prefixo percorrendo o SCAN com o padrão escapado")
+    void deveRemoverPorPrefixo() throws IOException {
+        conectar(comando -> {
+            if ("SCAN".equals(comando.get(0))) {
+                return "0".equals(comando.get(1))
+                        ? "*2\r\n$1\r\n7\r\n*2\r\n$3\r\np:a\r\n$3\r\np:b\r\n"
+                        : "*2\r\n$1\r\n0\r\n*0\r\n";
+            }
+            return ":2\r\n";
+        }, 1);
+
+        armazenamento.removerPorPrefixo("p[1]:");
+
+        assertThat(servidor.comandos).containsExactly(
+                "SCAN 0 MATCH p\\[1\\]:* COUNT 1000",
+                "UNLINK p:a p:b",
+                "SCAN 7 MATCH p\\[1\\]:* COUNT 1000");
+    }
+
+    @Test
+    @DisplayName("Deve descartar a conexão encerrada pelo servidor e abrir outra no próximo comando")
+    void deveReconectarAposFalhaDeEntradaESaida() throws IOException {
+        AtomicInteger chamadas = new AtomicInteger();
+        conectar(comando -> chamadas.incrementAndGet() == 1 ? null : "$1\r\nv\r\n", 1);
+
+        assertThatThrownBy(() -> armazenamento.ler("k")).isInstanceOf(UncheckedIOException.class);
+
+        // Pool de uma conexão: só funciona se a conexão com falha liberou a vaga
+        assertThat(armazenamento.ler("k")).containsExactly('v');
+        assertThat(servidor.conexoes.get()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Deve descartar a conexão após timeout de leitura, sem reaproveitar a resposta atrasada")
+    void deveDescartarConexaoAposTimeout() throws IOException {
+        AtomicInteger chamadas = new AtomicInteger();
+        conectar(comando -> {
+            if (chamadas.incrementAndGet() == 1) {
+                dormir(500);
+                return "$6\r\nantigo\r\n";
+            }
+            return "$4\r\nnovo\r\n";
+        }, 1);
+
+        assertThatThrownBy(() -> armazenamento.ler("k")).isInstanceOf(UncheckedIOException.class);
+
+        assertThat(armazenamento.ler("k")).containsExactly('n', 'o', 'v', 'o');
+        assertThat(servidor.conexoes.get()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Deve falhar quando nenhuma conexão do pool fica livre dentro do timeout")
+    void deveFalharComPoolEsgotado() throws Exception {
+        conectar(comando -> {
+            if ("lento".equals(comando.get(1))) {
+                dormir(150);
+            }
+            return "$1\r\nv\r\n";
+        }, 1);
+
+        Thread ocupante = new Thread(() -> {
+            try {
+                armazenamento.ler("lento");
+            } catch (RuntimeException ex) {
+                // o ocupante pode expirar antes; só importa que a conexão ficou ocupada
+            }
+        });
+        ocupante.start();
+        while (servidor.comandos.isEmpty()) {
+            Thread.sleep(5);
+        }
+
+        assertThatThrownBy(() -> armazenamento.ler("k"))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("Nenhuma conexão livre");
+        ocupante.join();
+
+        // Liberada a vaga (conexão devolvida ou descartada pelo ocupante), o pool volta a atender
+        assertThat(armazenamento.ler("k")).containsExactly('v');
+    }
+
+    @Test
+    @DisplayName("Deve escapar os caracteres especiais do padrão glob")
+    void deveEscaparGlob() {
+        assertThat(ArmazenamentoCompartilhadoRedis.escaparGlob("creditos:nfse_1"))
+                .isEqualTo("creditos:nfse_1");
+        assertThat(ArmazenamentoCompartilhadoRedis.escaparGlob("a*b?[c]\\d"))
+                .isEqualTo("a\\*b\\?\\[c\\]\\\\d");
+    }
+
+    // ================================================
+    // SERVIDOR FALSO
+    // ================================================
+
+    private void conectar(Function<List<String>, String> respostas, int tamanhoPool) throws IOException {
+        servidor = new ServidorFalso(respostas);
+        armazenamento = new ArmazenamentoCompartilhadoRedis("127.0.0.1", servidor.porta(), null, 0,
+                Duration.ofMillis(100), tamanhoPool);
+    }
+
+    private static void dormir(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Servidor RESP mínimo: registra cada comando e responde com o texto devolvido pela função
+     * (null encerra a conexão sem resposta)
+     */
+    private static final class ServidorFalso implements AutoCloseable {
+        private final ServerSocket socket;
+        private final Function<List<String>, String> respostas;
+        private final List<String> comandos = new CopyOnWriteArrayList<>();
+        private final AtomicInteger conexoes = new AtomicInteger();
+
+        private ServidorFalso(Function<List<String>, String> respostas) throws IOException {
+            this.socket = new ServerSocket(0);
+            this.respostas = respostas;
+            Thread aceitador = new Thread(this::aceitar, "redis-falso");
+            aceitador.setDaemon(true);
+            aceitador.start();
+        }
+
+        private int porta() {
+            return socket.getLocalPort();
+        }
+
+        private void aceitar() {
+            while (!socket.isClosed()) {
+                try {
+                    Socket cliente = socket.accept();
+                    conexoes.incrementAndGet();
+                    Thread atendente = new Thread(() -> atender(cliente), "redis-falso-conexao");
+                    atendente.setDaemon(true);
+                    atendente.start();
+                } catch (IOException ex) {
+                    return;
+                }
+            }
+        }
+
+        private void atender(Socket cliente) {
+            try (Socket conexao = cliente) {
+                InputStream in = new BufferedInputStream(conexao.getInputStream());
+                OutputStream out = conexao.getOutputStream();
+                List<String> comando;
+                while ((comando = lerComando(in)) != null) {
+                    comandos.add(String.join(" ", comando));
+                    String resposta = respostas.apply(comando);
+                    if (resposta == null) {
+                        return;
+                    }
+                    out.write(resposta.getBytes(StandardCharsets.UTF_8));
+                    out.flush();
+                }
+            } catch (IOException ex) {
+                // cliente encerrou a conexão
+            }
+        }
+
+        private static List<String> lerComando(InputStream in) throws IOException {
+            String cabecalho = lerLinha(in);
+            if (cabecalho == null) {
+                return null;
+            }
+            int quantidade = Integer.parseInt(cabecalho.substring(1));
+            List<String> argumentos = new ArrayList<>(quantidade);
+            for (int i = 0; i < quantidade; i++) {
+                int tamanho = Integer.parseInt(lerLinha(in).substring(1));
+                byte[] dados = new byte[tamanho];
+                int lidos = 0;
+                while (lidos < tamanho) {
+                    lidos += in.read(dados, lidos, tamanho - lidos);
+                }
+                lerLinha(in);
+                argumentos.add(new String(dados, StandardCharsets.UTF_8));
+            }
+            return argumentos;
+        }
+
+        private static String lerLinha(InputStream in) throws IOException {
+            ByteArrayOutputStream linha = new ByteArrayOutputStream();
+            int c;
+            while ((c = in.read()) != '\r') {
+                if (c < 0) {
+                    return null;
+                }
+                linha.write(c);
+            }
+            in.read();
+            return new String(linha.toByteArray(), StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public void close() throws IOException {
+            socket.close();
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.creditos.cache;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BloomFilterTest {
+
+    @Test
+    @DisplayName("Não deve haver falsos negativos para chaves adicionadas")
+    void testSemFalsosNegativos() {
+        BloomFilter filtro = BloomFilter.criar(10_000, 0.01);
+
+        for (int i = 0; i < 10_000; i++) {
+            filtro.adicionar(String.valueOf(1_000_000 + i));
+        }
+
+        for (int i = 0; i < 10_000; i++) {
+            assertThat(filtro.podeConter(String.valueOf(1_000_000 + i))).isTrue();
+        }
+    }
+
+    @Test
+    @DisplayName("Taxa de falso positivo deve ficar próxima da configurada")
+    void testTaxaFalsoPositivo() {
+        BloomFilter filtro = BloomFilter.criar(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filtro.adicionar(String.valueOf(i));
+        }
+
+        int falsosPositivos = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (filtro.podeConter(String.valueOf(5_000_000 + i))) {
+                falsosPositivos++;
+            }
+        }
+
+        double taxa = falsosPositivos / 100_000.0;
+        assertThat(taxa).isLessThan(0.02);
+        assertThat(filtro.taxaFalsoPositivoEstimada()).isLessThan(0.02);
+    }
+
+    @Test
+    @DisplayName("Filtro vazio deve responder ausente para qualquer chave")
+    void testFiltroVazio() {
+        BloomFilter filtro = BloomFilter.criar(100, 0.01);
+
+        assertThat(filtro.podeConter("7891011")).isFalse();
+        assertThat(filtro.taxaFalsoPositivoEstimada()).isZero();
+    }
+
+    @Test
+    @DisplayName("Deve rejeitar taxa de falso positivo fora do intervalo")
+    void testTaxaInvalida() {
+        assertThatThrownBy(() -> BloomFilter.criar(100, 1.0))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
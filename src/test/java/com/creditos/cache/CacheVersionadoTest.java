@@ -0,0 +1,229 @@
+package com.creditos.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.EnableAspectJAutoProxy;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CacheVersionadoTest {
+
+    private CacheVersionado cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new CacheVersionado(new CaffeineCache("creditos", Caffeine.newBuilder().build()),
+                Duration.ofMinutes(1));
+    }
+
+    @Test
+    @DisplayName("Deve armazenar e devolver valores, inclusive nulos")
+    void deveArmazenarEDevolverValores() {
+        assertThat(cache.get("nfse_1")).isNull();
+        cache.put("nfse_1", "valor");
+        cache.put("nfse_2", null);
+
+        assertThat(cache.get("nfse_1").get()).isEqualTo("valor");
+        assertThat(cache.get("nfse_1", String.class)).isEqualTo("valor");
+        assertThat(cache.get("nfse_2")).isNotNull();
+        assertThat(cache.get("nfse_2").get()).isNull();
+    }
+
+    @Test
+    @DisplayName("Deve recusar valor cuja carga começou antes de uma invalidação da chave")
+    void deveRecusarCargaAnteriorAInvalidacao() {
+        // Miss: a carga do banco começa aqui com o valor antigo
+        assertThat(cache.get("nfse_1")).isNull();
+
+        // Invalidação chega antes da carga terminar
+        cache.evict("nfse_1");
+        cache.put("nfse_1", "antigo");
+        assertThat(cache.get("nfse_1")).isNull();
+
+        // A carga seguinte, iniciada após a invalidação, é aceita
+        cache.put("nfse_1", "novo");
+        assertThat(cache.get("nfse_1").get()).isEqualTo("novo");
+    }
+
+    @Test
+    @DisplayName("Não deve ser afetado por invalidação de outra chave")
+    void naoDeveSerAfetadoPorOutraChave() {
+        assertThat(cache.get("nfse_1")).isNull();
+        cache.evict("nfse_2");
+        cache.put("nfse_1", "valor");
+
+        assertThat(cache.get("nfse_1").get()).isEqualTo("valor");
+    }
+
+    @Test
+    @DisplayName("Deve recusar cargas iniciadas antes da limpeza da região")
+    void deveRecusarCargaAnteriorALimpeza() {
+        assertThat(cache.get("nfse_1")).isNull();
+        cache.clear();
+        cache.put("nfse_1", "antigo");
+
+        assertThat(cache.get("nfse_1")).isNull();
+    }
+
+    @Test
+    @DisplayName("Deve carregar uma única vez com sync e aceitar nova carga após invalidação")
+    void deveCarregarComSync() {
+        assertThat(cache.get("snapshot", () -> "primeiro")).isEqualTo("primeiro");
+        assertThat(cache.get("snapshot", () -> "ignorado")).isEqualTo("primeiro");
+
+        cache.evict("snapshot");
+        assertThat(cache.get("snapshot", () -> "segundo")).isEqualTo("segundo");
+        assertThat(cache.get("snapshot").get()).isEqualTo("segundo");
+    }
+
+    @Test
+    @DisplayName("Deve expor as regiões do gerenciador original decoradas")
+    void deveDecorarRegioesDoGerenciador() {
+        CaffeineCacheManager original = new CaffeineCacheManager("creditos");
+        CacheManagerVersionado manager = new CacheManagerVersionado(original, Duration.ofMinutes(1));
+
+        Cache regiao = manager.getCache("creditos");
+        assertThat(regiao).isInstanceOf(CacheVersionado.class);
+        assertThat(manager.getCache("creditos")).isSameAs(regiao);
+        assertThat(manager.getCacheNames()).containsExactly("creditos");
+    }
+
+    @Test
+    @DisplayName("Deve ler do nível compartilhado quando o cache local de uma instância nova estiver vazio")
+    void deveLerDoNivelCompartilhado() {
+        ArmazenamentoCompartilhadoMemoria armazenamento = new ArmazenamentoCompartilhadoMemoria();
+        CacheVersionado instanciaA = doisNiveis(armazenamento);
+        CacheVersionado instanciaB = doisNiveis(armazenamento);
+
+        assertThat(instanciaA.get("existe_1")).isNull();
+        instanciaA.put("existe_1", Boolean.TRUE);
+
+        // Instância nova: miss local, hit no nível compartilhado, e o valor passa a ficar no cache local
+        assertThat(instanciaB.get("existe_1").get()).isEqualTo(Boolean.TRUE);
+        armazenamento.remover("teste:creditos:existe_1");
+        assertThat(instanciaB.get("existe_1").get()).isEqualTo(Boolean.TRUE);
+    }
+
+    @Test
+    @DisplayName("Deve remover do nível compartilhado nas invalidações e não gravar cargas obsoletas")
+    void deveInvalidarNivelCompartilhado() {
+        ArmazenamentoCompartilhadoMemoria armazenamento = new ArmazenamentoCompartilhadoMemoria();
+        CacheVersionado instanciaA = doisNiveis(armazenamento);
+        CacheVersionado instanciaB = doisNiveis(armazenamento);
+
+        instanciaA.put("nfse_1", Boolean.TRUE);
+        assertThat(armazenamento.ler("teste:creditos:nfse_1")).isNotNull();
+        instanciaB.evict("nfse_1");
+        assertThat(armazenamento.ler("teste:creditos:nfse_1")).isNull();
+
+        // Carga iniciada antes da invalidação não chega ao nível compartilhado
+        assertThat(instanciaB.get("nfse_2")).isNull();
+        instanciaB.evict("nfse_2");
+        instanciaB.put("nfse_2", Boolean.FALSE);
+        assertThat(armazenamento.ler("teste:creditos:nfse_2")).isNull();
+
+        instanciaA.put("nfse_3", Boolean.TRUE);
+        instanciaA.clear();
+        assertThat(armazenamento.ler("teste:creditos:nfse_3")).isNull();
+    }
+
+    @Test
+    @DisplayName("Deve ignorar no nível compartilhado o valor de uma carga anterior à invalidação de outra instância")
+    void deveIgnorarValorCompartilhadoObsoleto() {
+        ArmazenamentoCompartilhadoMemoria armazenamento = new ArmazenamentoCompartilhadoMemoria();
+        CacheVersionado instanciaA = doisNiveis(armazenamento);
+        CacheVersionado instanciaB = doisNiveis(armazenamento);
+        CacheVersionado instanciaC = doisNiveis(armazenamento);
+
+        // A inicia a carga; C aplica a invalidação; A grava antes de processar o evento
+        assertThat(instanciaA.get("nfse_1")).isNull();
+        instanciaC.evict("nfse_1");
+        instanciaA.put("nfse_1", Boolean.FALSE);
+
+        assertThat(armazenamento.ler("teste:creditos:nfse_1")).isNotNull();
+        assertThat(instanciaC.get("nfse_1")).isNull();
+        assertThat(instanciaB.get("nfse_1")).isNull();
+
+        // A carga de C, iniciada após a invalidação, substitui o valor obsoleto
+        instanciaC.put("nfse_1", Boolean.TRUE);
+        assertThat(instanciaB.get("nfse_1").get()).isEqualTo(Boolean.TRUE);
+
+        // O mesmo vale para a limpeza da região
+        CacheVersionado instanciaD = doisNiveis(armazenamento);
+        assertThat(instanciaA.get("nfse_2")).isNull();
+        instanciaC.clear();
+        instanciaA.put("nfse_2", Boolean.FALSE);
+        assertThat(instanciaD.get("nfse_2")).isNull();
+    }
+
+    @Test
+    @DisplayName("Deve descartar o registro da carga quando o método @Cacheable lançar exceção")
+    void deveDescartarCargaComFalha() {
+        CacheVersionado.descartarCargas(0);
+        try (AnnotationConfigApplicationContext contexto =
+                     new AnnotationConfigApplicationContext(CacheComAspecto.class)) {
+            ServicoComFalha servico = contexto.getBean(ServicoComFalha.class);
+            Cache regiao = contexto.getBean(CacheManager.class).getCache("creditos");
+
+            assertThatThrownBy(() -> servico.consultar("1")).isInstanceOf(IllegalStateException.class);
+            assertThat(CacheVersionado.cargasPendentes()).isZero();
+
+            // Put sem leitura prévia após a falha usa a versão corrente, e não a da carga que falhou
+            regiao.evict("1");
+            regiao.put("1", "novo");
+            assertThat(regiao.get("1").get()).isEqualTo("novo");
+        }
+    }
+
+    @Configuration
+    @EnableCaching
+    @EnableAspectJAutoProxy
+    static class CacheComAspecto {
+
+        @Bean
+        CacheManager cacheManager() {
+            return new CacheManagerVersionado(new ConcurrentMapCacheManager("creditos"), Duration.ofMinutes(1));
+        }
+
+        @Bean
+        CargaCacheAspect cargaCacheAspect() {
+            return new CargaCacheAspect();
+        }
+
+        @Bean
+        ServicoComFalha servicoComFalha() {
+            return new ServicoComFalha();
+        }
+    }
+
+    static class ServicoComFalha {
+
+        @Cacheable(value = "creditos", key = "#numero")
+        public String consultar(String numero) {
+            throw new IllegalStateException("crédito " + numero + " não encontrado");
+        }
+    }
+
+    private static CacheVersionado doisNiveis(ArmazenamentoCompartilhado armazenamento) {
+        NivelCompartilhado nivel = new NivelCompartilhado("creditos", armazenamento, "teste:",
+                Duration.ofMinutes(1), Duration.ofSeconds(5), new SimpleMeterRegistry());
+        return new CacheVersionado(new CaffeineCache("creditos", Caffeine.newBuilder().build()),
+                Duration.ofMinutes(1), nivel);
+    }
+}
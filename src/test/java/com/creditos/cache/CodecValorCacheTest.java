@@ -0,0 +1,57 @@
+package com.creditos.cache;
+
+import com.creditos.dto.CreditoResponseDTO;
+import com.creditos.util.DecimalFixo;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CodecValorCacheTest {
+
+    @Test
+    @DisplayName("Deve codificar e decodificar créditos preservando valores, escala e campos nulos")
+    void deveCodificarCreditos() throws IOException {
+        CreditoResponseDTO completo = new CreditoResponseDTO("123456", "7891011", LocalDate.of(2024, 2, 25),
+                DecimalFixo.parse("1500.75"), "ISSQN", Boolean.TRUE, DecimalFixo.parse("5.0"),
+                DecimalFixo.parse("30000.00"), DecimalFixo.parse("5000.00"), DecimalFixo.parse("25000.00"));
+        CreditoResponseDTO parcial = new CreditoResponseDTO();
+        parcial.setNumeroCredito("654321");
+        parcial.setValorIssqn(DecimalFixo.parse("-0.01"));
+
+        List<CreditoResponseDTO> lista = Arrays.asList(completo, parcial);
+        @SuppressWarnings("unchecked")
+        List<CreditoResponseDTO> decodificado =
+                (List<CreditoResponseDTO>) CodecValorCache.decodificar(CodecValorCache.codificar(lista));
+
+        // equals do DTO compara só os números; a comparação campo a campo inclui a escala dos decimais
+        assertThat(decodificado)
+                .usingRecursiveFieldByFieldElementComparator()
+                .containsExactlyElementsOf(lista);
+        assertThat(decodificado.get(0).getAliquota()).isEqualTo(DecimalFixo.parse("5.0"));
+        assertThat(decodificado.get(1).getNumeroNfse()).isNull();
+    }
+
+    @Test
+    @DisplayName("Deve codificar booleanos, nulos e listas vazias em poucos bytes")
+    void deveCodificarValoresSimples() throws IOException {
+        assertThat(CodecValorCache.codificar(Boolean.TRUE)).hasSize(2);
+        assertThat(CodecValorCache.decodificar(CodecValorCache.codificar(Boolean.FALSE))).isEqualTo(Boolean.FALSE);
+        assertThat(CodecValorCache.decodificar(CodecValorCache.codificar(null))).isNull();
+        assertThat(CodecValorCache.decodificar(CodecValorCache.codificar(Collections.emptyList()))).isEqualTo(Collections.emptyList());
+    }
+
+    @Test
+    @DisplayName("Não deve aceitar valores de tipos não suportados")
+    void naoDeveAceitarTiposNaoSuportados() {
+        assertThat(CodecValorCache.suportado("texto")).isFalse();
+        assertThat(CodecValorCache.suportado(Collections.singletonList("texto"))).isFalse();
+        assertThat(CodecValorCache.suportado(new CreditoResponseDTO())).isTrue();
+    }
+}
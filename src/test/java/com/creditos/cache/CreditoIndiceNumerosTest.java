@@ -0,0 +1,105 @@
+package com.creditos.cache;
+
+import com.creditos.dto.BuscaNumerosDTO;
+import com.creditos.repository.CreditoRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class CreditoIndiceNumerosTest {
+
+    @Test
+    @DisplayName("Deve buscar por parte do número nas duas colunas, respeitando o máximo")
+    void testBuscaParcial() {
+        CreditoRepository repository = mock(CreditoRepository.class);
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        when(repository.streamNumerosIdentificadores()).thenReturn(Stream.of(
+                new Object[]{"123456", "7891011"},
+                new Object[]{"789012", "1122334"},
+                new Object[]{"555555", "NFS-78901"}));
+
+        CreditoIndiceNumeros indice = new CreditoIndiceNumeros(repository, transactionManager,
+                new SimpleMeterRegistry(), true, 10);
+        assertThat(indice.buscar("789", CreditoIndiceNumeros.Campo.TODOS, 10)).isNull();
+
+        indice.reconstruir();
+        indice.adicionar("999789", "4455667");
+        indice.adicionar("999789", "4455667");
+
+        assertThat(indice.buscar("789", CreditoIndiceNumeros.Campo.TODOS, 10))
+                .extracting(BuscaNumerosDTO.Item::getNumeroCredito)
+                .containsExactly("123456", "789012", "555555", "999789");
+        assertThat(indice.buscar("789", CreditoIndiceNumeros.Campo.CREDITO, 10))
+                .extracting(BuscaNumerosDTO.Item::getNumeroCredito)
+                .containsExactly("789012", "999789");
+        assertThat(indice.buscar("nfs-7", CreditoIndiceNumeros.Campo.NFSE, 10))
+                .extracting(BuscaNumerosDTO.Item::getNumeroNfse)
+                .containsExactly("NFS-78901");
+        assertThat(indice.buscar("789", CreditoIndiceNumeros.Campo.TODOS, 2)).hasSize(2);
+    }
+
+    @Test
+    @DisplayName("Não deve repetir o par recebido durante a reconstrução e também lido da tabela")
+    void testInsercaoDuranteReconstrucao() {
+        CreditoRepository repository = mock(CreditoRepository.class);
+        CreditoIndiceNumeros[] indice = new CreditoIndiceNumeros[1];
+        when(repository.streamNumerosIdentificadores()).thenAnswer(i -> Stream.of(
+                new Object[]{"123456", "7891011"},
+                new Object[]{"999789", "4455667"})
+                .peek(linha -> {
+                    if ("123456".equals(linha[0])) {
+                        indice[0].adicionar("999789", "4455667");
+                        indice[0].adicionar("888789", "4455667");
+                    }
+                }));
+
+        indice[0] = new CreditoIndiceNumeros(repository, transactionManager(), new SimpleMeterRegistry(), true, 10);
+        indice[0].reconstruir();
+
+        assertThat(indice[0].buscar("789", CreditoIndiceNumeros.Campo.CREDITO, 10))
+                .extracting(BuscaNumerosDTO.Item::getNumeroCredito)
+                .containsExactly("999789", "888789");
+    }
+
+    @Test
+    @DisplayName("Deve descartar o índice e responder indisponível acima do limite de documentos")
+    void testLimiteDocumentos() {
+        CreditoRepository repository = mock(CreditoRepository.class);
+        when(repository.streamNumerosIdentificadores()).thenAnswer(i -> Stream.of(
+                new Object[]{"123456", "7891011"},
+                new Object[]{"789012", "1122334"}));
+
+        CreditoIndiceNumeros indice = new CreditoIndiceNumeros(repository, transactionManager(),
+                new SimpleMeterRegistry(), true, 2);
+        indice.reconstruir();
+        assertThat(indice.buscar("123", CreditoIndiceNumeros.Campo.TODOS, 10)).hasSize(1);
+
+        indice.adicionar("555555", "4455667");
+        assertThat(indice.buscar("123", CreditoIndiceNumeros.Campo.TODOS, 10)).isNull();
+
+        indice.reconstruir();
+        assertThat(indice.buscar("123", CreditoIndiceNumeros.Campo.TODOS, 10)).isNotNull();
+        when(repository.streamNumerosIdentificadores()).thenAnswer(i -> Stream.of(
+                new Object[]{"123456", "7891011"},
+                new Object[]{"789012", "1122334"},
+                new Object[]{"555555", "4455667"}));
+        indice.reconstruir();
+        assertThat(indice.buscar("123", CreditoIndiceNumeros.Campo.TODOS, 10)).isNull();
+    }
+
+    private static PlatformTransactionManager transactionManager() {
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        return transactionManager;
+    }
+}
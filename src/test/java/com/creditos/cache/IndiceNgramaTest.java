@@ -0,0 +1,57 @@
+package com.creditos.cache;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class IndiceNgramaTest {
+
+    @Test
+    @DisplayName("Os candidatos devem incluir todos os documentos que contêm o termo")
+    void testCandidatosContemTodasAsOcorrencias() {
+        Random random = new Random(42);
+        List<String> valores = new ArrayList<>();
+        IndiceNgrama indice = new IndiceNgrama();
+        for (int i = 0; i < 5_000; i++) {
+            String valor = String.valueOf(100_000 + random.nextInt(900_000));
+            valores.add(valor);
+            indice.adicionar(i, valor);
+        }
+
+        for (String termo : new String[]{"123", "7891", "00000", "45678"}) {
+            List<Integer> esperados = new ArrayList<>();
+            for (int i = 0; i < valores.size(); i++) {
+                if (valores.get(i).contains(termo)) {
+                    esperados.add(i);
+                }
+            }
+
+            List<Integer> obtidos = new ArrayList<>();
+            for (int documento : indice.candidatos(termo)) {
+                obtidos.add(documento);
+            }
+            assertThat(obtidos).isSorted().containsAll(esperados);
+        }
+    }
+
+    @Test
+    @DisplayName("Trigrama repetido no mesmo valor deve gerar uma única postagem")
+    void testTrigramaRepetido() {
+        IndiceNgrama indice = new IndiceNgrama();
+        indice.adicionar(0, "111111");
+        indice.adicionar(1, "NFS-111");
+
+        assertThat(indice.quantidadePostagens()).isEqualTo(6);
+        assertThat(indice.candidatos("nfs")).containsExactly(1);
+        // "NFS-111" tem o único trigrama de "1111" sem conter o termo: cabe ao chamador confirmar
+        assertThat(indice.candidatos("1111")).containsExactly(0, 1);
+        assertThat(indice.candidatos("999")).isEmpty();
+        assertThatThrownBy(() -> indice.candidatos("11")).isInstanceOf(IllegalArgumentException.class);
+    }
+}
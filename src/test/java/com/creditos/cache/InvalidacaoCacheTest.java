@@ -0,0 +1,117 @@
+package com.creditos.cache;
+
+import com.creditos.config.CacheProperties;
+import com.creditos.dto.CacheInvalidacaoEventoDTO;
+import com.creditos.repository.CreditoRepository;
+import com.creditos.service.CreditoAgregadoService;
+import com.creditos.service.CreditoService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.util.concurrent.SettableListenableFuture;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class InvalidacaoCacheTest {
+
+    private final List<InvalidacaoCache> instancias = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        instancias.forEach(InvalidacaoCache::encerrar);
+    }
+
+    @Test
+    @DisplayName("Deve tornar visível na instância B o crédito inserido pela instância A")
+    @SuppressWarnings("unchecked")
+    void testCreditosInseridosEmOutraInstancia() {
+        KafkaTemplate<String, Object> kafkaTemplate = mock(KafkaTemplate.class);
+        when(kafkaTemplate.send(anyString(), anyString(), any())).thenReturn(new SettableListenableFuture<>());
+
+        CreditoRepository repositorioB = repositorioVazio();
+        CreditoBloomFilter bloomFilterB = bloomFilter(repositorioB);
+        CreditoIndiceNumeros indiceB = indice(repositorioB);
+        CacheManager cachesB = new ConcurrentMapCacheManager(InvalidacaoCache.REGIAO_CREDITOS,
+                InvalidacaoCache.REGIAO_EXISTENCIA);
+        InvalidacaoCache instanciaA = instancia(new ConcurrentMapCacheManager(), bloomFilter(repositorioVazio()),
+                indice(repositorioVazio()), kafkaTemplate);
+        InvalidacaoCache instanciaB = instancia(cachesB, bloomFilterB, indiceB, kafkaTemplate);
+        CreditoService servicoB = new CreditoService(repositorioB, bloomFilterB, indiceB,
+                mock(CreditoAgregadoService.class), new SimpleMeterRegistry(), 1000);
+
+        // Antes do evento, B responde "inexistente" pelo filtro, sem consultar o banco
+        assertThat(servicoB.existeCreditoPorNumero("123456")).isFalse();
+        verify(repositorioB, never()).existsByNumeroCredito("123456");
+        cachesB.getCache(InvalidacaoCache.REGIAO_EXISTENCIA).put("credito_exists_123456", false);
+
+        when(repositorioB.existsByNumeroCredito("123456")).thenReturn(true);
+        instanciaA.creditosInseridos(Collections.singletonList("123456"), Collections.singletonList("7891011"));
+
+        ArgumentCaptor<Object> evento = ArgumentCaptor.forClass(Object.class);
+        verify(kafkaTemplate).send(anyString(), eq(InvalidacaoCache.REGIAO_INDICES), evento.capture());
+        instanciaB.aplicar((CacheInvalidacaoEventoDTO) evento.getValue());
+
+        assertThat(cachesB.getCache(InvalidacaoCache.REGIAO_EXISTENCIA).get("credito_exists_123456")).isNull();
+        assertThat(servicoB.existeCreditoPorNumero("123456")).isTrue();
+        assertThat(bloomFilterB.consultar(CreditoBloomFilter.TipoChave.NFSE, "7891011"))
+                .isEqualTo(CreditoBloomFilter.Resposta.TALVEZ_PRESENTE);
+        assertThat(indiceB.buscar("7891", CreditoIndiceNumeros.Campo.NFSE, 10)).hasSize(1);
+    }
+
+    private InvalidacaoCache instancia(CacheManager cacheManager, CreditoBloomFilter bloomFilter,
+                                       CreditoIndiceNumeros indice, KafkaTemplate<String, Object> kafkaTemplate) {
+        @SuppressWarnings("unchecked")
+        ObjectProvider<KafkaTemplate<String, Object>> provider = mock(ObjectProvider.class);
+        when(provider.getIfAvailable()).thenReturn(kafkaTemplate);
+        InvalidacaoCache instancia = new InvalidacaoCache(cacheManager, bloomFilter, indice, provider,
+                new CacheProperties(), "cache-invalidacao-topic", new SimpleMeterRegistry());
+        instancias.add(instancia);
+        return instancia;
+    }
+
+    private static CreditoRepository repositorioVazio() {
+        CreditoRepository repositorio = mock(CreditoRepository.class);
+        when(repositorio.streamNumerosIdentificadores()).thenAnswer(invocacao -> Stream.empty());
+        return repositorio;
+    }
+
+    private static CreditoBloomFilter bloomFilter(CreditoRepository repositorio) {
+        CreditoBloomFilter bloomFilter = new CreditoBloomFilter(repositorio, transactionManager(),
+                new SimpleMeterRegistry(), true, 0.01);
+        bloomFilter.reconstruir();
+        return bloomFilter;
+    }
+
+    private static CreditoIndiceNumeros indice(CreditoRepository repositorio) {
+        CreditoIndiceNumeros indice = new CreditoIndiceNumeros(repositorio, transactionManager(),
+                new SimpleMeterRegistry(), true, 1000);
+        indice.reconstruir();
+        return indice;
+    }
+
+    private static PlatformTransactionManager transactionManager() {
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        return transactionManager;
+    }
+}
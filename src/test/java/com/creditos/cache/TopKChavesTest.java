@@ -0,0 +1,55 @@
+package com.creditos.cache;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TopKChavesTest {
+
+    @Test
+    @DisplayName("Deve manter as chaves frequentes mesmo com muitas chaves raras e poucos contadores")
+    void deveManterChavesFrequentes() {
+        TopKChaves topK = new TopKChaves(20, 100_000);
+
+        for (int i = 0; i < 10_000; i++) {
+            topK.registrar("raro-" + i);
+            if (i % 4 == 0) {
+                topK.registrar("quente-1");
+            }
+            if (i % 8 == 0) {
+                topK.registrar("quente-2");
+            }
+        }
+
+        List<TopKChaves.Estimativa> ranking = topK.maisFrequentes(2);
+        assertThat(ranking).extracting(TopKChaves.Estimativa::getChave).containsExactly("quente-1", "quente-2");
+        // A contagem real está entre contagem - erro e contagem
+        TopKChaves.Estimativa primeiro = ranking.get(0);
+        assertThat(primeiro.getContagem() - primeiro.getErro()).isLessThanOrEqualTo(2500);
+        assertThat(primeiro.getContagem()).isGreaterThanOrEqualTo(2500);
+    }
+
+    @Test
+    @DisplayName("Deve combinar contagens semeadas e envelhecer o ranking")
+    void deveSemearEEnvelhecer() {
+        TopKChaves topK = new TopKChaves(10, 1000);
+        topK.semear("antigo", 100);
+        for (int i = 0; i < 60; i++) {
+            topK.registrar("novo");
+        }
+        assertThat(topK.maisFrequentes(1).get(0).getChave()).isEqualTo("antigo");
+
+        topK.envelhecer();
+        for (int i = 0; i < 60; i++) {
+            topK.registrar("novo");
+        }
+
+        List<String> ranking = topK.maisFrequentes(2).stream()
+                .map(TopKChaves.Estimativa::getChave).collect(Collectors.toList());
+        assertThat(ranking).containsExactly("novo", "antigo");
+    }
+}
@@ -0,0 +1,60 @@
+package com.creditos.concurrent;
+
+import com.creditos.exception.CreditoException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BulkheadTest {
+
+    @Test
+    @DisplayName("Compartimento com threads ocupadas e fila cheia deve recusar com 503")
+    void testRejeicaoQuandoSaturado() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        Bulkhead bulkhead = new Bulkhead("teste", 1, 1, registry);
+        CountDownLatch liberar = new CountDownLatch(1);
+
+        try {
+            CompletableFuture<String> emExecucao = bulkhead.executar(() -> {
+                aguardar(liberar);
+                return "primeira";
+            });
+            CompletableFuture<String> naFila = bulkhead.executar(() -> "segunda");
+
+            assertThatThrownBy(() -> bulkhead.executar(() -> "terceira"))
+                    .isInstanceOf(CreditoException.class)
+                    .satisfies(ex -> {
+                        CreditoException erro = (CreditoException) ex;
+                        assertThat(erro.getHttpStatus()).isEqualTo(503);
+                        assertThat(erro.getValor()).isEqualTo("teste");
+                    });
+            assertThat(registry.get("creditos.bulkhead.rejeicoes").tag("compartimento", "teste")
+                    .counter().count()).isEqualTo(1.0);
+
+            liberar.countDown();
+            assertThat(emExecucao.get(5, TimeUnit.SECONDS)).isEqualTo("primeira");
+            assertThat(naFila.get(5, TimeUnit.SECONDS)).isEqualTo("segunda");
+
+            // Com a fila livre, novas tarefas voltam a ser aceitas
+            assertThat(bulkhead.executar(() -> "quarta").get(5, TimeUnit.SECONDS)).isEqualTo("quarta");
+        } finally {
+            liberar.countDown();
+            bulkhead.encerrar();
+        }
+    }
+
+    private static void aguardar(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
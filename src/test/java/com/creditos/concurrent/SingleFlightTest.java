@@ -0,0 +1,114 @@
+package com.creditos.concurrent;
+
+import com.creditos.exception.CreditoException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SingleFlightTest {
+
+    private static final int CHAMADAS = 8;
+
+    @Test
+    @DisplayName("Chamadas concorrentes para a mesma chave devem compartilhar uma única carga")
+    void testAgrupamento() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        SingleFlight<String, String> singleFlight = new SingleFlight<>("teste", 5000, registry);
+        AtomicInteger cargas = new AtomicInteger();
+        CountDownLatch liberarCarga = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(CHAMADAS);
+        try {
+            List<Future<String>> resultados = new ArrayList<>();
+            for (int i = 0; i < CHAMADAS; i++) {
+                resultados.add(executor.submit(() -> singleFlight.executar("7891011", () -> {
+                    cargas.incrementAndGet();
+                    aguardar(liberarCarga);
+                    return "resultado";
+                })));
+            }
+
+            // Aguarda todas as chamadas estarem agrupadas antes de liberar a carga
+            long limite = System.currentTimeMillis() + 5000;
+            while (contador(registry, "agrupada") < CHAMADAS - 1 && System.currentTimeMillis() < limite) {
+                Thread.sleep(5);
+            }
+            liberarCarga.countDown();
+
+            for (Future<String> resultado : resultados) {
+                assertThat(resultado.get(5, TimeUnit.SECONDS)).isEqualTo("resultado");
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(cargas.get()).isEqualTo(1);
+        assertThat(contador(registry, "executada")).isEqualTo(1);
+        assertThat(contador(registry, "agrupada")).isEqualTo(CHAMADAS - 1);
+        assertThat(singleFlight.getEmAndamento()).isZero();
+    }
+
+    @Test
+    @DisplayName("Exceção da carga deve ser repassada e a chave liberada")
+    void testExcecaoRepassada() {
+        SingleFlight<String, String> singleFlight = new SingleFlight<>("teste", 5000, new SimpleMeterRegistry());
+
+        assertThatThrownBy(() -> singleFlight.executar("123", () -> {
+            throw CreditoException.nfseSemCreditos("123");
+        })).isInstanceOf(CreditoException.class);
+
+        assertThat(singleFlight.getEmAndamento()).isZero();
+        assertThat(singleFlight.executar("123", () -> "ok")).isEqualTo("ok");
+    }
+
+    @Test
+    @DisplayName("Espera acima do tempo limite deve executar a carga na própria thread")
+    void testTempoEsgotado() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        SingleFlight<String, String> singleFlight = new SingleFlight<>("teste", 50, registry);
+        CountDownLatch cargaIniciada = new CountDownLatch(1);
+        CountDownLatch liberarCarga = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<String> lenta = executor.submit(() -> singleFlight.executar("1", () -> {
+                cargaIniciada.countDown();
+                aguardar(liberarCarga);
+                return "lenta";
+            }));
+            assertThat(cargaIniciada.await(5, TimeUnit.SECONDS)).isTrue();
+
+            assertThat(singleFlight.executar("1", () -> "propria")).isEqualTo("propria");
+            assertThat(contador(registry, "tempo_esgotado")).isEqualTo(1);
+
+            liberarCarga.countDown();
+            assertThat(lenta.get(5, TimeUnit.SECONDS)).isEqualTo("lenta");
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static double contador(SimpleMeterRegistry registry, String resultado) {
+        return registry.get("creditos.singleflight.chamadas").tag("resultado", resultado).counter().count();
+    }
+
+    private static void aguardar(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.creditos.config;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.async.AsyncWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AsyncConfigTest {
+
+    @Test
+    @DisplayName("Deve aplicar o tempo limite longo apenas às respostas em streaming")
+    void testTempoLimiteStreaming() throws Exception {
+        CallableProcessingInterceptor interceptor = new AsyncConfig(Duration.ofMinutes(30)).tempoLimiteStreaming();
+
+        AsyncWebRequest exportacao = requisicao("exportar");
+        interceptor.beforeConcurrentHandling(exportacao, mock(Callable.class));
+        verify(exportacao).setTimeout(Duration.ofMinutes(30).toMillis());
+
+        AsyncWebRequest relatorio = requisicao("relatorio");
+        interceptor.beforeConcurrentHandling(relatorio, mock(Callable.class));
+        verify(relatorio).setTimeout(Duration.ofMinutes(30).toMillis());
+
+        AsyncWebRequest consulta = requisicao("consultar");
+        interceptor.beforeConcurrentHandling(consulta, mock(Callable.class));
+        verify(consulta, never()).setTimeout(anyLong());
+        assertThat(AsyncConfig.respondeEmStreaming(consulta)).isFalse();
+    }
+
+    private static AsyncWebRequest requisicao(String metodo) throws Exception {
+        HandlerMethod handler = new HandlerMethod(new Controlador(), Controlador.class.getMethod(metodo));
+        AsyncWebRequest request = mock(AsyncWebRequest.class);
+        when(request.getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE, NativeWebRequest.SCOPE_REQUEST))
+                .thenReturn(handler);
+        return request;
+    }
+
+    static class Controlador {
+
+        public ResponseEntity<StreamingResponseBody> exportar() {
+            return null;
+        }
+
+        public StreamingResponseBody relatorio() {
+            return null;
+        }
+
+        public CompletableFuture<ResponseEntity<String>> consultar() {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.creditos.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class VerificacaoSchemaTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private VerificacaoSchema verificacao;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        verificacao = new VerificacaoSchema(jdbcTemplate, 50);
+        when(jdbcTemplate.queryForList(eq(VerificacaoSchema.IDENTIDADE_ID), eq(String.class)))
+                .thenReturn(Collections.singletonList(""));
+        when(jdbcTemplate.queryForObject(VerificacaoSchema.TABELA_AGREGADOS, Boolean.class)).thenReturn(true);
+    }
+
+    @Test
+    @DisplayName("Deve aceitar o schema migrado e interromper a subida indicando a migração V3 pendente")
+    void testSequenciaId() {
+        when(jdbcTemplate.queryForList(eq(VerificacaoSchema.INCREMENTO_SEQUENCIA), eq(Long.class), any()))
+                .thenReturn(Collections.singletonList(50L));
+        assertThatCode(verificacao::verificar).doesNotThrowAnyException();
+
+        when(jdbcTemplate.queryForList(eq(VerificacaoSchema.INCREMENTO_SEQUENCIA), eq(Long.class), any()))
+                .thenReturn(Collections.singletonList(1L));
+        assertThatThrownBy(verificacao::verificar)
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("INCREMENT BY 1")
+                .hasMessageContaining("V3");
+
+        when(jdbcTemplate.queryForList(eq(VerificacaoSchema.INCREMENTO_SEQUENCIA), eq(Long.class), any()))
+                .thenReturn(Collections.emptyList());
+        assertThatThrownBy(verificacao::verificar).hasMessageContaining("não existe");
+
+        when(jdbcTemplate.queryForList(eq(VerificacaoSchema.INCREMENTO_SEQUENCIA), eq(Long.class), any()))
+                .thenReturn(Collections.singletonList(50L));
+        when(jdbcTemplate.queryForList(eq(VerificacaoSchema.IDENTIDADE_ID), eq(String.class)))
+                .thenReturn(Collections.singletonList("a"));
+        assertThatThrownBy(verificacao::verificar).hasMessageContaining("GENERATED ALWAYS");
+    }
+
+    @Test
+    @DisplayName("Deve interromper a subida quando a tabela de agregados não existir")
+    void testTabelaAgregados() {
+        when(jdbcTemplate.queryForList(eq(VerificacaoSchema.INCREMENTO_SEQUENCIA), eq(Long.class), any()))
+                .thenReturn(Collections.singletonList(50L));
+        when(jdbcTemplate.queryForObject(VerificacaoSchema.TABELA_AGREGADOS, Boolean.class)).thenReturn(false);
+
+        assertThatThrownBy(verificacao::verificar)
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("credito_agregado")
+                .hasMessageContaining("V4");
+    }
+}
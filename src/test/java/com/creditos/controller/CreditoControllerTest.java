@@ -1,41 +1,89 @@
 package com.creditos.controller;
 
+import com.creditos.cache.AquecimentoCache;
+import com.creditos.concurrent.Bulkhead;
+import com.creditos.config.BulkheadConfig;
+import com.creditos.dto.BuscaNumerosDTO;
+import com.creditos.dto.ConsultaLoteRequestDTO;
+import com.creditos.dto.ConsultaLoteResponseDTO;
 import com.creditos.dto.CreditoResponseDTO;
 import com.creditos.controller.CreditoController.ExistenceResponse;
 import com.creditos.exception.CreditoException;
+import com.creditos.service.CreditoLoteService;
 import com.creditos.service.CreditoService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultActions;
 import org.springframework.http.MediaType;
 
 import java.util.Collections;
 
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(CreditoController.class)
+@Import(CreditoControllerTest.BulkheadsTeste.class)
 public class CreditoControllerTest {
 
+    @TestConfiguration
+    static class BulkheadsTeste {
+
+        @Bean
+        SimpleMeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+
+        @Bean(name = BulkheadConfig.CONSULTA, destroyMethod = "encerrar")
+        Bulkhead bulkheadConsulta(SimpleMeterRegistry meterRegistry) {
+            return new Bulkhead("consulta", 2, 10, meterRegistry);
+        }
+
+        @Bean(name = BulkheadConfig.INTERVALO, destroyMethod = "encerrar")
+        Bulkhead bulkheadIntervalo(SimpleMeterRegistry meterRegistry) {
+            return new Bulkhead("intervalo", 2, 10, meterRegistry);
+        }
+    }
+
     @Autowired
     private MockMvc mockMvc;
 
+    @Autowired
+    private SimpleMeterRegistry meterRegistry;
+
     @MockBean
     private CreditoService creditoService;
 
+    @MockBean
+    private CreditoLoteService creditoLoteService;
+
+    @MockBean
+    private AquecimentoCache aquecimentoCache;
+
     @Test
     @DisplayName("GET /api/creditos/123456 - Deve retornar 200 OK com lista de créditos")
     void consultarCreditosPorNfse_deveRetornarLista() throws Exception {
         Mockito.when(creditoService.consultarCreditosPorNfse("123456"))
                 .thenReturn(Collections.singletonList(new CreditoResponseDTO()));
 
-        mockMvc.perform(get("/api/creditos/123456")
+        executar(get("/api/creditos/123456")
                         .accept(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk());
+
+        Mockito.verify(aquecimentoCache).registrarConsultaNfse("123456");
     }
 
     @Test
@@ -44,7 +92,7 @@ public class CreditoControllerTest {
         Mockito.when(creditoService.consultarCreditoPorNumero("789"))
                 .thenReturn(new CreditoResponseDTO());
 
-        mockMvc.perform(get("/api/creditos/credito/789")
+        executar(get("/api/creditos/credito/789")
                         .accept(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk());
     }
@@ -54,7 +102,7 @@ public class CreditoControllerTest {
     void verificarExistenciaCredito_deveRetornarTrue() throws Exception {
         Mockito.when(creditoService.existeCreditoPorNumero("101")).thenReturn(true);
 
-        mockMvc.perform(get("/api/creditos/exists/credito/101")
+        executar(get("/api/creditos/exists/credito/101")
                         .accept(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk());
     }
@@ -64,8 +112,70 @@ public class CreditoControllerTest {
     void verificarExistenciaCreditoPorNfse_deveRetornarTrue() throws Exception {
         Mockito.when(creditoService.existeCreditoPorNfse("202")).thenReturn(true);
 
-        mockMvc.perform(get("/api/creditos/exists/nfse/202")
+        executar(get("/api/creditos/exists/nfse/202")
                         .accept(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk());
     }
+
+    @Test
+    @DisplayName("POST /api/creditos/batch - Deve retornar 200 OK com mapa por número")
+    void consultarCreditosEmLote_deveRetornarMapa() throws Exception {
+        ConsultaLoteResponseDTO response = new ConsultaLoteResponseDTO();
+        response.getNfse().put("123", ConsultaLoteResponseDTO.Item.encontrado(
+                Collections.singletonList(new CreditoResponseDTO())));
+        response.getNfse().put("456", ConsultaLoteResponseDTO.Item.naoEncontrado());
+        Mockito.when(creditoLoteService.consultarLote(Mockito.any(ConsultaLoteRequestDTO.class)))
+                .thenReturn(response);
+
+        executar(post("/api/creditos/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"numerosNfse\": [\"123\", \"456\"]}")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.nfse['123'].status").value("ENCONTRADO"))
+                .andExpect(jsonPath("$.nfse['456'].status").value("NAO_ENCONTRADO"));
+    }
+
+    @Test
+    @DisplayName("GET /api/creditos/search?termo=7891 - Deve retornar os pares encontrados")
+    void buscarPorNumeroParcial_deveRetornarPares() throws Exception {
+        Mockito.when(creditoService.buscarPorNumeroParcial("7891", "nfse", 5))
+                .thenReturn(new BuscaNumerosDTO("7891", "nfse",
+                        Collections.singletonList(new BuscaNumerosDTO.Item("123456", "7891011")), true));
+
+        executar(get("/api/creditos/search")
+                        .param("termo", "7891")
+                        .param("campo", "nfse")
+                        .param("limite", "5")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.resultados[0].numeroCredito").value("123456"))
+                .andExpect(jsonPath("$.limitado").value(true));
+    }
+
+    @Test
+    @DisplayName("GET /api/creditos/credito/999 - Deve retornar 404 e contar o erro pelo código")
+    void consultarCreditoPorNumero_deveRetornar404() throws Exception {
+        Mockito.when(creditoService.consultarCreditoPorNumero("999"))
+                .thenThrow(CreditoException.creditoNaoEncontrado("999"));
+
+        executar(get("/api/creditos/credito/999")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.codigoErro").value("CRED_001"));
+
+        assertThat(meterRegistry.get("creditos.erros").tag("codigo", "CRED_001").counter().count())
+                .isEqualTo(1.0);
+    }
+
+    /**
+     * Os endpoints são assíncronos: a requisição inicia o processamento e o resultado
+     * é obtido no despacho assíncrono
+     */
+    private ResultActions executar(RequestBuilder requisicao) throws Exception {
+        MvcResult resultado = mockMvc.perform(requisicao)
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return mockMvc.perform(asyncDispatch(resultado));
+    }
 }
@@ -0,0 +1,44 @@
+package com.creditos.exception;
+
+import com.creditos.util.LoggingUtils;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CreditoExceptionTest {
+
+    @Test
+    @DisplayName("Erros de negócio devem ser criados sem stack trace")
+    void testErrosDeNegocioSemPilha() {
+        assertThat(CreditoException.creditoNaoEncontrado("123").getStackTrace()).isEmpty();
+        assertThat(CreditoException.nfseSemCreditos("456").getStackTrace()).isEmpty();
+        assertThat(CreditoException.numeroCreditoInvalido("abc", "deve conter apenas dígitos").getStackTrace()).isEmpty();
+        assertThat(CreditoException.numeroNfseInvalido("abc", "deve conter apenas dígitos").getStackTrace()).isEmpty();
+        assertThat(CreditoException.parametroInvalido("tamanho", "0", "deve ser positivo").getStackTrace()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Erro interno deve manter o stack trace e o nível de log ERROR")
+    void testErroInternoComPilha() {
+        CreditoException erro = CreditoException.erroInterno("falha");
+
+        assertThat(erro.getStackTrace()).isNotEmpty();
+        assertThat(erro.getHttpStatus()).isEqualTo(500);
+        assertThat(LoggingUtils.deveUsarLogError(erro)).isTrue();
+        assertThat(LoggingUtils.deveUsarLogError(CreditoException.nfseSemCreditos("456"))).isFalse();
+    }
+
+    @Test
+    @DisplayName("Deve manter mensagem e calcular o timestamp na leitura")
+    void testMensagemETimestamp() {
+        LocalDateTime antes = LocalDateTime.now().withNano(0);
+        CreditoException erro = CreditoException.numeroNfseInvalido("x", "é obrigatório");
+
+        assertThat(erro.getMessage()).isEqualTo("Número da NFS-e informado é inválido: é obrigatório");
+        assertThat(erro.getMensagemUsuario()).isEqualTo(erro.getMessage());
+        assertThat(erro.getTimestamp()).isAfterOrEqualTo(antes).isSameAs(erro.getTimestamp());
+    }
+}
@@ -0,0 +1,134 @@
+package com.creditos.messaging;
+
+import com.creditos.config.KafkaIngestaoConfig;
+import com.creditos.dto.CreditoEventoDTO;
+import com.creditos.exception.CreditoException;
+import com.creditos.service.CreditoIngestaoService;
+import org.apache.kafka.clients.admin.AdminClient;
+import org.apache.kafka.clients.admin.AdminClientConfig;
+import org.apache.kafka.clients.admin.OffsetSpec;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.kafka.KafkaAutoConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest(
+        classes = {KafkaIngestaoConfig.class, CreditoIngestaoListener.class},
+        properties = {
+                "spring.kafka.bootstrap-servers=${spring.embedded.kafka.brokers}",
+                "app.kafka.topics.credito-ingestao=" + CreditoIngestaoListenerTest.TOPICO,
+                "app.kafka.ingestao.group-id=" + CreditoIngestaoListenerTest.GRUPO,
+                "app.kafka.ingestao.intervalo-retentativa-ms=100"
+        })
+@ImportAutoConfiguration(KafkaAutoConfiguration.class)
+@EmbeddedKafka(partitions = 1, topics = CreditoIngestaoListenerTest.TOPICO)
+class CreditoIngestaoListenerTest {
+
+    static final String TOPICO = "credito-ingestao-teste";
+    static final String GRUPO = "credito-ingestao-teste-grupo";
+
+    @Autowired
+    private KafkaTemplate<Object, Object> kafkaTemplate;
+
+    @Autowired
+    private EmbeddedKafkaBroker broker;
+
+    @MockBean
+    private CreditoIngestaoService ingestaoService;
+
+    @Test
+    @DisplayName("Deve entregar os eventos em lote ao service e confirmar o offset")
+    void deveEntregarEventosEConfirmarOffset() throws Exception {
+        kafkaTemplate.send(TOPICO, "1001", evento("1001")).get();
+        kafkaTemplate.send(TOPICO, "1002", evento("1002")).get();
+
+        verify(ingestaoService, timeout(10000).atLeast(1)).ingerir(argThat(lista -> contem(lista, "1002")));
+        assertOffsetConfirmadoEventualmente();
+    }
+
+    @Test
+    @DisplayName("Deve reprocessar o lote e só confirmar o offset após o sucesso do service")
+    void deveReprocessarLoteQuandoServiceFalha() throws Exception {
+        when(ingestaoService.ingerir(argThat(lista -> contem(lista, "2001"))))
+                .thenThrow(CreditoException.erroInterno("banco indisponível"))
+                .thenReturn(new CreditoIngestaoService.ResultadoIngestao(1, 0, 0));
+
+        kafkaTemplate.send(TOPICO, "2001", evento("2001")).get();
+
+        verify(ingestaoService, timeout(10000).times(2)).ingerir(argThat(lista -> contem(lista, "2001")));
+        assertOffsetConfirmadoEventualmente();
+    }
+
+    @Test
+    @DisplayName("Deve descartar mensagens ilegíveis sem bloquear os eventos válidos")
+    void deveDescartarMensagensIlegiveis() throws Exception {
+        kafkaTemplate.send(TOPICO, "x", "não é um evento").get();
+        kafkaTemplate.send(TOPICO, "3001", evento("3001")).get();
+
+        verify(ingestaoService, timeout(10000)).ingerir(argThat(lista -> contem(lista, "3001")));
+        verify(ingestaoService, times(0)).ingerir(argThat(lista -> lista.contains(null)));
+        assertOffsetConfirmadoEventualmente();
+    }
+
+    // ================================================
+    // MÉTODOS AUXILIARES
+    // ================================================
+
+    private static CreditoEventoDTO evento(String numeroCredito) {
+        return new CreditoEventoDTO(numeroCredito, "7891011", LocalDate.of(2024, 2, 25),
+                new BigDecimal("1500.75"), "ISSQN", Boolean.TRUE, new BigDecimal("5.00"),
+                new BigDecimal("30000.00"), new BigDecimal("5000.00"), new BigDecimal("25000.00"));
+    }
+
+    private static boolean contem(List<CreditoEventoDTO> eventos, String numeroCredito) {
+        return eventos != null && eventos.stream()
+                .anyMatch(e -> e != null && numeroCredito.equals(e.getNumeroCredito()));
+    }
+
+    /**
+     * O offset confirmado do grupo deve alcançar o fim do tópico
+     */
+    private void assertOffsetConfirmadoEventualmente() throws Exception {
+        TopicPartition particao = new TopicPartition(TOPICO, 0);
+
+        try (AdminClient admin = AdminClient.create(Collections.singletonMap(
+                AdminClientConfig.BOOTSTRAP_SERVERS_CONFIG, broker.getBrokersAsString()))) {
+            long fim = admin.listOffsets(Collections.singletonMap(particao, OffsetSpec.latest()))
+                    .partitionResult(particao).get().offset();
+
+            long confirmado = -1;
+            long limite = System.currentTimeMillis() + 10000;
+            while (confirmado < fim && System.currentTimeMillis() < limite) {
+                Map<TopicPartition, OffsetAndMetadata> offsets =
+                        admin.listConsumerGroupOffsets(GRUPO).partitionsToOffsetAndMetadata().get();
+                OffsetAndMetadata offset = offsets.get(particao);
+                confirmado = offset == null ? -1 : offset.offset();
+                if (confirmado < fim) {
+                    Thread.sleep(100);
+                }
+            }
+            assertThat(confirmado).isEqualTo(fim);
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.creditos.metricas;
+
+import com.creditos.dto.EstatisticaSqlDTO;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.postgresql.PGConnection;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DataSourceMonitoradoTest {
+
+    private static final String SQL = "SELECT numero_credito FROM credito WHERE numero_nfse = ?";
+
+    @Test
+    @DisplayName("Deve registrar execuções, linhas lidas e linhas alteradas por operação e comando")
+    void testEstatisticasPorOperacao() throws Exception {
+        EstatisticasSql estatisticas = new EstatisticasSql(Duration.ofSeconds(1), 1.0, 100);
+
+        DataSource original = Mockito.mock(DataSource.class);
+        Connection conexao = Mockito.mock(Connection.class, Mockito.withSettings().extraInterfaces(PGConnection.class));
+        PreparedStatement consulta = Mockito.mock(PreparedStatement.class);
+        PreparedStatement alteracao = Mockito.mock(PreparedStatement.class);
+        ResultSet resultSet = Mockito.mock(ResultSet.class);
+
+        Mockito.when(original.getConnection()).thenReturn(conexao);
+        Mockito.when(conexao.prepareStatement(SQL)).thenReturn(consulta);
+        Mockito.when(conexao.prepareStatement("DELETE FROM credito")).thenReturn(alteracao);
+        Mockito.when(conexao.unwrap(PGConnection.class)).thenReturn((PGConnection) conexao);
+        Mockito.when(consulta.executeQuery()).thenReturn(resultSet);
+        Mockito.when(resultSet.next()).thenReturn(true, true, false);
+        Mockito.when(alteracao.executeUpdate()).thenReturn(3);
+
+        DataSource dataSource = new DataSourceMonitorado(original, estatisticas);
+        String anterior = ContextoSql.definir("CreditoRepository.findByNumeroNfse");
+        try (Connection con = dataSource.getConnection()) {
+            for (int i = 0; i < 2; i++) {
+                try (PreparedStatement ps = con.prepareStatement(SQL)) {
+                    ps.setString(1, "7891011");
+                    try (ResultSet rs = ps.executeQuery()) {
+                        while (rs.next()) {
+                            rs.getString(1);
+                        }
+                    }
+                }
+                Mockito.when(resultSet.next()).thenReturn(true, true, false);
+            }
+            ContextoSql.restaurar(anterior);
+
+            try (PreparedStatement ps = con.prepareStatement("DELETE FROM credito")) {
+                ps.executeUpdate();
+            }
+
+            // O COPY da importação precisa da conexão do driver
+            assertThat(con.unwrap(PGConnection.class)).isSameAs(conexao);
+        } finally {
+            ContextoSql.restaurar(anterior);
+        }
+
+        List<EstatisticaSqlDTO> resultado = estatisticas.maisLentas("total", 10);
+        assertThat(resultado).hasSize(2);
+
+        EstatisticaSqlDTO select = resultado.stream()
+                .filter(e -> e.getSql().equals(SQL)).findFirst().get();
+        assertThat(select.getOperacao()).isEqualTo("CreditoRepository.findByNumeroNfse");
+        assertThat(select.getExecucoes()).isEqualTo(2);
+        assertThat(select.getLinhas()).isEqualTo(4);
+        assertThat(select.getLentas()).isZero();
+
+        EstatisticaSqlDTO delete = resultado.stream()
+                .filter(e -> e.getSql().equals("DELETE FROM credito")).findFirst().get();
+        assertThat(delete.getOperacao()).isEqualTo(ContextoSql.SEM_OPERACAO);
+        assertThat(delete.getLinhas()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Acima do limite de comandos distintos, os novos devem ser somados em uma entrada por operação")
+    void testLimiteComandos() {
+        EstatisticasSql estatisticas = new EstatisticasSql(Duration.ofMillis(1), 0.0, 2);
+
+        estatisticas.registrar("op", "SELECT 1", 1_000, 0, 1, null);
+        estatisticas.registrar("op", "SELECT 2", 5_000_000, 0, 1, null);
+        estatisticas.registrar("op", "SELECT 3", 1_000, 0, 1, null);
+        estatisticas.registrar("op", "SELECT 4", 1_000, 0, 1, null);
+
+        List<EstatisticaSqlDTO> porMaximo = estatisticas.maisLentas("maximo", 10);
+        assertThat(porMaximo).extracting(EstatisticaSqlDTO::getSql)
+                .containsExactly("SELECT 2", "SELECT 1", EstatisticasSql.OUTROS_COMANDOS);
+        assertThat(porMaximo.get(0).getLentas()).isEqualTo(1);
+        assertThat(porMaximo.get(2).getExecucoes()).isEqualTo(2);
+    }
+}
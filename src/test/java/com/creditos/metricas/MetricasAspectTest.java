@@ -0,0 +1,82 @@
+package com.creditos.metricas;
+
+import com.creditos.dto.CreditoResponseDTO;
+import com.creditos.exception.CreditoException;
+import com.creditos.repository.CreditoRepository;
+import com.creditos.service.CreditoService;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+import java.time.Duration;
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MetricasAspectTest {
+
+    @Test
+    @DisplayName("Chamadas ao CreditoService devem ser medidas por método e resultado, com bucket de SLO")
+    void testTimerPorMetodo() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        CreditoService alvo = Mockito.mock(CreditoService.class);
+        Mockito.when(alvo.consultarCreditosPorNfse("7891011"))
+                .thenReturn(Collections.singletonList(new CreditoResponseDTO()));
+        Mockito.when(alvo.consultarCreditoPorNumero("999"))
+                .thenThrow(CreditoException.creditoNaoEncontrado("999"));
+
+        AspectJProxyFactory fabrica = new AspectJProxyFactory(alvo);
+        fabrica.setProxyTargetClass(true);
+        fabrica.addAspect(new MetricasAspect(registry, Duration.ofMillis(200), Duration.ofSeconds(30)));
+        CreditoService service = fabrica.getProxy();
+
+        service.consultarCreditosPorNfse("7891011");
+        service.consultarCreditosPorNfse("7891011");
+        assertThatThrownBy(() -> service.consultarCreditoPorNumero("999"))
+                .isInstanceOf(CreditoException.class);
+
+        Timer sucesso = registry.get(MetricasAspect.METRICA)
+                .tag("camada", "service")
+                .tag("metodo", "consultarCreditosPorNfse")
+                .tag("resultado", "sucesso")
+                .timer();
+        assertThat(sucesso.count()).isEqualTo(2);
+        assertThat(sucesso.takeSnapshot().histogramCounts())
+                .anySatisfy(bucket -> assertThat(bucket.bucket()).isEqualTo(Duration.ofMillis(200).toNanos()));
+
+        assertThat(registry.get(MetricasAspect.METRICA)
+                .tag("metodo", "consultarCreditoPorNumero")
+                .tag("resultado", "erro")
+                .timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Consultas do CreditoRepository, inclusive as herdadas do JpaRepository, devem ser medidas")
+    void testTimerRepository() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        CreditoRepository alvo = Mockito.mock(CreditoRepository.class);
+
+        AspectJProxyFactory fabrica = new AspectJProxyFactory(alvo);
+        fabrica.addInterface(CreditoRepository.class);
+        fabrica.addAspect(new MetricasAspect(registry, Duration.ofMillis(200), Duration.ofSeconds(30)));
+        CreditoRepository repository = fabrica.getProxy();
+
+        repository.findDtoByNumeroNfse("7891011");
+        repository.count();
+        repository.toString();
+
+        assertThat(registry.get(MetricasAspect.METRICA)
+                .tag("camada", "repository")
+                .tag("metodo", "findDtoByNumeroNfse")
+                .timer().count()).isEqualTo(1);
+        assertThat(registry.get(MetricasAspect.METRICA)
+                .tag("camada", "repository")
+                .tag("metodo", "count")
+                .timer().count()).isEqualTo(1);
+        assertThat(registry.find(MetricasAspect.METRICA).tag("metodo", "toString").timer()).isNull();
+    }
+}
@@ -1,17 +1,27 @@
 package com.creditos.repository;
 
+import com.creditos.dto.CreditoResponseDTO;
 import com.creditos.entity.Credito;
+import com.creditos.util.DecimalFixo;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.TestPropertySource;
 
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
@@ -27,6 +37,12 @@ class CreditoRepositoryTest {
     @Autowired
     private CreditoRepository creditoRepository;
 
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private EntityManager entityManager;
+
     @BeforeEach
     void setUp() {
         // Limpa o banco antes de cada teste
@@ -37,24 +53,24 @@ class CreditoRepositoryTest {
         credito1.setNumeroCredito("CRD001");
         credito1.setNumeroNfse("NFS123");
         credito1.setTipoCredito("ISSQN");
-        credito1.setValorIssqn(new BigDecimal("150.00"));
+        credito1.setValorIssqn(DecimalFixo.parse("150.00"));
         credito1.setDataConstituicao(LocalDate.now());
-        credito1.setValorFaturado(new BigDecimal("1000.00"));
-        credito1.setValorDeducao(new BigDecimal("100.00"));
-        credito1.setBaseCalculo(new BigDecimal("900.00"));
-        credito1.setAliquota(new BigDecimal("5.00"));
+        credito1.setValorFaturado(DecimalFixo.parse("1000.00"));
+        credito1.setValorDeducao(DecimalFixo.parse("100.00"));
+        credito1.setBaseCalculo(DecimalFixo.parse("900.00"));
+        credito1.setAliquota(DecimalFixo.parse("5.00"));
         credito1.setSimplesNacional(true);
 
         Credito credito2 = new Credito();
         credito2.setNumeroCredito("CRD002");
         credito2.setNumeroNfse("NFS456");
         credito2.setTipoCredito("ICMS");
-        credito2.setValorIssqn(new BigDecimal("250.00"));
+        credito2.setValorIssqn(DecimalFixo.parse("250.00"));
         credito2.setDataConstituicao(LocalDate.now());
-        credito2.setValorFaturado(new BigDecimal("2000.00"));
-        credito2.setValorDeducao(new BigDecimal("200.00"));
-        credito2.setBaseCalculo(new BigDecimal("1800.00"));
-        credito2.setAliquota(new BigDecimal("7.00"));
+        credito2.setValorFaturado(DecimalFixo.parse("2000.00"));
+        credito2.setValorDeducao(DecimalFixo.parse("200.00"));
+        credito2.setBaseCalculo(DecimalFixo.parse("1800.00"));
+        credito2.setAliquota(DecimalFixo.parse("7.00"));
         credito2.setSimplesNacional(false);
 
         creditoRepository.saveAll(Arrays.asList(credito1, credito2));
@@ -91,11 +107,11 @@ class CreditoRepositoryTest {
     @DisplayName("Deve buscar crédito por faixa de valor ISSQN")
     void testFindByValorIssqnBetween() {
         List<Credito> resultados = creditoRepository.findByValorIssqnBetween(
-                new BigDecimal("100.00"), new BigDecimal("300.00"));
+                DecimalFixo.parse("100.00"), DecimalFixo.parse("300.00"));
         assertThat(resultados)
                 .isNotEmpty()
-                .allMatch(c -> c.getValorIssqn().compareTo(new BigDecimal("100.00")) >= 0 &&
-                        c.getValorIssqn().compareTo(new BigDecimal("300.00")) <= 0);
+                .allMatch(c -> c.getValorIssqn().compareTo(DecimalFixo.parse("100.00")) >= 0 &&
+                        c.getValorIssqn().compareTo(DecimalFixo.parse("300.00")) <= 0);
     }
 
     @Test
@@ -107,16 +123,16 @@ class CreditoRepositoryTest {
         inconsistente.setNumeroCredito("INCONSISTENTE");
         inconsistente.setNumeroNfse("NFS999");
         inconsistente.setTipoCredito("ISSQN");
-        inconsistente.setValorIssqn(new BigDecimal("100.00"));
+        inconsistente.setValorIssqn(DecimalFixo.parse("100.00"));
         inconsistente.setDataConstituicao(LocalDate.now());
 
         // Define valores inconsistentes (faturado - dedução deveria ser igual a base)
-        inconsistente.setValorFaturado(new BigDecimal("1000.00"));
-        inconsistente.setValorDeducao(new BigDecimal("900.00"));
-        inconsistente.setBaseCalculo(new BigDecimal("200.00")); // Inconsistente
+        inconsistente.setValorFaturado(DecimalFixo.parse("1000.00"));
+        inconsistente.setValorDeducao(DecimalFixo.parse("900.00"));
+        inconsistente.setBaseCalculo(DecimalFixo.parse("200.00")); // Inconsistente
 
         // Garante outros campos obrigatórios
-        inconsistente.setAliquota(new BigDecimal("5.00"));
+        inconsistente.setAliquota(DecimalFixo.parse("5.00"));
         inconsistente.setSimplesNacional(true);
 
         creditoRepository.saveAndFlush(inconsistente); // Força o flush para detectar inconsistências
@@ -149,4 +165,107 @@ class CreditoRepositoryTest {
                 .extracting(Credito::getNumeroCredito)
                 .isEqualTo("CRD001");
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Deve verificar existência por número do crédito e da NFS-e sem carregar entidades")
+    void testExistsByNumeroCreditoENfse() {
+        assertThat(creditoRepository.existsByNumeroCredito("CRD001")).isTrue();
+        assertThat(creditoRepository.existsByNumeroCredito("CRD999")).isFalse();
+        assertThat(creditoRepository.existsByNumeroNfse("NFS456")).isTrue();
+        assertThat(creditoRepository.existsByNumeroNfse("NFS999")).isFalse();
+    }
+
+    @Test
+    @DisplayName("Deve buscar vários números em uma única consulta IN")
+    void testFindByNumerosIn() {
+        List<CreditoResponseDTO> porNfse = creditoRepository.findDtoByNumeroNfseIn(Arrays.asList("NFS123", "NFS456", "NFS999"));
+        assertThat(porNfse).extracting(CreditoResponseDTO::getNumeroNfse).containsExactly("NFS123", "NFS456");
+
+        List<CreditoResponseDTO> porCredito = creditoRepository.findDtoByNumeroCreditoIn(Arrays.asList("CRD002", "CRD999"));
+        assertThat(porCredito).extracting(CreditoResponseDTO::getNumeroCredito).containsExactly("CRD002");
+    }
+
+    @Test
+    @DisplayName("Projeções em DTO devem retornar os mesmos dados das consultas por entidade")
+    void testProjecoesDto() {
+        List<CreditoResponseDTO> porNfse = creditoRepository.findDtoByNumeroNfse("NFS123");
+        assertThat(porNfse).hasSize(1);
+        assertThat(porNfse.get(0).getNumeroCredito()).isEqualTo("CRD001");
+        assertThat(porNfse.get(0).getSimplesNacional()).isEqualTo("Sim");
+        assertThat(porNfse.get(0).getValorIssqn()).isEqualTo(DecimalFixo.parse("150.00"));
+
+        assertThat(creditoRepository.findDtoByNumeroCredito("CRD002"))
+                .extracting(CreditoResponseDTO::getSimplesNacional).containsExactly("Não");
+        assertThat(creditoRepository.findDtoByDataConstituicaoBetween(LocalDate.now().minusDays(1), LocalDate.now()))
+                .hasSize(creditoRepository.findByDataConstituicaoBetween(LocalDate.now().minusDays(1), LocalDate.now()).size());
+        assertThat(creditoRepository.findDtoByTipoCreditoIgnoreCase("issqn"))
+                .extracting(CreditoResponseDTO::getNumeroCredito).containsExactly("CRD001");
+        assertThat(creditoRepository.findDtoByValorIssqnBetween(DecimalFixo.parse("200.00"), DecimalFixo.parse("300.00")))
+                .extracting(CreditoResponseDTO::getNumeroCredito).containsExactly("CRD002");
+    }
+
+    @Test
+    @DisplayName("Deve paginar por cursor sem repetir nem pular registros")
+    void testFindPaginaAposCursor() {
+        Slice<Credito> primeira = creditoRepository.findPaginaAposCursor(
+                LocalDate.of(9999, 12, 31), Long.MAX_VALUE, PageRequest.of(0, 1));
+        assertThat(primeira.getContent()).hasSize(1);
+        assertThat(primeira.hasNext()).isTrue();
+
+        Credito ultimo = primeira.getContent().get(0);
+        Slice<Credito> segunda = creditoRepository.findPaginaAposCursor(
+                ultimo.getDataConstituicao(), ultimo.getId(), PageRequest.of(0, 1));
+        assertThat(segunda.getContent()).hasSize(1);
+        assertThat(segunda.hasNext()).isFalse();
+        assertThat(segunda.getContent().get(0).getId()).isLessThan(ultimo.getId());
+    }
+
+    @Test
+    @DisplayName("Deve calcular estatísticas consolidadas (geral, por tipo e por mês) em uma consulta")
+    void testFindEstatisticasConsolidadas() {
+        List<Object[]> linhas = creditoRepository.findEstatisticasConsolidadas();
+
+        // 1 linha de total geral + 2 tipos (ISSQN e ICMS) + 1 mês
+        assertThat(linhas).hasSize(4);
+
+        Object[] totalGeral = linhas.stream()
+                .filter(l -> ((Number) l[0]).intValue() == 1 && ((Number) l[1]).intValue() == 1)
+                .findFirst()
+                .orElseThrow(IllegalStateException::new);
+        assertThat(((Number) totalGeral[4]).longValue()).isEqualTo(2);
+        assertThat((BigDecimal) totalGeral[5]).isEqualByComparingTo("400.00");
+    }
+
+    @Test
+    @DisplayName("Deve gravar 10 mil créditos em batches, com poucas chamadas à sequência")
+    void testSaveAllEmBatch() {
+        int quantidade = 10_000;
+        List<Credito> creditos = new ArrayList<>(quantidade);
+        for (int i = 0; i < quantidade; i++) {
+            Credito credito = new Credito();
+            credito.setNumeroCredito(String.valueOf(900000 + i));
+            credito.setNumeroNfse("NFS-LOTE");
+            credito.setTipoCredito("ISSQN");
+            credito.setValorIssqn(DecimalFixo.parse("50.00"));
+            credito.setDataConstituicao(LocalDate.now());
+            credito.setValorFaturado(DecimalFixo.parse("1000.00"));
+            credito.setValorDeducao(DecimalFixo.ZERO);
+            credito.setBaseCalculo(DecimalFixo.parse("1000.00"));
+            credito.setAliquota(DecimalFixo.parse("5.00"));
+            credito.setSimplesNacional(false);
+            creditos.add(credito);
+        }
+
+        Statistics estatisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        estatisticas.clear();
+
+        creditoRepository.saveAll(creditos);
+        entityManager.flush();
+
+        // Sem batch seriam 10.000 inserts + 10.000 nextval; com batch de 20 e blocos de 50:
+        // 500 batches de insert + 200 chamadas à sequência
+        assertThat(estatisticas.getEntityInsertCount()).isEqualTo(quantidade);
+        assertThat(estatisticas.getPrepareStatementCount()).isLessThanOrEqualTo(quantidade / 20 + quantidade / 50 + 10);
+        assertThat(creditos).extracting(Credito::getId).doesNotHaveDuplicates();
+    }
+}
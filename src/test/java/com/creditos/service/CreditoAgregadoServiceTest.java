@@ -0,0 +1,160 @@
+package com.creditos.service;
+
+import com.creditos.dto.CreditoEventoDTO;
+import com.creditos.dto.RecalculoAgregadosDTO;
+import com.creditos.util.DecimalFixo;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CreditoAgregadoServiceTest {
+
+    @Test
+    @DisplayName("Deve somar os inseridos por tipo, Simples Nacional e mês, em ordem de chave")
+    @SuppressWarnings("unchecked")
+    void testAcumular() {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        CreditoAgregadoService service = new CreditoAgregadoService(jdbcTemplate, transacoes(), new SimpleMeterRegistry(), true);
+
+        service.acumular(Arrays.asList(
+                evento("ISSQN", LocalDate.of(2024, 2, 25), "1250.00"),
+                evento("ISSQN", LocalDate.of(2024, 2, 3), "800.50"),
+                evento("Outros", LocalDate.of(2024, 1, 10), "100.00")));
+
+        ArgumentCaptor<List<Object[]>> parametros = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(eq(CreditoAgregadoService.ACUMULAR), parametros.capture());
+
+        assertThat(parametros.getValue()).hasSize(2);
+        assertThat(parametros.getValue().get(0)).containsExactly("ISSQN", true, "2024-02", 2L,
+                new BigDecimal("2050.50"), new BigDecimal("800.50"), new BigDecimal("1250.00"));
+        assertThat(parametros.getValue().get(1)[0]).isEqualTo("Outros");
+    }
+
+    @Test
+    @DisplayName("Deve consolidar os grupos e apontar as divergências no recálculo")
+    @SuppressWarnings("unchecked")
+    void testConsolidarERecalcular() {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        CreditoAgregadoService service = new CreditoAgregadoService(jdbcTemplate, transacoes(), meterRegistry, true);
+
+        CreditoAgregadoService.Grupo fevereiro = grupo("ISSQN", "2024-02", 2, "2050.50", "800.50", "1250.00");
+        CreditoAgregadoService.Grupo janeiro = grupo("ISSQN", "2024-01", 1, "100.00", "100.00", "100.00");
+        CreditoAgregadoService.Grupo fevereiroCorreto = grupo("ISSQN", "2024-02", 3, "2150.50", "100.00", "1250.00");
+
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class)))
+                .thenReturn(Arrays.asList(fevereiro, janeiro));
+
+        CreditoAgregadoService.Consolidado consolidado = service.consolidar();
+        assertThat(consolidado.getGeral().getQuantidade()).isEqualTo(3);
+        assertThat(consolidado.getGeral().getValorTotal()).isEqualTo(DecimalFixo.parse("2150.50"));
+        assertThat(consolidado.getGeral().getValorMedio()).isEqualTo(DecimalFixo.parse("716.83"));
+        assertThat(consolidado.getGeral().getValorMinimo()).isEqualTo(DecimalFixo.parse("100.00"));
+        assertThat(consolidado.getPorMes()).containsOnlyKeys("2024-01", "2024-02");
+        assertThat(consolidado.getPorTipo().get("ISSQN").getQuantidade()).isEqualTo(3);
+
+        // Armazenado: fevereiro e janeiro; recalculado: apenas fevereiro, com outros valores
+        // Na troca, nenhum grupo mudou desde o snapshot
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class)))
+                .thenReturn(Arrays.asList(fevereiro, janeiro))
+                .thenReturn(Collections.singletonList(fevereiroCorreto))
+                .thenReturn(Arrays.asList(fevereiro, janeiro));
+
+        RecalculoAgregadosDTO resultado = service.recalcular();
+
+        assertThat(resultado.getGruposAdiados()).isZero();
+        ArgumentCaptor<List<Object[]>> substituidos = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(eq(CreditoAgregadoService.SUBSTITUIR), substituidos.capture());
+        assertThat(substituidos.getValue()).extracting(p -> p[2]).containsExactly("2024-02");
+        ArgumentCaptor<List<Object[]>> removidos = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(eq(CreditoAgregadoService.REMOVER), removidos.capture());
+        assertThat(removidos.getValue()).extracting(p -> p[2]).containsExactly("2024-01");
+        assertThat(resultado.getGruposArmazenados()).isEqualTo(2);
+        assertThat(resultado.getGruposRecalculados()).isEqualTo(1);
+        assertThat(resultado.getDivergencias()).extracting(RecalculoAgregadosDTO.Divergencia::getAnoMes)
+                .containsExactly("2024-01", "2024-02");
+        assertThat(resultado.getDivergencias().get(0).getQuantidadeRecalculada()).isZero();
+        assertThat(resultado.getDivergencias().get(1).getQuantidadeRecalculada()).isEqualTo(3);
+        assertThat(meterRegistry.get("creditos.agregados.divergencias").counter().count()).isEqualTo(2.0);
+    }
+
+    @Test
+    @DisplayName("Deve adiar os grupos gravados depois do snapshot em vez de sobrescrevê-los")
+    @SuppressWarnings("unchecked")
+    void testRecalculoComGravacaoConcorrente() {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        CreditoAgregadoService service = new CreditoAgregadoService(jdbcTemplate, transacoes(),
+                new SimpleMeterRegistry(), true);
+
+        CreditoAgregadoService.Grupo janeiro = grupo("ISSQN", "2024-01", 1, "100.00", "100.00", "100.00");
+        CreditoAgregadoService.Grupo janeiroCorreto = grupo("ISSQN", "2024-01", 2, "150.00", "50.00", "100.00");
+        CreditoAgregadoService.Grupo janeiroComIngestao = grupo("ISSQN", "2024-01", 2, "300.00", "100.00", "200.00");
+
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class)))
+                .thenReturn(Collections.singletonList(janeiro))
+                .thenReturn(Collections.singletonList(janeiroCorreto))
+                .thenReturn(Collections.singletonList(janeiroComIngestao));
+
+        RecalculoAgregadosDTO resultado = service.recalcular();
+
+        assertThat(resultado.getDivergencias()).hasSize(1);
+        assertThat(resultado.getGruposAdiados()).isEqualTo(1);
+        verify(jdbcTemplate).execute(anyString());
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), any(List.class));
+    }
+
+    @Test
+    @DisplayName("Deve pular o recálculo periódico quando outra instância estiver recalculando")
+    void testRecalculoPeriodico() {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        when(jdbcTemplate.queryForObject(anyString(), eq(Boolean.class))).thenReturn(false);
+
+        assertThat(new CreditoAgregadoService(jdbcTemplate, transacoes(), new SimpleMeterRegistry(), true)
+                .recalcularPeriodicamente()).isNull();
+        assertThat(new CreditoAgregadoService(jdbcTemplate, transacoes(), new SimpleMeterRegistry(), false)
+                .recalcularPeriodicamente()).isNull();
+        verify(jdbcTemplate, times(1)).queryForObject(anyString(), eq(Boolean.class));
+        verify(jdbcTemplate, never()).execute(anyString());
+    }
+
+    private static PlatformTransactionManager transacoes() {
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        return transactionManager;
+    }
+
+    private static CreditoAgregadoService.Grupo grupo(String tipo, String anoMes, long quantidade,
+                                                      String total, String minimo, String maximo) {
+        CreditoAgregadoService.Grupo grupo = new CreditoAgregadoService.Grupo(tipo, true, anoMes);
+        grupo.valores().somar(quantidade, DecimalFixo.centesimos(total), DecimalFixo.centesimos(minimo),
+                DecimalFixo.centesimos(maximo));
+        return grupo;
+    }
+
+    private static CreditoEventoDTO evento(String tipo, LocalDate data, String valorIssqn) {
+        return new CreditoEventoDTO("123456", "7891011", data, new BigDecimal(valorIssqn), tipo, Boolean.TRUE,
+                new BigDecimal("5.00"), new BigDecimal("30000.00"), new BigDecimal("5000.00"),
+                new BigDecimal("25000.00"));
+    }
+}
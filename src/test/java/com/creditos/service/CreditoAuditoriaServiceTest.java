@@ -0,0 +1,84 @@
+package com.creditos.service;
+
+import com.creditos.dto.AuditoriaConsistenciaDTO;
+import com.creditos.util.ConsistenciaIssqn;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CreditoAuditoriaServiceTest {
+
+    @Test
+    @DisplayName("Deve cobrir toda a faixa de ids e unir os parciais das partições")
+    void testAuditarParticoes() {
+        // Ids de 10 a 1009; a cada 7 ids um crédito com ISSQN acima do calculado (id centavos a mais)
+        ConcurrentHashMap<Long, Boolean> lidos = new ConcurrentHashMap<>();
+        CreditoAuditoriaService.LeitorParticao leitor = (inicio, fim, parcial) -> {
+            for (long id = inicio; id <= fim; id++) {
+                assertThat(lidos.put(id, Boolean.TRUE)).isNull();
+                String tipo = id % 2 == 0 ? "ISSQN" : "Outros";
+                long valorIssqn = 5_000L + (id % 7 == 0 ? id : 0);
+                long diferenca = ConsistenciaIssqn.diferenca(valorIssqn, 100_000L, 500);
+                if (parcial.registrar(tipo, diferenca)) {
+                    parcial.oferecer(new CreditoAuditoriaService.Ocorrencia(id, "C" + id, "N" + id, tipo,
+                            valorIssqn, 100_000L, 500, diferenca));
+                }
+            }
+        };
+
+        AtomicLong concluidas = new AtomicLong();
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            CreditoAuditoriaService.Parcial resultado =
+                    CreditoAuditoriaService.auditar(pool, 10, 1009, 64, 3, leitor, concluidas);
+
+            assertThat(lidos).hasSize(1000);
+            assertThat(concluidas.get()).isEqualTo(CreditoAuditoriaService.quantidadeParticoes(10, 1009, 64))
+                    .isEqualTo(16);
+            assertThat(resultado.verificados()).isEqualTo(1000);
+            // Múltiplos de 7 entre 14 e 1008
+            assertThat(resultado.inconsistentes()).isEqualTo(143);
+
+            List<AuditoriaConsistenciaDTO.Tipo> porTipo = resultado.porTipo();
+            assertThat(porTipo).extracting(AuditoriaConsistenciaDTO.Tipo::getTipoCredito)
+                    .containsExactly("ISSQN", "Outros");
+            assertThat(porTipo.get(0).getVerificados()).isEqualTo(500);
+            assertThat(porTipo.get(0).getInconsistentes() + porTipo.get(1).getInconsistentes()).isEqualTo(143);
+
+            List<AuditoriaConsistenciaDTO.Divergencia> maiores = resultado.maioresDivergencias();
+            assertThat(maiores).extracting(AuditoriaConsistenciaDTO.Divergencia::getId)
+                    .containsExactly(1008L, 1001L, 994L);
+            assertThat(maiores.get(0).getValorIssqn()).isEqualByComparingTo("60.08");
+            assertThat(maiores.get(0).getDiferenca()).isEqualByComparingTo("10.08");
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Faixa menor que uma partição deve gerar uma única leitura")
+    void testParticaoUnica() {
+        AtomicLong concluidas = new AtomicLong();
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            CreditoAuditoriaService.Parcial resultado = CreditoAuditoriaService.auditar(pool, 5, 5, 100, 10,
+                    (inicio, fim, parcial) -> {
+                        assertThat(inicio).isEqualTo(5);
+                        assertThat(fim).isEqualTo(5);
+                        parcial.registrar("ISSQN", 0);
+                    }, concluidas);
+
+            assertThat(concluidas.get()).isEqualTo(1);
+            assertThat(resultado.verificados()).isEqualTo(1);
+            assertThat(resultado.maioresDivergencias()).isEmpty();
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
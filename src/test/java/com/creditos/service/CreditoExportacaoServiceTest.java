@@ -0,0 +1,162 @@
+package com.creditos.service;
+
+import com.creditos.exception.CreditoException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class CreditoExportacaoServiceTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    @Test
+    @DisplayName("Deve escrever o CSV com cabeçalho e aspas só nos textos com vírgula, aspas ou quebra de linha")
+    void deveEscreverCsv() throws Exception {
+        JdbcTemplate jdbcTemplate = tabelaSimulada(new ArrayList<>(), new ArrayList<>(),
+                linha("123456", "7891011", "ISSQN", true),
+                linha("654,321", "7891012", "ISS \"retido\"\nparcial", false));
+
+        String csv = exportar(jdbcTemplate, CreditoExportacaoService.Formato.CSV);
+
+        assertThat(csv.split("\n", -1)).containsExactly(
+                "numeroCredito,numeroNfse,dataConstituicao,valorIssqn,tipoCredito,simplesNacional," +
+                        "aliquota,valorFaturado,valorDeducao,baseCalculo",
+                "123456,7891011,2024-02-25,1500.75,ISSQN,Sim,5.00,30000.00,5000.00,25000.00",
+                "\"654,321\",7891012,2024-02-25,1500.75,\"ISS \"\"retido\"\"",
+                "parcial\",Não,5.00,30000.00,5000.00,25000.00",
+                "");
+    }
+
+    @Test
+    @DisplayName("Deve escrever um objeto por linha no NDJSON e um array único no JSON")
+    void deveEscreverNdjsonEJson() throws Exception {
+        ResultSet[] linhas = {linha("123456", "7891011", "ISSQN", true), linha("654321", "7891012", "Outros", false)};
+
+        String ndjson = exportar(tabelaSimulada(new ArrayList<>(), new ArrayList<>(), linhas),
+                CreditoExportacaoService.Formato.NDJSON);
+        String[] objetos = ndjson.split("\n");
+        assertThat(objetos).hasSize(2);
+        JsonNode primeiro = objectMapper.readTree(objetos[0]);
+        assertThat(primeiro.get("numeroCredito").asText()).isEqualTo("123456");
+        assertThat(primeiro.get("dataConstituicao").asText()).isEqualTo("2024-02-25");
+        assertThat(primeiro.get("simplesNacional").asText()).isEqualTo("Sim");
+        assertThat(primeiro.get("valorIssqn").decimalValue()).isEqualByComparingTo("1500.75");
+        assertThat(objectMapper.readTree(objetos[1]).get("simplesNacional").asText()).isEqualTo("Não");
+
+        String json = exportar(tabelaSimulada(new ArrayList<>(), new ArrayList<>(), linhas),
+                CreditoExportacaoService.Formato.JSON);
+        JsonNode array = objectMapper.readTree(json);
+        assertThat(array.isArray()).isTrue();
+        assertThat(array).hasSize(2);
+        assertThat(array.get(1).get("tipoCredito").asText()).isEqualTo("Outros");
+
+        String vazio = exportar(tabelaSimulada(new ArrayList<>(), new ArrayList<>()),
+                CreditoExportacaoService.Formato.JSON);
+        assertThat(objectMapper.readTree(vazio)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Deve filtrar pelo período com cursor somente-avanço e rejeitar período invertido")
+    void deveFiltrarPorPeriodo() throws Exception {
+        List<String> consultas = new ArrayList<>();
+        List<Object> parametros = new ArrayList<>();
+        JdbcTemplate jdbcTemplate = tabelaSimulada(consultas, parametros);
+        CreditoExportacaoService service = new CreditoExportacaoService(jdbcTemplate,
+                mock(PlatformTransactionManager.class), objectMapper, 500);
+
+        service.exportar(CreditoExportacaoService.Formato.NDJSON, LocalDate.of(2024, 1, 1),
+                LocalDate.of(2024, 1, 31), new ByteArrayOutputStream());
+
+        assertThat(consultas).hasSize(1);
+        assertThat(consultas.get(0)).endsWith(
+                "FROM credito WHERE data_constituicao >= ? AND data_constituicao <= ? ORDER BY id");
+        assertThat(parametros).containsExactly(
+                500, Date.valueOf(LocalDate.of(2024, 1, 1)), Date.valueOf(LocalDate.of(2024, 1, 31)));
+
+        JdbcTemplate semConsulta = mock(JdbcTemplate.class);
+        CreditoExportacaoService invertido = new CreditoExportacaoService(semConsulta,
+                mock(PlatformTransactionManager.class), objectMapper, 500);
+        assertThatThrownBy(() -> invertido.exportar(CreditoExportacaoService.Formato.CSV,
+                LocalDate.of(2024, 2, 1), LocalDate.of(2024, 1, 1), new ByteArrayOutputStream()))
+                .isInstanceOf(CreditoException.class)
+                .extracting("httpStatus").isEqualTo(400);
+        verifyNoInteractions(semConsulta);
+    }
+
+    private String exportar(JdbcTemplate jdbcTemplate, CreditoExportacaoService.Formato formato) {
+        CreditoExportacaoService service = new CreditoExportacaoService(jdbcTemplate,
+                mock(PlatformTransactionManager.class), objectMapper, 100);
+        ByteArrayOutputStream saida = new ByteArrayOutputStream();
+        service.exportar(formato, null, null, saida);
+        return new String(saida.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * JdbcTemplate que devolve as linhas informadas, registrando o SQL, o fetch size e os parâmetros
+     */
+    private static JdbcTemplate tabelaSimulada(List<String> consultas, List<Object> parametros,
+                                               ResultSet... linhas) throws Exception {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        doAnswer(invocacao -> {
+            PreparedStatement ps = mock(PreparedStatement.class);
+            doAnswer(i -> parametros.add(i.getArgument(1))).when(ps).setObject(anyInt(), any());
+            doAnswer(i -> parametros.add(i.getArgument(0))).when(ps).setFetchSize(anyInt());
+            Connection con = mock(Connection.class);
+            when(con.prepareStatement(anyString(), anyInt(), anyInt())).thenAnswer(i -> {
+                consultas.add(i.getArgument(0));
+                return ps;
+            });
+            invocacao.<PreparedStatementCreator>getArgument(0).createPreparedStatement(con);
+
+            RowCallbackHandler handler = invocacao.getArgument(1);
+            for (ResultSet linha : Arrays.asList(linhas)) {
+                handler.processRow(linha);
+            }
+            return null;
+        }).when(jdbcTemplate).query(any(PreparedStatementCreator.class), any(RowCallbackHandler.class));
+        return jdbcTemplate;
+    }
+
+    private static ResultSet linha(String numeroCredito, String numeroNfse, String tipo, boolean simples)
+            throws Exception {
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getString(1)).thenReturn(numeroCredito);
+        when(rs.getString(2)).thenReturn(numeroNfse);
+        when(rs.getDate(3)).thenReturn(Date.valueOf(LocalDate.of(2024, 2, 25)));
+        when(rs.getString(4)).thenReturn("1500.75");
+        when(rs.getString(5)).thenReturn(tipo);
+        when(rs.getBoolean(6)).thenReturn(simples);
+        when(rs.getString(7)).thenReturn("5.00");
+        when(rs.getString(8)).thenReturn("30000.00");
+        when(rs.getString(9)).thenReturn("5000.00");
+        when(rs.getString(10)).thenReturn("25000.00");
+        return rs;
+    }
+}
@@ -0,0 +1,225 @@
+package com.creditos.service;
+
+import com.creditos.cache.InvalidacaoCache;
+import com.creditos.dto.ImportacaoStatusDTO;
+import com.creditos.exception.CreditoException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.postgresql.copy.CopyManager;
+import org.springframework.jdbc.UncategorizedSQLException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CreditoImportacaoServiceTest {
+
+    private static final String CABECALHO = "numeroCredito,numeroNfse,dataConstituicao,valorIssqn,tipoCredito," +
+            "simplesNacional,aliquota,valorFaturado,valorDeducao,baseCalculo\n";
+
+    @TempDir
+    Path diretorio;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+    private final InvalidacaoCache invalidacaoCache = mock(InvalidacaoCache.class);
+    private final List<String> comandos = new ArrayList<>();
+    private final ByteArrayOutputStream copiado = new ByteArrayOutputStream();
+    private CreditoImportacaoService service;
+
+    @AfterEach
+    void tearDown() {
+        if (service != null) {
+            service.encerrar();
+        }
+    }
+
+    @Test
+    @DisplayName("Deve enviar só as linhas válidas pelo COPY, mesclar a staging e registrar as rejeitadas")
+    void deveCarregarStagingEMesclar() throws Exception {
+        service = servico(bancoSimulado(1L), Duration.ofHours(1));
+
+        ImportacaoStatusDTO inicial = service.iniciar(arquivo("creditos.csv", CABECALHO +
+                "123456,7891011,2024-02-25,1250.00,issqn,Sim,5.00,30000.00,5000.00,25000.00\n" +
+                "654321,7891011,25/02/2024,1250.00,ISSQN,Sim,5.00,30000.00,5000.00,25000.00\n" +
+                "123456,7891011,2024-02-25,1250.00,ISSQN,Sim,5.00,30000.00,5000.00,25000.00\n" +
+                "777777,7891011,2024-02-25,-1.00,ISSQN,Não,5.00,30000.00,5000.00,25000.00\n"), null);
+        assertThat(inicial.getFormato()).isEqualTo("csv");
+
+        ImportacaoStatusDTO status = aguardar(inicial.getId());
+        assertThat(status.getStatus()).isEqualTo(ImportacaoStatusDTO.Status.CONCLUIDA);
+        assertThat(status.getLinhasLidas()).isEqualTo(4);
+        assertThat(status.getLinhasValidas()).isEqualTo(2);
+        assertThat(status.getLinhasRejeitadas()).isEqualTo(2);
+        assertThat(status.getInseridos()).isEqualTo(1);
+        assertThat(status.getDuplicados()).isEqualTo(1);
+        assertThat(status.getPercentual()).isEqualTo(100);
+
+        // Staging, COPY com o número da linha e valores normalizados, ANALYZE e merge com agregados
+        assertThat(comandos).hasSize(3);
+        assertThat(comandos.get(0)).startsWith("CREATE TEMP TABLE credito_importacao").endsWith("ON COMMIT DROP");
+        assertThat(comandos.get(1)).isEqualTo("ANALYZE credito_importacao");
+        assertThat(comandos.get(2)).contains("INSERT INTO credito", "FROM credito_importacao",
+                "ON CONFLICT (numero_credito, numero_nfse) DO NOTHING", "SELECT COUNT(*) FROM inseridos");
+        assertThat(new String(copiado.toByteArray(), StandardCharsets.UTF_8).split("\n")).containsExactly(
+                "2,123456,7891011,2024-02-25,1250.00,ISSQN,true,5.00,30000.00,5000.00,25000.00",
+                "4,123456,7891011,2024-02-25,1250.00,ISSQN,true,5.00,30000.00,5000.00,25000.00");
+
+        ByteArrayOutputStream relatorio = new ByteArrayOutputStream();
+        service.escreverRelatorioErros(inicial.getId(), relatorio);
+        String[] erros = new String(relatorio.toByteArray(), StandardCharsets.UTF_8).split("\n");
+        assertThat(erros).hasSize(3);
+        assertThat(erros[0]).isEqualTo("linha,motivo");
+        assertThat(erros[1]).startsWith("3,\"dataConstituicao");
+        assertThat(erros[2]).startsWith("5,\"").endsWith("\"");
+
+        verify(invalidacaoCache).reconstruirIndices();
+        try (Stream<Path> arquivos = Files.list(diretorio)) {
+            // O arquivo recebido é apagado ao final; só o relatório permanece
+            assertThat(arquivos).extracting(p -> p.getFileName().toString())
+                    .containsExactly("importacao-" + inicial.getId() + "-erros.csv");
+        }
+    }
+
+    @Test
+    @DisplayName("Deve marcar o job como falha sem reconstruir os índices quando o merge falhar")
+    void deveRegistrarFalhaNoMerge() throws Exception {
+        JdbcTemplate jdbcTemplate = bancoSimulado(null);
+        service = servico(jdbcTemplate, Duration.ofHours(1));
+
+        ImportacaoStatusDTO inicial = service.iniciar(arquivo("creditos.ndjson",
+                "{\"numeroCredito\":\"123456\",\"numeroNfse\":\"7891011\",\"dataConstituicao\":\"2024-02-25\"," +
+                        "\"valorIssqn\":1250.00,\"tipoCredito\":\"ISSQN\",\"simplesNacional\":true,\"aliquota\":5.00," +
+                        "\"valorFaturado\":30000.00,\"valorDeducao\":5000.00,\"baseCalculo\":25000.00}\n"), "");
+
+        ImportacaoStatusDTO status = aguardar(inicial.getId());
+        assertThat(status.getStatus()).isEqualTo(ImportacaoStatusDTO.Status.FALHA);
+        assertThat(status.getMensagem()).contains("deadlock detectado");
+        assertThat(status.getFim()).isNotNull();
+        verify(invalidacaoCache, never()).reconstruirIndices();
+        assertThat(Files.exists(diretorio.resolve("importacao-" + inicial.getId() + ".ndjson"))).isFalse();
+    }
+
+    @Test
+    @DisplayName("Deve descartar jobs encerrados após a retenção, com o relatório, e validar o formato")
+    void deveDescartarJobsExpirados() throws Exception {
+        service = servico(bancoSimulado(0L), Duration.ZERO);
+
+        ImportacaoStatusDTO primeiro = service.iniciar(arquivo("a.csv", CABECALHO), "csv");
+        assertThat(aguardar(primeiro.getId()).getStatus()).isEqualTo(ImportacaoStatusDTO.Status.CONCLUIDA);
+        Path relatorio = diretorio.resolve("importacao-" + primeiro.getId() + "-erros.csv");
+        assertThat(relatorio).exists();
+
+        Thread.sleep(5);
+        ImportacaoStatusDTO segundo = service.iniciar(arquivo("b.jsonl", "\n"), null);
+        assertThat(segundo.getFormato()).isEqualTo("ndjson");
+
+        assertThatThrownBy(() -> service.consultarStatus(primeiro.getId()))
+                .isInstanceOf(CreditoException.class)
+                .extracting("httpStatus").isEqualTo(404);
+        assertThat(relatorio).doesNotExist();
+
+        assertThatThrownBy(() -> service.iniciar(arquivo("c.csv", CABECALHO), "json"))
+                .isInstanceOf(CreditoException.class)
+                .extracting("httpStatus").isEqualTo(400);
+        assertThatThrownBy(() -> service.iniciar(arquivo("c.txt", CABECALHO), null))
+                .isInstanceOf(CreditoException.class)
+                .extracting("httpStatus").isEqualTo(400);
+    }
+
+    // ================================================
+    // MÉTODOS AUXILIARES
+    // ================================================
+
+    private CreditoImportacaoService servico(JdbcTemplate jdbcTemplate, Duration retencao) {
+        return new CreditoImportacaoService(jdbcTemplate, mock(PlatformTransactionManager.class), objectMapper,
+                invalidacaoCache, diretorio.toString(), 1, retencao);
+    }
+
+    private ImportacaoStatusDTO aguardar(String id) throws InterruptedException {
+        long limite = System.currentTimeMillis() + 10_000;
+        ImportacaoStatusDTO status = service.consultarStatus(id);
+        while (status.getFim() == null && System.currentTimeMillis() < limite) {
+            Thread.sleep(10);
+            status = service.consultarStatus(id);
+        }
+        return status;
+    }
+
+    private static MockMultipartFile arquivo(String nome, String conteudo) {
+        return new MockMultipartFile("arquivo", nome, "text/plain", conteudo.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Conexão simulada: registra os comandos, acumula os bytes do COPY e devolve a quantidade de
+     * inseridos do merge (null faz o merge falhar)
+     */
+    private JdbcTemplate bancoSimulado(Long inseridos) throws Exception {
+        Statement statement = mock(Statement.class);
+        when(statement.execute(anyString())).thenAnswer(i -> comandos.add(i.getArgument(0)));
+        when(statement.executeQuery(anyString())).thenAnswer(i -> {
+            comandos.add(i.getArgument(0));
+            if (inseridos == null) {
+                throw new SQLException("deadlock detectado");
+            }
+            ResultSet resultado = mock(ResultSet.class);
+            when(resultado.next()).thenReturn(true);
+            when(resultado.getLong(1)).thenReturn(inseridos);
+            return resultado;
+        });
+
+        CopyIn copy = mock(CopyIn.class);
+        doAnswer(i -> {
+            copiado.write(i.<byte[]>getArgument(0), i.getArgument(1), i.getArgument(2));
+            return null;
+        }).when(copy).writeToCopy(any(byte[].class), anyInt(), anyInt());
+        CopyManager copyManager = mock(CopyManager.class);
+        when(copyManager.copyIn(anyString())).thenReturn(copy);
+        PGConnection pgConnection = mock(PGConnection.class);
+        when(pgConnection.getCopyAPI()).thenReturn(copyManager);
+
+        Connection con = mock(Connection.class);
+        when(con.createStatement()).thenReturn(statement);
+        when(con.unwrap(PGConnection.class)).thenReturn(pgConnection);
+
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        when(jdbcTemplate.execute(any(ConnectionCallback.class))).thenAnswer(i -> {
+            try {
+                return i.<ConnectionCallback<?>>getArgument(0).doInConnection(con);
+            } catch (SQLException ex) {
+                // Como o JdbcTemplate, traduz para DataAccessException
+                throw new UncategorizedSQLException("ConnectionCallback", null, ex);
+            }
+        });
+        return jdbcTemplate;
+    }
+}
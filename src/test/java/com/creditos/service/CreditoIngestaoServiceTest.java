@@ -0,0 +1,165 @@
+package com.creditos.service;
+
+import com.creditos.cache.InvalidacaoCache;
+import com.creditos.dto.CreditoEventoDTO;
+import com.creditos.exception.CreditoException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.stubbing.Answer;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class CreditoIngestaoServiceTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private PlatformTransactionManager transactionManager;
+    private InvalidacaoCache invalidacaoCache;
+    private CreditoAgregadoService agregadoService;
+    private SimpleMeterRegistry meterRegistry;
+    private CreditoIngestaoService service;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        invalidacaoCache = mock(InvalidacaoCache.class);
+        agregadoService = mock(CreditoAgregadoService.class);
+        meterRegistry = new SimpleMeterRegistry();
+
+        service = new CreditoIngestaoService(jdbcTemplate, transactionManager, invalidacaoCache,
+                agregadoService, meterRegistry);
+    }
+
+    @Test
+    @DisplayName("Deve gravar os válidos em um único batch, descartando inválidos e repetidos no lote")
+    void deveGravarValidosEmUmBatch() {
+        doAnswer(retornando("123456|7891011")).when(jdbcTemplate)
+                .query(any(PreparedStatementCreator.class), any(RowCallbackHandler.class));
+
+        CreditoEventoDTO invalido = evento("12A", "7891011");
+        CreditoIngestaoService.ResultadoIngestao resultado = service.ingerir(Arrays.asList(
+                evento("123456", "7891011"), evento(" 123456 ", "7891011"), invalido, evento("654321", "7891011")));
+
+        assertThat(resultado.getInseridos()).isEqualTo(1);
+        assertThat(resultado.getDuplicados()).isEqualTo(2);
+        assertThat(resultado.getInvalidos()).isEqualTo(1);
+        assertThat(meterRegistry.get("creditos.ingestao.registros").tag("resultado", "inserido").counter().count())
+                .isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("Deve agregar e publicar apenas as chaves devolvidas pelo RETURNING, não as ignoradas pelo ON CONFLICT")
+    void devePublicarApenasInseridos() {
+        doAnswer(retornando("123456|7891011")).when(jdbcTemplate)
+                .query(any(PreparedStatementCreator.class), any(RowCallbackHandler.class));
+
+        service.ingerir(Arrays.asList(evento("123456", "7891011"), evento("654321", "1122334")));
+
+        verify(agregadoService).acumular(argThat(inseridos -> inseridos.size() == 1
+                && inseridos.get(0).getNumeroCredito().equals("123456")));
+        verify(invalidacaoCache).creditosInseridos(Collections.singletonList("123456"),
+                Collections.singletonList("7891011"));
+    }
+
+    @Test
+    @DisplayName("Não deve acessar o banco quando todos os eventos forem inválidos")
+    void naoDeveAcessarBancoSemEventosValidos() {
+        CreditoEventoDTO semDeducao = evento("123456", "7891011");
+        semDeducao.setValorDeducao(null);
+
+        CreditoIngestaoService.ResultadoIngestao resultado = service.ingerir(Arrays.asList(
+                evento("", "7891011"), semDeducao));
+
+        assertThat(resultado.getInvalidos()).isEqualTo(2);
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    @DisplayName("Deve propagar falha do banco sem publicar nenhuma chave")
+    void devePropagarFalhaDoBanco() {
+        doThrow(new DataAccessResourceFailureException("conexão recusada")).when(jdbcTemplate)
+                .query(any(PreparedStatementCreator.class), any(RowCallbackHandler.class));
+
+        assertThatThrownBy(() -> service.ingerir(Collections.singletonList(evento("123456", "7891011"))))
+                .isInstanceOf(CreditoException.class)
+                .extracting("httpStatus").isEqualTo(500);
+        verifyNoInteractions(agregadoService, invalidacaoCache);
+    }
+
+    @Test
+    @DisplayName("Deve rejeitar valores acima de 13 dígitos inteiros, como a importação")
+    void deveRejeitarValoresForaDoNumeric() {
+        CreditoEventoDTO excedente = evento("123456", "7891011");
+        excedente.setValorFaturado(new BigDecimal("12345678901234.00"));
+
+        assertThat(CreditoIngestaoService.motivoRejeicao(excedente)).contains("13 dígitos inteiros");
+        assertThat(CreditoIngestaoService.motivoRejeicao(evento("123456", "7891011"))).isNull();
+    }
+
+    @Test
+    @DisplayName("Deve regravar evento a evento e descartar só o recusado quando o banco recusar o lote")
+    void deveRegravarIndividualmenteQuandoBancoRecusarLote() {
+        doThrow(new DataIntegrityViolationException("valor fora do intervalo"))
+                .doAnswer(retornando("111111|7891011"))
+                .doThrow(new DataIntegrityViolationException("valor fora do intervalo"))
+                .doAnswer(retornando())
+                .when(jdbcTemplate).query(any(PreparedStatementCreator.class), any(RowCallbackHandler.class));
+
+        CreditoIngestaoService.ResultadoIngestao resultado = service.ingerir(Arrays.asList(
+                evento("111111", "7891011"), evento("222222", "7891011"), evento("333333", "7891011")));
+
+        assertThat(resultado.getInseridos()).isEqualTo(1);
+        assertThat(resultado.getInvalidos()).isEqualTo(1);
+        assertThat(resultado.getDuplicados()).isEqualTo(1);
+        verify(invalidacaoCache).creditosInseridos(Collections.singletonList("111111"),
+                Collections.singletonList("7891011"));
+    }
+
+    /**
+     * Resposta do INSERT ... RETURNING com as chaves (número|NFS-e) informadas
+     */
+    private static Answer<Void> retornando(String... chaves) {
+        return invocacao -> {
+            RowCallbackHandler handler = invocacao.getArgument(1);
+            for (String chave : chaves) {
+                String[] partes = chave.split("\\|");
+                ResultSet rs = mock(ResultSet.class);
+                when(rs.getString(1)).thenReturn(partes[0]);
+                when(rs.getString(2)).thenReturn(partes[1]);
+                handler.processRow(rs);
+            }
+            return null;
+        };
+    }
+
+    private static CreditoEventoDTO evento(String numeroCredito, String numeroNfse) {
+        return new CreditoEventoDTO(numeroCredito, numeroNfse, LocalDate.of(2024, 2, 25),
+                new BigDecimal("1250.00"), "ISSQN", Boolean.TRUE, new BigDecimal("5.00"),
+                new BigDecimal("30000.00"), new BigDecimal("5000.00"), new BigDecimal("25000.00"));
+    }
+}
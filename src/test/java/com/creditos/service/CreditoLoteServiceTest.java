@@ -0,0 +1,145 @@
+package com.creditos.service;
+
+import com.creditos.cache.CacheManagerVersionado;
+import com.creditos.cache.CreditoBloomFilter;
+import com.creditos.dto.ConsultaLoteRequestDTO;
+import com.creditos.dto.ConsultaLoteResponseDTO;
+import com.creditos.dto.ConsultaLoteResponseDTO.Status;
+import com.creditos.dto.CreditoResponseDTO;
+import com.creditos.exception.CreditoException;
+import com.creditos.repository.CreditoRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class CreditoLoteServiceTest {
+
+    private CreditoRepository repository;
+    private CreditoBloomFilter bloomFilter;
+    private Cache cache;
+    private CreditoLoteService service;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(CreditoRepository.class);
+        bloomFilter = mock(CreditoBloomFilter.class);
+        when(bloomFilter.consultar(any(), anyString())).thenReturn(CreditoBloomFilter.Resposta.TALVEZ_PRESENTE);
+        CacheManagerVersionado cacheManager = new CacheManagerVersionado(
+                new ConcurrentMapCacheManager("creditos"), Duration.ofMinutes(1));
+        cache = cacheManager.getCache("creditos");
+        service = new CreditoLoteService(repository, bloomFilter, cacheManager, 10, 2);
+    }
+
+    @Test
+    @DisplayName("Deve resolver pelo cache, depois pelo filtro de Bloom e por fim com consultas IN em blocos")
+    void deveResolverNaOrdemCacheBloomBanco() {
+        List<CreditoResponseDTO> emCache = Collections.singletonList(credito("C100", "100"));
+        cache.put("nfse_100", emCache);
+        when(bloomFilter.consultar(CreditoBloomFilter.TipoChave.NFSE, "200"))
+                .thenReturn(CreditoBloomFilter.Resposta.AUSENTE);
+        when(repository.findDtoByNumeroNfseIn(Arrays.asList("300", "400")))
+                .thenReturn(Arrays.asList(credito("C301", "300"), credito("C302", "300")));
+        when(repository.findDtoByNumeroNfseIn(Collections.singletonList("500")))
+                .thenReturn(Collections.singletonList(credito("C500", "500")));
+
+        ConsultaLoteResponseDTO response = service.consultarLote(
+                new ConsultaLoteRequestDTO(Arrays.asList("100", "200", "300", "400", "500"), null));
+
+        assertThat(response.getNfse().get("100").getCreditos()).isSameAs(emCache);
+        assertThat(response.getNfse().get("200").getStatus()).isEqualTo(Status.NAO_ENCONTRADO);
+        assertThat(response.getNfse().get("300").getCreditos()).extracting(CreditoResponseDTO::getNumeroCredito)
+                .containsExactly("C301", "C302");
+        assertThat(response.getNfse().get("400").getStatus()).isEqualTo(Status.NAO_ENCONTRADO);
+        assertThat(response.getNfse().get("500").getStatus()).isEqualTo(Status.ENCONTRADO);
+
+        // Só os pendentes vão ao banco, em blocos de 2; o ausente no banco conta como falso positivo
+        InOrder ordem = inOrder(repository);
+        ordem.verify(repository).findDtoByNumeroNfseIn(Arrays.asList("300", "400"));
+        ordem.verify(repository).findDtoByNumeroNfseIn(Collections.singletonList("500"));
+        verify(bloomFilter, never()).consultar(CreditoBloomFilter.TipoChave.NFSE, "100");
+        verify(bloomFilter).registrarFalsoPositivo(CreditoBloomFilter.TipoChave.NFSE);
+
+        // Os encontrados no banco ficam no cache com as chaves das consultas unitárias
+        assertThat(cache.get("nfse_300")).isNotNull();
+        assertThat(cache.get("nfse_500")).isNotNull();
+        assertThat(cache.get("nfse_400")).isNull();
+    }
+
+    @Test
+    @DisplayName("Deve devolver os itens na ordem solicitada, distinguindo inválidos de não encontrados")
+    void deveManterOrdemEDistinguirInvalidos() {
+        when(repository.findDtoByNumeroCreditoIn(any())).thenReturn(Arrays.asList(
+                credito("123", "900"), credito("123", "901"), credito("789", "902")));
+
+        ConsultaLoteResponseDTO response = service.consultarLote(new ConsultaLoteRequestDTO(null,
+                Arrays.asList("789", "12a", " 123 ", "456", "", "123", "789")));
+
+        assertThat(response.getCreditos().keySet()).containsExactly("789", "12a", "123", "456", "");
+        assertThat(response.getCreditos().get("789").getStatus()).isEqualTo(Status.ENCONTRADO);
+        assertThat(response.getCreditos().get("12a").getStatus()).isEqualTo(Status.INVALIDO);
+        assertThat(response.getCreditos().get("12a").getMensagem()).contains("apenas dígitos");
+        // Com mais de um registro, prevalece o primeiro, como na consulta unitária
+        assertThat(response.getCreditos().get("123").getCredito().getNumeroNfse()).isEqualTo("900");
+        assertThat(response.getCreditos().get("456").getStatus()).isEqualTo(Status.NAO_ENCONTRADO);
+        assertThat(response.getCreditos().get("").getStatus()).isEqualTo(Status.INVALIDO);
+        assertThat(response.getNfse()).isEmpty();
+        verify(repository, never()).findDtoByNumeroNfseIn(any());
+    }
+
+    @Test
+    @DisplayName("Deve rejeitar lote vazio ou acima do limite sem consultar cache nem banco")
+    void deveValidarTamanhoDoLote() {
+        assertThatThrownBy(() -> service.consultarLote(new ConsultaLoteRequestDTO(null, null)))
+                .isInstanceOf(CreditoException.class)
+                .extracting("httpStatus").isEqualTo(400);
+        assertThatThrownBy(() -> service.consultarLote(new ConsultaLoteRequestDTO(
+                Collections.nCopies(6, "1"), Collections.nCopies(5, "2"))))
+                .isInstanceOf(CreditoException.class)
+                .extracting("httpStatus").isEqualTo(400);
+        verifyNoInteractions(repository, bloomFilter);
+    }
+
+    @Test
+    @DisplayName("Deve descartar as cargas dos números não encontrados ao final do lote")
+    void deveDescartarCargasNaoConsumidas() {
+        when(repository.findDtoByNumeroNfseIn(any())).thenReturn(Collections.emptyList());
+
+        service.consultarLote(new ConsultaLoteRequestDTO(Collections.singletonList("400"), null));
+        service.aquecerNfses(Collections.singletonList("401"));
+
+        // Sem o descarte, o put usaria a versão do miss do lote, anterior à invalidação, e seria recusado
+        List<CreditoResponseDTO> novos = Collections.singletonList(credito("C400", "400"));
+        cache.evict("nfse_400");
+        cache.put("nfse_400", novos);
+        assertThat(cache.get("nfse_400").get()).isSameAs(novos);
+        cache.evict("nfse_401");
+        cache.put("nfse_401", novos);
+        assertThat(cache.get("nfse_401").get()).isSameAs(novos);
+    }
+
+    private static CreditoResponseDTO credito(String numeroCredito, String numeroNfse) {
+        CreditoResponseDTO credito = new CreditoResponseDTO();
+        credito.setNumeroCredito(numeroCredito);
+        credito.setNumeroNfse(numeroNfse);
+        return credito;
+    }
+}
@@ -0,0 +1,85 @@
+package com.creditos.service;
+
+import com.creditos.cache.CreditoBloomFilter;
+import com.creditos.cache.CreditoIndiceNumeros;
+import com.creditos.dto.CreditoResponseDTO;
+import com.creditos.repository.CreditoRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CreditoServiceCacheTest {
+
+    @Test
+    @DisplayName("Deve usar nas chaves de cache o número normalizado, o mesmo das invalidações")
+    void deveNormalizarChavesDeCache() {
+        try (AnnotationConfigApplicationContext contexto =
+                     new AnnotationConfigApplicationContext(ServicoComCache.class)) {
+            CreditoService service = contexto.getBean(CreditoService.class);
+            CreditoRepository repository = contexto.getBean(CreditoRepository.class);
+            CacheManager cacheManager = contexto.getBean(CacheManager.class);
+            CreditoResponseDTO credito = new CreditoResponseDTO();
+            when(repository.findDtoByNumeroNfse("7891011")).thenReturn(Collections.singletonList(credito));
+            when(repository.findDtoByNumeroCredito("123456")).thenReturn(Collections.singletonList(credito));
+            when(repository.existsByNumeroCredito("123456")).thenReturn(true);
+            when(repository.existsByNumeroNfse("7891011")).thenReturn(true);
+
+            service.consultarCreditosPorNfse(" 7891011 ");
+            service.consultarCreditosPorNfse("7891011");
+            service.consultarCreditoPorNumero("123456 ");
+            service.consultarCreditoPorNumero("123456");
+            service.existeCreditoPorNumero(" 123456");
+            service.existeCreditoPorNumero("123456");
+            service.existeCreditoPorNfse("7891011\t");
+            service.existeCreditoPorNfse("7891011");
+
+            Cache creditos = cacheManager.getCache("creditos");
+            Cache existencia = cacheManager.getCache("existencia");
+            assertThat(creditos.get("nfse_7891011")).isNotNull();
+            assertThat(creditos.get("credito_123456")).isNotNull();
+            assertThat(existencia.get("credito_exists_123456")).isNotNull();
+            assertThat(existencia.get("nfse_exists_7891011")).isNotNull();
+            verify(repository, times(1)).findDtoByNumeroNfse("7891011");
+            verify(repository, times(1)).findDtoByNumeroCredito("123456");
+            verify(repository, times(1)).existsByNumeroCredito("123456");
+            verify(repository, times(1)).existsByNumeroNfse("7891011");
+        }
+    }
+
+    @Configuration
+    @EnableCaching
+    static class ServicoComCache {
+
+        @Bean
+        CacheManager cacheManager() {
+            return new ConcurrentMapCacheManager("creditos", "existencia");
+        }
+
+        @Bean
+        CreditoRepository creditoRepository() {
+            return mock(CreditoRepository.class);
+        }
+
+        @Bean
+        CreditoService creditoService(CreditoRepository creditoRepository) {
+            return new CreditoService(creditoRepository, mock(CreditoBloomFilter.class),
+                    mock(CreditoIndiceNumeros.class), mock(CreditoAgregadoService.class),
+                    new SimpleMeterRegistry(), 5000);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.creditos.service;
+
+import com.creditos.exception.CreditoException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LeitorImportacaoTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    @Test
+    @DisplayName("Deve ler o CSV da exportação, com colunas em qualquer ordem e linhas em branco")
+    void deveLerCsvDaExportacao() throws IOException {
+        LeitorImportacao leitor = leitor(CreditoExportacaoService.Formato.CSV,
+                "numeroNfse,numeroCredito,dataConstituicao,valorIssqn,tipoCredito,simplesNacional," +
+                        "aliquota,valorFaturado,valorDeducao,baseCalculo\n" +
+                        "\n" +
+                        "7891011,123456,2024-02-25,1500.75,ISSQN,Sim,5.0,30000.00,5000.00,25000.00\n" +
+                        "7891011,\"654,321\",2024-02-26,1200.50,ISSQN,Não,4.5,25000.00,4000.00,21000.00\n");
+
+        LeitorImportacao.Linha primeira = leitor.proxima();
+        assertThat(primeira.getNumero()).isEqualTo(3);
+        assertThat(primeira.getErro()).isNull();
+        assertThat(primeira.getEvento().getNumeroCredito()).isEqualTo("123456");
+        assertThat(primeira.getEvento().getDataConstituicao()).isEqualTo(LocalDate.of(2024, 2, 25));
+        assertThat(primeira.getEvento().getSimplesNacional()).isTrue();
+        assertThat(primeira.getEvento().getValorIssqn()).isEqualByComparingTo("1500.75");
+
+        LeitorImportacao.Linha segunda = leitor.proxima();
+        assertThat(segunda.getEvento().getNumeroCredito()).isEqualTo("654,321");
+        assertThat(segunda.getEvento().getSimplesNacional()).isFalse();
+
+        assertThat(leitor.proxima()).isNull();
+    }
+
+    @Test
+    @DisplayName("Deve devolver erro na linha sem interromper a leitura")
+    void deveDevolverErroNaLinha() throws IOException {
+        LeitorImportacao leitor = leitor(CreditoExportacaoService.Formato.NDJSON,
+                "{\"numeroCredito\":\"1\",\"dataConstituicao\":\"25/02/2024\"}\n" +
+                        "não é json\n" +
+                        "{\"numeroCredito\":\"123456\",\"numeroNfse\":\"7891011\",\"dataConstituicao\":\"2024-02-25\"," +
+                        "\"valorIssqn\":1250.00,\"tipoCredito\":\"ISSQN\",\"simplesNacional\":true,\"aliquota\":5.0," +
+                        "\"valorFaturado\":30000.00,\"valorDeducao\":5000.00,\"baseCalculo\":25000.00}\n");
+
+        assertThat(leitor.proxima().getErro()).startsWith("dataConstituicao");
+        assertThat(leitor.proxima().getErro()).isEqualTo("JSON inválido");
+
+        LeitorImportacao.Linha valida = leitor.proxima();
+        assertThat(valida.getErro()).isNull();
+        assertThat(valida.getEvento().getValorIssqn()).isEqualTo(new BigDecimal("1250.00"));
+        assertThat(CreditoIngestaoService.motivoRejeicao(valida.getEvento())).isNull();
+    }
+
+    @Test
+    @DisplayName("Deve rejeitar CSV sem alguma coluna obrigatória no cabeçalho")
+    void deveRejeitarCabecalhoIncompleto() {
+        LeitorImportacao leitor = leitor(CreditoExportacaoService.Formato.CSV, "numeroCredito,numeroNfse\n1,2\n");
+
+        assertThatThrownBy(leitor::proxima)
+                .isInstanceOf(CreditoException.class)
+                .hasMessageContaining("dataConstituicao");
+    }
+
+    @Test
+    @DisplayName("Deve separar campos CSV com aspas escapadas e detectar aspas não fechadas")
+    void deveSepararCsv() {
+        assertThat(LeitorImportacao.separarCsv("a,\"b \"\"c\"\"\",,d\r"))
+                .containsExactly("a", "b \"c\"", "", "d");
+        assertThat(LeitorImportacao.separarCsv("a,\"b")).isNull();
+    }
+
+    private LeitorImportacao leitor(CreditoExportacaoService.Formato formato, String conteudo) {
+        return new LeitorImportacao(new BufferedReader(new StringReader(conteudo)), formato, objectMapper);
+    }
+}
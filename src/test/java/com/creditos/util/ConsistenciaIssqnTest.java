@@ -0,0 +1,45 @@
+package com.creditos.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConsistenciaIssqnTest {
+
+    @Test
+    @DisplayName("Deve aplicar a tolerância de 0,01 sem arredondamento")
+    void testTolerancia() {
+        // 1000,00 x 5% = 50,00
+        assertThat(ConsistenciaIssqn.inconsistente(5_001L, 100_000L, 500)).isFalse();
+        assertThat(ConsistenciaIssqn.inconsistente(4_999L, 100_000L, 500)).isFalse();
+        assertThat(ConsistenciaIssqn.inconsistente(5_002L, 100_000L, 500)).isTrue();
+        // 10,00 x 2,5% = 0,25 exatos; 10,60 x 2,5% = 0,265 fica 0,015 acima do informado
+        assertThat(ConsistenciaIssqn.diferenca(25L, 1_000L, 250)).isZero();
+        assertThat(ConsistenciaIssqn.inconsistente(25L, 1_060L, 250)).isTrue();
+    }
+
+    @Test
+    @DisplayName("Deve coincidir com o cálculo em BigDecimal, inclusive fora do intervalo de long")
+    void testEquivalenciaBigDecimal() {
+        Random random = new Random(7);
+        for (int i = 0; i < 10_000; i++) {
+            long base = (long) (random.nextDouble() * 1_000_000_000L);
+            int aliquota = random.nextInt(10_001);
+            long valor = base * aliquota / 10_000 + random.nextInt(5) - 2;
+
+            BigDecimal calculado = BigDecimal.valueOf(base, 2).multiply(BigDecimal.valueOf(aliquota, 2))
+                    .divide(new BigDecimal("100"));
+            boolean esperado = BigDecimal.valueOf(valor, 2).subtract(calculado).abs()
+                    .compareTo(new BigDecimal("0.01")) > 0;
+
+            assertThat(ConsistenciaIssqn.inconsistente(valor, base, aliquota)).isEqualTo(esperado);
+        }
+
+        assertThat(ConsistenciaIssqn.diferenca(Long.MAX_VALUE / 2, 1L, 1)).isEqualTo(Long.MAX_VALUE);
+        assertThat(ConsistenciaIssqn.inconsistente(Long.MAX_VALUE / 2, Long.MAX_VALUE / 2, 10_000)).isFalse();
+    }
+}
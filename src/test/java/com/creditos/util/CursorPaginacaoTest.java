@@ -0,0 +1,40 @@
+package com.creditos.util;
+
+import com.creditos.exception.CreditoException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CursorPaginacaoTest {
+
+    @Test
+    @DisplayName("Deve codificar e decodificar o cursor preservando data e ID")
+    void testIdaEVolta() {
+        String token = CursorPaginacao.apos(LocalDate.of(2024, 3, 15), 4242L).codificar();
+
+        CursorPaginacao cursor = CursorPaginacao.decodificar(token);
+
+        assertThat(cursor.getDataConstituicao()).isEqualTo(LocalDate.of(2024, 3, 15));
+        assertThat(cursor.getId()).isEqualTo(4242L);
+    }
+
+    @Test
+    @DisplayName("Cursor vazio deve apontar para a primeira página")
+    void testCursorVazio() {
+        assertThat(CursorPaginacao.decodificar(null)).isSameAs(CursorPaginacao.inicial());
+        assertThat(CursorPaginacao.decodificar("  ")).isSameAs(CursorPaginacao.inicial());
+    }
+
+    @Test
+    @DisplayName("Cursor malformado deve gerar erro de parâmetro inválido")
+    void testCursorMalformado() {
+        assertThatThrownBy(() -> CursorPaginacao.decodificar("nao-e-um-cursor"))
+                .isInstanceOf(CreditoException.class)
+                .extracting("codigoErro")
+                .isEqualTo("PARAM_003");
+    }
+}
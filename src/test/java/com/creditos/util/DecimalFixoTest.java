@@ -0,0 +1,77 @@
+package com.creditos.util;
+
+import com.creditos.dto.CreditoResponseDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import javax.validation.Validation;
+import javax.validation.Validator;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class DecimalFixoTest {
+
+    @Test
+    @DisplayName("Deve interpretar, formatar e dividir como BigDecimal de escala 2")
+    void testEquivalenciaBigDecimal() {
+        assertThat(DecimalFixo.parse("1500.75").getCentesimos()).isEqualTo(150_075L);
+        assertThat(DecimalFixo.parse("5.0")).isEqualTo(DecimalFixo.parse("5.00"));
+        assertThat(DecimalFixo.parse("-0.05").toString()).isEqualTo("-0.05");
+        assertThat(DecimalFixo.parse("10.500").toString()).isEqualTo("10.50");
+        assertThat(DecimalFixo.deCentesimos(Long.MIN_VALUE).toString())
+                .isEqualTo(BigDecimal.valueOf(Long.MIN_VALUE, 2).toPlainString());
+        assertThat(DecimalFixo.parse("-92233720368547758.08").getCentesimos()).isEqualTo(Long.MIN_VALUE);
+
+        Random random = new Random(11);
+        for (int i = 0; i < 10_000; i++) {
+            long centesimos = random.nextLong() / (1 + random.nextInt(1_000_000));
+            long divisor = 1 + random.nextInt(1_000);
+            BigDecimal esperado = BigDecimal.valueOf(centesimos, 2);
+            DecimalFixo valor = DecimalFixo.parse(esperado.toPlainString());
+
+            assertThat(valor.getCentesimos()).isEqualTo(centesimos);
+            assertThat(valor.toString()).isEqualTo(esperado.toPlainString());
+            assertThat(valor.dividir(divisor).paraBigDecimal())
+                    .isEqualTo(esperado.divide(BigDecimal.valueOf(divisor), 2, RoundingMode.HALF_UP));
+            assertThat(valor.dividir(-divisor).paraBigDecimal())
+                    .isEqualTo(esperado.divide(BigDecimal.valueOf(-divisor), 2, RoundingMode.HALF_UP));
+        }
+
+        assertThatThrownBy(() -> DecimalFixo.parse("1.001")).isInstanceOf(NumberFormatException.class);
+        assertThatThrownBy(() -> DecimalFixo.parse("1e3")).isInstanceOf(NumberFormatException.class);
+        assertThatThrownBy(() -> DecimalFixo.parse("-")).isInstanceOf(NumberFormatException.class);
+        assertThatThrownBy(() -> DecimalFixo.parse("92233720368547758.08")).isInstanceOf(NumberFormatException.class);
+        assertThatThrownBy(() -> DecimalFixo.of(new BigDecimal("1.005"))).isInstanceOf(ArithmeticException.class);
+        assertThat(DecimalFixo.of(new BigDecimal("1.005"), RoundingMode.FLOOR)).isEqualTo(DecimalFixo.parse("1.00"));
+    }
+
+    @Test
+    @DisplayName("Deve manter o JSON do BigDecimal e as validações @DecimalMin no DTO")
+    void testJsonEValidacao() throws Exception {
+        ObjectMapper mapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        CreditoResponseDTO credito = new CreditoResponseDTO("123456", "7891011", LocalDate.of(2024, 2, 25),
+                DecimalFixo.parse("1500.75"), "ISSQN", Boolean.TRUE, DecimalFixo.parse("5.0"),
+                DecimalFixo.parse("30000"), DecimalFixo.ZERO, DecimalFixo.parse("25000.00"));
+
+        String json = mapper.writeValueAsString(credito);
+        assertThat(json).contains("\"valorIssqn\":1500.75", "\"aliquota\":5.00", "\"valorDeducao\":0.00");
+
+        CreditoResponseDTO lido = mapper.readValue(json, CreditoResponseDTO.class);
+        assertThat(lido.getValorFaturado()).isEqualTo(DecimalFixo.parse("30000.00"));
+        assertThat(mapper.readValue("\"12.3\"", DecimalFixo.class)).isEqualTo(DecimalFixo.parse("12.30"));
+
+        Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+        assertThat(validator.validate(credito)).isEmpty();
+        credito.setAliquota(DecimalFixo.ZERO);
+        credito.setValorDeducao(DecimalFixo.parse("-0.01"));
+        assertThat(validator.validate(credito)).extracting(v -> v.getPropertyPath().toString())
+                .containsExactlyInAnyOrder("aliquota", "valorDeducao");
+    }
+}
@@ -0,0 +1,54 @@
+package com.creditos.util;
+
+import com.creditos.util.ValidadorNumeroIdentificador.Resultado;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ValidadorNumeroIdentificadorTest {
+
+    /**
+     * Regra anterior, baseada em regex, usada como referência de equivalência
+     */
+    private static final Pattern REGEX_ANTERIOR = Pattern.compile("^[0-9]{1,50}$");
+
+    @Test
+    @DisplayName("Deve aceitar apenas dígitos ASCII ignorando espaços nas extremidades")
+    void testResultados() {
+        assertThat(ValidadorNumeroIdentificador.validar("7891011")).isEqualTo(Resultado.VALIDO);
+        assertThat(ValidadorNumeroIdentificador.validar("  123456\t")).isEqualTo(Resultado.VALIDO);
+        assertThat(ValidadorNumeroIdentificador.validar(null)).isEqualTo(Resultado.OBRIGATORIO);
+        assertThat(ValidadorNumeroIdentificador.validar(" \n ")).isEqualTo(Resultado.OBRIGATORIO);
+        assertThat(ValidadorNumeroIdentificador.validar("12 34")).isEqualTo(Resultado.CARACTERE_INVALIDO);
+        assertThat(ValidadorNumeroIdentificador.validar("١٢٣")).isEqualTo(Resultado.CARACTERE_INVALIDO);
+        assertThat(ValidadorNumeroIdentificador.validar(repetir('9', 50))).isEqualTo(Resultado.VALIDO);
+        assertThat(ValidadorNumeroIdentificador.validar(repetir('9', 51))).isEqualTo(Resultado.TAMANHO_EXCEDIDO);
+    }
+
+    @Test
+    @DisplayName("Deve concordar com a validação anterior por regex")
+    void testEquivalenciaComRegex() {
+        String[] entradas = {"0", "007", "123abc", "-1", "+1", "1.0", " 42 ", " 42", "", " ",
+                repetir('1', 49), repetir('1', 50), repetir('1', 51), " " + repetir('1', 50) + " "};
+
+        for (String entrada : entradas) {
+            String limpo = entrada.trim();
+            boolean esperado = !limpo.isEmpty() && limpo.length() <= 50 && REGEX_ANTERIOR.matcher(limpo).matches();
+
+            assertThat(ValidadorNumeroIdentificador.isValido(entrada))
+                    .as("entrada '%s'", entrada)
+                    .isEqualTo(esperado);
+        }
+    }
+
+    private static String repetir(char c, int vezes) {
+        StringBuilder sb = new StringBuilder(vezes);
+        for (int i = 0; i < vezes; i++) {
+            sb.append(c);
+        }
+        return sb.toString();
+    }
+}